@@ -28,6 +28,7 @@ import org.batfish.common.Pair;
 import org.batfish.common.Version;
 import org.batfish.common.util.CommonUtil;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 import org.glassfish.jersey.media.multipart.FormDataBodyPart;
 import org.glassfish.jersey.media.multipart.MultiPart;
@@ -659,22 +660,7 @@ public class BfCoordWorkHelper {
             return null;
          }
 
-         if (!jObj.has(CoordConsts.SVC_KEY_WORKSTATUS)) {
-            _logger.errorf("workstatus key not found in: %s\n",
-                  jObj.toString());
-            return null;
-         }
-
-         WorkStatusCode workStatus = WorkStatusCode
-               .valueOf(jObj.getString(CoordConsts.SVC_KEY_WORKSTATUS));
-
-         if (!jObj.has(CoordConsts.SVC_KEY_TASKSTATUS)) {
-            _logger.errorf("taskstatus key not found in: %s\n",
-                  jObj.toString());
-         }
-         String taskStr = jObj.getString(CoordConsts.SVC_KEY_TASKSTATUS);
-
-         return new Pair<>(workStatus, taskStr);
+         return parseWorkStatus(jObj);
       }
       catch (Exception e) {
          _logger.errorf("exception: ");
@@ -979,6 +965,24 @@ public class BfCoordWorkHelper {
       }
    }
 
+   private Pair<WorkStatusCode, String> parseWorkStatus(JSONObject jObj)
+         throws JSONException {
+      if (!jObj.has(CoordConsts.SVC_KEY_WORKSTATUS)) {
+         _logger.errorf("workstatus key not found in: %s\n", jObj.toString());
+         return null;
+      }
+
+      WorkStatusCode workStatus = WorkStatusCode
+            .valueOf(jObj.getString(CoordConsts.SVC_KEY_WORKSTATUS));
+
+      if (!jObj.has(CoordConsts.SVC_KEY_TASKSTATUS)) {
+         _logger.errorf("taskstatus key not found in: %s\n", jObj.toString());
+      }
+      String taskStr = jObj.getString(CoordConsts.SVC_KEY_TASKSTATUS);
+
+      return new Pair<>(workStatus, taskStr);
+   }
+
    public JSONObject postData(WebTarget webTarget, MultiPart multiPart)
          throws Exception {
       try {
@@ -1202,4 +1206,41 @@ public class BfCoordWorkHelper {
    // return UriComponent.encode(input,
    // UriComponent.Type.QUERY_PARAM_SPACE_ENCODED);
    // }
+
+   /**
+    * Like {@link #getWorkStatus(UUID)}, but the coordinator holds the request
+    * until the work terminates or waitMs elapses. Returns null if the
+    * coordinator does not support waiting, in which case callers should fall
+    * back to polling.
+    */
+   public Pair<WorkStatusCode, String> waitForWork(UUID workUUID,
+         long waitMs) {
+      try {
+         Client client = getClientBuilder().build();
+         WebTarget webTarget = getTarget(client,
+               CoordConsts.SVC_RSC_WAIT_FOR_WORK);
+
+         MultiPart multiPart = new MultiPart();
+         multiPart.setMediaType(MediaType.MULTIPART_FORM_DATA_TYPE);
+
+         addTextMultiPart(multiPart, CoordConsts.SVC_KEY_API_KEY,
+               _settings.getApiKey());
+         addTextMultiPart(multiPart, CoordConsts.SVC_KEY_WORKID,
+               workUUID.toString());
+         addTextMultiPart(multiPart, CoordConsts.SVC_KEY_WAIT_MS,
+               Long.toString(waitMs));
+
+         JSONObject jObj = postData(webTarget, multiPart);
+         if (jObj == null) {
+            return null;
+         }
+
+         return parseWorkStatus(jObj);
+      }
+      catch (Exception e) {
+         _logger.errorf("exception: ");
+         _logger.error(ExceptionUtils.getFullStackTrace(e) + "\n");
+         return null;
+      }
+   }
 }
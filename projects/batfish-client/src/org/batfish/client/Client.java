@@ -99,6 +99,8 @@ public class Client extends AbstractClient implements IClient {
 
    private static final String STARTUP_FILE = ".batfishclientrc";
 
+   private static final long WORK_WAIT_MS = 10 * 1000;
+
    private Map<String, String> _additionalBatfishOptions;
 
    private final Map<String, String> _bfq;
@@ -621,16 +623,25 @@ public class Client extends AbstractClient implements IClient {
             && status != WorkStatusCode.TERMINATEDNORMALLY
             && status != WorkStatusCode.ASSIGNMENTERROR) {
          printWorkStatusResponse(response);
-         try {
-            Thread.sleep(1 * 1000);
-         }
-         catch (InterruptedException e) {
-            throw new BatfishException("Interrupted while waiting for response",
-                  e);
+         // block on the coordinator until the work is done, and fall back to
+         // polling once whenever the coordinator cannot do that
+         Pair<WorkStatusCode, String> waitResponse = _workHelper
+               .waitForWork(wItem.getId(), WORK_WAIT_MS);
+         if (waitResponse != null) {
+            response = waitResponse;
          }
-         response = _workHelper.getWorkStatus(wItem.getId());
-         if (response == null) {
-            return false;
+         else {
+            try {
+               Thread.sleep(1 * 1000);
+            }
+            catch (InterruptedException e) {
+               throw new BatfishException(
+                     "Interrupted while waiting for response", e);
+            }
+            response = _workHelper.getWorkStatus(wItem.getId());
+            if (response == null) {
+               return false;
+            }
          }
          status = response.getFirst();
       }
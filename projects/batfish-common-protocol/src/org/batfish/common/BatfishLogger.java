@@ -1,30 +1,129 @@
 package org.batfish.common;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class BatfishLogger {
 
-   public class BatfishLoggerHistory extends ArrayList<HistoryItem> {
+   /**
+    * Messages recorded by a logger without an output stream, e.g. that of a
+    * job, to be replayed later into another logger. At most
+    * {@link #HISTORY_BUFFER_CHARS} characters of the most recent messages are
+    * held in memory; older messages are spilled to a file, which is deleted
+    * when the history is closed.
+    */
+   public class BatfishLoggerHistory {
+
+      private final Deque<HistoryItem> _buffer;
+
+      private int _bufferChars;
+
+      private int _numSpilled;
+
+      private final File _spillDir;
+
+      private File _spillFile;
+
+      private BatfishLoggerHistory(File spillDir) {
+         _buffer = new ArrayDeque<>();
+         _spillDir = spillDir;
+      }
+
+      private synchronized void add(HistoryItem item) {
+         _buffer.add(item);
+         _bufferChars += item.getMessage().length();
+         if (_bufferChars > HISTORY_BUFFER_CHARS) {
+            spill();
+         }
+      }
+
       /**
-       *
+       * Discards the recorded messages and deletes the spill file, if any
        */
-      private static final long serialVersionUID = 1L;
+      public synchronized void close() {
+         _buffer.clear();
+         _bufferChars = 0;
+         if (_spillFile != null) {
+            _spillFile.delete();
+            _spillFile = null;
+         }
+         _numSpilled = 0;
+      }
+
+      private synchronized void replay(Consumer<HistoryItem> consumer) {
+         if (_numSpilled > 0) {
+            try (DataInputStream in = new DataInputStream(
+                  new BufferedInputStream(new FileInputStream(_spillFile)))) {
+               for (int i = 0; i < _numSpilled; i++) {
+                  int level = in.readInt();
+                  byte[] message = new byte[in.readInt()];
+                  in.readFully(message);
+                  consumer.accept(new HistoryItem(level,
+                        new String(message, StandardCharsets.UTF_8)));
+               }
+            }
+            catch (IOException e) {
+               throw new BatfishException("Could not read spilled log history",
+                     e);
+            }
+         }
+         _buffer.forEach(consumer);
+      }
+
+      /**
+       * Writes the oldest messages to the spill file, until half of the
+       * in-memory buffer is free
+       */
+      private void spill() {
+         try {
+            if (_spillFile == null) {
+               _spillFile = File.createTempFile(HISTORY_SPILL_FILE_PREFIX,
+                     null, _spillDir);
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                  new BufferedOutputStream(
+                        new FileOutputStream(_spillFile, true)))) {
+               while (_bufferChars > HISTORY_BUFFER_CHARS / 2) {
+                  HistoryItem item = _buffer.poll();
+                  byte[] message = item.getMessage()
+                        .getBytes(StandardCharsets.UTF_8);
+                  out.writeInt(item.getLevel());
+                  out.writeInt(message.length);
+                  out.write(message);
+                  _bufferChars -= item.getMessage().length();
+                  _numSpilled++;
+               }
+            }
+         }
+         catch (IOException e) {
+            throw new BatfishException("Could not spill log history", e);
+         }
+      }
 
       public String toString(int logLevel) {
          StringBuilder sb = new StringBuilder();
-         for (HistoryItem item : this) {
+         replay(item -> {
             if (item.getLevel() <= logLevel) {
                sb.append(item.getMessage());
             }
-         }
+         });
          return sb.toString();
       }
 
@@ -89,6 +188,10 @@ public class BatfishLogger {
 
    private static final Map<Integer, String> LOG_LEVELSTRS = initializeLogLevelStrs();
 
+   private static final int HISTORY_BUFFER_CHARS = 1 << 14;
+
+   private static final String HISTORY_SPILL_FILE_PREFIX = "batfish-log-history-";
+
    private static final int LOG_ROTATION_THRESHOLD = 10000;
 
    public static int getLogLevel(String levelStr) {
@@ -162,9 +265,19 @@ public class BatfishLogger {
    private boolean _timestamp;
 
    public BatfishLogger(String logLevel, boolean timestamp) {
+      this(logLevel, timestamp, (File) null);
+   }
+
+   /**
+    * Creates a logger that records messages in a history rather than printing
+    * them, spilling older messages to a file in the supplied directory (or the
+    * default temporary directory if null)
+    */
+   public BatfishLogger(String logLevel, boolean timestamp,
+         File historySpillDir) {
       _timestamp = timestamp;
       setLogLevel(logLevel);
-      _history = new BatfishLoggerHistory();
+      _history = new BatfishLoggerHistory(historySpillDir);
    }
 
    public BatfishLogger(String logLevel, boolean timestamp,
@@ -218,11 +331,12 @@ public class BatfishLogger {
    }
 
    public void append(BatfishLoggerHistory history, String prefix) {
-      for (HistoryItem item : history) {
+      history.replay(item -> {
          int level = item.getLevel();
-         String msg = prefix + item.getMessage();
-         write(level, msg);
-      }
+         if (isActive(level)) {
+            write(level, prefix + item.getMessage());
+         }
+      });
    }
 
    public void close() {
@@ -236,7 +350,9 @@ public class BatfishLogger {
    }
 
    public void debugf(String format, Object... args) {
-      debug(String.format(format, args));
+      if (isActive(LEVEL_DEBUG)) {
+         debug(String.format(format, args));
+      }
    }
 
    public void error(String msg) {
@@ -244,7 +360,9 @@ public class BatfishLogger {
    }
 
    public void errorf(String format, Object... args) {
-      error(String.format(format, args));
+      if (isActive(LEVEL_ERROR)) {
+         error(String.format(format, args));
+      }
    }
 
    public void fatal(String msg) {
@@ -272,7 +390,9 @@ public class BatfishLogger {
    }
 
    public void infof(String format, Object... args) {
-      info(String.format(format, args));
+      if (isActive(LEVEL_INFO)) {
+         info(String.format(format, args));
+      }
    }
 
    public boolean isActive(int level) {
@@ -284,7 +404,9 @@ public class BatfishLogger {
    }
 
    public void outputf(String format, Object... args) {
-      output(String.format(format, args));
+      if (isActive(LEVEL_OUTPUT)) {
+         output(String.format(format, args));
+      }
    }
 
    public void pedantic(String msg) {
@@ -338,7 +460,9 @@ public class BatfishLogger {
    }
 
    public void warnf(String format, Object... args) {
-      warn(String.format(format, args));
+      if (isActive(LEVEL_WARN)) {
+         warn(String.format(format, args));
+      }
    }
 
    private synchronized void write(int level, String msg) {
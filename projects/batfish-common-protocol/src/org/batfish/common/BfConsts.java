@@ -116,6 +116,7 @@ public class BfConsts {
    public static final String RELPATH_QUERIES_DIR = "queries";
    public static final String RELPATH_QUESTION_FILE = "question.json";
    public static final String RELPATH_QUESTIONS_DIR = "questions";
+   public static final String RELPATH_ROUTE_SNAPSHOT_DIR = "route_snapshot";
    public static final String RELPATH_SERIALIZED_ENVIRONMENT_BGP_TABLES = "bgp_processed";
    public static final String RELPATH_SERIALIZED_ENVIRONMENT_ROUTING_TABLES = "rt_processed";
    public static final String RELPATH_TEST_RIG_DIR = "testrig";
@@ -130,6 +131,7 @@ public class BfConsts {
 
    public static final String SVC_BASE_RSC = "/batfishservice";
    public static final String SVC_FAILURE_KEY = "failure";
+   public static final String SVC_GET_METRICS_RSC = "getmetrics";
    public static final String SVC_GET_STATUS_RSC = "getstatus";
    public static final String SVC_GET_TASKSTATUS_RSC = "gettaskstatus";
    public static final Integer SVC_PORT = 9999;
@@ -62,6 +62,8 @@ public class CoordConsts {
    public static final String SVC_KEY_TESTRIG_LIST = "testriglist";
    public static final String SVC_KEY_TESTRIG_NAME = "testrigname";
    public static final String SVC_KEY_VERSION = "version";
+   public static final String SVC_KEY_WAIT_MS = "waitms";
+   public static final String SVC_KEY_WORKER = "worker";
    public static final String SVC_KEY_WORKID = "workid";
    public static final String SVC_KEY_WORKITEM = "workitem";
    public static final String SVC_KEY_WORKSPACE_NAME = "workspace";
@@ -80,6 +82,7 @@ public class CoordConsts {
    public static final String SVC_RSC_DEL_TESTRIG = "deltestrig";
    public static final String SVC_RSC_GET_ANALYSIS_ANSWERS = "getanalysisanswers";
    public static final String SVC_RSC_GET_ANSWER = "getanswer";
+   public static final String SVC_RSC_GET_METRICS = "getmetrics";
    public static final String SVC_RSC_GET_OBJECT = "getobject";
    public static final String SVC_RSC_GET_WORKSTATUS = "getworkstatus";
    public static final String SVC_RSC_GETSTATUS = "getstatus";
@@ -90,11 +93,13 @@ public class CoordConsts {
    public static final String SVC_RSC_LIST_QUESTIONS = "listquestions";
    public static final String SVC_RSC_LIST_TESTRIGS = "listtestrigs";
    public static final String SVC_RSC_POOL_GETSTATUS = "getstatus";
+   public static final String SVC_RSC_POOL_TASK_DONE = "taskdone";
    public static final String SVC_RSC_POOL_UPDATE = "updatepool";
    public static final String SVC_RSC_PUT_OBJECT = "putobject";
    public static final String SVC_RSC_QUEUE_WORK = "queuework";
    public static final String SVC_RSC_UPLOAD_ENV = "uploadenvironment";
    public static final String SVC_RSC_UPLOAD_QUESTION = "uploadquestion";
    public static final String SVC_RSC_UPLOAD_TESTRIG = "uploadtestrig";
+   public static final String SVC_RSC_WAIT_FOR_WORK = "waitforwork";
 
 }
@@ -0,0 +1,159 @@
+package org.batfish.common;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.batfish.common.Task.Batch;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Totals of the finished batches of one or more tasks, grouped by phase. The
+ * phase of a batch is its description with every number replaced by '#', so
+ * that e.g. the batches of successive data plane iterations are grouped
+ * together.
+ */
+public class PhaseMetrics {
+
+   public static class Phase {
+
+      private static final String ALLOCATED_BYTES_VAR = "allocatedBytes";
+
+      private static final String BATCHES_VAR = "batches";
+
+      private static final String CPU_TIME_VAR = "cpuTime";
+
+      private static final String ELAPSED_TIME_VAR = "elapsedTime";
+
+      private static final String JOBS_VAR = "jobs";
+
+      private static final String MAX_ELAPSED_TIME_VAR = "maxElapsedTime";
+
+      private long _allocatedBytes;
+
+      private int _batches;
+
+      private long _cpuTime;
+
+      private long _elapsedTime;
+
+      private long _jobs;
+
+      private long _maxElapsedTime;
+
+      @JsonCreator
+      public Phase() {
+      }
+
+      private void add(Batch batch) {
+         _allocatedBytes += batch.getAllocatedBytes();
+         _batches++;
+         _cpuTime += batch.getCpuTime();
+         _elapsedTime += batch.getElapsedTime();
+         _jobs += batch.getSize();
+         _maxElapsedTime = Math.max(_maxElapsedTime, batch.getElapsedTime());
+      }
+
+      @JsonProperty(ALLOCATED_BYTES_VAR)
+      public long getAllocatedBytes() {
+         return _allocatedBytes;
+      }
+
+      @JsonProperty(BATCHES_VAR)
+      public int getBatches() {
+         return _batches;
+      }
+
+      @JsonProperty(CPU_TIME_VAR)
+      public long getCpuTime() {
+         return _cpuTime;
+      }
+
+      @JsonProperty(ELAPSED_TIME_VAR)
+      public long getElapsedTime() {
+         return _elapsedTime;
+      }
+
+      @JsonProperty(JOBS_VAR)
+      public long getJobs() {
+         return _jobs;
+      }
+
+      @JsonProperty(MAX_ELAPSED_TIME_VAR)
+      public long getMaxElapsedTime() {
+         return _maxElapsedTime;
+      }
+
+      @JsonProperty(ALLOCATED_BYTES_VAR)
+      public void setAllocatedBytes(long allocatedBytes) {
+         _allocatedBytes = allocatedBytes;
+      }
+
+      @JsonProperty(BATCHES_VAR)
+      public void setBatches(int batches) {
+         _batches = batches;
+      }
+
+      @JsonProperty(CPU_TIME_VAR)
+      public void setCpuTime(long cpuTime) {
+         _cpuTime = cpuTime;
+      }
+
+      @JsonProperty(ELAPSED_TIME_VAR)
+      public void setElapsedTime(long elapsedTime) {
+         _elapsedTime = elapsedTime;
+      }
+
+      @JsonProperty(JOBS_VAR)
+      public void setJobs(long jobs) {
+         _jobs = jobs;
+      }
+
+      @JsonProperty(MAX_ELAPSED_TIME_VAR)
+      public void setMaxElapsedTime(long maxElapsedTime) {
+         _maxElapsedTime = maxElapsedTime;
+      }
+
+   }
+
+   private static final Pattern NUMBER = Pattern.compile("\\d+");
+
+   public static String getPhaseName(String batchDescription) {
+      return NUMBER.matcher(batchDescription).replaceAll("#");
+   }
+
+   private final SortedMap<String, Phase> _phases;
+
+   public PhaseMetrics() {
+      _phases = new TreeMap<>();
+   }
+
+   @JsonCreator
+   private PhaseMetrics(SortedMap<String, Phase> phases) {
+      _phases = phases;
+   }
+
+   /**
+    * Adds the finished batches of the supplied task
+    */
+   public synchronized void add(Task task) {
+      if (task.getBatches() == null) {
+         return;
+      }
+      for (Batch batch : task.getBatches()) {
+         if (batch.isFinished()) {
+            _phases.computeIfAbsent(getPhaseName(batch.getDescription()),
+                  n -> new Phase()).add(batch);
+         }
+      }
+   }
+
+   @JsonValue
+   public synchronized SortedMap<String, Phase> getPhases() {
+      return new TreeMap<>(_phases);
+   }
+
+}
@@ -1,5 +1,8 @@
 package org.batfish.common;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -15,27 +18,113 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 public class Task {
 
+   /**
+    * A phase of a task, lasting until the next batch begins or the task
+    * terminates. Besides progress, a finished batch records the wall time, the
+    * cpu time of the whole process, and the bytes allocated by live threads
+    * while it ran.
+    */
    public static class Batch {
 
+      private static final String ALLOCATED_BYTES_VAR = "allocatedBytes";
+
       private static final String COMPLETED_VAR = "completed";
 
+      private static final String CPU_TIME_VAR = "cpuTime";
+
       private static final String DESCRIPTION_VAR = "description";
 
+      private static final String ELAPSED_TIME_VAR = "elapsedTime";
+
       private static final String SIZE_VAR = "size";
 
       private static final String START_DATE_VAR = "startDate";
 
+      private static final long UNFINISHED = -1L;
+
+      /**
+       * Returns the bytes allocated so far by all live threads, or 0 if the
+       * jvm cannot measure allocation
+       */
+      private static long allocatedBytes() {
+         ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+         if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return 0L;
+         }
+         com.sun.management.ThreadMXBean sunThreadBean;
+         sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+         if (!sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+            return 0L;
+         }
+         long total = 0L;
+         for (long bytes : sunThreadBean
+               .getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (bytes > 0) {
+               total += bytes;
+            }
+         }
+         return total;
+      }
+
+      /**
+       * Returns the cpu time used so far by the process in nanoseconds, or 0
+       * if the jvm cannot measure it
+       */
+      private static long processCpuTime() {
+         OperatingSystemMXBean osBean = ManagementFactory
+               .getOperatingSystemMXBean();
+         if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return Math.max(0L,
+                  ((com.sun.management.OperatingSystemMXBean) osBean)
+                        .getProcessCpuTime());
+         }
+         return 0L;
+      }
+
+      private long _allocatedBytes;
+
       private AtomicInteger _completed;
 
+      private long _cpuTime;
+
       private String _description;
 
+      private long _elapsedTime;
+
       private int _size;
 
+      private long _startAllocatedBytes;
+
+      private long _startCpuTime;
+
       private Date _startDate;
 
+      private long _startNanos;
+
       @JsonCreator
       private Batch() {
          _completed = new AtomicInteger();
+         _allocatedBytes = UNFINISHED;
+         _cpuTime = UNFINISHED;
+         _elapsedTime = UNFINISHED;
+      }
+
+      private void finish() {
+         if (isFinished()) {
+            return;
+         }
+         _elapsedTime = (System.nanoTime() - _startNanos) / 1000000L;
+         _cpuTime = (processCpuTime() - _startCpuTime) / 1000000L;
+         _allocatedBytes = Math.max(0L,
+               allocatedBytes() - _startAllocatedBytes);
+      }
+
+      /**
+       * Bytes allocated while this batch ran, or -1 if it has not finished
+       */
+      @JsonProperty(ALLOCATED_BYTES_VAR)
+      public long getAllocatedBytes() {
+         return _allocatedBytes;
       }
 
       @JsonProperty(COMPLETED_VAR)
@@ -43,11 +132,28 @@ public class Task {
          return _completed;
       }
 
+      /**
+       * Cpu time in milliseconds used by the process while this batch ran, or
+       * -1 if it has not finished
+       */
+      @JsonProperty(CPU_TIME_VAR)
+      public long getCpuTime() {
+         return _cpuTime;
+      }
+
       @JsonProperty(DESCRIPTION_VAR)
       public String getDescription() {
          return _description;
       }
 
+      /**
+       * Wall time in milliseconds this batch ran, or -1 if it has not finished
+       */
+      @JsonProperty(ELAPSED_TIME_VAR)
+      public long getElapsedTime() {
+         return _elapsedTime;
+      }
+
       @JsonProperty(SIZE_VAR)
       public int getSize() {
          return _size;
@@ -58,16 +164,36 @@ public class Task {
          return _startDate;
       }
 
+      @JsonIgnore
+      public boolean isFinished() {
+         return _elapsedTime != UNFINISHED;
+      }
+
+      @JsonProperty(ALLOCATED_BYTES_VAR)
+      private void setAllocatedBytes(long allocatedBytes) {
+         _allocatedBytes = allocatedBytes;
+      }
+
       @JsonProperty(COMPLETED_VAR)
       private void setCompleted(AtomicInteger completed) {
          _completed = completed;
       }
 
+      @JsonProperty(CPU_TIME_VAR)
+      private void setCpuTime(long cpuTime) {
+         _cpuTime = cpuTime;
+      }
+
       @JsonProperty(DESCRIPTION_VAR)
       public void setDescription(String description) {
          _description = description;
       }
 
+      @JsonProperty(ELAPSED_TIME_VAR)
+      private void setElapsedTime(long elapsedTime) {
+         _elapsedTime = elapsedTime;
+      }
+
       @JsonProperty(SIZE_VAR)
       public void setSize(int size) {
          _size = size;
@@ -123,6 +249,12 @@ public class Task {
       _status = TaskStatus.Unscheduled;
    }
 
+   private void finishLastBatch() {
+      if (_batches != null && !_batches.isEmpty()) {
+         _batches.get(_batches.size() - 1).finish();
+      }
+   }
+
    @JsonProperty(ARGS_VAR)
    public String[] getArgs() {
       return _args;
@@ -152,11 +284,18 @@ public class Task {
       return _terminationRequested;
    }
 
-   public Batch newBatch(String description) {
+   /**
+    * Finishes the current batch, if any, and begins a new one
+    */
+   public synchronized Batch newBatch(String description) {
+      finishLastBatch();
       Batch batch = new Batch();
       batch.setDescription(description);
       Date date = new Date();
       batch.setStartDate(date);
+      batch._startNanos = System.nanoTime();
+      batch._startCpuTime = Batch.processCpuTime();
+      batch._startAllocatedBytes = Batch.allocatedBytes();
       _batches.add(batch);
       return batch;
    }
@@ -185,7 +324,11 @@ public class Task {
       _status = status;
    }
 
-   public void setTerminated() {
+   /**
+    * Records the termination date and finishes the current batch
+    */
+   public synchronized void setTerminated() {
+      finishLastBatch();
       _terminated = new Date();
    }
 
@@ -170,6 +170,17 @@ public class Warnings implements Serializable {
       _unimplementedRecord = unimplementedRecord;
    }
 
+   /**
+    * Returns new, empty warnings with the same settings as these, to be filled
+    * by a unit of work running concurrently with others and then appended to
+    * these with {@link #join(Warnings)}
+    */
+   public Warnings fork() {
+      return new Warnings(_pedanticAsError, _pedanticRecord, _redFlagAsError,
+            _redFlagRecord, _unimplementedAsError, _unimplementedRecord,
+            _printParseTree);
+   }
+
    public List<Warning> getPedanticWarnings() {
       return _pedanticWarnings;
    }
@@ -188,6 +199,16 @@ public class Warnings implements Serializable {
             && _unimplementedWarnings.isEmpty();
    }
 
+   /**
+    * Appends the warnings of a unit of work forked from these with
+    * {@link #fork()}
+    */
+   public void join(Warnings warnings) {
+      _pedanticWarnings.addAll(warnings._pedanticWarnings);
+      _redFlagWarnings.addAll(warnings._redFlagWarnings);
+      _unimplementedWarnings.addAll(warnings._unimplementedWarnings);
+   }
+
    public void pedantic(String msg) {
       pedantic(msg, MISCELLANEOUS);
    }
@@ -4,6 +4,7 @@ import org.batfish.common.Warnings;
 import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BgpTableExtractor;
 import org.batfish.grammar.BgpTableFormat;
+import org.batfish.grammar.BgpTableLineParser;
 import org.batfish.grammar.GrammarSettings;
 
 public abstract class BgpTablePlugin extends BatfishPlugin
@@ -26,6 +27,14 @@ public abstract class BgpTablePlugin extends BatfishPlugin
    public abstract BgpTableExtractor extractor(String hostname, String fileText,
          BatfishCombinedParser<?, ?> combinedParser, Warnings warnings);
 
+   /**
+    * Returns a line parser for tables of this format, or null if they can only
+    * be parsed by the grammar
+    */
+   public BgpTableLineParser lineParser(String hostname, Warnings warnings) {
+      return null;
+   }
+
    public abstract BatfishCombinedParser<?, ?> parser(String fileText,
          GrammarSettings settings);
 
@@ -2,13 +2,20 @@ package org.batfish.common.plugin;
 
 import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.stream.Stream;
 
 import org.batfish.common.plugin.IDataPlanePlugin;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RouteQuery;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.collections.AdvertisementSet;
 import org.batfish.datamodel.collections.IbgpTopology;
+import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.collections.RouteSet;
 
 public abstract class DataPlanePlugin extends BatfishPlugin
@@ -49,6 +56,13 @@ public abstract class DataPlanePlugin extends BatfishPlugin
 
    public abstract AdvertisementSet getAdvertisements();
 
+   /**
+    * Returns, for each egress interface, the final next-hop ips reached out of
+    * it by the computed fibs, each with the neighbor interfaces that would
+    * reply to an arp request for that ip
+    */
+   public abstract SortedMap<NodeInterfacePair, SortedMap<Ip, SortedSet<NodeInterfacePair>>> getArpReplies();
+
    public abstract List<Flow> getHistoryFlows();
 
    public abstract List<FlowTrace> getHistoryFlowTraces();
@@ -59,4 +73,13 @@ public abstract class DataPlanePlugin extends BatfishPlugin
 
    public abstract void processFlows(Set<Flow> flows);
 
+   /**
+    * Stream the routes of the computed data plane that match the supplied
+    * query. Implementations should push the query down to their ribs rather
+    * than materializing every route first.
+    */
+   public Stream<Route> queryRoutes(RouteQuery query) {
+      return getRoutes().stream().filter(query::matches);
+   }
+
 }
@@ -1,5 +1,8 @@
 package org.batfish.common.plugin;
 
+import java.util.function.Consumer;
+
+import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.collections.AdvertisementSet;
 
 public abstract class ExternalBgpAdvertisementPlugin extends BatfishPlugin
@@ -30,6 +33,17 @@ public abstract class ExternalBgpAdvertisementPlugin extends BatfishPlugin
       return getClass().hashCode();
    }
 
-   public abstract AdvertisementSet loadExternalBgpAdvertisements();
+   public AdvertisementSet loadExternalBgpAdvertisements() {
+      AdvertisementSet advertSet = new AdvertisementSet();
+      loadExternalBgpAdvertisements(advertSet::add);
+      return advertSet;
+   }
+
+   /**
+    * Delivers each external advertisement to the supplied consumer as it is
+    * loaded, so that callers need not hold the whole set in memory
+    */
+   public abstract void loadExternalBgpAdvertisements(
+         Consumer<BgpAdvertisement> consumer);
 
 }
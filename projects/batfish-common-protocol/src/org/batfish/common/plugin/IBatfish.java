@@ -1,13 +1,18 @@
 package org.batfish.common.plugin;
 
+import java.io.Reader;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.batfish.common.Answerer;
 import org.batfish.common.Directory;
+import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Flow;
@@ -15,6 +20,11 @@ import org.batfish.datamodel.FlowHistory;
 import org.batfish.datamodel.ForwardingAction;
 import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpOwnerIndex;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RouteQuery;
+import org.batfish.datamodel.RouteSnapshot;
+import org.batfish.datamodel.SessionIndex;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
@@ -60,6 +70,8 @@ public interface IBatfish extends IPluginConsumer {
 
    Map<String, BiFunction<Question, IBatfish, Answerer>> getAnswererCreators();
 
+   SortedMap<NodeInterfacePair, SortedMap<Ip, SortedSet<NodeInterfacePair>>> getArpReplies();
+
    String getDifferentialFlowTag();
 
    String getFlowTag();
@@ -68,6 +80,11 @@ public interface IBatfish extends IPluginConsumer {
 
    FlowHistory getHistory();
 
+   IpOwnerIndex getIpOwnerIndex(Map<String, Configuration> configurations,
+         boolean excludeInactive);
+
+   SessionIndex getSessionIndex(Map<String, Configuration> configurations);
+
    Directory getTestrigFileTree();
 
    void initBgpAdvertisements(Map<String, Configuration> configurations);
@@ -103,10 +120,18 @@ public interface IBatfish extends IPluginConsumer {
 
    ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement();
 
+   RouteSnapshot loadRouteSnapshot();
+
    AnswerElement multipath(HeaderSpace headerSpace);
 
    AtomicInteger newBatch(String description, int jobs);
 
+   /**
+    * Returns a reader over the external bgp announcements file of the current
+    * environment, or null if there is none. The caller must close the reader.
+    */
+   Reader openExternalBgpAnnouncementsFile();
+
    AssertionAst parseAssertion(String text);
 
    AnswerElement pathDiff(HeaderSpace headerSpace);
@@ -118,13 +143,17 @@ public interface IBatfish extends IPluginConsumer {
    AdvertisementSet processExternalBgpAnnouncements(
          Map<String, Configuration> configurations);
 
+   void processExternalBgpAnnouncements(
+         Map<String, Configuration> configurations,
+         Consumer<BgpAdvertisement> consumer);
+
    void processFlows(Set<Flow> flows);
 
    void pushBaseEnvironment();
 
    void pushDeltaEnvironment();
 
-   String readExternalBgpAnnouncementsFile();
+   Stream<Route> queryRoutes(RouteQuery query);
 
    AnswerElement reducedReachability(HeaderSpace headerSpace);
 
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.GZIPInputStream;
@@ -73,6 +74,16 @@ public abstract class PluginConsumer implements IPluginConsumer {
 
    protected <S extends Serializable> S deserializeObject(byte[] data,
          Class<S> outputClass) {
+      return deserializeObject(data, outputClass, null);
+   }
+
+   /**
+    * Deserializes an object of the supplied class from the supplied data,
+    * replacing each object read from Java serialization data by the result of
+    * applying the supplied resolver to it, if the resolver is not null
+    */
+   protected <S extends Serializable> S deserializeObject(byte[] data,
+         Class<S> outputClass, UnaryOperator<Object> resolver) {
       try {
          boolean isJavaSerializationData = isJavaSerializationData(data);
          ByteArrayInputStream bais = new ByteArrayInputStream(data);
@@ -83,7 +94,8 @@ public abstract class PluginConsumer implements IPluginConsumer {
             ois = xstream.createObjectInputStream(bais);
          }
          else {
-            ois = new BatfishObjectInputStream(bais, _currentClassLoader);
+            ois = new BatfishObjectInputStream(bais, _currentClassLoader,
+                  resolver);
          }
          Object o = ois.readObject();
          ois.close();
@@ -4,15 +4,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
+import java.util.function.UnaryOperator;
 
 public class BatfishObjectInputStream extends ObjectInputStream {
 
    private ClassLoader _loader;
 
+   private UnaryOperator<Object> _resolver;
+
    public BatfishObjectInputStream(InputStream in, ClassLoader loader)
          throws IOException {
+      this(in, loader, null);
+   }
+
+   /**
+    * Each object read from the stream is replaced by the result of applying
+    * the supplied resolver to it, if the resolver is not null
+    */
+   public BatfishObjectInputStream(InputStream in, ClassLoader loader,
+         UnaryOperator<Object> resolver) throws IOException {
       super(in);
       _loader = loader;
+      _resolver = resolver;
+      if (resolver != null) {
+         enableResolveObject(true);
+      }
    }
 
    @Override
@@ -27,4 +43,14 @@ public class BatfishObjectInputStream extends ObjectInputStream {
       }
    }
 
+   @Override
+   protected Object resolveObject(Object obj) throws IOException {
+      if (_resolver != null) {
+         return _resolver.apply(obj);
+      }
+      else {
+         return obj;
+      }
+   }
+
 }
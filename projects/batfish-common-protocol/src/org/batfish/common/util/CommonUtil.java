@@ -4,9 +4,12 @@ import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -20,7 +23,9 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -48,6 +53,9 @@ import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import sun.reflect.Reflection;
 
@@ -60,6 +68,9 @@ public class CommonUtil {
       }
    }
 
+   private static final BatfishObjectMapper STRUCTURAL_HASH_MAPPER = new BatfishObjectMapper(
+         false);
+
    public static final String FACT_BLOCK_FOOTER = "\n//FACTS END HERE\n"
          + "   }) // clauses\n" + "} <-- .\n";
 
@@ -138,12 +149,17 @@ public class CommonUtil {
    }
 
    public static boolean checkJsonEqual(Object a, Object b) {
+      return checkJsonEqual(a, b, JSONCompareMode.LENIENT);
+   }
+
+   private static boolean checkJsonEqual(Object a, Object b,
+         JSONCompareMode mode) {
       BatfishObjectMapper mapper = new BatfishObjectMapper();
 
       try {
          String aString = mapper.writeValueAsString(a);
          String bString = mapper.writeValueAsString(b);
-         JSONAssert.assertEquals(aString, bString, false);
+         JSONAssert.assertEquals(aString, bString, mode);
          return true;
       }
       catch (Exception e) {
@@ -157,6 +173,17 @@ public class CommonUtil {
       }
    }
 
+   /**
+    * Returns true if the json serializations of the supplied structures are
+    * equal up to the order of array elements. Unlike
+    * {@link #checkJsonEqual(Object, Object)}, neither serialization may have
+    * fields missing from the other, so structures that are equal have the same
+    * {@link #structuralHash(Object) structural hash}.
+    */
+   public static boolean checkJsonStructurallyEqual(Object a, Object b) {
+      return checkJsonEqual(a, b, JSONCompareMode.NON_EXTENSIBLE);
+   }
+
    public static long communityStringToLong(String str) {
       String[] parts = str.split(":");
       long high = Long.parseLong(parts[0]);
@@ -480,6 +507,33 @@ public class CommonUtil {
       return md5;
    }
 
+   /**
+    * Spreads the bits of the supplied value over a 64-bit hash (the finalizer
+    * of MurmurHash3)
+    */
+   private static long mixHash(long value) {
+      long h = value;
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   /**
+    * Opens a reader over the supplied file that, like {@link #readFile(Path)},
+    * decodes it as UTF-8 and replaces malformed input instead of failing
+    */
+   public static BufferedReader newLenientReader(Path file)
+         throws IOException {
+      CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      return new BufferedReader(
+            new InputStreamReader(Files.newInputStream(file), decoder));
+   }
+
    public static int nullChecker(Object a, Object b) {
       if (a == null && b == null) {
          return 0;
@@ -582,6 +636,41 @@ public class CommonUtil {
             new SSLEngineConfigurator(sslCon, false, verifyClient, false));
    }
 
+   /**
+    * Returns a hash of the json serialization of the supplied structure. The
+    * hash of each json object or array is computed from the hashes of its
+    * members independently of their order, so structures that are
+    * {@link #checkJsonStructurallyEqual(Object, Object) structurally equal}
+    * have the same hash.
+    */
+   public static long structuralHash(Object structure) {
+      JsonNode tree = STRUCTURAL_HASH_MAPPER.valueToTree(structure);
+      return structuralHash(tree);
+   }
+
+   private static long structuralHash(JsonNode node) {
+      long hash;
+      if (node.isObject()) {
+         hash = 1;
+         for (Iterator<Entry<String, JsonNode>> fields = node.fields(); fields
+               .hasNext();) {
+            Entry<String, JsonNode> field = fields.next();
+            hash += mixHash(field.getKey().hashCode() * 31L
+                  + structuralHash(field.getValue()));
+         }
+      }
+      else if (node.isArray()) {
+         hash = 2 + node.size();
+         for (JsonNode element : node) {
+            hash += mixHash(structuralHash(element));
+         }
+      }
+      else {
+         hash = node.asText().hashCode();
+      }
+      return mixHash(hash);
+   }
+
    public static <S extends Set<T>, T> S symmetricDifference(Set<T> set1,
          Set<T> set2, Supplier<S> constructor) {
       S differenceSet = constructor.get();
@@ -1,8 +1,8 @@
 package org.batfish.common.util;
 
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -21,9 +21,12 @@ public abstract class ReferenceCountedStructure implements Serializable {
       return _referers;
    }
 
-   private void initReferers() {
+   /**
+    * Referers may be added concurrently by structures converted in parallel
+    */
+   private synchronized void initReferers() {
       if (_referers == null) {
-         _referers = new HashMap<>();
+         _referers = new ConcurrentHashMap<>();
       }
    }
 
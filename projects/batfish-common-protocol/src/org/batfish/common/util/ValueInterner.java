@@ -0,0 +1,134 @@
+package org.batfish.common.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Hash-conses instances of immutable value classes, so that equal instances
+ * deserialized into different objects (e.g. the configurations of several
+ * testrigs) share a single canonical instance. Canonical instances are held
+ * weakly, so they are reclaimed once no object refers to them.
+ */
+public class ValueInterner {
+
+   /**
+    * Counts of the value instances passed through an interner, split into
+    * those replaced by an existing canonical instance (shared) and those that
+    * became canonical themselves (unique)
+    */
+   public static class Report {
+
+      private final LongAdder _sharedBytes;
+
+      private final LongAdder _sharedInstances;
+
+      private final LongAdder _uniqueBytes;
+
+      private final LongAdder _uniqueInstances;
+
+      public Report() {
+         _sharedBytes = new LongAdder();
+         _sharedInstances = new LongAdder();
+         _uniqueBytes = new LongAdder();
+         _uniqueInstances = new LongAdder();
+      }
+
+      public long getSharedBytes() {
+         return _sharedBytes.sum();
+      }
+
+      public long getSharedInstances() {
+         return _sharedInstances.sum();
+      }
+
+      public long getUniqueBytes() {
+         return _uniqueBytes.sum();
+      }
+
+      public long getUniqueInstances() {
+         return _uniqueInstances.sum();
+      }
+
+      @Override
+      public String toString() {
+         return "shared: " + getSharedInstances() + " instances (~"
+               + getSharedBytes() + " bytes), unique: " + getUniqueInstances()
+               + " instances (~" + getUniqueBytes() + " bytes)";
+      }
+
+   }
+
+   /**
+    * Rough shallow size in bytes of an object with the supplied number of
+    * reference and primitive fields, assuming compressed references
+    */
+   private static long estimateSize(int words) {
+      long size = 12 + 4 * words;
+      return (size + 7) / 8 * 8;
+   }
+
+   private static long estimateSize(Object o) {
+      if (o instanceof String) {
+         // string header and hash, plus backing char array
+         int length = ((String) o).length();
+         return estimateSize(2) + (16 + 2 * length + 7) / 8 * 8;
+      }
+      else {
+         return estimateSize(2);
+      }
+   }
+
+   /**
+    * One interner per value class, so that instances are only ever compared
+    * with instances of the same class
+    */
+   private final Map<Class<?>, Interner<Object>> _interners;
+
+   public ValueInterner(Class<?>... valueClasses) {
+      _interners = new HashMap<>();
+      for (Class<?> valueClass : valueClasses) {
+         _interners.put(valueClass, Interners.newWeakInterner());
+      }
+   }
+
+   /**
+    * Returns the canonical instance equal to the supplied object if it is an
+    * instance of one of the value classes of this interner, and otherwise the
+    * object itself
+    */
+   public Object intern(Object o) {
+      return intern(o, null);
+   }
+
+   /**
+    * As {@link #intern(Object)}, recording the outcome in the supplied report
+    * if it is not null
+    */
+   public Object intern(Object o, Report report) {
+      if (o == null) {
+         return o;
+      }
+      Interner<Object> interner = _interners.get(o.getClass());
+      if (interner == null) {
+         return o;
+      }
+      Object canonical = interner.intern(o);
+      if (report != null) {
+         long size = estimateSize(o);
+         if (canonical == o) {
+            report._uniqueInstances.increment();
+            report._uniqueBytes.add(size);
+         }
+         else {
+            report._sharedInstances.increment();
+            report._sharedBytes.add(size);
+         }
+      }
+      return canonical;
+   }
+
+}
@@ -1,6 +1,7 @@
 package org.batfish.datamodel;
 
 import org.batfish.common.BatfishException;
+import org.batfish.common.util.ValueInterner;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
@@ -12,19 +13,19 @@ public final class Flow implements Comparable<Flow> {
 
    public static class Builder {
 
-      private Integer _dscp;
+      private int _dscp;
 
       private Ip _dstIp;
 
-      private Integer _dstPort;
+      private int _dstPort;
 
-      private Integer _ecn;
+      private int _ecn;
 
-      private Integer _fragmentOffset;
+      private int _fragmentOffset;
 
-      private Integer _icmpCode;
+      private int _icmpCode;
 
-      private Integer _icmpType;
+      private int _icmpType;
 
       private String _ingressInterface;
 
@@ -34,31 +35,17 @@ public final class Flow implements Comparable<Flow> {
 
       private IpProtocol _ipProtocol;
 
-      private Integer _packetLength;
+      private int _packetLength;
 
       private Ip _srcIp;
 
-      private Integer _srcPort;
+      private int _srcPort;
 
       private State _state;
 
       private String _tag;
 
-      private Integer _tcpFlagsAck;
-
-      private Integer _tcpFlagsCwr;
-
-      private Integer _tcpFlagsEce;
-
-      private Integer _tcpFlagsFin;
-
-      private Integer _tcpFlagsPsh;
-
-      private Integer _tcpFlagsRst;
-
-      private Integer _tcpFlagsSyn;
-
-      private Integer _tcpFlagsUrg;
+      private int _tcpFlags;
 
       public Builder() {
          _dscp = 0;
@@ -74,14 +61,7 @@ public final class Flow implements Comparable<Flow> {
          _ingressVrf = Configuration.DEFAULT_VRF_NAME;
          _packetLength = 0;
          _state = State.NEW;
-         _tcpFlagsCwr = 0;
-         _tcpFlagsEce = 0;
-         _tcpFlagsUrg = 0;
-         _tcpFlagsAck = 0;
-         _tcpFlagsPsh = 0;
-         _tcpFlagsRst = 0;
-         _tcpFlagsSyn = 0;
-         _tcpFlagsFin = 0;
+         _tcpFlags = 0;
       }
 
       public Builder(Flow flow) {
@@ -100,14 +80,7 @@ public final class Flow implements Comparable<Flow> {
          _icmpCode = flow._icmpCode;
          _packetLength = flow._packetLength;
          _state = flow._state;
-         _tcpFlagsCwr = flow._tcpFlagsCwr;
-         _tcpFlagsEce = flow._tcpFlagsEce;
-         _tcpFlagsUrg = flow._tcpFlagsUrg;
-         _tcpFlagsAck = flow._tcpFlagsAck;
-         _tcpFlagsPsh = flow._tcpFlagsPsh;
-         _tcpFlagsRst = flow._tcpFlagsRst;
-         _tcpFlagsSyn = flow._tcpFlagsSyn;
-         _tcpFlagsFin = flow._tcpFlagsFin;
+         _tcpFlags = flow._tcpFlags;
          _tag = flow._tag;
       }
 
@@ -123,11 +96,10 @@ public final class Flow implements Comparable<Flow> {
          return new Flow(_ingressNode, _ingressInterface, _ingressVrf, _srcIp,
                _dstIp, _srcPort, _dstPort, _ipProtocol, _dscp, _ecn,
                _fragmentOffset, _icmpType, _icmpCode, _packetLength, _state,
-               _tcpFlagsCwr, _tcpFlagsEce, _tcpFlagsUrg, _tcpFlagsAck,
-               _tcpFlagsPsh, _tcpFlagsRst, _tcpFlagsSyn, _tcpFlagsFin, _tag);
+               _tcpFlags, _tag);
       }
 
-      public Integer getDscp() {
+      public int getDscp() {
          return _dscp;
       }
 
@@ -135,19 +107,19 @@ public final class Flow implements Comparable<Flow> {
          return _dstIp;
       }
 
-      public Integer getDstPort() {
+      public int getDstPort() {
          return _dstPort;
       }
 
-      public Integer getEcn() {
+      public int getEcn() {
          return _ecn;
       }
 
-      public Integer getIcmpCode() {
+      public int getIcmpCode() {
          return _icmpCode;
       }
 
-      public Integer getIcmpType() {
+      public int getIcmpType() {
          return _icmpType;
       }
 
@@ -167,7 +139,7 @@ public final class Flow implements Comparable<Flow> {
          return _ipProtocol;
       }
 
-      public Integer getPacketLength() {
+      public int getPacketLength() {
          return _packetLength;
       }
 
@@ -175,7 +147,7 @@ public final class Flow implements Comparable<Flow> {
          return _srcIp;
       }
 
-      public Integer getSrcPort() {
+      public int getSrcPort() {
          return _srcPort;
       }
 
@@ -187,36 +159,36 @@ public final class Flow implements Comparable<Flow> {
          return _tag;
       }
 
-      public Integer getTcpFlagsAck() {
-         return _tcpFlagsAck;
+      public int getTcpFlagsAck() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_ACK);
       }
 
-      public Integer getTcpFlagsCwr() {
-         return _tcpFlagsCwr;
+      public int getTcpFlagsCwr() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_CWR);
       }
 
-      public Integer getTcpFlagsEce() {
-         return _tcpFlagsEce;
+      public int getTcpFlagsEce() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_ECE);
       }
 
-      public Integer getTcpFlagsFin() {
-         return _tcpFlagsFin;
+      public int getTcpFlagsFin() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_FIN);
       }
 
-      public Integer getTcpFlagsPsh() {
-         return _tcpFlagsPsh;
+      public int getTcpFlagsPsh() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_PSH);
       }
 
-      public Integer getTcpFlagsRst() {
-         return _tcpFlagsRst;
+      public int getTcpFlagsRst() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_RST);
       }
 
-      public Integer getTcpFlagsSyn() {
-         return _tcpFlagsSyn;
+      public int getTcpFlagsSyn() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_SYN);
       }
 
-      public Integer getTcpFlagsUrg() {
-         return _tcpFlagsUrg;
+      public int getTcpFlagsUrg() {
+         return getTcpFlag(_tcpFlags, TCP_FLAG_URG);
       }
 
       public void setDscp(Integer dscp) {
@@ -292,35 +264,35 @@ public final class Flow implements Comparable<Flow> {
       }
 
       public void setTcpFlagsAck(Integer tcpFlagsAck) {
-         _tcpFlagsAck = tcpFlagsAck;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_ACK, tcpFlagsAck);
       }
 
       public void setTcpFlagsCwr(Integer tcpFlagsCwr) {
-         _tcpFlagsCwr = tcpFlagsCwr;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_CWR, tcpFlagsCwr);
       }
 
       public void setTcpFlagsEce(Integer tcpFlagsEce) {
-         _tcpFlagsEce = tcpFlagsEce;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_ECE, tcpFlagsEce);
       }
 
       public void setTcpFlagsFin(Integer tcpFlagsFin) {
-         _tcpFlagsFin = tcpFlagsFin;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_FIN, tcpFlagsFin);
       }
 
       public void setTcpFlagsPsh(Integer tcpFlagsPsh) {
-         _tcpFlagsPsh = tcpFlagsPsh;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_PSH, tcpFlagsPsh);
       }
 
       public void setTcpFlagsRst(Integer tcpFlagsRst) {
-         _tcpFlagsRst = tcpFlagsRst;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_RST, tcpFlagsRst);
       }
 
       public void setTcpFlagsSyn(Integer tcpFlagsSyn) {
-         _tcpFlagsSyn = tcpFlagsSyn;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_SYN, tcpFlagsSyn);
       }
 
       public void setTcpFlagsUrg(Integer tcpFlagsUrg) {
-         _tcpFlagsUrg = tcpFlagsUrg;
+         _tcpFlags = setTcpFlag(_tcpFlags, TCP_FLAG_URG, tcpFlagsUrg);
       }
 
    }
@@ -373,6 +345,70 @@ public final class Flow implements Comparable<Flow> {
 
    private static final String TCP_FLAGS_URG_VAR = "tcpFlagsUrg";
 
+   /*
+    * Bits of the packed tcp flags. Flags that are compared earlier when
+    * ordering flows occupy more significant bits.
+    */
+
+   private static final int TCP_FLAG_ACK = 1 << 4;
+
+   private static final int TCP_FLAG_CWR = 1 << 7;
+
+   private static final int TCP_FLAG_ECE = 1 << 6;
+
+   private static final int TCP_FLAG_FIN = 1 << 0;
+
+   private static final int TCP_FLAG_PSH = 1 << 3;
+
+   private static final int TCP_FLAG_RST = 1 << 2;
+
+   private static final int TCP_FLAG_SYN = 1 << 1;
+
+   private static final int TCP_FLAG_URG = 1 << 5;
+
+   /**
+    * Node, vrf and interface names and tags are shared by many flows
+    */
+   private static final ValueInterner IDENTIFIERS = new ValueInterner(
+         String.class);
+
+   private static int getTcpFlag(int tcpFlags, int flag) {
+      return (tcpFlags & flag) != 0 ? 1 : 0;
+   }
+
+   private static String intern(String identifier) {
+      return (String) IDENTIFIERS.intern(identifier);
+   }
+
+   private static int packTcpFlags(int tcpFlagsCwr, int tcpFlagsEce,
+         int tcpFlagsUrg, int tcpFlagsAck, int tcpFlagsPsh, int tcpFlagsRst,
+         int tcpFlagsSyn, int tcpFlagsFin) {
+      int tcpFlags = 0;
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_CWR, tcpFlagsCwr);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_ECE, tcpFlagsEce);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_URG, tcpFlagsUrg);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_ACK, tcpFlagsAck);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_PSH, tcpFlagsPsh);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_RST, tcpFlagsRst);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_SYN, tcpFlagsSyn);
+      tcpFlags = setTcpFlag(tcpFlags, TCP_FLAG_FIN, tcpFlagsFin);
+      return tcpFlags;
+   }
+
+   private static int setTcpFlag(int tcpFlags, int flag, int value) {
+      switch (value) {
+      case 0:
+         return tcpFlags & ~flag;
+
+      case 1:
+         return tcpFlags | flag;
+
+      default:
+         throw new BatfishException(
+               "Invalid tcp flag value: " + value + " (must be 0 or 1)");
+      }
+   }
+
    private final int _dscp;
 
    private final Ip _dstIp;
@@ -405,21 +441,10 @@ public final class Flow implements Comparable<Flow> {
 
    private final String _tag;
 
-   private final int _tcpFlagsAck;
-
-   private final int _tcpFlagsCwr;
-
-   private final int _tcpFlagsEce;
-
-   private final int _tcpFlagsFin;
-
-   private final int _tcpFlagsPsh;
-
-   private final int _tcpFlagsRst;
-
-   private final int _tcpFlagsSyn;
-
-   private final int _tcpFlagsUrg;
+   /**
+    * The tcp flags of this flow, one bit per flag
+    */
+   private final int _tcpFlags;
 
    @JsonCreator
    public Flow(@JsonProperty(INGRESS_NODE_VAR) String ingressNode,
@@ -444,9 +469,21 @@ public final class Flow implements Comparable<Flow> {
          @JsonProperty(TCP_FLAGS_SYN_VAR) int tcpFlagsSyn,
          @JsonProperty(TCP_FLAGS_FIN_VAR) int tcpFlagsFin,
          @JsonProperty(TAG_VAR) String tag) {
-      _ingressNode = ingressNode;
-      _ingressInterface = ingressInterface;
-      _ingressVrf = ingressVrf;
+      this(ingressNode, ingressInterface, ingressVrf, srcIp, dstIp, srcPort,
+            dstPort, ipProtocol, dscp, ecn, fragmentOffset, icmpType, icmpCode,
+            packetLength, state,
+            packTcpFlags(tcpFlagsCwr, tcpFlagsEce, tcpFlagsUrg, tcpFlagsAck,
+                  tcpFlagsPsh, tcpFlagsRst, tcpFlagsSyn, tcpFlagsFin),
+            tag);
+   }
+
+   private Flow(String ingressNode, String ingressInterface, String ingressVrf,
+         Ip srcIp, Ip dstIp, int srcPort, int dstPort, IpProtocol ipProtocol,
+         int dscp, int ecn, int fragmentOffset, int icmpType, int icmpCode,
+         int packetLength, State state, int tcpFlags, String tag) {
+      _ingressNode = intern(ingressNode);
+      _ingressInterface = intern(ingressInterface);
+      _ingressVrf = intern(ingressVrf);
       _srcIp = srcIp;
       _dstIp = dstIp;
       _srcPort = srcPort;
@@ -459,15 +496,8 @@ public final class Flow implements Comparable<Flow> {
       _icmpCode = icmpCode;
       _packetLength = packetLength;
       _state = state;
-      _tcpFlagsCwr = tcpFlagsCwr;
-      _tcpFlagsEce = tcpFlagsEce;
-      _tcpFlagsUrg = tcpFlagsUrg;
-      _tcpFlagsAck = tcpFlagsAck;
-      _tcpFlagsPsh = tcpFlagsPsh;
-      _tcpFlagsRst = tcpFlagsRst;
-      _tcpFlagsSyn = tcpFlagsSyn;
-      _tcpFlagsFin = tcpFlagsFin;
-      _tag = tag;
+      _tcpFlags = tcpFlags;
+      _tag = intern(tag);
    }
 
    @Override
@@ -529,35 +559,7 @@ public final class Flow implements Comparable<Flow> {
       if (ret != 0) {
          return ret;
       }
-      ret = Integer.compare(_tcpFlagsCwr, rhs._tcpFlagsCwr);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsEce, rhs._tcpFlagsEce);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsUrg, rhs._tcpFlagsUrg);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsAck, rhs._tcpFlagsAck);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsPsh, rhs._tcpFlagsPsh);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsRst, rhs._tcpFlagsRst);
-      if (ret != 0) {
-         return ret;
-      }
-      ret = Integer.compare(_tcpFlagsSyn, rhs._tcpFlagsSyn);
-      if (ret != 0) {
-         return ret;
-      }
-      return Integer.compare(_tcpFlagsFin, rhs._tcpFlagsFin);
+      return Integer.compare(_tcpFlags, rhs._tcpFlags);
    }
 
    @Override
@@ -605,28 +607,7 @@ public final class Flow implements Comparable<Flow> {
       if (_state != other._state) {
          return false;
       }
-      if (_tcpFlagsCwr != other._tcpFlagsCwr) {
-         return false;
-      }
-      if (_tcpFlagsEce != other._tcpFlagsEce) {
-         return false;
-      }
-      if (_tcpFlagsUrg != other._tcpFlagsUrg) {
-         return false;
-      }
-      if (_tcpFlagsAck != other._tcpFlagsAck) {
-         return false;
-      }
-      if (_tcpFlagsPsh != other._tcpFlagsPsh) {
-         return false;
-      }
-      if (_tcpFlagsRst != other._tcpFlagsRst) {
-         return false;
-      }
-      if (_tcpFlagsSyn != other._tcpFlagsSyn) {
-         return false;
-      }
-      if (_tcpFlagsFin != other._tcpFlagsFin) {
+      if (_tcpFlags != other._tcpFlags) {
          return false;
       }
       return _tag.equals(other._tag);
@@ -714,42 +695,42 @@ public final class Flow implements Comparable<Flow> {
 
    @JsonProperty(TCP_FLAGS_ACK_VAR)
    public int getTcpFlagsAck() {
-      return _tcpFlagsAck;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_ACK);
    }
 
    @JsonProperty(TCP_FLAGS_CWR_VAR)
    public int getTcpFlagsCwr() {
-      return _tcpFlagsCwr;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_CWR);
    }
 
    @JsonProperty(TCP_FLAGS_ECE_VAR)
    public int getTcpFlagsEce() {
-      return _tcpFlagsEce;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_ECE);
    }
 
    @JsonProperty(TCP_FLAGS_FIN_VAR)
    public int getTcpFlagsFin() {
-      return _tcpFlagsFin;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_FIN);
    }
 
    @JsonProperty(TCP_FLAGS_PSH_VAR)
    public int getTcpFlagsPsh() {
-      return _tcpFlagsPsh;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_PSH);
    }
 
    @JsonProperty(TCP_FLAGS_RST_VAR)
    public int getTcpFlagsRst() {
-      return _tcpFlagsRst;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_RST);
    }
 
    @JsonProperty(TCP_FLAGS_SYN_VAR)
    public int getTcpFlagsSyn() {
-      return _tcpFlagsSyn;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_SYN);
    }
 
    @JsonProperty(TCP_FLAGS_URG_VAR)
    public int getTcpFlagsUrg() {
-      return _tcpFlagsUrg;
+      return getTcpFlag(_tcpFlags, TCP_FLAG_URG);
    }
 
    @Override
@@ -771,14 +752,7 @@ public final class Flow implements Comparable<Flow> {
       result = prime * result + _packetLength;
       result = prime * result + _state.ordinal();
       result = prime * result + _tag.hashCode();
-      result = prime * result + _tcpFlagsCwr;
-      result = prime * result + _tcpFlagsEce;
-      result = prime * result + _tcpFlagsUrg;
-      result = prime * result + _tcpFlagsAck;
-      result = prime * result + _tcpFlagsPsh;
-      result = prime * result + _tcpFlagsRst;
-      result = prime * result + _tcpFlagsSyn;
-      result = prime * result + _tcpFlagsFin;
+      result = prime * result + _tcpFlags;
       return result;
    }
 
@@ -796,9 +770,10 @@ public final class Flow implements Comparable<Flow> {
          dstPortStr = " dport:" + NamedPort.nameFromNumber(_dstPort);
       }
       if (tcp) {
-         tcpFlagsStr = String.format(" tcpFlags:%d%d%d%d%d%d%d%d", _tcpFlagsCwr,
-               _tcpFlagsEce, _tcpFlagsUrg, _tcpFlagsAck, _tcpFlagsPsh,
-               _tcpFlagsRst, _tcpFlagsSyn, _tcpFlagsFin);
+         tcpFlagsStr = String.format(" tcpFlags:%d%d%d%d%d%d%d%d",
+               getTcpFlagsCwr(), getTcpFlagsEce(), getTcpFlagsUrg(),
+               getTcpFlagsAck(), getTcpFlagsPsh(), getTcpFlagsRst(),
+               getTcpFlagsSyn(), getTcpFlagsFin());
       }
       if (icmp) {
          icmpCodeStr = " icmpCode:" + Integer.toString(_icmpCode);
@@ -816,7 +791,7 @@ public final class Flow implements Comparable<Flow> {
 
    @JsonProperty(INGRESS_INTERFACE_VAR)
    public void setIngressInterface(String ingressInterface) {
-      _ingressInterface = ingressInterface;
+      _ingressInterface = intern(ingressInterface);
    }
 
    @Override
@@ -834,9 +809,10 @@ public final class Flow implements Comparable<Flow> {
          dstPortStr = " dstPort:" + NamedPort.nameFromNumber(_dstPort);
       }
       if (tcp) {
-         tcpFlagsStr = String.format(" tcpFlags:%d%d%d%d%d%d%d%d", _tcpFlagsCwr,
-               _tcpFlagsEce, _tcpFlagsUrg, _tcpFlagsAck, _tcpFlagsPsh,
-               _tcpFlagsRst, _tcpFlagsSyn, _tcpFlagsFin);
+         tcpFlagsStr = String.format(" tcpFlags:%d%d%d%d%d%d%d%d",
+               getTcpFlagsCwr(), getTcpFlagsEce(), getTcpFlagsUrg(),
+               getTcpFlagsAck(), getTcpFlagsPsh(), getTcpFlagsRst(),
+               getTcpFlagsSyn(), getTcpFlagsFin());
       }
       if (icmp) {
          icmpCodeStr = " icmpCode:" + Integer.toString(_icmpCode);
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.stream.Stream;
 
 import org.batfish.datamodel.collections.MultiSet;
 
@@ -37,4 +38,15 @@ public interface IRib<R extends AbstractRoute> extends Serializable {
 
    Map<Prefix, Set<Ip>> nextHopIpsByPrefix();
 
+   /**
+    * Lazily stream the routes matching the protocol and prefix-space
+    * constraints of a query, skipping parts of the rib that cannot match
+    *
+    * @param query
+    *           The query whose protocol and prefix-space constraints are
+    *           applied
+    * @return A stream of matching routes in no particular order
+    */
+   Stream<R> queryRoutes(RouteQuery query);
+
 }
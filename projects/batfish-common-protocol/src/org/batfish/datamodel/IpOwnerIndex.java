@@ -0,0 +1,359 @@
+package org.batfish.datamodel;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.batfish.common.BatfishException;
+import org.batfish.common.Pair;
+
+/**
+ * Immutable index of the nodes owning each ip of a set of configurations,
+ * built once per loaded set of configurations.
+ * <p>
+ * Owned ips are kept as a sorted array of primitive longs alongside their
+ * owner sets, which are shared between all ips having the same owners. The
+ * owners of an ip, and of all ips within a prefix, are found by binary
+ * search.
+ */
+public final class IpOwnerIndex implements Serializable {
+
+   /**
+    * Read-only view of the index as a map from each owned ip to its owners
+    */
+   private final class IpOwnersMap extends AbstractMap<Ip, Set<String>>
+         implements Serializable {
+
+      /**
+       *
+       */
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public boolean containsKey(Object key) {
+         return key instanceof Ip && indexOf((Ip) key) >= 0;
+      }
+
+      @Override
+      public Set<Entry<Ip, Set<String>>> entrySet() {
+         return new AbstractSet<Entry<Ip, Set<String>>>() {
+
+            @Override
+            public Iterator<Entry<Ip, Set<String>>> iterator() {
+               return new Iterator<Entry<Ip, Set<String>>>() {
+
+                  private int _i;
+
+                  @Override
+                  public boolean hasNext() {
+                     return _i < _ips.length;
+                  }
+
+                  @Override
+                  public Entry<Ip, Set<String>> next() {
+                     if (_i >= _ips.length) {
+                        throw new NoSuchElementException();
+                     }
+                     Entry<Ip, Set<String>> entry = new SimpleImmutableEntry<>(
+                           new Ip(_ips[_i]), _owners.get(_i));
+                     _i++;
+                     return entry;
+                  }
+
+               };
+            }
+
+            @Override
+            public int size() {
+               return _ips.length;
+            }
+
+         };
+      }
+
+      @Override
+      public Set<String> get(Object key) {
+         if (!(key instanceof Ip)) {
+            return null;
+         }
+         int index = indexOf((Ip) key);
+         return index >= 0 ? _owners.get(index) : null;
+      }
+
+      @Override
+      public int size() {
+         return _ips.length;
+      }
+
+   }
+
+   /**
+    * Ips owned by a single configuration, and the vrrp groups for which its
+    * interfaces are candidates, built independently so that configurations
+    * can be indexed in parallel
+    */
+   private static final class NodeEntries {
+
+      private final long[] _ips;
+
+      private final int _nodeIndex;
+
+      private final Map<Pair<Prefix, Integer>, Interface> _vrrpCandidates;
+
+      private NodeEntries(int nodeIndex, Configuration c,
+            boolean excludeInactive) {
+         _nodeIndex = nodeIndex;
+         _vrrpCandidates = new HashMap<>();
+         List<Long> ips = new ArrayList<>();
+         for (Interface i : c.getInterfaces().values()) {
+            if (i.getActive() || (!excludeInactive && i.getBlacklisted())) {
+               i.getVrrpGroups().forEach((groupNum, vrrpGroup) -> {
+                  // only the lowest priority interface of a node can win
+                  _vrrpCandidates.merge(
+                        new Pair<>(vrrpGroup.getVirtualAddress(), groupNum), i,
+                        (a, b) -> a.getVrrpGroups().get(groupNum)
+                              .getPriority() <= vrrpGroup.getPriority() ? a
+                                    : b);
+               });
+               for (Prefix prefix : i.getAllPrefixes()) {
+                  ips.add(prefix.getAddress().asLong());
+               }
+            }
+         }
+         _ips = ips.stream().mapToLong(Long::longValue).sorted().distinct()
+               .toArray();
+      }
+
+   }
+
+   /**
+    * Number of low bits of a packed (ip, node) pair holding the node index
+    */
+   private static final int NODE_INDEX_BITS = 31;
+
+   private static final long NODE_INDEX_MASK = (1L << NODE_INDEX_BITS) - 1;
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   private static long pack(long ip, int nodeIndex) {
+      return (ip << NODE_INDEX_BITS) | nodeIndex;
+   }
+
+   private final transient Map<String, Configuration> _configurations;
+
+   private final boolean _excludeInactive;
+
+   private final Map<Ip, Set<String>> _ipOwners;
+
+   private final long[] _ips;
+
+   private final List<SortedSet<String>> _owners;
+
+   public IpOwnerIndex(Map<String, Configuration> configurations,
+         boolean excludeInactive) {
+      // ips are owned by nodes, so the vrf of an owning interface is not
+      // recorded
+      _configurations = configurations;
+      _excludeInactive = excludeInactive;
+      List<String> hostnames = new ArrayList<>(
+            new TreeSet<>(configurations.keySet()));
+      List<NodeEntries> nodeEntries = IntStream.range(0, hostnames.size())
+            .parallel()
+            .mapToObj(i -> new NodeEntries(i,
+                  configurations.get(hostnames.get(i)), excludeInactive))
+            .collect(Collectors.toList());
+
+      // each vrrp virtual address is owned by its best candidate
+      Map<Pair<Prefix, Integer>, List<NodeEntries>> vrrpGroups = new HashMap<>();
+      for (NodeEntries entries : nodeEntries) {
+         for (Pair<Prefix, Integer> key : entries._vrrpCandidates.keySet()) {
+            vrrpGroups.computeIfAbsent(key, k -> new ArrayList<>())
+                  .add(entries);
+         }
+      }
+      List<Long> vrrpOwnership = new ArrayList<>();
+      vrrpGroups.forEach((key, candidates) -> {
+         int groupNum = key.getSecond();
+         int lowestPriority = Integer.MAX_VALUE;
+         int bestCandidate = -1;
+         Set<String> bestCandidates = new TreeSet<>();
+         for (NodeEntries candidate : candidates) {
+            Interface iface = candidate._vrrpCandidates.get(key);
+            int currentPriority = iface.getVrrpGroups().get(groupNum)
+                  .getPriority();
+            if (currentPriority < lowestPriority) {
+               lowestPriority = currentPriority;
+               bestCandidates.clear();
+               bestCandidate = candidate._nodeIndex;
+            }
+            if (currentPriority == lowestPriority) {
+               bestCandidates.add(iface.getOwner().getHostname());
+            }
+         }
+         if (bestCandidates.size() != 1) {
+            throw new BatfishException(
+                  "multiple best vrrp candidates:" + bestCandidates);
+         }
+         vrrpOwnership
+               .add(pack(key.getFirst().getAddress().asLong(), bestCandidate));
+      });
+
+      // pack (ip, node) pairs so that sorting groups the owners of each ip
+      int numPairs = vrrpOwnership.size();
+      for (NodeEntries entries : nodeEntries) {
+         numPairs += entries._ips.length;
+      }
+      long[] pairs = new long[numPairs];
+      int numPacked = 0;
+      for (NodeEntries entries : nodeEntries) {
+         for (long ip : entries._ips) {
+            pairs[numPacked++] = pack(ip, entries._nodeIndex);
+         }
+      }
+      for (long pair : vrrpOwnership) {
+         pairs[numPacked++] = pair;
+      }
+      Arrays.parallelSort(pairs);
+
+      // share one owner set between all ips having the same owners
+      List<SortedSet<String>> singletons = new ArrayList<>();
+      for (String hostname : hostnames) {
+         SortedSet<String> singleton = new TreeSet<>();
+         singleton.add(hostname);
+         singletons.add(Collections.unmodifiableSortedSet(singleton));
+      }
+      Map<SortedSet<String>, SortedSet<String>> sharedOwners = new HashMap<>();
+      long[] ips = new long[numPairs];
+      List<SortedSet<String>> owners = new ArrayList<>();
+      int numIps = 0;
+      int start = 0;
+      while (start < numPairs) {
+         long ip = pairs[start] >>> NODE_INDEX_BITS;
+         int end = start + 1;
+         while (end < numPairs && pairs[end] >>> NODE_INDEX_BITS == ip) {
+            end++;
+         }
+         SortedSet<String> ipOwners;
+         int firstNode = (int) (pairs[start] & NODE_INDEX_MASK);
+         int lastNode = (int) (pairs[end - 1] & NODE_INDEX_MASK);
+         if (firstNode == lastNode) {
+            ipOwners = singletons.get(firstNode);
+         }
+         else {
+            SortedSet<String> newOwners = new TreeSet<>();
+            for (int i = start; i < end; i++) {
+               newOwners.add(hostnames.get((int) (pairs[i] & NODE_INDEX_MASK)));
+            }
+            ipOwners = sharedOwners.computeIfAbsent(newOwners,
+                  Collections::unmodifiableSortedSet);
+         }
+         ips[numIps++] = ip;
+         owners.add(ipOwners);
+         start = end;
+      }
+      _ips = Arrays.copyOf(ips, numIps);
+      _owners = owners;
+      _ipOwners = new IpOwnersMap();
+   }
+
+   /**
+    * Returns the configurations from which this index was built, or null if
+    * this index was deserialized
+    */
+   public Map<String, Configuration> getConfigurations() {
+      return _configurations;
+   }
+
+   public boolean getExcludeInactive() {
+      return _excludeInactive;
+   }
+
+   /**
+    * Returns a read-only map from each owned ip to the nodes owning it
+    */
+   public Map<Ip, Set<String>> getIpOwners() {
+      return _ipOwners;
+   }
+
+   /**
+    * Returns the owners of each owned ip within the supplied prefix
+    */
+   public SortedMap<Ip, SortedSet<String>> getIpOwners(Prefix prefix) {
+      SortedMap<Ip, SortedSet<String>> ipOwners = new TreeMap<>();
+      int end = upperBound(prefix.getEndAddress().asLong());
+      for (int i = lowerBound(prefix.getNetworkAddress().asLong()); i < end;
+            i++) {
+         ipOwners.put(new Ip(_ips[i]), _owners.get(i));
+      }
+      return ipOwners;
+   }
+
+   /**
+    * Returns the nodes owning the supplied ip
+    */
+   public SortedSet<String> getOwners(Ip ip) {
+      int index = indexOf(ip);
+      return index >= 0 ? _owners.get(index)
+            : Collections.emptySortedSet();
+   }
+
+   /**
+    * Returns the nodes owning any ip within the supplied prefix
+    */
+   public SortedSet<String> getOwners(Prefix prefix) {
+      SortedSet<String> owners = new TreeSet<>();
+      int end = upperBound(prefix.getEndAddress().asLong());
+      SortedSet<String> previousOwners = null;
+      for (int i = lowerBound(prefix.getNetworkAddress().asLong()); i < end;
+            i++) {
+         SortedSet<String> ipOwners = _owners.get(i);
+         // owner sets are shared, so runs of ips with the same owners are
+         // only added once
+         if (ipOwners != previousOwners) {
+            owners.addAll(ipOwners);
+            previousOwners = ipOwners;
+         }
+      }
+      return owners;
+   }
+
+   private int indexOf(Ip ip) {
+      return Arrays.binarySearch(_ips, ip.asLong());
+   }
+
+   /**
+    * Returns the index of the first owned ip not less than the supplied ip
+    */
+   private int lowerBound(long ip) {
+      int index = Arrays.binarySearch(_ips, ip);
+      return index >= 0 ? index : -index - 1;
+   }
+
+   /**
+    * Returns the index of the first owned ip greater than the supplied ip
+    */
+   private int upperBound(long ip) {
+      int index = Arrays.binarySearch(_ips, ip);
+      return index >= 0 ? index + 1 : -index - 1;
+   }
+
+}
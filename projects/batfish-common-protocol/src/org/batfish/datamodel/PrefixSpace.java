@@ -3,9 +3,6 @@ package org.batfish.datamodel;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,7 +30,7 @@ public class PrefixSpace implements Serializable {
       public void addPrefixRange(PrefixRange prefixRange) {
          Prefix prefix = prefixRange.getPrefix();
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = getAddressBits(prefix.getAddress());
+         long bits = prefix.getAddress().asLong();
          _root.addPrefixRange(prefixRange, bits, prefixLength, 0);
       }
 
@@ -52,10 +49,16 @@ public class PrefixSpace implements Serializable {
       public boolean containsPrefixRange(PrefixRange prefixRange) {
          Prefix prefix = prefixRange.getPrefix();
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = getAddressBits(prefix.getAddress());
+         long bits = prefix.getAddress().asLong();
          return _root.containsPrefixRange(prefixRange, bits, prefixLength, 0);
       }
 
+      public boolean containsPrefixWithin(Prefix prefix) {
+         int prefixLength = prefix.getPrefixLength();
+         long bits = prefix.getAddress().asLong();
+         return _root.containsPrefixWithin(bits, prefixLength, 0);
+      }
+
       public Set<PrefixRange> getPrefixRanges() {
          Set<PrefixRange> prefixRanges = new HashSet<>();
          _root.collectPrefixRanges(prefixRanges);
@@ -81,7 +84,7 @@ public class PrefixSpace implements Serializable {
          _prefixRanges = new HashSet<>();
       }
 
-      public void addPrefixRange(PrefixRange prefixRange, BitSet bits,
+      public void addPrefixRange(PrefixRange prefixRange, long bits,
             int prefixLength, int depth) {
          for (PrefixRange nodeRange : _prefixRanges) {
             if (nodeRange.includesPrefixRange(prefixRange)) {
@@ -93,7 +96,7 @@ public class PrefixSpace implements Serializable {
             prune(prefixRange);
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = getBit(bits, depth);
             if (currentBit) {
                if (_right == null) {
                   _right = new BitTrieNode();
@@ -120,7 +123,7 @@ public class PrefixSpace implements Serializable {
          }
       }
 
-      public boolean containsPrefixRange(PrefixRange prefixRange, BitSet bits,
+      public boolean containsPrefixRange(PrefixRange prefixRange, long bits,
             int prefixLength, int depth) {
          for (PrefixRange nodeRange : _prefixRanges) {
             if (nodeRange.includesPrefixRange(prefixRange)) {
@@ -131,7 +134,7 @@ public class PrefixSpace implements Serializable {
             return false;
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = getBit(bits, depth);
             if (currentBit) {
                if (_right == null) {
                   return false;
@@ -153,6 +156,23 @@ public class PrefixSpace implements Serializable {
          }
       }
 
+      public boolean containsPrefixWithin(long bits, int prefixLength,
+            int depth) {
+         for (PrefixRange nodeRange : _prefixRanges) {
+            if (nodeRange.getLengthRange().getEnd() >= prefixLength) {
+               return true;
+            }
+         }
+         if (prefixLength == depth) {
+            return _left != null || _right != null;
+         }
+         else {
+            BitTrieNode child = getBit(bits, depth) ? _right : _left;
+            return child != null
+                  && child.containsPrefixWithin(bits, prefixLength, depth + 1);
+         }
+      }
+
       private boolean isEmpty() {
          return _left == null && _right == null && _prefixRanges.isEmpty();
       }
@@ -187,17 +207,12 @@ public class PrefixSpace implements Serializable {
     */
    private static final long serialVersionUID = 1L;
 
-   private static BitSet getAddressBits(Ip address) {
-      int addressAsInt = (int) (address.asLong());
-      ByteBuffer b = ByteBuffer.allocate(4);
-      b.order(ByteOrder.LITTLE_ENDIAN);
-      b.putInt(addressAsInt);
-      BitSet bitsWithHighestMostSignificant = BitSet.valueOf(b.array());
-      BitSet bits = new BitSet(Prefix.MAX_PREFIX_LENGTH);
-      for (int i = Prefix.MAX_PREFIX_LENGTH - 1, j = 0; i >= 0; i--, j++) {
-         bits.set(j, bitsWithHighestMostSignificant.get(i));
-      }
-      return bits;
+   /**
+    * Returns the bit of the supplied address at the supplied depth, counting
+    * from the most significant bit
+    */
+   private static boolean getBit(long bits, int depth) {
+      return ((bits >>> (Prefix.MAX_PREFIX_LENGTH - 1 - depth)) & 1L) == 1L;
    }
 
    private transient ConcurrentMap<Prefix, Boolean> _cache;
@@ -246,6 +261,14 @@ public class PrefixSpace implements Serializable {
       return _trie.containsPrefixRange(prefixRange);
    }
 
+   /**
+    * Returns true if this space contains some prefix equal to or more specific
+    * than the supplied prefix
+    */
+   public boolean containsPrefixWithin(Prefix prefix) {
+      return _trie.containsPrefixWithin(prefix);
+   }
+
    @Override
    public boolean equals(Object obj) {
       if (this == obj) {
@@ -1,12 +1,7 @@
 package org.batfish.datamodel;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.batfish.common.util.ComparableStructure;
 
@@ -22,11 +17,12 @@ public class RouteFilterList extends ComparableStructure<String> {
 
    private static final long serialVersionUID = 1L;
 
-   private transient Set<Prefix> _deniedCache;
-
    private List<RouteFilterLine> _lines;
 
-   private transient Set<Prefix> _permittedCache;
+   /**
+    * The lines compiled for matching, built when first needed
+    */
+   private transient volatile RouteFilterTrie _trie;
 
    @JsonCreator
    public RouteFilterList(@JsonProperty(NAME_VAR) String name) {
@@ -36,6 +32,7 @@ public class RouteFilterList extends ComparableStructure<String> {
 
    public void addLine(RouteFilterLine r) {
       _lines.add(r);
+      _trie = null;
    }
 
    @Override
@@ -53,56 +50,21 @@ public class RouteFilterList extends ComparableStructure<String> {
       return _lines;
    }
 
-   private boolean newPermits(Prefix prefix) {
-      boolean accept = false;
-      for (RouteFilterLine line : _lines) {
-         Prefix linePrefix = line.getPrefix();
-         int lineBits = linePrefix.getPrefixLength();
-         Prefix truncatedLinePrefix = new Prefix(linePrefix.getAddress(),
-               lineBits);
-         Prefix relevantPortion = new Prefix(prefix.getAddress(), lineBits)
-               .getNetworkPrefix();
-         if (relevantPortion.equals(truncatedLinePrefix)) {
-            int prefixLength = prefix.getPrefixLength();
-            SubRange range = line.getLengthRange();
-            int min = range.getStart();
-            int max = range.getEnd();
-            if (prefixLength >= min && prefixLength <= max) {
-               accept = line.getAction() == LineAction.ACCEPT;
-               break;
-            }
-         }
-
-      }
-      if (accept) {
-         _permittedCache.add(prefix);
-      }
-      else {
-         _deniedCache.add(prefix);
-      }
-      return accept;
-   }
-
    public boolean permits(Prefix prefix) {
-      if (_deniedCache.contains(prefix)) {
-         return false;
-      }
-      else if (_permittedCache.contains(prefix)) {
-         return true;
+      RouteFilterTrie trie = _trie;
+      if (trie == null) {
+         trie = new RouteFilterTrie(_lines);
+         _trie = trie;
       }
-      return newPermits(prefix);
-   }
-
-   private void readObject(ObjectInputStream in)
-         throws IOException, ClassNotFoundException {
-      in.defaultReadObject();
-      _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-      _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      int firstLine = trie.getFirstMatchingLine(prefix);
+      return firstLine >= 0
+            && _lines.get(firstLine).getAction() == LineAction.ACCEPT;
    }
 
    @JsonProperty(LINES_VAR)
    public void setLines(List<RouteFilterLine> lines) {
       _lines = lines;
+      _trie = null;
    }
 
 }
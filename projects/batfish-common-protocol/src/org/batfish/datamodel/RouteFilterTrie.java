@@ -0,0 +1,104 @@
+package org.batfish.datamodel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The lines of a {@link RouteFilterList} compiled into a binary trie over the
+ * bits of their prefixes. Each node on the path of a line's prefix records,
+ * for every prefix length, the first line ending there whose length range
+ * contains that length, so the first line matching a prefix is found by a
+ * single walk along the bits of its address.
+ */
+final class RouteFilterTrie {
+
+   private static final class Node {
+
+      /**
+       * Index of the first line ending at this node that matches each prefix
+       * length, or -1 if there is none; null if no line ends at this node
+       */
+      private int[] _firstLines;
+
+      private Node _left;
+
+      private Node _right;
+
+   }
+
+   private static final int NO_LINE = -1;
+
+   private static boolean getBit(long bits, int depth) {
+      return ((bits >>> (Prefix.MAX_PREFIX_LENGTH - 1 - depth)) & 1L) == 1L;
+   }
+
+   private final Node _root;
+
+   RouteFilterTrie(List<RouteFilterLine> lines) {
+      _root = new Node();
+      for (int i = 0; i < lines.size(); i++) {
+         RouteFilterLine line = lines.get(i);
+         Prefix linePrefix = line.getPrefix();
+         if (!linePrefix.getAddress().equals(linePrefix.getNetworkAddress())) {
+            // a line whose address has host bits set never matches, since the
+            // network bits of a prefix never have host bits set
+            continue;
+         }
+         long bits = linePrefix.getAddress().asLong();
+         int lineBits = linePrefix.getPrefixLength();
+         Node node = _root;
+         for (int depth = 0; depth < lineBits; depth++) {
+            if (getBit(bits, depth)) {
+               if (node._right == null) {
+                  node._right = new Node();
+               }
+               node = node._right;
+            }
+            else {
+               if (node._left == null) {
+                  node._left = new Node();
+               }
+               node = node._left;
+            }
+         }
+         if (node._firstLines == null) {
+            node._firstLines = new int[Prefix.MAX_PREFIX_LENGTH + 1];
+            Arrays.fill(node._firstLines, NO_LINE);
+         }
+         SubRange range = line.getLengthRange();
+         int min = Math.max(range.getStart(), 0);
+         int max = Math.min(range.getEnd(), Prefix.MAX_PREFIX_LENGTH);
+         for (int length = min; length <= max; length++) {
+            if (node._firstLines[length] == NO_LINE) {
+               node._firstLines[length] = i;
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the index of the first line matching the supplied prefix, or -1
+    * if no line matches it
+    */
+   int getFirstMatchingLine(Prefix prefix) {
+      long bits = prefix.getAddress().asLong();
+      int prefixLength = prefix.getPrefixLength();
+      int firstLine = NO_LINE;
+      Node node = _root;
+      for (int depth = 0; node != null; depth++) {
+         if (node._firstLines != null) {
+            int nodeLine = node._firstLines[prefixLength];
+            if (nodeLine != NO_LINE
+                  && (firstLine == NO_LINE || nodeLine < firstLine)) {
+               firstLine = nodeLine;
+            }
+         }
+         if (depth == Prefix.MAX_PREFIX_LENGTH) {
+            break;
+         }
+         node = getBit(bits, depth) ? node._right : node._left;
+      }
+      return firstLine;
+   }
+
+}
@@ -0,0 +1,91 @@
+package org.batfish.datamodel;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Node, vrf, protocol, and prefix-space constraints on the routes of a
+ * computed data plane. Empty protocol sets and prefix spaces impose no
+ * constraint.
+ */
+public class RouteQuery {
+
+   private static final Pattern MATCH_ALL = Pattern.compile(".*");
+
+   private final boolean _anyPrefix;
+
+   private final Pattern _nodeRegex;
+
+   private final PrefixSpace _prefixSpace;
+
+   private final Set<RoutingProtocol> _protocols;
+
+   private final Pattern _vrfRegex;
+
+   public RouteQuery() {
+      this(MATCH_ALL, MATCH_ALL, Collections.emptySet(), new PrefixSpace());
+   }
+
+   public RouteQuery(Pattern nodeRegex, Pattern vrfRegex,
+         Set<RoutingProtocol> protocols, PrefixSpace prefixSpace) {
+      _nodeRegex = nodeRegex;
+      _vrfRegex = vrfRegex;
+      _protocols = protocols;
+      _prefixSpace = prefixSpace;
+      _anyPrefix = prefixSpace.isEmpty();
+   }
+
+   public Pattern getNodeRegex() {
+      return _nodeRegex;
+   }
+
+   public PrefixSpace getPrefixSpace() {
+      return _prefixSpace;
+   }
+
+   public Set<RoutingProtocol> getProtocols() {
+      return _protocols;
+   }
+
+   public Pattern getVrfRegex() {
+      return _vrfRegex;
+   }
+
+   public boolean matches(Route route) {
+      return matchesNode(route.getNode()) && matchesVrf(route.getVrf())
+            && matchesProtocol(route.getProtocol())
+            && matchesNetwork(route.getNetwork());
+   }
+
+   public boolean matches(AbstractRoute route) {
+      return matchesProtocol(route.getProtocol())
+            && matchesNetwork(route.getNetwork());
+   }
+
+   public boolean matchesNetwork(Prefix network) {
+      return _anyPrefix || _prefixSpace.containsPrefix(network);
+   }
+
+   /**
+    * Returns false only if no network equal to or more specific than the
+    * supplied prefix can match this query, so that a search may skip every
+    * route under that prefix.
+    */
+   public boolean matchesNetworksWithin(Prefix prefix) {
+      return _anyPrefix || _prefixSpace.containsPrefixWithin(prefix);
+   }
+
+   public boolean matchesNode(String hostname) {
+      return _nodeRegex.matcher(hostname).matches();
+   }
+
+   public boolean matchesProtocol(RoutingProtocol protocol) {
+      return _protocols.isEmpty() || _protocols.contains(protocol);
+   }
+
+   public boolean matchesVrf(String vrfName) {
+      return _vrfRegex.matcher(vrfName).matches();
+   }
+
+}
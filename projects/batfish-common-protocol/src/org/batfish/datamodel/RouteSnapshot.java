@@ -0,0 +1,398 @@
+package org.batfish.datamodel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.batfish.common.BatfishException;
+
+/**
+ * The routes of a computed data plane, stored as one sorted, columnar,
+ * compressed file per node in a directory, so that the routes of two data
+ * planes can be diffed node by node with a streaming merge of their files.
+ * <p>
+ * The routes of a node are stored in their natural order in blocks of at most
+ * {@link #BLOCK_SIZE} routes. Each block holds one column per field of a
+ * route, with strings replaced by indices into a dictionary local to the
+ * block. Reading a file holds a single block in memory, and only routes that
+ * differ between two files are turned into {@link Route}s.
+ */
+public final class RouteSnapshot {
+
+   /**
+    * A cursor over the routes of one node file, decoding one block at a time
+    */
+   private static final class Cursor implements AutoCloseable {
+
+      private int[] _administrativeCost;
+
+      private int _blockIndex;
+
+      private int _blockSize;
+
+      private final DataInputStream _in;
+
+      private int[] _metric;
+
+      private long[] _network;
+
+      private int[] _nextHop;
+
+      private int[] _nextHopInterface;
+
+      private long[] _nextHopIp;
+
+      private final String _node;
+
+      private RoutingProtocol[] _protocol;
+
+      private int _remaining;
+
+      private String[] _strings;
+
+      private int[] _tag;
+
+      private int[] _vrf;
+
+      private Cursor(Path file) throws IOException {
+         if (file == null || !Files.exists(file)) {
+            _in = null;
+            _node = null;
+            _remaining = 0;
+         }
+         else {
+            _in = new DataInputStream(new GZIPInputStream(
+                  new BufferedInputStream(Files.newInputStream(file))));
+            if (_in.readInt() != FORMAT_VERSION) {
+               _in.close();
+               throw new BatfishException(
+                     "Unsupported route snapshot format: " + file);
+            }
+            _node = _in.readUTF();
+            _remaining = _in.readInt();
+         }
+         _blockIndex = 0;
+         _blockSize = 0;
+      }
+
+      /**
+       * Advances to the next route, returning false if there is none
+       */
+      private boolean advance() throws IOException {
+         _blockIndex++;
+         if (_blockIndex < _blockSize) {
+            return true;
+         }
+         if (_remaining == 0) {
+            return false;
+         }
+         readBlock();
+         return true;
+      }
+
+      @Override
+      public void close() throws IOException {
+         if (_in != null) {
+            _in.close();
+         }
+      }
+
+      /**
+       * Compares the current routes of two cursors in the natural order of
+       * routes, which is that of {@link Route#compareTo(Route)}
+       */
+      private int compareTo(Cursor rhs) {
+         int i = _blockIndex;
+         int j = rhs._blockIndex;
+         int result = getString(_vrf[i])
+               .compareTo(rhs.getString(rhs._vrf[j]));
+         if (result != 0) {
+            return result;
+         }
+         result = Long.compare(_network[i], rhs._network[j]);
+         if (result != 0) {
+            return result;
+         }
+         result = Long.compare(_nextHopIp[i], rhs._nextHopIp[j]);
+         if (result != 0) {
+            return result;
+         }
+         result = Integer.compare(_administrativeCost[i],
+               rhs._administrativeCost[j]);
+         if (result != 0) {
+            return result;
+         }
+         result = Integer.compare(_metric[i], rhs._metric[j]);
+         if (result != 0) {
+            return result;
+         }
+         result = _protocol[i].compareTo(rhs._protocol[j]);
+         if (result != 0) {
+            return result;
+         }
+         return Integer.compare(_tag[i], rhs._tag[j]);
+      }
+
+      private String getString(int index) {
+         return index == NULL_STRING ? null : _strings[index];
+      }
+
+      private void readBlock() throws IOException {
+         int size = Math.min(_remaining, BLOCK_SIZE);
+         int numStrings = _in.readInt();
+         _strings = new String[numStrings];
+         for (int i = 0; i < numStrings; i++) {
+            _strings[i] = _in.readUTF();
+         }
+         _vrf = readInts(size);
+         _network = readLongs(size);
+         _nextHopIp = readLongs(size);
+         _administrativeCost = readInts(size);
+         _metric = readInts(size);
+         int[] protocol = readInts(size);
+         _protocol = new RoutingProtocol[size];
+         for (int i = 0; i < size; i++) {
+            _protocol[i] = RoutingProtocol.valueOf(_strings[protocol[i]]);
+         }
+         _tag = readInts(size);
+         _nextHop = readInts(size);
+         _nextHopInterface = readInts(size);
+         _remaining -= size;
+         _blockSize = size;
+         _blockIndex = 0;
+      }
+
+      private int[] readInts(int size) throws IOException {
+         int[] column = new int[size];
+         for (int i = 0; i < size; i++) {
+            column[i] = _in.readInt();
+         }
+         return column;
+      }
+
+      private long[] readLongs(int size) throws IOException {
+         long[] column = new long[size];
+         for (int i = 0; i < size; i++) {
+            column[i] = _in.readLong();
+         }
+         return column;
+      }
+
+      /**
+       * Materializes the current route
+       */
+      private Route toRoute() {
+         int i = _blockIndex;
+         long network = _network[i];
+         Prefix prefix = new Prefix(new Ip(network >>> PREFIX_LENGTH_BITS),
+               (int) (network & PREFIX_LENGTH_MASK));
+         return new Route(_node, getString(_vrf[i]), prefix,
+               new Ip(_nextHopIp[i]), getString(_nextHop[i]),
+               getString(_nextHopInterface[i]), _administrativeCost[i],
+               _metric[i], _protocol[i], _tag[i]);
+      }
+
+   }
+
+   /**
+    * Encodes the strings of a block as indices into a dictionary of the
+    * distinct strings of the block
+    */
+   private static final class StringDictionary {
+
+      private final Map<String, Integer> _indices = new HashMap<>();
+
+      private final List<String> _strings = new ArrayList<>();
+
+      private int encode(String string) {
+         if (string == null) {
+            return NULL_STRING;
+         }
+         return _indices.computeIfAbsent(string, s -> {
+            _strings.add(s);
+            return _strings.size() - 1;
+         });
+      }
+
+   }
+
+   public static final int BLOCK_SIZE = 4096;
+
+   private static final int FORMAT_VERSION = 1;
+
+   private static final int NULL_STRING = -1;
+
+   /**
+    * Number of low bits of an encoded network holding its prefix length, so
+    * that encoded networks sort as {@link Prefix}es do
+    */
+   private static final int PREFIX_LENGTH_BITS = 6;
+
+   private static final long PREFIX_LENGTH_MASK = (1L << PREFIX_LENGTH_BITS)
+         - 1;
+
+   /**
+    * Streams the differences between the routes of a node in two snapshots,
+    * in the natural order of routes. Routes only present in the base snapshot
+    * are passed to the supplied removed consumer, and routes only present in
+    * the delta snapshot to the supplied added consumer. A node missing from a
+    * snapshot has no routes in it.
+    */
+   public static void diff(RouteSnapshot base, RouteSnapshot delta,
+         String node, Consumer<Route> removed, Consumer<Route> added) {
+      try (Cursor baseCursor = new Cursor(base.getNodeFile(node));
+            Cursor deltaCursor = new Cursor(delta.getNodeFile(node))) {
+         boolean hasBase = baseCursor.advance();
+         boolean hasDelta = deltaCursor.advance();
+         while (hasBase && hasDelta) {
+            int result = baseCursor.compareTo(deltaCursor);
+            if (result < 0) {
+               removed.accept(baseCursor.toRoute());
+               hasBase = baseCursor.advance();
+            }
+            else if (result > 0) {
+               added.accept(deltaCursor.toRoute());
+               hasDelta = deltaCursor.advance();
+            }
+            else {
+               hasBase = baseCursor.advance();
+               hasDelta = deltaCursor.advance();
+            }
+         }
+         while (hasBase) {
+            removed.accept(baseCursor.toRoute());
+            hasBase = baseCursor.advance();
+         }
+         while (hasDelta) {
+            added.accept(deltaCursor.toRoute());
+            hasDelta = deltaCursor.advance();
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Error diffing route snapshots of node: " + node, e);
+      }
+   }
+
+   private static long encodeNetwork(Prefix network) {
+      return (network.getAddress().asLong() << PREFIX_LENGTH_BITS)
+            | network.getPrefixLength();
+   }
+
+   private static void writeInts(DataOutputStream out, int[] column)
+         throws IOException {
+      for (int value : column) {
+         out.writeInt(value);
+      }
+   }
+
+   private static void writeLongs(DataOutputStream out, long[] column)
+         throws IOException {
+      for (long value : column) {
+         out.writeLong(value);
+      }
+   }
+
+   private final Path _dir;
+
+   public RouteSnapshot(Path dir) {
+      _dir = dir;
+   }
+
+   private Path getNodeFile(String node) {
+      return _dir.resolve(node);
+   }
+
+   /**
+    * Returns the names of the nodes whose routes are in this snapshot
+    */
+   public SortedSet<String> getNodes() {
+      SortedSet<String> nodes = new TreeSet<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(_dir)) {
+         for (Path file : stream) {
+            nodes.add(file.getFileName().toString());
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Error listing route snapshot directory: " + _dir, e);
+      }
+      return nodes;
+   }
+
+   /**
+    * Writes the supplied routes of a node to this snapshot, replacing any
+    * routes of that node already in it
+    */
+   public void writeNode(String node, SortedSet<Route> routes) {
+      Path file = getNodeFile(node);
+      try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file))))) {
+         out.writeInt(FORMAT_VERSION);
+         out.writeUTF(node);
+         out.writeInt(routes.size());
+         Iterator<Route> iterator = routes.iterator();
+         int remaining = routes.size();
+         while (remaining > 0) {
+            int size = Math.min(remaining, BLOCK_SIZE);
+            StringDictionary strings = new StringDictionary();
+            int[] vrf = new int[size];
+            long[] network = new long[size];
+            long[] nextHopIp = new long[size];
+            int[] administrativeCost = new int[size];
+            int[] metric = new int[size];
+            int[] protocol = new int[size];
+            int[] tag = new int[size];
+            int[] nextHop = new int[size];
+            int[] nextHopInterface = new int[size];
+            for (int i = 0; i < size; i++) {
+               Route route = iterator.next();
+               vrf[i] = strings.encode(route.getVrf());
+               network[i] = encodeNetwork(route.getNetwork());
+               nextHopIp[i] = route.getNextHopIp().asLong();
+               administrativeCost[i] = route.getAdministrativeCost();
+               metric[i] = route.getMetric();
+               protocol[i] = strings.encode(route.getProtocol().name());
+               tag[i] = route.getTag();
+               nextHop[i] = strings.encode(route.getNextHop());
+               nextHopInterface[i] = strings
+                     .encode(route.getNextHopInterface());
+            }
+            out.writeInt(strings._strings.size());
+            for (String string : strings._strings) {
+               out.writeUTF(string);
+            }
+            writeInts(out, vrf);
+            writeLongs(out, network);
+            writeLongs(out, nextHopIp);
+            writeInts(out, administrativeCost);
+            writeInts(out, metric);
+            writeInts(out, protocol);
+            writeInts(out, tag);
+            writeInts(out, nextHop);
+            writeInts(out, nextHopInterface);
+            remaining -= size;
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Error writing route snapshot of node: " + node, e);
+      }
+   }
+
+}
@@ -0,0 +1,234 @@
+package org.batfish.datamodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.batfish.datamodel.collections.NodeInterfacePair;
+
+/**
+ * Immutable lookup structures used to match BGP, OSPF, and IPsec sessions and
+ * to synthesize topology, built once per loaded set of configurations.
+ * <p>
+ * Multi-access subnets are kept as buckets of interfaces rather than as edges
+ * between every pair of their members.
+ */
+public final class SessionIndex {
+
+   /**
+    * Entries contributed by a single configuration, built independently so
+    * that configurations can be indexed in parallel
+    */
+   private static final class NodeEntries {
+
+      private final Map<Ip, List<BgpNeighbor>> _bgpNeighborsByLocalIp = new HashMap<>();
+
+      private final String _hostname;
+
+      private final Map<NodeInterfacePair, Interface> _interfaces = new HashMap<>();
+
+      private final Map<Ip, Set<NodeInterfacePair>> _interfacesByIp = new HashMap<>();
+
+      private final Map<Ip, Set<IpsecVpn>> _ipsecVpnsByExternalIp = new HashMap<>();
+
+      private final Set<Ip> _loopbackIps = new HashSet<>();
+
+      private final Map<Prefix, Set<NodeInterfacePair>> _subnetInterfaces = new HashMap<>();
+
+      private NodeEntries(Configuration c) {
+         _hostname = c.getHostname();
+         ConfigurationFormat format = c.getConfigurationFormat();
+         for (Entry<String, Interface> e : c.getInterfaces().entrySet()) {
+            Interface iface = e.getValue();
+            NodeInterfacePair pair = new NodeInterfacePair(_hostname,
+                  e.getKey());
+            _interfaces.put(pair, iface);
+            if (!iface.getActive()) {
+               continue;
+            }
+            boolean loopback = iface.isLoopback(format);
+            if (iface.getPrefix() != null) {
+               for (Prefix prefix : iface.getAllPrefixes()) {
+                  Ip address = prefix.getAddress();
+                  _interfacesByIp
+                        .computeIfAbsent(address, a -> new HashSet<>())
+                        .add(pair);
+                  if (loopback) {
+                     _loopbackIps.add(address);
+                  }
+               }
+            }
+            if (!loopback) {
+               for (Prefix prefix : iface.getAllPrefixes()) {
+                  if (prefix.getPrefixLength() < Prefix.MAX_PREFIX_LENGTH) {
+                     Prefix network = new Prefix(prefix.getNetworkAddress(),
+                           prefix.getPrefixLength());
+                     _subnetInterfaces
+                           .computeIfAbsent(network, n -> new HashSet<>())
+                           .add(pair);
+                  }
+               }
+            }
+         }
+         for (Vrf vrf : c.getVrfs().values()) {
+            BgpProcess proc = vrf.getBgpProcess();
+            if (proc != null) {
+               for (BgpNeighbor bgpNeighbor : proc.getNeighbors().values()) {
+                  Ip localIp = bgpNeighbor.getLocalIp();
+                  if (localIp != null) {
+                     _bgpNeighborsByLocalIp
+                           .computeIfAbsent(localIp, ip -> new ArrayList<>())
+                           .add(bgpNeighbor);
+                  }
+               }
+            }
+         }
+         for (IpsecVpn ipsecVpn : c.getIpsecVpns().values()) {
+            IkeGateway ikeGateway = ipsecVpn.getIkeGateway();
+            if (ikeGateway == null
+                  || ikeGateway.getExternalInterface() == null) {
+               continue;
+            }
+            for (Prefix externalPrefix : ikeGateway.getExternalInterface()
+                  .getAllPrefixes()) {
+               _ipsecVpnsByExternalIp
+                     .computeIfAbsent(externalPrefix.getAddress(),
+                           ip -> new HashSet<>())
+                     .add(ipsecVpn);
+            }
+         }
+      }
+
+   }
+
+   private static <K, V> Map<K, Set<V>> freezeSets(Map<K, Set<V>> map) {
+      map.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+      return Collections.unmodifiableMap(map);
+   }
+
+   private final Map<Ip, SortedMap<String, List<BgpNeighbor>>> _bgpNeighborsByLocalIp;
+
+   private final Map<String, Configuration> _configurations;
+
+   private final Map<Ip, Set<String>> _interfaceOwners;
+
+   private final Map<NodeInterfacePair, Interface> _interfaces;
+
+   private final Map<Ip, Set<NodeInterfacePair>> _interfacesByIp;
+
+   private final Map<Ip, Set<IpsecVpn>> _ipsecVpnsByExternalIp;
+
+   private final Set<Ip> _loopbackIps;
+
+   private final Map<Prefix, Set<NodeInterfacePair>> _subnetInterfaces;
+
+   /**
+    * Indexes the supplied configurations, one configuration per thread, in
+    * their current state. The index must be rebuilt if interfaces are later
+    * activated or deactivated.
+    */
+   public SessionIndex(Map<String, Configuration> configurations) {
+      _configurations = configurations;
+      List<NodeEntries> nodeEntries = configurations.values().parallelStream()
+            .map(NodeEntries::new).collect(Collectors.toList());
+      Map<Ip, SortedMap<String, List<BgpNeighbor>>> bgpNeighborsByLocalIp = new HashMap<>();
+      Map<NodeInterfacePair, Interface> interfaces = new HashMap<>();
+      Map<Ip, Set<NodeInterfacePair>> interfacesByIp = new HashMap<>();
+      Map<Ip, Set<IpsecVpn>> ipsecVpnsByExternalIp = new HashMap<>();
+      Set<Ip> loopbackIps = new HashSet<>();
+      Map<Prefix, Set<NodeInterfacePair>> subnetInterfaces = new HashMap<>();
+      for (NodeEntries entries : nodeEntries) {
+         entries._bgpNeighborsByLocalIp
+               .forEach((ip, neighbors) -> bgpNeighborsByLocalIp
+                     .computeIfAbsent(ip, i -> new TreeMap<>())
+                     .put(entries._hostname,
+                           Collections.unmodifiableList(neighbors)));
+         interfaces.putAll(entries._interfaces);
+         entries._interfacesByIp.forEach((ip, pairs) -> interfacesByIp
+               .computeIfAbsent(ip, i -> new TreeSet<>()).addAll(pairs));
+         entries._ipsecVpnsByExternalIp
+               .forEach((ip, vpns) -> ipsecVpnsByExternalIp
+                     .computeIfAbsent(ip, i -> new HashSet<>()).addAll(vpns));
+         loopbackIps.addAll(entries._loopbackIps);
+         entries._subnetInterfaces
+               .forEach((network, pairs) -> subnetInterfaces
+                     .computeIfAbsent(network, n -> new TreeSet<>())
+                     .addAll(pairs));
+      }
+      Map<Ip, Set<String>> interfaceOwners = new HashMap<>();
+      interfacesByIp.forEach((ip, pairs) -> interfaceOwners.put(ip, pairs
+            .stream().map(NodeInterfacePair::getHostname)
+            .collect(Collectors.toCollection(HashSet::new))));
+      bgpNeighborsByLocalIp.replaceAll(
+            (ip, neighbors) -> Collections.unmodifiableSortedMap(neighbors));
+      _bgpNeighborsByLocalIp = Collections
+            .unmodifiableMap(bgpNeighborsByLocalIp);
+      _interfaceOwners = freezeSets(interfaceOwners);
+      _interfaces = Collections.unmodifiableMap(interfaces);
+      _interfacesByIp = freezeSets(interfacesByIp);
+      _ipsecVpnsByExternalIp = freezeSets(ipsecVpnsByExternalIp);
+      _loopbackIps = Collections.unmodifiableSet(loopbackIps);
+      _subnetInterfaces = freezeSets(subnetInterfaces);
+   }
+
+   /**
+    * Returns the BGP neighbors whose local address is the supplied ip, grouped
+    * by the hostname of the configuration declaring them
+    */
+   public SortedMap<String, List<BgpNeighbor>> getBgpNeighborsByLocalIp(
+         Ip localIp) {
+      SortedMap<String, List<BgpNeighbor>> neighbors = _bgpNeighborsByLocalIp
+            .get(localIp);
+      return neighbors != null ? neighbors : Collections.emptySortedMap();
+   }
+
+   public Map<String, Configuration> getConfigurations() {
+      return _configurations;
+   }
+
+   public Interface getInterface(NodeInterfacePair pair) {
+      return _interfaces.get(pair);
+   }
+
+   /**
+    * Returns the hostnames owning each address of an active interface. Unlike
+    * data plane ip ownership, VRRP virtual addresses are not included.
+    */
+   public Map<Ip, Set<String>> getInterfaceOwners() {
+      return _interfaceOwners;
+   }
+
+   /**
+    * Returns the active interfaces having each address
+    */
+   public Map<Ip, Set<NodeInterfacePair>> getInterfacesByIp() {
+      return _interfacesByIp;
+   }
+
+   public Set<IpsecVpn> getIpsecVpnsByExternalIp(Ip externalIp) {
+      Set<IpsecVpn> ipsecVpns = _ipsecVpnsByExternalIp.get(externalIp);
+      return ipsecVpns != null ? ipsecVpns : Collections.emptySet();
+   }
+
+   public Set<Ip> getLoopbackIps() {
+      return _loopbackIps;
+   }
+
+   /**
+    * Returns the active non-loopback interfaces attached to each subnet
+    * shorter than /32, keyed by network
+    */
+   public Map<Prefix, Set<NodeInterfacePair>> getSubnetInterfaces() {
+      return _subnetInterfaces;
+   }
+
+}
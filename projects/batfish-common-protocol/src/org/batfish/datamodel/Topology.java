@@ -1,10 +1,17 @@
 package org.batfish.datamodel;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -13,8 +20,109 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+/**
+ * The edges between interfaces of a network. Besides explicit edges, a
+ * topology may hold multi-access segments, i.e. sets of interfaces every two
+ * of which are adjacent, whose edges are only materialized for the
+ * interfaces and nodes that are looked up.
+ */
 public class Topology implements Serializable {
 
+   /**
+    * Read-only view of the edges of each interface
+    */
+   private final class InterfaceEdges
+         extends AbstractMap<NodeInterfacePair, EdgeSet> {
+
+      @Override
+      public boolean containsKey(Object key) {
+         return _interfaceEdges.containsKey(key)
+               || _interfaceSegments.containsKey(key);
+      }
+
+      @Override
+      public Set<Entry<NodeInterfacePair, EdgeSet>> entrySet() {
+         Map<NodeInterfacePair, EdgeSet> interfaceEdges = new HashMap<>();
+         for (NodeInterfacePair iface : _interfaceEdges.keySet()) {
+            interfaceEdges.put(iface, get(iface));
+         }
+         for (NodeInterfacePair iface : _interfaceSegments.keySet()) {
+            interfaceEdges.put(iface, get(iface));
+         }
+         return interfaceEdges.entrySet();
+      }
+
+      @Override
+      public EdgeSet get(Object key) {
+         if (!_interfaceSegments.containsKey(key)) {
+            return _interfaceEdges.get(key);
+         }
+         return _segmentInterfaceEdges.computeIfAbsent(
+               (NodeInterfacePair) key, iface -> {
+                  EdgeSet edges = new EdgeSet();
+                  EdgeSet explicitEdges = _interfaceEdges.get(iface);
+                  if (explicitEdges != null) {
+                     edges.addAll(explicitEdges);
+                  }
+                  for (Set<NodeInterfacePair> segment : _interfaceSegments
+                        .get(iface)) {
+                     for (NodeInterfacePair neighbor : segment) {
+                        if (!neighbor.equals(iface)) {
+                           edges.add(new Edge(iface, neighbor));
+                           edges.add(new Edge(neighbor, iface));
+                        }
+                     }
+                  }
+                  return edges;
+               });
+      }
+
+   }
+
+   /**
+    * Read-only view of the edges of each node
+    */
+   private final class NodeEdges extends AbstractMap<String, EdgeSet> {
+
+      @Override
+      public boolean containsKey(Object key) {
+         return _nodeEdges.containsKey(key)
+               || _nodeSegmentInterfaces.containsKey(key);
+      }
+
+      @Override
+      public Set<Entry<String, EdgeSet>> entrySet() {
+         Map<String, EdgeSet> nodeEdges = new HashMap<>();
+         for (String node : _nodeEdges.keySet()) {
+            nodeEdges.put(node, get(node));
+         }
+         for (String node : _nodeSegmentInterfaces.keySet()) {
+            nodeEdges.put(node, get(node));
+         }
+         return nodeEdges.entrySet();
+      }
+
+      @Override
+      public EdgeSet get(Object key) {
+         if (!_nodeSegmentInterfaces.containsKey(key)) {
+            return _nodeEdges.get(key);
+         }
+         return _segmentNodeEdges.computeIfAbsent((String) key, node -> {
+            EdgeSet edges = new EdgeSet();
+            EdgeSet explicitEdges = _nodeEdges.get(node);
+            if (explicitEdges != null) {
+               edges.addAll(explicitEdges);
+            }
+            Map<NodeInterfacePair, EdgeSet> interfaceEdges = getInterfaceEdges();
+            for (NodeInterfacePair iface : _nodeSegmentInterfaces.get(node)) {
+               edges.addAll(interfaceEdges.get(iface));
+            }
+            return edges;
+         });
+      }
+
+   }
+
    private static final long serialVersionUID = 1L;
 
    @JsonCreator
@@ -26,84 +134,243 @@ public class Topology implements Serializable {
 
    private final Map<NodeInterfacePair, EdgeSet> _interfaceEdges;
 
+   private transient InterfaceEdges _interfaceEdgesView;
+
+   private final Map<NodeInterfacePair, List<Set<NodeInterfacePair>>> _interfaceSegments;
+
    private final Map<String, EdgeSet> _nodeEdges;
 
+   private transient NodeEdges _nodeEdgesView;
+
+   private final Map<String, Set<NodeInterfacePair>> _nodeSegmentInterfaces;
+
+   private final Map<NodeInterfacePair, EdgeSet> _segmentInterfaceEdges;
+
+   private final Map<String, EdgeSet> _segmentNodeEdges;
+
    public Topology(EdgeSet edges) {
+      this(edges, new ArrayList<>());
+   }
+
+   /**
+    * Creates a topology with the supplied explicit edges and multi-access
+    * segments. Segments with fewer than two interfaces are ignored.
+    */
+   public Topology(EdgeSet edges,
+         Collection<? extends Collection<NodeInterfacePair>> segments) {
       _edges = edges;
       _nodeEdges = new HashMap<>();
       _interfaceEdges = new HashMap<>();
+      _interfaceSegments = new HashMap<>();
+      _nodeSegmentInterfaces = new HashMap<>();
+      _segmentInterfaceEdges = new ConcurrentHashMap<>();
+      _segmentNodeEdges = new ConcurrentHashMap<>();
       for (Edge edge : edges) {
-         String node1 = edge.getNode1();
-         String node2 = edge.getNode2();
-         NodeInterfacePair int1 = edge.getInterface1();
-         NodeInterfacePair int2 = edge.getInterface2();
-
-         EdgeSet node1Edges = _nodeEdges.get(node1);
-         if (node1Edges == null) {
-            node1Edges = new EdgeSet();
-            _nodeEdges.put(node1, node1Edges);
-         }
-         node1Edges.add(edge);
-
-         EdgeSet node2Edges = _nodeEdges.get(node2);
-         if (node2Edges == null) {
-            node2Edges = new EdgeSet();
-            _nodeEdges.put(node2, node2Edges);
+         indexEdge(edge);
+      }
+      for (Collection<NodeInterfacePair> segmentInterfaces : segments) {
+         if (segmentInterfaces.size() < 2) {
+            continue;
          }
-         node2Edges.add(edge);
-
-         EdgeSet interface1Edges = _interfaceEdges.get(int1);
-         if (interface1Edges == null) {
-            interface1Edges = new EdgeSet();
-            _interfaceEdges.put(int1, interface1Edges);
+         Set<NodeInterfacePair> segment = new HashSet<>(segmentInterfaces);
+         for (NodeInterfacePair iface : segment) {
+            _interfaceSegments.computeIfAbsent(iface, i -> new ArrayList<>())
+                  .add(segment);
+            _nodeSegmentInterfaces
+                  .computeIfAbsent(iface.getHostname(), n -> new HashSet<>())
+                  .add(iface);
          }
-         interface1Edges.add(edge);
+      }
+   }
 
-         EdgeSet interface2Edges = _interfaceEdges.get(int2);
-         if (interface2Edges == null) {
-            interface2Edges = new EdgeSet();
-            _interfaceEdges.put(int2, interface2Edges);
+   /**
+    * Removes a segment from the segment index, leaving its interfaces in any
+    * other segments they belong to
+    */
+   private void dissolveSegment(Set<NodeInterfacePair> segment) {
+      for (NodeInterfacePair iface : segment) {
+         List<Set<NodeInterfacePair>> ifaceSegments = _interfaceSegments
+               .get(iface);
+         ifaceSegments.remove(segment);
+         if (ifaceSegments.isEmpty()) {
+            _interfaceSegments.remove(iface);
+            Set<NodeInterfacePair> nodeInterfaces = _nodeSegmentInterfaces
+                  .get(iface.getHostname());
+            nodeInterfaces.remove(iface);
+            if (nodeInterfaces.isEmpty()) {
+               _nodeSegmentInterfaces.remove(iface.getHostname());
+            }
          }
-         interface2Edges.add(edge);
       }
    }
 
+   /**
+    * Returns all edges of this topology. If it has multi-access segments,
+    * their edges are materialized into a new set; otherwise the explicit
+    * edges are returned.
+    */
    @JsonIgnore
    public EdgeSet getEdges() {
-      return _edges;
+      if (_interfaceSegments.isEmpty()) {
+         return _edges;
+      }
+      EdgeSet edges = new EdgeSet(_edges);
+      for (List<Set<NodeInterfacePair>> segments : _interfaceSegments
+            .values()) {
+         for (Set<NodeInterfacePair> segment : segments) {
+            for (NodeInterfacePair p1 : segment) {
+               for (NodeInterfacePair p2 : segment) {
+                  if (!p1.equals(p2)) {
+                     edges.add(new Edge(p1, p2));
+                  }
+               }
+            }
+         }
+      }
+      return edges;
    }
 
    @JsonIgnore
    public Map<NodeInterfacePair, EdgeSet> getInterfaceEdges() {
-      return _interfaceEdges;
+      if (_interfaceSegments.isEmpty()) {
+         return _interfaceEdges;
+      }
+      if (_interfaceEdgesView == null) {
+         _interfaceEdgesView = new InterfaceEdges();
+      }
+      return _interfaceEdgesView;
    }
 
    @JsonIgnore
    public Map<String, EdgeSet> getNodeEdges() {
-      return _nodeEdges;
+      if (_interfaceSegments.isEmpty()) {
+         return _nodeEdges;
+      }
+      if (_nodeEdgesView == null) {
+         _nodeEdgesView = new NodeEdges();
+      }
+      return _nodeEdgesView;
+   }
+
+   private void indexEdge(Edge edge) {
+      _nodeEdges.computeIfAbsent(edge.getNode1(), n -> new EdgeSet())
+            .add(edge);
+      _nodeEdges.computeIfAbsent(edge.getNode2(), n -> new EdgeSet())
+            .add(edge);
+      _interfaceEdges.computeIfAbsent(edge.getInterface1(), i -> new EdgeSet())
+            .add(edge);
+      _interfaceEdges.computeIfAbsent(edge.getInterface2(), i -> new EdgeSet())
+            .add(edge);
+   }
+
+   /**
+    * Turns the edges of a segment into explicit edges, so that single edges of
+    * it can be removed
+    */
+   private void materializeSegment(Set<NodeInterfacePair> segment) {
+      dissolveSegment(segment);
+      for (NodeInterfacePair p1 : segment) {
+         for (NodeInterfacePair p2 : segment) {
+            if (!p1.equals(p2)) {
+               Edge edge = new Edge(p1, p2);
+               if (_edges.add(edge)) {
+                  indexEdge(edge);
+               }
+            }
+         }
+      }
    }
 
    public void removeEdge(Edge edge) {
-      _edges.remove(edge);
+      List<Set<NodeInterfacePair>> segments = _interfaceSegments
+            .get(edge.getInterface1());
+      if (segments != null) {
+         for (Set<NodeInterfacePair> segment : new ArrayList<>(segments)) {
+            if (segment.contains(edge.getInterface2())) {
+               materializeSegment(segment);
+            }
+         }
+      }
+      if (_edges.remove(edge)) {
+         unindexEdge(edge);
+      }
+      _segmentInterfaceEdges.clear();
+      _segmentNodeEdges.clear();
    }
 
    public void removeInterface(NodeInterfacePair iface) {
       EdgeSet interfaceEdges = _interfaceEdges.get(iface);
       if (interfaceEdges != null) {
-         _edges.removeAll(interfaceEdges);
+         for (Edge edge : new ArrayList<>(interfaceEdges)) {
+            _edges.remove(edge);
+            unindexEdge(edge);
+         }
+      }
+      List<Set<NodeInterfacePair>> segments = _interfaceSegments.get(iface);
+      if (segments != null) {
+         for (Set<NodeInterfacePair> segment : new ArrayList<>(segments)) {
+            dissolveSegment(segment);
+            segment.remove(iface);
+            if (segment.size() >= 2) {
+               for (NodeInterfacePair remaining : segment) {
+                  _interfaceSegments
+                        .computeIfAbsent(remaining, i -> new ArrayList<>())
+                        .add(segment);
+                  _nodeSegmentInterfaces
+                        .computeIfAbsent(remaining.getHostname(),
+                              n -> new HashSet<>())
+                        .add(remaining);
+               }
+            }
+         }
       }
+      _segmentInterfaceEdges.clear();
+      _segmentNodeEdges.clear();
    }
 
    public void removeNode(String hostname) {
+      Set<NodeInterfacePair> interfaces = new HashSet<>();
       EdgeSet nodeEdges = _nodeEdges.get(hostname);
       if (nodeEdges != null) {
-         _edges.removeAll(nodeEdges);
+         for (Edge edge : nodeEdges) {
+            if (edge.getNode1().equals(hostname)) {
+               interfaces.add(edge.getInterface1());
+            }
+            if (edge.getNode2().equals(hostname)) {
+               interfaces.add(edge.getInterface2());
+            }
+         }
+      }
+      Set<NodeInterfacePair> segmentInterfaces = _nodeSegmentInterfaces
+            .get(hostname);
+      if (segmentInterfaces != null) {
+         interfaces.addAll(segmentInterfaces);
+      }
+      for (NodeInterfacePair iface : interfaces) {
+         removeInterface(iface);
       }
    }
 
    @JsonValue
    public SortedSet<Edge> sortedEdges() {
-      return new TreeSet<>(_edges);
+      return new TreeSet<>(getEdges());
+   }
+
+   private void unindexEdge(Edge edge) {
+      unindexEdge(_nodeEdges, edge.getNode1(), edge);
+      unindexEdge(_nodeEdges, edge.getNode2(), edge);
+      unindexEdge(_interfaceEdges, edge.getInterface1(), edge);
+      unindexEdge(_interfaceEdges, edge.getInterface2(), edge);
+   }
+
+   private <K> void unindexEdge(Map<K, EdgeSet> index, K key, Edge edge) {
+      EdgeSet edges = index.get(key);
+      if (edges != null) {
+         edges.remove(edge);
+         if (edges.isEmpty()) {
+            index.remove(key);
+         }
+      }
    }
 
 }
@@ -1,4 +0,0 @@
-package org.batfish.datamodel.answers;
-
-public class NodFirstUnsatAnswerElement implements AnswerElement {
-}
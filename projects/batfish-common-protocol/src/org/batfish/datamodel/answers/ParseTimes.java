@@ -0,0 +1,80 @@
+package org.batfish.datamodel.answers;
+
+import java.io.Serializable;
+
+/**
+ * Time in milliseconds spent in each stage of parsing a single vendor
+ * configuration file
+ */
+public class ParseTimes implements Serializable {
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   private long _extraction;
+
+   private boolean _llFallback;
+
+   private long _llParse;
+
+   private long _sllParse;
+
+   public ParseTimes() {
+   }
+
+   public ParseTimes(long sllParse, long llParse, boolean llFallback,
+         long extraction) {
+      _sllParse = sllParse;
+      _llParse = llParse;
+      _llFallback = llFallback;
+      _extraction = extraction;
+   }
+
+   /**
+    * Time spent extracting the vendor configuration from the parse tree
+    */
+   public long getExtraction() {
+      return _extraction;
+   }
+
+   /**
+    * Whether the SLL stage gave up and the file was parsed again with full LL
+    * prediction
+    */
+   public boolean getLlFallback() {
+      return _llFallback;
+   }
+
+   /**
+    * Time spent in the LL stage, or zero if the SLL stage succeeded
+    */
+   public long getLlParse() {
+      return _llParse;
+   }
+
+   /**
+    * Time spent lexing and in the SLL stage
+    */
+   public long getSllParse() {
+      return _sllParse;
+   }
+
+   public void setExtraction(long extraction) {
+      _extraction = extraction;
+   }
+
+   public void setLlFallback(boolean llFallback) {
+      _llFallback = llFallback;
+   }
+
+   public void setLlParse(long llParse) {
+      _llParse = llParse;
+   }
+
+   public void setSllParse(long sllParse) {
+      _sllParse = sllParse;
+   }
+
+}
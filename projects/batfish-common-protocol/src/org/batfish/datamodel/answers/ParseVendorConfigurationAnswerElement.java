@@ -20,6 +20,8 @@ public class ParseVendorConfigurationAnswerElement
 
    private SortedMap<String, ParseStatus> _parseStatus;
 
+   private SortedMap<String, ParseTimes> _parseTimes;
+
    private SortedMap<String, ParseTreeSentences> _parseTrees;
 
    private String _version;
@@ -29,6 +31,7 @@ public class ParseVendorConfigurationAnswerElement
    public ParseVendorConfigurationAnswerElement() {
       _fileMap = new TreeMap<>();
       _parseStatus = new TreeMap<>();
+      _parseTimes = new TreeMap<>();
       _parseTrees = new TreeMap<>();
       _warnings = new TreeMap<>();
    }
@@ -48,6 +51,14 @@ public class ParseVendorConfigurationAnswerElement
       return _parseStatus;
    }
 
+   /**
+    * Per-stage parse times by hostname, recorded only when phase metrics are
+    * requested
+    */
+   public SortedMap<String, ParseTimes> getParseTimes() {
+      return _parseTimes;
+   }
+
    public SortedMap<String, ParseTreeSentences> getParseTrees() {
       return _parseTrees;
    }
@@ -99,6 +110,10 @@ public class ParseVendorConfigurationAnswerElement
       _parseStatus = parseStatus;
    }
 
+   public void setParseTimes(SortedMap<String, ParseTimes> parseTimes) {
+      _parseTimes = parseTimes;
+   }
+
    public void setParseTrees(SortedMap<String, ParseTreeSentences> parseTrees) {
       _parseTrees = parseTrees;
    }
@@ -0,0 +1,76 @@
+package org.batfish.datamodel.answers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.batfish.common.PhaseMetrics;
+import org.batfish.common.PhaseMetrics.Phase;
+import org.batfish.common.Task;
+import org.batfish.common.Task.Batch;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Wall time, cpu time, and allocation of each finished batch of the task that
+ * produced an answer, along with their totals by phase
+ */
+public class PhaseMetricsAnswerElement implements AnswerElement {
+
+   private static final String BATCHES_VAR = "batches";
+
+   private static final String PHASES_VAR = "phases";
+
+   private List<Batch> _batches;
+
+   private PhaseMetrics _phases;
+
+   public PhaseMetricsAnswerElement() {
+      _batches = new ArrayList<>();
+      _phases = new PhaseMetrics();
+   }
+
+   public PhaseMetricsAnswerElement(Task task) {
+      this();
+      for (Batch batch : task.getBatches()) {
+         if (batch.isFinished()) {
+            _batches.add(batch);
+         }
+      }
+      _phases.add(task);
+   }
+
+   @JsonProperty(BATCHES_VAR)
+   public List<Batch> getBatches() {
+      return _batches;
+   }
+
+   @JsonProperty(PHASES_VAR)
+   public PhaseMetrics getPhases() {
+      return _phases;
+   }
+
+   @Override
+   public String prettyPrint() {
+      StringBuilder sb = new StringBuilder();
+      sb.append("Phase metrics (elapsed ms / cpu ms / allocated bytes):\n");
+      for (Entry<String, Phase> e : _phases.getPhases().entrySet()) {
+         Phase phase = e.getValue();
+         sb.append("   " + e.getKey() + ": " + phase.getElapsedTime() + " / "
+               + phase.getCpuTime() + " / " + phase.getAllocatedBytes()
+               + "\n");
+      }
+      return sb.toString();
+   }
+
+   @JsonProperty(BATCHES_VAR)
+   public void setBatches(List<Batch> batches) {
+      _batches = batches;
+   }
+
+   @JsonProperty(PHASES_VAR)
+   public void setPhases(PhaseMetrics phases) {
+      _phases = phases;
+   }
+
+}
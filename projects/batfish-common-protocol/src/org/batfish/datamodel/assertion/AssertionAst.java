@@ -1,12 +1,7 @@
 package org.batfish.datamodel.assertion;
 
-import java.util.concurrent.ConcurrentMap;
-
 import org.batfish.common.plugin.IBatfish;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.jayway.jsonpath.Configuration;
-
 public class AssertionAst {
 
    private BooleanExpr _expr;
@@ -15,9 +10,8 @@ public class AssertionAst {
       _expr = expr;
    }
 
-   public boolean execute(IBatfish batfish, Object jsonObject,
-         ConcurrentMap<String, ArrayNode> pathCache, Configuration c) {
-      Environment env = new Environment(batfish, jsonObject, pathCache, c);
+   public boolean execute(IBatfish batfish, NodesPathEvaluator pathEvaluator) {
+      Environment env = new Environment(batfish, pathEvaluator);
       boolean pass = _expr.evaluate(env);
       return pass;
    }
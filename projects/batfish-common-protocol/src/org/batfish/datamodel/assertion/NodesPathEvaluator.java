@@ -0,0 +1,150 @@
+package org.batfish.datamodel.assertion;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.batfish.common.BatfishException;
+import org.batfish.common.util.BatfishObjectMapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+/**
+ * Evaluates json paths over the json of the answer to a nodes question without
+ * materializing that json as a whole. Paths selecting all nodes or a single
+ * node by name (e.g. <code>$.nodes[*].interfaces</code>,
+ * <code>$.nodes["r1"]</code>) are split into the node selection and the
+ * remainder of the path, which is evaluated in parallel against the json of
+ * each selected node. The json of each node is materialized only when a path
+ * first reaches it and is then shared by all paths, as are compiled paths and
+ * path results. Any other path is evaluated against the json of all nodes.
+ */
+public class NodesPathEvaluator {
+
+   private static final String NODES_VAR = "nodes";
+
+   /**
+    * <code>$.nodes</code> followed by a selection of all nodes or of one node
+    * by quoted name, followed by the remainder of the path
+    */
+   private static final Pattern NODE_SELECTION_PATH = Pattern.compile(
+         "\\$\\." + NODES_VAR
+               + "(?:\\[\\*\\]|\\.\\*|\\[([\"'])([^\"'\\\\]*)\\1\\])((?:[.\\[].*)?)",
+         Pattern.DOTALL);
+
+   private final ConcurrentMap<String, JsonPath> _compiledPaths;
+
+   private final Configuration _configuration;
+
+   private JsonNode _json;
+
+   private final BatfishObjectMapper _mapper;
+
+   private final ConcurrentMap<String, JsonNode> _nodeJson;
+
+   private final SortedMap<String, org.batfish.datamodel.Configuration> _nodes;
+
+   private final ConcurrentMap<String, ArrayNode> _pathCache;
+
+   public NodesPathEvaluator(
+         SortedMap<String, org.batfish.datamodel.Configuration> nodes,
+         Configuration configuration) {
+      _nodes = nodes;
+      _configuration = configuration;
+      _mapper = new BatfishObjectMapper(false);
+      _compiledPaths = new ConcurrentHashMap<>();
+      _nodeJson = new ConcurrentHashMap<>();
+      _pathCache = new ConcurrentHashMap<>();
+   }
+
+   public ArrayNode computePath(String path) {
+      ArrayNode pathResult = _pathCache.get(path);
+      if (pathResult == null) {
+         Matcher matcher = NODE_SELECTION_PATH.matcher(path);
+         if (matcher.matches()) {
+            String nodeName = matcher.group(2);
+            String nodePath = "$" + matcher.group(3);
+            List<String> nodeNames;
+            if (nodeName == null) {
+               nodeNames = new ArrayList<>(_nodes.keySet());
+            }
+            else if (_nodes.containsKey(nodeName)) {
+               nodeNames = Collections.singletonList(nodeName);
+            }
+            else {
+               nodeNames = Collections.emptyList();
+            }
+            List<ArrayNode> nodeResults = nodeNames.parallelStream()
+                  .map(n -> readPath(getNodeJson(n), nodePath))
+                  .collect(Collectors.toList());
+            pathResult = JsonNodeFactory.instance.arrayNode();
+            for (ArrayNode nodeResult : nodeResults) {
+               pathResult.addAll(nodeResult);
+            }
+         }
+         else {
+            pathResult = readPath(getJson(), path);
+         }
+         _pathCache.put(path, pathResult);
+      }
+      return pathResult;
+   }
+
+   private synchronized JsonNode getJson() {
+      if (_json == null) {
+         ObjectNode nodesJson = JsonNodeFactory.instance.objectNode();
+         for (Entry<String, org.batfish.datamodel.Configuration> e : _nodes
+               .entrySet()) {
+            nodesJson.set(e.getKey(), getNodeJson(e.getKey()));
+         }
+         ObjectNode json = JsonNodeFactory.instance.objectNode();
+         if (!_nodes.isEmpty()) {
+            json.set(NODES_VAR, nodesJson);
+         }
+         _json = json;
+      }
+      return _json;
+   }
+
+   private JsonNode getNodeJson(String nodeName) {
+      return _nodeJson.computeIfAbsent(nodeName, n -> {
+         try {
+            String nodeJsonStr = _mapper.writeValueAsString(_nodes.get(n));
+            return JsonPath.parse(nodeJsonStr, _configuration).json();
+         }
+         catch (IOException e) {
+            throw new BatfishException(
+                  "Could not get JSON string for node: '" + n + "'", e);
+         }
+      });
+   }
+
+   private ArrayNode readPath(JsonNode json, String path) {
+      JsonPath jsonPath = _compiledPaths.computeIfAbsent(path,
+            JsonPath::compile);
+      try {
+         return jsonPath.read(json, _configuration);
+      }
+      catch (PathNotFoundException e) {
+         return JsonNodeFactory.instance.arrayNode();
+      }
+      catch (Exception e) {
+         throw new BatfishException("Error reading JSON path: " + path, e);
+      }
+   }
+
+}
@@ -34,7 +34,7 @@ public class NamedStructureEquivalenceSet<T>
    }
 
    public boolean compareStructure(T s) {
-      return CommonUtil.checkJsonEqual(_namedStructure, s);
+      return CommonUtil.checkJsonStructurallyEqual(_namedStructure, s);
    }
 
    @Override
@@ -1,15 +1,28 @@
 package org.batfish.datamodel.collections;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import org.batfish.common.util.CommonUtil;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 
 public class NamedStructureEquivalenceSets<T> {
 
+   /**
+    * Equivalence classes of each structure name, bucketed by the structural
+    * hash of their structures
+    */
+   private transient Map<String, Map<Long, List<NamedStructureEquivalenceSet<T>>>> _equivalenceSetsByHash;
+
    private SortedMap<String, SortedSet<NamedStructureEquivalenceSet<T>>> _sameNamedStructures;
 
    private String _structureClassName;
@@ -22,6 +35,7 @@ public class NamedStructureEquivalenceSets<T> {
    public NamedStructureEquivalenceSets(String structureClassName) {
       _structureClassName = structureClassName;
       _sameNamedStructures = new TreeMap<>();
+      _equivalenceSetsByHash = new HashMap<>();
    }
 
    public void add(String node, String name, T namedStructure) {
@@ -32,13 +46,21 @@ public class NamedStructureEquivalenceSets<T> {
       SortedSet<NamedStructureEquivalenceSet<T>> equiClasses = _sameNamedStructures
             .get(name);
 
-      for (NamedStructureEquivalenceSet<T> equiClass : equiClasses) {
+      // only structures with the same hash need to be compared in full
+      List<NamedStructureEquivalenceSet<T>> candidates = _equivalenceSetsByHash
+            .computeIfAbsent(name, n -> new HashMap<>())
+            .computeIfAbsent(CommonUtil.structuralHash(namedStructure),
+                  h -> new ArrayList<>());
+      for (NamedStructureEquivalenceSet<T> equiClass : candidates) {
          if (equiClass.compareStructure(namedStructure)) {
             equiClass.getNodes().add(node);
             return;
          }
       }
-      equiClasses.add(new NamedStructureEquivalenceSet<>(node, namedStructure));
+      NamedStructureEquivalenceSet<T> equiClass = new NamedStructureEquivalenceSet<>(
+            node, namedStructure);
+      equiClasses.add(equiClass);
+      candidates.add(equiClass);
    }
 
    /**
@@ -50,6 +72,7 @@ public class NamedStructureEquivalenceSets<T> {
       for (String structureName : structureNames) {
          if (_sameNamedStructures.get(structureName).size() == 1) {
             _sameNamedStructures.remove(structureName);
+            _equivalenceSetsByHash.remove(structureName);
          }
       }
    }
@@ -77,6 +100,21 @@ public class NamedStructureEquivalenceSets<T> {
    public void setSameNamedStructures(
          SortedMap<String, SortedSet<NamedStructureEquivalenceSet<T>>> sameNamedStructures) {
       _sameNamedStructures = sameNamedStructures;
+      _equivalenceSetsByHash.clear();
+      for (Entry<String, SortedSet<NamedStructureEquivalenceSet<T>>> e : sameNamedStructures
+            .entrySet()) {
+         Map<Long, List<NamedStructureEquivalenceSet<T>>> byHash = new HashMap<>();
+         for (NamedStructureEquivalenceSet<T> equiClass : e.getValue()) {
+            T namedStructure = equiClass.getNamedStructure();
+            // sets read back from json carry no structure to compare against
+            if (namedStructure != null) {
+               byHash.computeIfAbsent(
+                     CommonUtil.structuralHash(namedStructure),
+                     h -> new ArrayList<>()).add(equiClass);
+            }
+         }
+         _equivalenceSetsByHash.put(e.getKey(), byHash);
+      }
    }
 
    public void setStructureClassName(String structureClassName) {
@@ -86,4 +124,5 @@ public class NamedStructureEquivalenceSets<T> {
    public int size() {
       return _sameNamedStructures.size();
    }
+
 }
@@ -1,20 +1,48 @@
 package org.batfish.grammar;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.batfish.common.BatfishException;
 
 public abstract class BatfishCombinedParser<P extends BatfishParser, L extends BatfishLexer> {
 
+   /**
+    * Constructors of generated lexers and parsers, looked up once per class
+    */
+   private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+      @Override
+      protected Constructor<?> computeValue(Class<?> type) {
+         Class<?> argClass = Lexer.class.isAssignableFrom(type)
+               ? CharStream.class
+               : TokenStream.class;
+         try {
+            return type.getConstructor(argClass);
+         }
+         catch (NoSuchMethodException | SecurityException e) {
+            throw new BatfishException(
+                  "Could not find constructor of " + type.getName(), e);
+         }
+      }
+   };
+
+   private static final int INITIAL_TOKEN_MODES_CAPACITY = 1024;
+
    private int _currentModeStart;
 
    private final List<String> _errors;
@@ -25,13 +53,36 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
 
    private BatfishLexerErrorListener _lexerErrorListener;
 
+   /**
+    * Whether the last call to {@link #parseTwoStage()} fell back to LL
+    */
+   private boolean _llFallback;
+
+   /**
+    * Time in milliseconds spent in the LL stage of {@link #parseTwoStage()},
+    * or zero if the SLL stage succeeded
+    */
+   private long _llParseTime;
+
    protected P _parser;
 
    private BatfishParserErrorListener _parserErrorListener;
 
    private GrammarSettings _settings;
 
-   private List<Integer> _tokenModes;
+   /**
+    * Time in milliseconds spent in the SLL stage of {@link #parseTwoStage()},
+    * including lexing
+    */
+   private long _sllParseTime;
+
+   /**
+    * Lexer mode of each token, indexed by token index. Only the first
+    * {@link #_numTokenModes} entries are valid.
+    */
+   private int[] _tokenModes;
+
+   private int _numTokenModes;
 
    protected CommonTokenStream _tokens;
 
@@ -40,37 +91,75 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
    public BatfishCombinedParser(Class<P> pClass, Class<L> lClass, String input,
          GrammarSettings settings) {
       _settings = settings;
-      _tokenModes = new ArrayList<>();
+      _tokenModes = new int[INITIAL_TOKEN_MODES_CAPACITY];
       _currentModeStart = 0;
       _warnings = new ArrayList<>();
       _errors = new ArrayList<>();
       _input = input;
       CharStream inputStream = CharStreams.fromString(input);
       try {
-         _lexer = lClass.getConstructor(CharStream.class)
-               .newInstance(inputStream);
+         _lexer = lClass.cast(CONSTRUCTORS.get(lClass).newInstance(inputStream));
       }
       catch (InstantiationException | IllegalAccessException
-            | IllegalArgumentException | InvocationTargetException
-            | NoSuchMethodException | SecurityException e) {
+            | IllegalArgumentException | InvocationTargetException e) {
          throw new BatfishException("Error constructing lexer using reflection",
                e);
       }
       _lexer.initErrorListener(this);
       _tokens = new CommonTokenStream(_lexer);
       try {
-         _parser = pClass.getConstructor(TokenStream.class)
-               .newInstance(_tokens);
+         _parser = pClass.cast(CONSTRUCTORS.get(pClass).newInstance(_tokens));
       }
       catch (InstantiationException | IllegalAccessException
-            | IllegalArgumentException | InvocationTargetException
-            | NoSuchMethodException | SecurityException e) {
+            | IllegalArgumentException | InvocationTargetException e) {
          throw new Error(e);
       }
       _parser.initErrorListener(this);
       _parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
    }
 
+   /**
+    * Parses the input in two stages. The first stage uses the faster SLL
+    * prediction mode and gives up at the first syntax error without reporting
+    * it. Only then is the input parsed again from the start with full LL
+    * prediction, which accepts some input that SLL rejects, and with errors
+    * reported as usual. The tokens lexed in the first stage are reused.
+    */
+   public ParserRuleContext parseTwoStage() {
+      List<ANTLRErrorListener> errorListeners = new ArrayList<>(
+            _parser.getErrorListeners());
+      ANTLRErrorStrategy errorHandler = _parser.getErrorHandler();
+      _parser.removeErrorListeners();
+      _parser.setErrorHandler(new BailErrorStrategy());
+      _parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+      ParserRuleContext tree;
+      long sllStartTime = System.currentTimeMillis();
+      try {
+         tree = parse();
+      }
+      catch (ParseCancellationException e) {
+         tree = null;
+      }
+      _sllParseTime = System.currentTimeMillis() - sllStartTime;
+      _llParseTime = 0;
+      _llFallback = tree == null;
+      errorListeners.forEach(_parser::addErrorListener);
+      _parser.setErrorHandler(errorHandler);
+      if (tree != null) {
+         return tree;
+      }
+      _tokens.seek(0);
+      _parser.reset();
+      _parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+      long llStartTime = System.currentTimeMillis();
+      try {
+         return parse();
+      }
+      finally {
+         _llParseTime = System.currentTimeMillis() - llStartTime;
+      }
+   }
+
    public List<String> getErrors() {
       return _errors;
    }
@@ -87,6 +176,14 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
       return _lexerErrorListener;
    }
 
+   public boolean getLlFallback() {
+      return _llFallback;
+   }
+
+   public long getLlParseTime() {
+      return _llParseTime;
+   }
+
    public P getParser() {
       return _parser;
    }
@@ -99,14 +196,18 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
       return _settings;
    }
 
+   public long getSllParseTime() {
+      return _sllParseTime;
+   }
+
    public int getTokenMode(Token t) {
       int tokenIndex = t.getTokenIndex();
       if (tokenIndex == -1) {
          // token probably added manually, not by parser
          return -1;
       }
-      if (tokenIndex < _tokenModes.size()) {
-         return _tokenModes.get(tokenIndex);
+      if (tokenIndex < _numTokenModes) {
+         return _tokenModes[tokenIndex];
       }
       else {
          return _lexer._mode;
@@ -134,10 +235,15 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
    }
 
    public void updateTokenModes(int mode) {
-      for (int i = _currentModeStart; i <= _tokens.size(); i++) {
-         _tokenModes.add(mode);
+      int end = _tokens.size() + 1;
+      int numNew = Math.max(0, end - _currentModeStart);
+      if (_numTokenModes + numNew > _tokenModes.length) {
+         _tokenModes = Arrays.copyOf(_tokenModes,
+               Math.max(_tokenModes.length * 2, _numTokenModes + numNew));
       }
-      _currentModeStart = _tokens.size() + 1;
+      Arrays.fill(_tokenModes, _numTokenModes, _numTokenModes + numNew, mode);
+      _numTokenModes += numNew;
+      _currentModeStart = end;
    }
 
 }
@@ -0,0 +1,18 @@
+package org.batfish.grammar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+
+/**
+ * Parses a bgp table dump one line at a time, without lexing the whole file or
+ * building a parse tree. Implementations return null on input they do not
+ * recognize, in which case the caller falls back to the grammar, and throw only
+ * when the input cannot be read.
+ */
+public interface BgpTableLineParser {
+
+   BgpAdvertisementsByVrf parse(BufferedReader reader) throws IOException;
+
+}
@@ -0,0 +1,143 @@
+package org.batfish.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RouteFilterLine;
+import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.SubRange;
+import org.junit.Test;
+
+/**
+ * Checks {@link RouteFilterList#permits(Prefix)} against the line-by-line scan
+ * it replaced
+ */
+public class TestRouteFilterList {
+
+   private static final int NUM_LINES = 3000;
+
+   private static final int NUM_QUERIES = 20000;
+
+   private static final long SEED = 7;
+
+   private static void assertSameAsScan(List<RouteFilterLine> lines,
+         Prefix prefix) {
+      RouteFilterList list = new RouteFilterList("test");
+      list.setLines(lines);
+      assertEquals(prefix.toString(), scanPermits(lines, prefix),
+            list.permits(prefix));
+   }
+
+   private static Prefix randomPrefix(Random random, boolean hostBits) {
+      int length = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1);
+      // keep the top bits in a small space so that prefixes overlap often
+      long bits = (long) random.nextInt(1 << 12) << 20;
+      if (hostBits || random.nextBoolean()) {
+         bits |= random.nextInt(1 << 20);
+      }
+      Prefix prefix = new Prefix(new Ip(bits), length);
+      return hostBits ? prefix : prefix.getNetworkPrefix();
+   }
+
+   /**
+    * The first line whose prefix contains the network bits of the supplied
+    * prefix and whose length range contains its length decides, as in the
+    * original implementation of {@link RouteFilterList#permits(Prefix)}
+    */
+   private static boolean scanPermits(List<RouteFilterLine> lines,
+         Prefix prefix) {
+      for (RouteFilterLine line : lines) {
+         Prefix linePrefix = line.getPrefix();
+         int lineBits = linePrefix.getPrefixLength();
+         Prefix truncatedLinePrefix = new Prefix(linePrefix.getAddress(),
+               lineBits);
+         Prefix relevantPortion = new Prefix(prefix.getAddress(), lineBits)
+               .getNetworkPrefix();
+         if (relevantPortion.equals(truncatedLinePrefix)) {
+            int prefixLength = prefix.getPrefixLength();
+            SubRange range = line.getLengthRange();
+            int min = range.getStart();
+            int max = range.getEnd();
+            if (prefixLength >= min && prefixLength <= max) {
+               return line.getAction() == LineAction.ACCEPT;
+            }
+         }
+      }
+      return false;
+   }
+
+   @Test
+   public void testHostBitLines() {
+      List<RouteFilterLine> lines = Arrays.asList(
+            new RouteFilterLine(LineAction.ACCEPT,
+                  new Prefix(new Ip("10.0.0.1"), 8), new SubRange(8, 32)),
+            new RouteFilterLine(LineAction.REJECT,
+                  new Prefix(new Ip("10.0.0.0"), 16), new SubRange(16, 24)),
+            new RouteFilterLine(LineAction.ACCEPT,
+                  new Prefix(new Ip("10.0.0.0"), 8), new SubRange(8, 32)));
+      assertSameAsScan(lines, new Prefix("10.0.0.0/16"));
+      assertSameAsScan(lines, new Prefix("10.0.0.0/24"));
+      assertSameAsScan(lines, new Prefix("10.0.0.0/25"));
+      assertSameAsScan(lines, new Prefix("10.1.0.0/16"));
+      assertSameAsScan(lines, new Prefix("11.0.0.0/8"));
+   }
+
+   @Test
+   public void testOutOfRangeLengths() {
+      List<RouteFilterLine> lines = Arrays.asList(
+            new RouteFilterLine(LineAction.REJECT, new Prefix("10.0.0.0/8"),
+                  new SubRange(24, 16)),
+            new RouteFilterLine(LineAction.REJECT, new Prefix("10.0.0.0/8"),
+                  new SubRange(-4, 4)),
+            new RouteFilterLine(LineAction.ACCEPT, new Prefix("10.0.0.0/8"),
+                  new SubRange(30, 40)),
+            new RouteFilterLine(LineAction.ACCEPT, new Prefix("0.0.0.0/0"),
+                  new SubRange(0, 0)));
+      assertSameAsScan(lines, new Prefix("0.0.0.0/0"));
+      assertSameAsScan(lines, new Prefix("10.0.0.0/20"));
+      assertSameAsScan(lines, new Prefix("10.0.0.0/30"));
+      assertSameAsScan(lines, new Prefix("10.0.0.1/32"));
+      assertSameAsScan(lines, new Prefix("11.0.0.1/32"));
+   }
+
+   @Test
+   public void testRandomLines() {
+      Random random = new Random(SEED);
+      List<RouteFilterLine> lines = new ArrayList<>();
+      for (int i = 0; i < NUM_LINES; i++) {
+         Prefix prefix = randomPrefix(random, random.nextInt(4) == 0);
+         int length = prefix.getPrefixLength();
+         int start;
+         int end;
+         if (random.nextInt(8) == 0) {
+            // lengths outside the valid range, or an empty range
+            start = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 9) - 4;
+            end = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 9) - 4;
+         }
+         else {
+            start = length
+                  + random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1 - length);
+            end = start + random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1 - start);
+         }
+         LineAction action = random.nextBoolean() ? LineAction.ACCEPT
+               : LineAction.REJECT;
+         lines.add(new RouteFilterLine(action, prefix,
+               new SubRange(start, end)));
+      }
+      RouteFilterList list = new RouteFilterList("test");
+      list.setLines(lines);
+      for (int i = 0; i < NUM_QUERIES; i++) {
+         Prefix prefix = randomPrefix(random, false);
+         assertEquals(prefix.toString(), scanPermits(lines, prefix),
+               list.permits(prefix));
+      }
+   }
+
+}
@@ -1,21 +1,31 @@
 package org.batfish.bdp;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.IRib;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RouteQuery;
 import org.batfish.datamodel.collections.MultiSet;
 import org.batfish.datamodel.collections.TreeMultiSet;
 
@@ -52,6 +62,12 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
          return _root.mergeRoute(route, bits, prefixLength, 0);
       }
 
+      public Stream<R> queryRoutes(RouteQuery query) {
+         Iterator<R> iterator = new ByteTrieQueryIterator(_root, query);
+         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+               iterator, Spliterator.DISTINCT | Spliterator.NONNULL), false);
+      }
+
    }
 
    private class ByteTrieNode implements Serializable {
@@ -295,6 +311,72 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
 
    }
 
+   /**
+    * Walks the trie depth-first, descending only into nodes under which the
+    * query may match some network
+    */
+   private class ByteTrieQueryIterator implements Iterator<R> {
+
+      private Iterator<R> _nodeRoutes;
+
+      private R _next;
+
+      private final Deque<ByteTrieNode> _pendingNodes;
+
+      private final RouteQuery _query;
+
+      public ByteTrieQueryIterator(ByteTrieNode root, RouteQuery query) {
+         _query = query;
+         _nodeRoutes = Collections.emptyIterator();
+         _pendingNodes = new ArrayDeque<>();
+         _pendingNodes.push(root);
+         advance();
+      }
+
+      private void advance() {
+         _next = null;
+         while (true) {
+            while (_nodeRoutes.hasNext()) {
+               R route = _nodeRoutes.next();
+               if (_query.matches(route)) {
+                  _next = route;
+                  return;
+               }
+            }
+            if (_pendingNodes.isEmpty()) {
+               return;
+            }
+            ByteTrieNode node = _pendingNodes.pop();
+            if (!_query.matchesNetworksWithin(node._prefix)) {
+               continue;
+            }
+            if (node._right != null) {
+               _pendingNodes.push(node._right);
+            }
+            if (node._left != null) {
+               _pendingNodes.push(node._left);
+            }
+            _nodeRoutes = node._routes.iterator();
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         return _next != null;
+      }
+
+      @Override
+      public R next() {
+         if (_next == null) {
+            throw new NoSuchElementException();
+         }
+         R route = _next;
+         advance();
+         return route;
+      }
+
+   }
+
    /**
     *
     */
@@ -383,4 +465,9 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
       return map;
    }
 
+   @Override
+   public Stream<R> queryRoutes(RouteQuery query) {
+      return _trie.queryRoutes(query);
+   }
+
 }
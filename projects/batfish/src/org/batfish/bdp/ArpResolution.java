@@ -0,0 +1,32 @@
+package org.batfish.bdp;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.batfish.datamodel.Edge;
+
+/**
+ * The outcome of arp for some ip out of some egress interface: the edges out
+ * of that interface whose receiving neighbor would reply, in topology order,
+ * and the number of neighbors that would refrain from replying
+ */
+final class ArpResolution implements Serializable {
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   final List<Edge> _replyingEdges;
+
+   final int _unreachableNeighbors;
+
+   ArpResolution(List<Edge> replyingEdges, int unreachableNeighbors) {
+      _replyingEdges = Collections
+            .unmodifiableList(new ArrayList<>(replyingEdges));
+      _unreachableNeighbors = unreachableNeighbors;
+   }
+
+}
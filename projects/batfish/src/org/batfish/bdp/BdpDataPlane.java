@@ -1,6 +1,7 @@
 package org.batfish.bdp;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,6 +43,12 @@ public class BdpDataPlane implements Serializable, DataPlane {
     */
    private static final long serialVersionUID = 1L;
 
+   /**
+    * Arp resolution for each egress interface and each final next-hop ip
+    * reached out of it through the fibs
+    */
+   Map<NodeInterfacePair, Map<Ip, ArpResolution>> _arpTable;
+
    InterfaceSet _flowSinks;
 
    Map<Ip, Set<String>> _ipOwners;
@@ -52,6 +59,66 @@ public class BdpDataPlane implements Serializable, DataPlane {
 
    Topology _topology;
 
+   /**
+    * Determines which neighbors reached by the supplied egress interface would
+    * reply to an arp request for the supplied ip. A neighbor refrains from
+    * replying if it does not own the ip, and either it does not use proxy-arp
+    * or the subnet of its receiving interface contains the ip.
+    */
+   ArpResolution computeArpResolution(NodeInterfacePair egressInterface,
+         Ip arpIp) {
+      String hostname = egressInterface.getHostname();
+      Set<String> arpIpOwners = _ipOwners.get(arpIp);
+      List<Edge> replyingEdges = new ArrayList<>();
+      int unreachableNeighbors = 0;
+      EdgeSet edges = _topology.getInterfaceEdges().get(egressInterface);
+      if (edges != null) {
+         for (Edge edge : edges) {
+            if (!edge.getNode1().equals(hostname)) {
+               continue;
+            }
+            String node2 = edge.getNode2();
+            if (arpIpOwners == null || !arpIpOwners.contains(node2)) {
+               Interface int2 = _nodes.get(node2)._c.getInterfaces()
+                     .get(edge.getInt2());
+               boolean neighborUnreachable = false;
+               Boolean proxyArp = int2.getProxyArp();
+               if (proxyArp == null || !proxyArp) {
+                  // TODO: proxyArp probably shouldn't be null
+                  neighborUnreachable = true;
+               }
+               else {
+                  for (Prefix prefix : int2.getAllPrefixes()) {
+                     if (prefix.getNetworkPrefix().contains(arpIp)) {
+                        neighborUnreachable = true;
+                        break;
+                     }
+                  }
+               }
+               if (neighborUnreachable) {
+                  unreachableNeighbors++;
+                  continue;
+               }
+            }
+            replyingEdges.add(edge);
+         }
+      }
+      return new ArpResolution(replyingEdges, unreachableNeighbors);
+   }
+
+   /**
+    * Returns the precomputed arp resolution for the supplied egress interface
+    * and ip, or null if none was precomputed
+    */
+   ArpResolution getArpResolution(NodeInterfacePair egressInterface,
+         Ip arpIp) {
+      if (_arpTable == null) {
+         return null;
+      }
+      Map<Ip, ArpResolution> byIp = _arpTable.get(egressInterface);
+      return byIp == null ? null : byIp.get(arpIp);
+   }
+
    @Override
    public FibMap getFibs() {
       FibMap fibs = new FibMap();
@@ -320,6 +387,28 @@ public class BdpDataPlane implements Serializable, DataPlane {
       return _topology.getEdges();
    }
 
+   /**
+    * Precomputes arp resolution for every final next-hop ip reached out of
+    * each interface of the supplied node through its fibs, which must already
+    * have been computed
+    */
+   void initArpTable(Node node) {
+      String hostname = node._c.getHostname();
+      for (VirtualRouter vr : node._virtualRouters.values()) {
+         vr._fib.getFinalNextHopIps()
+               .forEach((nextHopInterfaceName, finalNextHopIps) -> {
+                  NodeInterfacePair egressInterface = new NodeInterfacePair(
+                        hostname, nextHopInterfaceName);
+                  Map<Ip, ArpResolution> byIp = _arpTable.computeIfAbsent(
+                        egressInterface, i -> new HashMap<>());
+                  for (Ip finalNextHopIp : finalNextHopIps) {
+                     byIp.put(finalNextHopIp, computeArpResolution(
+                           egressInterface, finalNextHopIp));
+                  }
+               });
+      }
+   }
+
    protected void initIpOwners(Map<String, Configuration> configurations,
          Map<Ip, Set<String>> ipOwners) {
       setIpOwners(ipOwners);
@@ -332,6 +421,10 @@ public class BdpDataPlane implements Serializable, DataPlane {
       setIpOwnersSimple(ipOwnersSimple);
    }
 
+   void setArpTable(Map<NodeInterfacePair, Map<Ip, ArpResolution>> arpTable) {
+      _arpTable = arpTable;
+   }
+
    public void setFlowSinks(InterfaceSet flowSinks) {
       _flowSinks = flowSinks;
    }
@@ -3,16 +3,16 @@ package org.batfish.bdp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishException;
@@ -20,28 +20,22 @@ import org.batfish.common.Version;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.BgpProcess;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Edge;
-import org.batfish.datamodel.FilterResult;
 import org.batfish.datamodel.Flow;
-import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.FlowTrace;
-import org.batfish.datamodel.FlowTraceHop;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
-import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.LineAction;
-import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.Route;
 import org.batfish.datamodel.RouteBuilder;
+import org.batfish.datamodel.RouteQuery;
 import org.batfish.datamodel.RoutingProtocol;
-import org.batfish.datamodel.SourceNat;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.BdpAnswerElement;
 import org.batfish.datamodel.collections.AdvertisementSet;
-import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.IbgpTopology;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.collections.RouteSet;
@@ -62,195 +56,12 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
     */
    private static boolean DEBUG_REPEAT_ITERATIONS = false;
 
-   private static final String TRACEROUTE_INGRESS_NODE_INTERFACE_NAME = "traceroute_source_interface";
-
-   private static final String TRACEROUTE_INGRESS_NODE_NAME = "traceroute_source_node";
-
    private final Map<BdpDataPlane, Map<Flow, Set<FlowTrace>>> _flowTraces;
 
    public BdpDataPlanePlugin() {
       _flowTraces = new HashMap<>();
    }
 
-   private void collectFlowTraces(BdpDataPlane dp, String currentNodeName,
-         Set<Edge> visitedEdges, List<FlowTraceHop> hopsSoFar,
-         Set<FlowTrace> flowTraces, Flow originalFlow, Flow transformedFlow) {
-      Ip dstIp = transformedFlow.getDstIp();
-      Set<String> dstIpOwners = dp._ipOwners.get(dstIp);
-      if (dstIpOwners != null && dstIpOwners.contains(currentNodeName)) {
-         FlowTrace trace = new FlowTrace(FlowDisposition.ACCEPTED, hopsSoFar,
-               FlowDisposition.ACCEPTED.toString());
-         flowTraces.add(trace);
-      }
-      else {
-         Node currentNode = dp._nodes.get(currentNodeName);
-         String vrfName;
-         if (hopsSoFar.isEmpty()) {
-            vrfName = transformedFlow.getIngressVrf();
-         }
-         else {
-            FlowTraceHop lastHop = hopsSoFar.get(hopsSoFar.size() - 1);
-            String receivingInterface = lastHop.getEdge().getInt2();
-            vrfName = currentNode._c.getInterfaces().get(receivingInterface)
-                  .getVrf().getName();
-         }
-         VirtualRouter currentVirtualRouter = currentNode._virtualRouters
-               .get(vrfName);
-         Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute = currentVirtualRouter._fib
-               .getNextHopInterfacesByRoute(dstIp);
-         Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfacesWithRoutes = currentVirtualRouter._fib
-               .getNextHopInterfaces(dstIp);
-         if (!nextHopInterfacesWithRoutes.isEmpty()) {
-            for (String nextHopInterfaceName : nextHopInterfacesWithRoutes
-                  .keySet()) {
-               // SortedSet<String> routesForThisNextHopInterface = new
-               // TreeSet<>(
-               // nextHopInterfacesWithRoutes.get(nextHopInterfaceName)
-               // .stream().map(ar -> ar.toString())
-               // .collect(Collectors.toSet()));
-               SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
-               Ip finalNextHopIp = null;
-               for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e : nextHopInterfacesByRoute
-                     .entrySet()) {
-                  AbstractRoute routeCandidate = e.getKey();
-                  Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e
-                        .getValue();
-                  if (routeCandidateNextHopInterfaces
-                        .containsKey(nextHopInterfaceName)) {
-                     Ip nextHopIp = routeCandidate.getNextHopIp();
-                     if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
-                        Set<Ip> finalNextHopIps = routeCandidateNextHopInterfaces
-                              .get(nextHopInterfaceName).keySet();
-                        if (finalNextHopIps.size() > 1) {
-                           throw new BatfishException(
-                                 "Can not currently handle multiple final next hop ips across multiple routes leading to one next hop interface");
-                        }
-                        Ip newFinalNextHopIp = finalNextHopIps.iterator()
-                              .next();
-                        if (finalNextHopIp != null
-                              && !newFinalNextHopIp.equals(finalNextHopIp)) {
-                           throw new BatfishException(
-                                 "Can not currently handle multiple final next hop ips for same next hop interface");
-                        }
-                        finalNextHopIp = newFinalNextHopIp;
-                     }
-                     routesForThisNextHopInterface.add(routeCandidate.toString()
-                           + "_fnhip:" + finalNextHopIp);
-                  }
-               }
-               NodeInterfacePair nextHopInterface = new NodeInterfacePair(
-                     currentNodeName, nextHopInterfaceName);
-               if (nextHopInterfaceName.equals(Interface.NULL_INTERFACE_NAME)) {
-                  List<FlowTraceHop> newHops = new ArrayList<>(hopsSoFar);
-                  Edge newEdge = new Edge(nextHopInterface,
-                        new NodeInterfacePair(Configuration.NODE_NONE_NAME,
-                              Interface.NULL_INTERFACE_NAME));
-                  FlowTraceHop newHop = new FlowTraceHop(newEdge,
-                        routesForThisNextHopInterface,
-                        hopFlow(originalFlow, transformedFlow));
-                  newHops.add(newHop);
-                  FlowTrace nullRouteTrace = new FlowTrace(
-                        FlowDisposition.NULL_ROUTED, newHops,
-                        FlowDisposition.NULL_ROUTED.toString());
-                  flowTraces.add(nullRouteTrace);
-               }
-               // else if (dp._flowSinks.contains(nextHopInterface)) {
-               // List<FlowTraceHop> newHops = new ArrayList<>(hopsSoFar);
-               // Edge newEdge = new Edge(nextHopInterface,
-               // new NodeInterfacePair(Configuration.NODE_NONE_NAME,
-               // Interface.FLOW_SINK_TERMINATION_NAME));
-               // FlowTraceHop newHop = new FlowTraceHop(newEdge,
-               // routesForThisNextHopInterface);
-               // newHops.add(newHop);
-               // FlowTrace flowSinkTrace = new FlowTrace(
-               // FlowDisposition.ACCEPTED, newHops,
-               // FlowDisposition.ACCEPTED.toString());
-               // flowTraces.add(flowSinkTrace);
-               // }
-               else {
-                  Interface outgoingInterface = dp._nodes
-                        .get(nextHopInterface.getHostname())._c.getInterfaces()
-                              .get(nextHopInterface.getInterface());
-                  SourceNat sourceNat = outgoingInterface.getSourceNat();
-                  if (sourceNat != null) {
-                     boolean performTranslation = true;
-                     IpAccessList acl = sourceNat.getAcl();
-                     if (acl != null) {
-                        FilterResult result = acl.filter(transformedFlow);
-                        if (result.getAction() == LineAction.REJECT) {
-                           performTranslation = false;
-                        }
-                     }
-                     if (performTranslation) {
-                        Ip natPoolStartIp = sourceNat.getPoolIpFirst();
-                        if (natPoolStartIp != null) {
-                           Flow.Builder transformedFlowBuilder = new Flow.Builder(
-                                 transformedFlow);
-                           transformedFlowBuilder.setSrcIp(natPoolStartIp);
-                           transformedFlow = transformedFlowBuilder.build();
-                        }
-                     }
-                  }
-                  EdgeSet edges = dp._topology.getInterfaceEdges()
-                        .get(nextHopInterface);
-                  if (edges != null) {
-                     boolean continueToNextNextHopInterface = false;
-                     continueToNextNextHopInterface = processCurrentNextHopInterfaceEdges(
-                           dp, currentNodeName, visitedEdges, hopsSoFar,
-                           flowTraces, originalFlow, transformedFlow, dstIp,
-                           dstIpOwners, nextHopInterfaceName,
-                           routesForThisNextHopInterface, finalNextHopIp,
-                           nextHopInterface, edges, true);
-                     if (continueToNextNextHopInterface) {
-                        continue;
-                     }
-                  }
-                  else {
-                     /*
-                      * Should only get here for delta environment where
-                      * non-flow-sink interface from base has no edges in delta
-                      */
-                     Edge neighborUnreachbleEdge = new Edge(nextHopInterface,
-                           new NodeInterfacePair(Configuration.NODE_NONE_NAME,
-                                 Interface.NULL_INTERFACE_NAME));
-                     FlowTraceHop neighborUnreachableHop = new FlowTraceHop(
-                           neighborUnreachbleEdge,
-                           routesForThisNextHopInterface,
-                           hopFlow(originalFlow, transformedFlow));
-                     List<FlowTraceHop> newHops = new ArrayList<>(hopsSoFar);
-                     newHops.add(neighborUnreachableHop);
-                     /**
-                      * Check if denied out. If not, make standard
-                      * neighbor-unreachable trace.
-                      */
-                     IpAccessList outFilter = outgoingInterface
-                           .getOutgoingFilter();
-                     boolean denied = false;
-                     if (outFilter != null) {
-                        FlowDisposition disposition = FlowDisposition.NEIGHBOR_UNREACHABLE_OR_DENIED_OUT;
-                        denied = flowTraceDeniedHelper(flowTraces, originalFlow,
-                              transformedFlow, newHops, outFilter, disposition);
-                     }
-                     if (!denied) {
-                        FlowTrace trace = new FlowTrace(
-                              FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK,
-                              newHops,
-                              FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK
-                                    .toString());
-                        flowTraces.add(trace);
-                     }
-                  }
-               }
-            }
-         }
-         else {
-            FlowTrace trace = new FlowTrace(FlowDisposition.NO_ROUTE, hopsSoFar,
-                  FlowDisposition.NO_ROUTE.toString());
-            flowTraces.add(trace);
-         }
-      }
-   }
-
    @Override
    public Answer computeDataPlane(boolean differentialContext) {
       Answer answer = new Answer();
@@ -267,12 +78,18 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       Map<String, Node> nodes = new TreeMap<>();
       configurations.values()
             .forEach(c -> nodes.put(c.getHostname(), new Node(c, nodes)));
-      AdvertisementSet externalAdverts = _batfish
-            .processExternalBgpAnnouncements(configurations);
+      Map<String, List<BgpAdvertisement>> externalAdverts = new HashMap<>();
+      _batfish.processExternalBgpAnnouncements(configurations, advert -> {
+         String dstNode = advert.getDstNode();
+         if (nodes.containsKey(dstNode)) {
+            externalAdverts.computeIfAbsent(dstNode, n -> new ArrayList<>())
+                  .add(advert);
+         }
+      });
       computeFixedPoint(nodes, topology, dp, externalAdverts, ae);
-      computeFibs(nodes);
       dp.setNodes(nodes);
       dp.setTopology(topology);
+      computeFibs(dp);
       dp.setFlowSinks(_batfish.computeFlowSinks(configurations,
             differentialContext, topology));
       ae.setVersion(Version.getVersion());
@@ -283,19 +100,27 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return answer;
    }
 
-   private void computeFibs(Map<String, Node> nodes) {
+   /**
+    * Computes the fibs of each node, along with arp resolution for the final
+    * next-hop ips they reach, so that flow tracing need not resolve arp for
+    * each flow taking the same hop
+    */
+   private void computeFibs(BdpDataPlane dp) {
+      Map<String, Node> nodes = dp._nodes;
       AtomicInteger completed = _batfish.newBatch("Computing FIBs",
             nodes.size());
+      dp.setArpTable(new ConcurrentHashMap<>());
       nodes.values().parallelStream().forEach(n -> {
          for (VirtualRouter vr : n._virtualRouters.values()) {
             vr.computeFib();
          }
+         dp.initArpTable(n);
          completed.incrementAndGet();
       });
    }
 
    private void computeFixedPoint(Map<String, Node> nodes, Topology topology,
-         BdpDataPlane dp, AdvertisementSet externalAdverts,
+         BdpDataPlane dp, Map<String, List<BgpAdvertisement>> externalAdverts,
          BdpAnswerElement ae) {
       // BEGIN DONE ONCE (except main rib)
       // connected, initial static routes, ospf setup, bgp setup
@@ -303,6 +128,8 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             "Compute initial connected and static routes, ospf setup, bgp setup",
             nodes.size());
       nodes.values().parallelStream().forEach(n -> {
+         List<BgpAdvertisement> nodeExternalAdverts = externalAdverts
+               .getOrDefault(n._c.getHostname(), Collections.emptyList());
          for (VirtualRouter vr : n._virtualRouters.values()) {
             vr.initConnectedRib();
             vr.importRib(vr._independentRib, vr._connectedRib);
@@ -312,15 +139,35 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             vr.importRib(vr._mainRib, vr._staticInterfaceRib);
             vr.initBaseOspfRoutes();
             vr.initEbgpTopology(dp);
-            vr.initBaseBgpRibs(externalAdverts, dp.getIpOwners());
+            vr.initBaseBgpRibs(nodeExternalAdverts, dp.getIpOwners());
          }
          initialCompleted.incrementAndGet();
       });
 
       final Object routesChangedMonitor = new Object();
 
-      // OSPF internal routes
-      final boolean[] ospfInternalChanged = new boolean[] { true };
+      // OSPF intra-area routes by SPF
+      OspfSpf ospfSpf = new OspfSpf(nodes, topology);
+      AtomicInteger ospfSpfCompleted = _batfish
+            .newBatch("Compute OSPF shortest paths", nodes.size());
+      nodes.values().parallelStream().forEach(n -> {
+         for (VirtualRouter vr : n._virtualRouters.values()) {
+            ospfSpf.computeDistances(vr);
+         }
+         ospfSpfCompleted.incrementAndGet();
+      });
+      AtomicInteger ospfIntraAreaCompleted = _batfish
+            .newBatch("Compute OSPF Intra-area routes", nodes.size());
+      nodes.values().parallelStream().forEach(n -> {
+         for (VirtualRouter vr : n._virtualRouters.values()) {
+            ospfSpf.computeIntraAreaRoutes(vr);
+         }
+         ospfIntraAreaCompleted.incrementAndGet();
+      });
+
+      // OSPF inter-area routes, only present when summaries are advertised
+      final boolean[] ospfInternalChanged = new boolean[] {
+            ospfSpf.hasAdvertisedSummaries() };
       int ospfInternalIterations = 0;
       while (ospfInternalChanged[0]) {
          ospfInternalIterations++;
@@ -697,40 +544,46 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return hash;
    }
 
+   private Route computeOutputRoute(String hostname, String vrName,
+         AbstractRoute route, Map<Ip, String> ipOwners) {
+      RouteBuilder rb = new RouteBuilder();
+      rb.setNode(hostname);
+      rb.setNetwork(route.getNetwork());
+      Ip nextHopIp = route.getNextHopIp();
+      if (route.getProtocol() == RoutingProtocol.CONNECTED
+            || (route.getProtocol() == RoutingProtocol.STATIC
+                  && nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP))
+            || Interface.NULL_INTERFACE_NAME
+                  .equals(route.getNextHopInterface())) {
+         rb.setNextHop(Configuration.NODE_NONE_NAME);
+      }
+      if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+         rb.setNextHopIp(nextHopIp);
+         String nextHop = ipOwners.get(nextHopIp);
+         if (nextHop != null) {
+            rb.setNextHop(nextHop);
+         }
+      }
+      String nextHopInterface = route.getNextHopInterface();
+      if (nextHopInterface != null) {
+         rb.setNextHopInterface(nextHopInterface);
+      }
+      rb.setAdministrativeCost(route.getAdministrativeCost());
+      rb.setCost(route.getMetric());
+      rb.setProtocol(route.getProtocol());
+      rb.setTag(route.getTag());
+      rb.setVrf(vrName);
+      return rb.build();
+   }
+
    private RouteSet computeOutputRoutes(Map<String, Node> nodes,
          Map<Ip, String> ipOwners) {
       RouteSet outputRoutes = new RouteSet();
       nodes.forEach((hostname, node) -> {
          node._virtualRouters.forEach((vrName, vr) -> {
             for (AbstractRoute route : vr._mainRib.getRoutes()) {
-               RouteBuilder rb = new RouteBuilder();
-               rb.setNode(hostname);
-               rb.setNetwork(route.getNetwork());
-               Ip nextHopIp = route.getNextHopIp();
-               if (route.getProtocol() == RoutingProtocol.CONNECTED
-                     || (route.getProtocol() == RoutingProtocol.STATIC
-                           && nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP))
-                     || Interface.NULL_INTERFACE_NAME
-                           .equals(route.getNextHopInterface())) {
-                  rb.setNextHop(Configuration.NODE_NONE_NAME);
-               }
-               if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
-                  rb.setNextHopIp(nextHopIp);
-                  String nextHop = ipOwners.get(nextHopIp);
-                  if (nextHop != null) {
-                     rb.setNextHop(nextHop);
-                  }
-               }
-               String nextHopInterface = route.getNextHopInterface();
-               if (nextHopInterface != null) {
-                  rb.setNextHopInterface(nextHopInterface);
-               }
-               rb.setAdministrativeCost(route.getAdministrativeCost());
-               rb.setCost(route.getMetric());
-               rb.setProtocol(route.getProtocol());
-               rb.setTag(route.getTag());
-               rb.setVrf(vrName);
-               Route outputRoute = rb.build();
+               Route outputRoute = computeOutputRoute(hostname, vrName, route,
+                     ipOwners);
                outputRoutes.add(outputRoute);
             }
          });
@@ -769,45 +622,6 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return errorMessage;
    }
 
-   private boolean flowTraceDeniedHelper(Set<FlowTrace> flowTraces,
-         Flow originalFlow, Flow transformedFlow, List<FlowTraceHop> newHops,
-         IpAccessList filter, FlowDisposition disposition) {
-      boolean out = disposition == FlowDisposition.DENIED_OUT
-            || disposition == FlowDisposition.NEIGHBOR_UNREACHABLE_OR_DENIED_OUT;
-      FilterResult outResult = filter.filter(transformedFlow);
-      boolean denied = outResult.getAction() == LineAction.REJECT;
-      if (denied) {
-         String outFilterName = filter.getName();
-         Integer matchLine = outResult.getMatchLine();
-         String lineDesc;
-         if (matchLine != null) {
-            lineDesc = filter.getLines().get(matchLine).getName();
-            if (lineDesc == null) {
-               lineDesc = "line:" + matchLine.toString();
-            }
-         }
-         else {
-            lineDesc = "no-match";
-         }
-         String notes = disposition.toString() + "{" + outFilterName + "}{"
-               + lineDesc + "}";
-         if (out) {
-            FlowTraceHop lastHop = newHops.get(newHops.size() - 1);
-            newHops.remove(newHops.size() - 1);
-            Edge lastEdge = lastHop.getEdge();
-            Edge deniedOutEdge = new Edge(lastEdge.getFirst(),
-                  new NodeInterfacePair(Configuration.NODE_NONE_NAME,
-                        Interface.NULL_INTERFACE_NAME));
-            FlowTraceHop deniedOutHop = new FlowTraceHop(deniedOutEdge,
-                  lastHop.getRoutes(), hopFlow(originalFlow, transformedFlow));
-            newHops.add(deniedOutHop);
-         }
-         FlowTrace trace = new FlowTrace(disposition, newHops, notes);
-         flowTraces.add(trace);
-      }
-      return denied;
-   }
-
    @Override
    public AdvertisementSet getAdvertisements() {
       AdvertisementSet adverts = new AdvertisementSet();
@@ -821,6 +635,26 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return adverts;
    }
 
+   @Override
+   public SortedMap<NodeInterfacePair, SortedMap<Ip, SortedSet<NodeInterfacePair>>> getArpReplies() {
+      BdpDataPlane dp = loadDataPlane();
+      SortedMap<NodeInterfacePair, SortedMap<Ip, SortedSet<NodeInterfacePair>>> arpReplies = new TreeMap<>();
+      if (dp._arpTable != null) {
+         dp._arpTable.forEach((egressInterface, byIp) -> {
+            SortedMap<Ip, SortedSet<NodeInterfacePair>> repliesByIp = new TreeMap<>();
+            arpReplies.put(egressInterface, repliesByIp);
+            byIp.forEach((arpIp, arpResolution) -> {
+               SortedSet<NodeInterfacePair> replyingInterfaces = new TreeSet<>();
+               for (Edge edge : arpResolution._replyingEdges) {
+                  replyingInterfaces.add(edge.getInterface2());
+               }
+               repliesByIp.put(arpIp, replyingInterfaces);
+            });
+         });
+      }
+      return arpReplies;
+   }
+
    @Override
    public List<Flow> getHistoryFlows() {
       BdpDataPlane dp = loadDataPlane();
@@ -860,204 +694,42 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return outputRoutes;
    }
 
-   private Flow hopFlow(Flow originalFlow, Flow transformedFlow) {
-      if (originalFlow == transformedFlow) {
-         return null;
-      }
-      else {
-         return transformedFlow;
-      }
-   }
-
    private BdpDataPlane loadDataPlane() {
       return (BdpDataPlane) _batfish.loadDataPlane();
    }
 
-   private FlowTrace neighborUnreachableTrace(List<FlowTraceHop> completedHops,
-         NodeInterfacePair srcInterface, SortedSet<String> routes,
-         Flow originalFlow, Flow transformedFlow) {
-      Edge neighborUnreachbleEdge = new Edge(srcInterface,
-            new NodeInterfacePair(Configuration.NODE_NONE_NAME,
-                  Interface.NULL_INTERFACE_NAME));
-      FlowTraceHop neighborUnreachableHop = new FlowTraceHop(
-            neighborUnreachbleEdge, routes,
-            hopFlow(originalFlow, transformedFlow));
-      List<FlowTraceHop> newHops = new ArrayList<>(completedHops);
-      newHops.add(neighborUnreachableHop);
-      FlowTrace trace = new FlowTrace(
-            FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK, newHops,
-            FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK.toString());
-      return trace;
-   }
-
-   private boolean processCurrentNextHopInterfaceEdges(BdpDataPlane dp,
-         String currentNodeName, Set<Edge> visitedEdges,
-         List<FlowTraceHop> hopsSoFar, Set<FlowTrace> flowTraces,
-         Flow originalFlow, Flow transformedFlow, Ip dstIp,
-         Set<String> dstIpOwners, String nextHopInterfaceName,
-         SortedSet<String> routesForThisNextHopInterface, Ip finalNextHopIp,
-         NodeInterfacePair nextHopInterface, EdgeSet edges, boolean arp) {
-      boolean continueToNextNextHopInterface = false;
-      int unreachableNeighbors = 0;
-      int potentialNeighbors = 0;
-      for (Edge edge : edges) {
-         if (!edge.getNode1().equals(currentNodeName)) {
-            continue;
-         }
-         potentialNeighbors++;
-         List<FlowTraceHop> newHops = new ArrayList<>(hopsSoFar);
-         Set<Edge> newVisitedEdges = new LinkedHashSet<>(visitedEdges);
-         FlowTraceHop newHop = new FlowTraceHop(edge,
-               routesForThisNextHopInterface,
-               hopFlow(originalFlow, transformedFlow));
-         newVisitedEdges.add(edge);
-         newHops.add(newHop);
-         /*
-          * Check to see whether neighbor would refrain from sending ARP reply
-          * (NEIGHBOR_UNREACHABLE)
-          *
-          * This occurs if:
-          *
-          * - Using interface-only route
-          *
-          * AND
-          *
-          * - Neighbor does not own arpIp
-          *
-          * AND EITHER
-          *
-          * -- Neighbor not using proxy-arp
-          *
-          * - OR
-          *
-          * -- Subnet of neighbor's receiving-interface contains arpIp
-          */
-         if (arp) {
-            Ip arpIp;
-            Set<String> arpIpOwners;
-            if (finalNextHopIp == null) {
-               arpIp = dstIp;
-               arpIpOwners = dstIpOwners;
-            }
-            else {
-               arpIp = finalNextHopIp;
-               arpIpOwners = dp._ipOwners.get(arpIp);
-            }
-            // using interface-only route
-            String node2 = edge.getNode2();
-            if (arpIpOwners == null || !arpIpOwners.contains(node2)) {
-               // neighbor does not own arpIp
-               String int2Name = edge.getInt2();
-               Interface int2 = dp._nodes.get(node2)._c.getInterfaces()
-                     .get(int2Name);
-               boolean neighborUnreachable = false;
-               Boolean proxyArp = int2.getProxyArp();
-               if (proxyArp == null || !proxyArp) {
-                  // TODO: proxyArp probably shouldn't be null
-                  neighborUnreachable = true;
-               }
-               else {
-                  for (Prefix prefix : int2.getAllPrefixes()) {
-                     if (prefix.getNetworkPrefix().contains(arpIp)) {
-                        neighborUnreachable = true;
-                        break;
-                     }
-                  }
-               }
-               if (neighborUnreachable) {
-                  unreachableNeighbors++;
-                  continue;
-               }
-            }
-         }
-         if (visitedEdges.contains(edge)) {
-            FlowTrace trace = new FlowTrace(FlowDisposition.LOOP, newHops,
-                  FlowDisposition.LOOP.toString());
-            flowTraces.add(trace);
-            potentialNeighbors--;
-            continue;
-         }
-         String nextNodeName = edge.getNode2();
-         // now check output filter and input filter
-         if (nextHopInterfaceName != null) {
-            IpAccessList outFilter = dp._nodes.get(currentNodeName)._c
-                  .getInterfaces().get(nextHopInterfaceName)
-                  .getOutgoingFilter();
-            if (outFilter != null) {
-               FlowDisposition disposition = FlowDisposition.DENIED_OUT;
-               boolean denied = flowTraceDeniedHelper(flowTraces, originalFlow,
-                     transformedFlow, newHops, outFilter, disposition);
-               if (denied) {
-                  potentialNeighbors--;
-                  continue;
-               }
-            }
-         }
-         IpAccessList inFilter = dp._nodes.get(nextNodeName)._c.getInterfaces()
-               .get(edge.getInt2()).getIncomingFilter();
-         if (inFilter != null) {
-            FlowDisposition disposition = FlowDisposition.DENIED_IN;
-            boolean denied = flowTraceDeniedHelper(flowTraces, originalFlow,
-                  transformedFlow, newHops, inFilter, disposition);
-            if (denied) {
-               potentialNeighbors--;
-               continue;
-            }
-         }
-         // recurse
-         collectFlowTraces(dp, nextNodeName, newVisitedEdges, newHops,
-               flowTraces, originalFlow, transformedFlow);
-      }
-      if (arp) {
-         if (unreachableNeighbors > 0
-               && unreachableNeighbors == potentialNeighbors) {
-            FlowTrace trace = neighborUnreachableTrace(hopsSoFar,
-                  nextHopInterface, routesForThisNextHopInterface, originalFlow,
-                  transformedFlow);
-            flowTraces.add(trace);
-            continueToNextNextHopInterface = true;
-         }
-      }
-      return continueToNextNextHopInterface;
-   }
-
    @Override
    public void processFlows(Set<Flow> flows) {
       BdpDataPlane dp = loadDataPlane();
+      FlowTracer flowTracer = new FlowTracer(dp);
       Map<Flow, Set<FlowTrace>> flowTraces = new ConcurrentHashMap<>();
+      AtomicInteger completed = _batfish.newBatch("Tracing flows",
+            flows.size());
       flows.parallelStream().forEach(flow -> {
-         Set<FlowTrace> currentFlowTraces = new TreeSet<>();
+         Set<FlowTrace> currentFlowTraces = flowTracer.traceFlow(flow);
          flowTraces.put(flow, currentFlowTraces);
-         String ingressNodeName = flow.getIngressNode();
-         if (ingressNodeName == null) {
-            throw new BatfishException(
-                  "Cannot construct flow trace since ingressNode is not specified");
-         }
-         Ip dstIp = flow.getDstIp();
-         if (dstIp == null) {
-            throw new BatfishException(
-                  "Cannot construct flow trace since dstIp is not specified");
-         }
-         Set<Edge> visitedEdges = Collections.emptySet();
-         List<FlowTraceHop> hops = new ArrayList<>();
-         Set<String> dstIpOwners = dp._ipOwners.get(dstIp);
-         EdgeSet edges = new EdgeSet();
-         String ingressInterfaceName = flow.getIngressInterface();
-         if (ingressInterfaceName != null) {
-            edges.add(new Edge(TRACEROUTE_INGRESS_NODE_NAME,
-                  TRACEROUTE_INGRESS_NODE_INTERFACE_NAME, ingressNodeName,
-                  ingressInterfaceName));
-            processCurrentNextHopInterfaceEdges(dp,
-                  TRACEROUTE_INGRESS_NODE_NAME, visitedEdges, hops,
-                  currentFlowTraces, flow, flow, dstIp, dstIpOwners, null,
-                  new TreeSet<>(), null, null, edges, false);
-         }
-         else {
-            collectFlowTraces(dp, ingressNodeName, visitedEdges, hops,
-                  currentFlowTraces, flow, flow);
-         }
+         completed.incrementAndGet();
       });
       _flowTraces.put(dp, new TreeMap<>(flowTraces));
    }
 
+   @Override
+   public Stream<Route> queryRoutes(RouteQuery query) {
+      BdpDataPlane dp = loadDataPlane();
+      Map<Ip, String> ipOwners = dp.getIpOwnersSimple();
+      return dp._nodes.entrySet().stream()
+            .filter(e -> query.matchesNode(e.getKey()))
+            .flatMap(e -> {
+               String hostname = e.getKey();
+               return e.getValue()._virtualRouters.entrySet().stream()
+                     .filter(e2 -> query.matchesVrf(e2.getKey()))
+                     .flatMap(e2 -> {
+                        String vrName = e2.getKey();
+                        return e2.getValue()._mainRib.queryRoutes(query)
+                              .map(route -> computeOutputRoute(hostname,
+                                    vrName, route, ipOwners));
+                     });
+            });
+   }
+
 }
@@ -88,6 +88,27 @@ public class Fib implements Serializable {
       }
    }
 
+   /**
+    * Returns the final next-hop ips reached out of each next-hop interface by
+    * any route of this fib, excluding interface-only resolution
+    */
+   public Map<String, Set<Ip>> getFinalNextHopIps() {
+      Map<String, Set<Ip>> finalNextHopIps = new TreeMap<>();
+      for (Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces : _nextHopInterfaces
+            .values()) {
+         nextHopInterfaces.forEach((nextHopInterface, routesByFinalNextHopIp) -> {
+            for (Ip finalNextHopIp : routesByFinalNextHopIp.keySet()) {
+               if (!finalNextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+                  finalNextHopIps
+                        .computeIfAbsent(nextHopInterface, i -> new TreeSet<>())
+                        .add(finalNextHopIp);
+               }
+            }
+         });
+      }
+      return finalNextHopIps;
+   }
+
    public Map<String, Map<Ip, Set<AbstractRoute>>> getNextHopInterfaces(Ip ip) {
       Map<String, Map<Ip, Set<AbstractRoute>>> outputNextHopInterfaces = new TreeMap<>();
       Set<AbstractRoute> nextHopRoutes = _rib.longestPrefixMatch(ip);
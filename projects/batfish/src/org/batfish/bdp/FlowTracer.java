@@ -0,0 +1,662 @@
+package org.batfish.bdp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.FlowTraceHop;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.SourceNat;
+import org.batfish.datamodel.collections.EdgeSet;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+
+/**
+ * Computes flow traces over a {@link BdpDataPlane}.
+ * <p>
+ * Forwarding decisions are cached per (fib, destination ip) across all flows
+ * traced by one instance. So are the traces leading out of each forwarding
+ * state (node, vrf, transformed header fields), so that paths of any flows
+ * converging on the same state share one suffix computation. Flows are traced
+ * with their ingress and tag replaced by fixed values, which are restored in
+ * the transformed flows of the hops of each returned trace. Hops are kept in
+ * persistent lists so that branches share their common tails instead of
+ * copying them.
+ */
+final class FlowTracer {
+
+   /**
+    * One next-hop interface chosen by a fib lookup, with the (interned)
+    * descriptions of the routes that chose it
+    */
+   private static final class ForwardingStep {
+
+      private final Ip _finalNextHopIp;
+
+      private final String _nextHopInterfaceName;
+
+      private final SortedSet<String> _routes;
+
+      private ForwardingStep(String nextHopInterfaceName,
+            SortedSet<String> routes, Ip finalNextHopIp) {
+         _nextHopInterfaceName = nextHopInterfaceName;
+         _routes = routes;
+         _finalNextHopIp = finalNextHopIp;
+      }
+
+   }
+
+   /**
+    * Persistent singly-linked list
+    */
+   private static final class PathList<T> {
+
+      private static final PathList<?> EMPTY = new PathList<>(null, null);
+
+      @SuppressWarnings("unchecked")
+      private static <T> PathList<T> empty() {
+         return (PathList<T>) EMPTY;
+      }
+
+      private final T _head;
+
+      private final PathList<T> _tail;
+
+      private PathList(T head, PathList<T> tail) {
+         _head = head;
+         _tail = tail;
+      }
+
+      private boolean contains(T element) {
+         for (PathList<T> l = this; l != EMPTY; l = l._tail) {
+            if (l._head.equals(element)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private boolean intersects(Set<T> elements) {
+         if (elements.isEmpty()) {
+            return false;
+         }
+         for (PathList<T> l = this; l != EMPTY; l = l._tail) {
+            if (elements.contains(l._head)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private PathList<T> prepend(T element) {
+         return new PathList<>(element, this);
+      }
+
+      private List<T> toList() {
+         List<T> list = new ArrayList<>();
+         for (PathList<T> l = this; l != EMPTY; l = l._tail) {
+            list.add(l._head);
+         }
+         return list;
+      }
+
+   }
+
+   /**
+    * A trace relative to some forwarding state: the hops taken from that
+    * state onwards, and how the flow was finally disposed of
+    */
+   private static final class SuffixTrace {
+
+      private final FlowDisposition _disposition;
+
+      private final PathList<FlowTraceHop> _hops;
+
+      private final String _notes;
+
+      private SuffixTrace(FlowDisposition disposition,
+            PathList<FlowTraceHop> hops, String notes) {
+         _disposition = disposition;
+         _hops = hops;
+         _notes = notes;
+      }
+
+      private SuffixTrace prepend(FlowTraceHop hop) {
+         return new SuffixTrace(_disposition, _hops.prepend(hop), _notes);
+      }
+
+   }
+
+   /**
+    * The suffix traces leaving a forwarding state, along with every edge whose
+    * outcome depended on whether it had already been visited. A result may be
+    * reused for any path to the same state that visits none of those edges.
+    */
+   private static final class TraceResult {
+
+      private final Set<Edge> _loopCheckedEdges;
+
+      private final List<SuffixTrace> _traces;
+
+      private TraceResult() {
+         _loopCheckedEdges = new HashSet<>();
+         _traces = new ArrayList<>();
+      }
+
+      private void add(FlowDisposition disposition, FlowTraceHop hop,
+            String notes) {
+         PathList<FlowTraceHop> hops = PathList.empty();
+         if (hop != null) {
+            hops = hops.prepend(hop);
+         }
+         _traces.add(new SuffixTrace(disposition, hops, notes));
+      }
+
+   }
+
+   /**
+    * A forwarding state, whose flow is the transformed flow with its ingress
+    * and tag replaced by fixed values
+    */
+   private static final class TraceState {
+
+      private final Flow _flow;
+
+      private final String _nodeName;
+
+      private final boolean _transformed;
+
+      private final String _vrfName;
+
+      private TraceState(String nodeName, String vrfName, Flow flow,
+            boolean transformed) {
+         _nodeName = nodeName;
+         _vrfName = vrfName;
+         _flow = flow;
+         _transformed = transformed;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (!(obj instanceof TraceState)) {
+            return false;
+         }
+         TraceState rhs = (TraceState) obj;
+         return _transformed == rhs._transformed
+               && _nodeName.equals(rhs._nodeName)
+               && Objects.equals(_vrfName, rhs._vrfName)
+               && _flow.equals(rhs._flow);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(_nodeName, _vrfName, _flow, _transformed);
+      }
+
+   }
+
+   private static final String TRACED_FLOW_INGRESS_NODE_NAME = "flow_tracer_ingress_node";
+
+   private static final String TRACED_FLOW_TAG = "flow_tracer_tag";
+
+   private static final String TRACEROUTE_INGRESS_NODE_INTERFACE_NAME = "traceroute_source_interface";
+
+   private static final String TRACEROUTE_INGRESS_NODE_NAME = "traceroute_source_node";
+
+   private static Flow hopFlow(Flow originalFlow, Flow transformedFlow) {
+      if (originalFlow == transformedFlow) {
+         return null;
+      }
+      else {
+         return transformedFlow;
+      }
+   }
+
+   private final ConcurrentMap<NodeInterfacePair, ConcurrentMap<Ip, ArpResolution>> _arpResolutions;
+
+   private final BdpDataPlane _dp;
+
+   private final ConcurrentMap<Fib, ConcurrentMap<Ip, List<ForwardingStep>>> _forwardingSteps;
+
+   private final ConcurrentMap<String, String> _routeDescriptions;
+
+   private final ConcurrentMap<TraceState, TraceResult> _traceResults;
+
+   FlowTracer(BdpDataPlane dp) {
+      _dp = dp;
+      _arpResolutions = new ConcurrentHashMap<>();
+      _forwardingSteps = new ConcurrentHashMap<>();
+      _routeDescriptions = new ConcurrentHashMap<>();
+      _traceResults = new ConcurrentHashMap<>();
+   }
+
+   private void collectFlowTraces(String currentNodeName, String vrfName,
+         PathList<Edge> visitedEdges, TraceResult result, Flow originalFlow,
+         Flow transformedFlow) {
+      Ip dstIp = transformedFlow.getDstIp();
+      Node currentNode = _dp._nodes.get(currentNodeName);
+      VirtualRouter currentVirtualRouter = currentNode._virtualRouters
+            .get(vrfName);
+      List<ForwardingStep> forwardingSteps = getForwardingSteps(
+            currentVirtualRouter._fib, dstIp);
+      if (forwardingSteps.isEmpty()) {
+         result.add(FlowDisposition.NO_ROUTE, null,
+               FlowDisposition.NO_ROUTE.toString());
+         return;
+      }
+      for (ForwardingStep forwardingStep : forwardingSteps) {
+         String nextHopInterfaceName = forwardingStep._nextHopInterfaceName;
+         SortedSet<String> routesForThisNextHopInterface = forwardingStep._routes;
+         NodeInterfacePair nextHopInterface = new NodeInterfacePair(
+               currentNodeName, nextHopInterfaceName);
+         if (nextHopInterfaceName.equals(Interface.NULL_INTERFACE_NAME)) {
+            Edge newEdge = new Edge(nextHopInterface,
+                  new NodeInterfacePair(Configuration.NODE_NONE_NAME,
+                        Interface.NULL_INTERFACE_NAME));
+            FlowTraceHop newHop = new FlowTraceHop(newEdge,
+                  routesForThisNextHopInterface,
+                  hopFlow(originalFlow, transformedFlow));
+            result.add(FlowDisposition.NULL_ROUTED, newHop,
+                  FlowDisposition.NULL_ROUTED.toString());
+            continue;
+         }
+         Interface outgoingInterface = currentNode._c.getInterfaces()
+               .get(nextHopInterfaceName);
+         SourceNat sourceNat = outgoingInterface.getSourceNat();
+         if (sourceNat != null) {
+            boolean performTranslation = true;
+            IpAccessList acl = sourceNat.getAcl();
+            if (acl != null) {
+               FilterResult filterResult = acl.filter(transformedFlow);
+               if (filterResult.getAction() == LineAction.REJECT) {
+                  performTranslation = false;
+               }
+            }
+            if (performTranslation) {
+               Ip natPoolStartIp = sourceNat.getPoolIpFirst();
+               if (natPoolStartIp != null) {
+                  Flow.Builder transformedFlowBuilder = new Flow.Builder(
+                        transformedFlow);
+                  transformedFlowBuilder.setSrcIp(natPoolStartIp);
+                  transformedFlow = transformedFlowBuilder.build();
+               }
+            }
+         }
+         EdgeSet edges = _dp._topology.getInterfaceEdges()
+               .get(nextHopInterface);
+         if (edges != null) {
+            /*
+             * Arp is for the final next-hop ip, or for the destination ip when
+             * using an interface-only route
+             */
+            Ip arpIp = forwardingStep._finalNextHopIp != null
+                  ? forwardingStep._finalNextHopIp
+                  : dstIp;
+            ArpResolution arpResolution = getArpResolution(nextHopInterface,
+                  arpIp);
+            processCurrentNextHopInterfaceEdges(currentNodeName, visitedEdges,
+                  result, originalFlow, transformedFlow, nextHopInterfaceName,
+                  routesForThisNextHopInterface, nextHopInterface,
+                  arpResolution, true);
+         }
+         else {
+            /*
+             * Should only get here for delta environment where non-flow-sink
+             * interface from base has no edges in delta
+             */
+            Edge neighborUnreachbleEdge = new Edge(nextHopInterface,
+                  new NodeInterfacePair(Configuration.NODE_NONE_NAME,
+                        Interface.NULL_INTERFACE_NAME));
+            FlowTraceHop neighborUnreachableHop = new FlowTraceHop(
+                  neighborUnreachbleEdge, routesForThisNextHopInterface,
+                  hopFlow(originalFlow, transformedFlow));
+            /**
+             * Check if denied out. If not, make standard neighbor-unreachable
+             * trace.
+             */
+            IpAccessList outFilter = outgoingInterface.getOutgoingFilter();
+            boolean denied = false;
+            if (outFilter != null) {
+               FlowDisposition disposition = FlowDisposition.NEIGHBOR_UNREACHABLE_OR_DENIED_OUT;
+               denied = flowTraceDeniedHelper(result, originalFlow,
+                     transformedFlow, neighborUnreachableHop, outFilter,
+                     disposition);
+            }
+            if (!denied) {
+               result.add(FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK,
+                     neighborUnreachableHop,
+                     FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK
+                           .toString());
+            }
+         }
+      }
+   }
+
+   private List<ForwardingStep> computeForwardingSteps(Fib fib, Ip dstIp) {
+      Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute = fib
+            .getNextHopInterfacesByRoute(dstIp);
+      Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfacesWithRoutes = fib
+            .getNextHopInterfaces(dstIp);
+      List<ForwardingStep> forwardingSteps = new ArrayList<>();
+      for (String nextHopInterfaceName : nextHopInterfacesWithRoutes
+            .keySet()) {
+         SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
+         Ip finalNextHopIp = null;
+         for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e : nextHopInterfacesByRoute
+               .entrySet()) {
+            AbstractRoute routeCandidate = e.getKey();
+            Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e
+                  .getValue();
+            if (routeCandidateNextHopInterfaces
+                  .containsKey(nextHopInterfaceName)) {
+               Ip nextHopIp = routeCandidate.getNextHopIp();
+               if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+                  Set<Ip> finalNextHopIps = routeCandidateNextHopInterfaces
+                        .get(nextHopInterfaceName).keySet();
+                  if (finalNextHopIps.size() > 1) {
+                     throw new BatfishException(
+                           "Can not currently handle multiple final next hop ips across multiple routes leading to one next hop interface");
+                  }
+                  Ip newFinalNextHopIp = finalNextHopIps.iterator().next();
+                  if (finalNextHopIp != null
+                        && !newFinalNextHopIp.equals(finalNextHopIp)) {
+                     throw new BatfishException(
+                           "Can not currently handle multiple final next hop ips for same next hop interface");
+                  }
+                  finalNextHopIp = newFinalNextHopIp;
+               }
+               String routeDescription = routeCandidate.toString() + "_fnhip:"
+                     + finalNextHopIp;
+               routesForThisNextHopInterface.add(internRouteDescription(
+                     routeDescription));
+            }
+         }
+         forwardingSteps.add(new ForwardingStep(nextHopInterfaceName,
+               Collections.unmodifiableSortedSet(routesForThisNextHopInterface),
+               finalNextHopIp));
+      }
+      return forwardingSteps;
+   }
+
+   private boolean flowTraceDeniedHelper(TraceResult result, Flow originalFlow,
+         Flow transformedFlow, FlowTraceHop newHop, IpAccessList filter,
+         FlowDisposition disposition) {
+      boolean out = disposition == FlowDisposition.DENIED_OUT
+            || disposition == FlowDisposition.NEIGHBOR_UNREACHABLE_OR_DENIED_OUT;
+      FilterResult outResult = filter.filter(transformedFlow);
+      boolean denied = outResult.getAction() == LineAction.REJECT;
+      if (denied) {
+         String outFilterName = filter.getName();
+         Integer matchLine = outResult.getMatchLine();
+         String lineDesc;
+         if (matchLine != null) {
+            lineDesc = filter.getLines().get(matchLine).getName();
+            if (lineDesc == null) {
+               lineDesc = "line:" + matchLine.toString();
+            }
+         }
+         else {
+            lineDesc = "no-match";
+         }
+         String notes = disposition.toString() + "{" + outFilterName + "}{"
+               + lineDesc + "}";
+         FlowTraceHop lastHop = newHop;
+         if (out) {
+            Edge lastEdge = newHop.getEdge();
+            Edge deniedOutEdge = new Edge(lastEdge.getFirst(),
+                  new NodeInterfacePair(Configuration.NODE_NONE_NAME,
+                        Interface.NULL_INTERFACE_NAME));
+            lastHop = new FlowTraceHop(deniedOutEdge, newHop.getRoutes(),
+                  hopFlow(originalFlow, transformedFlow));
+         }
+         result.add(disposition, lastHop, notes);
+      }
+      return denied;
+   }
+
+   /**
+    * Returns the arp resolution precomputed by the data plane for the supplied
+    * egress interface and ip, or else resolves it once for all flows traced
+    * by this instance
+    */
+   private ArpResolution getArpResolution(NodeInterfacePair egressInterface,
+         Ip arpIp) {
+      ArpResolution arpResolution = _dp.getArpResolution(egressInterface,
+            arpIp);
+      if (arpResolution != null) {
+         return arpResolution;
+      }
+      ConcurrentMap<Ip, ArpResolution> byIp = _arpResolutions
+            .computeIfAbsent(egressInterface, i -> new ConcurrentHashMap<>());
+      arpResolution = byIp.get(arpIp);
+      if (arpResolution == null) {
+         arpResolution = _dp.computeArpResolution(egressInterface, arpIp);
+         byIp.putIfAbsent(arpIp, arpResolution);
+      }
+      return arpResolution;
+   }
+
+   private List<ForwardingStep> getForwardingSteps(Fib fib, Ip dstIp) {
+      ConcurrentMap<Ip, List<ForwardingStep>> fibForwardingSteps = _forwardingSteps
+            .computeIfAbsent(fib, f -> new ConcurrentHashMap<>());
+      List<ForwardingStep> forwardingSteps = fibForwardingSteps.get(dstIp);
+      if (forwardingSteps == null) {
+         forwardingSteps = computeForwardingSteps(fib, dstIp);
+         fibForwardingSteps.putIfAbsent(dstIp, forwardingSteps);
+      }
+      return forwardingSteps;
+   }
+
+   private String internRouteDescription(String routeDescription) {
+      String interned = _routeDescriptions.putIfAbsent(routeDescription,
+            routeDescription);
+      return interned != null ? interned : routeDescription;
+   }
+
+   /**
+    * Follows each edge out of the next-hop interface whose receiving neighbor
+    * replies to arp, as given by the supplied resolution
+    */
+   private void processCurrentNextHopInterfaceEdges(String currentNodeName,
+         PathList<Edge> visitedEdges, TraceResult result, Flow originalFlow,
+         Flow transformedFlow, String nextHopInterfaceName,
+         SortedSet<String> routesForThisNextHopInterface,
+         NodeInterfacePair nextHopInterface, ArpResolution arpResolution,
+         boolean arp) {
+      int unreachableNeighbors = arpResolution._unreachableNeighbors;
+      int potentialNeighbors = unreachableNeighbors
+            + arpResolution._replyingEdges.size();
+      for (Edge edge : arpResolution._replyingEdges) {
+         FlowTraceHop newHop = new FlowTraceHop(edge,
+               routesForThisNextHopInterface,
+               hopFlow(originalFlow, transformedFlow));
+         result._loopCheckedEdges.add(edge);
+         if (visitedEdges.contains(edge)) {
+            result.add(FlowDisposition.LOOP, newHop,
+                  FlowDisposition.LOOP.toString());
+            potentialNeighbors--;
+            continue;
+         }
+         String nextNodeName = edge.getNode2();
+         // now check output filter and input filter
+         if (nextHopInterfaceName != null) {
+            IpAccessList outFilter = _dp._nodes.get(currentNodeName)._c
+                  .getInterfaces().get(nextHopInterfaceName)
+                  .getOutgoingFilter();
+            if (outFilter != null) {
+               FlowDisposition disposition = FlowDisposition.DENIED_OUT;
+               boolean denied = flowTraceDeniedHelper(result, originalFlow,
+                     transformedFlow, newHop, outFilter, disposition);
+               if (denied) {
+                  potentialNeighbors--;
+                  continue;
+               }
+            }
+         }
+         Interface receivingInterface = _dp._nodes.get(nextNodeName)._c
+               .getInterfaces().get(edge.getInt2());
+         IpAccessList inFilter = receivingInterface.getIncomingFilter();
+         if (inFilter != null) {
+            FlowDisposition disposition = FlowDisposition.DENIED_IN;
+            boolean denied = flowTraceDeniedHelper(result, originalFlow,
+                  transformedFlow, newHop, inFilter, disposition);
+            if (denied) {
+               potentialNeighbors--;
+               continue;
+            }
+         }
+         // recurse
+         TraceResult nextResult = traceState(nextNodeName,
+               receivingInterface.getVrf().getName(),
+               visitedEdges.prepend(edge), originalFlow, transformedFlow);
+         result._loopCheckedEdges.addAll(nextResult._loopCheckedEdges);
+         for (SuffixTrace nextTrace : nextResult._traces) {
+            result._traces.add(nextTrace.prepend(newHop));
+         }
+      }
+      if (arp) {
+         if (unreachableNeighbors > 0
+               && unreachableNeighbors == potentialNeighbors) {
+            Edge neighborUnreachbleEdge = new Edge(nextHopInterface,
+                  new NodeInterfacePair(Configuration.NODE_NONE_NAME,
+                        Interface.NULL_INTERFACE_NAME));
+            FlowTraceHop neighborUnreachableHop = new FlowTraceHop(
+                  neighborUnreachbleEdge, routesForThisNextHopInterface,
+                  hopFlow(originalFlow, transformedFlow));
+            result.add(FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK,
+                  neighborUnreachableHop,
+                  FlowDisposition.NEIGHBOR_UNREACHABLE_OR_EXITS_NETWORK
+                        .toString());
+         }
+      }
+   }
+
+   /**
+    * Returns the supplied transformed flow with the ingress and tag of the
+    * supplied traced flow
+    */
+   private Flow retagFlow(Flow transformedFlow, Flow flow) {
+      Flow.Builder retaggedFlowBuilder = new Flow.Builder(transformedFlow);
+      retaggedFlowBuilder.setIngressNode(flow.getIngressNode());
+      retaggedFlowBuilder.setIngressInterface(flow.getIngressInterface());
+      retaggedFlowBuilder.setIngressVrf(flow.getIngressVrf());
+      retaggedFlowBuilder.setTag(flow.getTag());
+      return retaggedFlowBuilder.build();
+   }
+
+   /**
+    * Compute the set of traces of the supplied flow
+    */
+   Set<FlowTrace> traceFlow(Flow flow) {
+      String ingressNodeName = flow.getIngressNode();
+      if (ingressNodeName == null) {
+         throw new BatfishException(
+               "Cannot construct flow trace since ingressNode is not specified");
+      }
+      Ip dstIp = flow.getDstIp();
+      if (dstIp == null) {
+         throw new BatfishException(
+               "Cannot construct flow trace since dstIp is not specified");
+      }
+      Flow.Builder tracedFlowBuilder = new Flow.Builder(flow);
+      tracedFlowBuilder.setIngressNode(TRACED_FLOW_INGRESS_NODE_NAME);
+      tracedFlowBuilder.setIngressInterface(null);
+      tracedFlowBuilder.setIngressVrf(Configuration.DEFAULT_VRF_NAME);
+      tracedFlowBuilder.setTag(TRACED_FLOW_TAG);
+      Flow tracedFlow = tracedFlowBuilder.build();
+      PathList<Edge> visitedEdges = PathList.empty();
+      TraceResult result;
+      String ingressInterfaceName = flow.getIngressInterface();
+      if (ingressInterfaceName != null) {
+         result = new TraceResult();
+         Edge ingressEdge = new Edge(TRACEROUTE_INGRESS_NODE_NAME,
+               TRACEROUTE_INGRESS_NODE_INTERFACE_NAME, ingressNodeName,
+               ingressInterfaceName);
+         ArpResolution ingressResolution = new ArpResolution(
+               Collections.singletonList(ingressEdge), 0);
+         processCurrentNextHopInterfaceEdges(TRACEROUTE_INGRESS_NODE_NAME,
+               visitedEdges, result, tracedFlow, tracedFlow, null,
+               new TreeSet<>(), null, ingressResolution, false);
+      }
+      else {
+         result = traceState(ingressNodeName, flow.getIngressVrf(),
+               visitedEdges, tracedFlow, tracedFlow);
+      }
+      Map<Flow, Flow> retaggedFlows = new HashMap<>();
+      Set<FlowTrace> flowTraces = new TreeSet<>();
+      for (SuffixTrace trace : result._traces) {
+         List<FlowTraceHop> hops = new ArrayList<>();
+         for (FlowTraceHop hop : trace._hops.toList()) {
+            Flow hopFlow = hop.getTransformedFlow();
+            if (hopFlow != null) {
+               hop = new FlowTraceHop(hop.getEdge(), hop.getRoutes(),
+                     retaggedFlows.computeIfAbsent(hopFlow,
+                           f -> retagFlow(f, flow)));
+            }
+            hops.add(hop);
+         }
+         flowTraces.add(new FlowTrace(trace._disposition, hops, trace._notes));
+      }
+      return flowTraces;
+   }
+
+   /**
+    * Compute (or reuse) the traces leaving the state reached upon arrival at
+    * the supplied vrf of the named node
+    */
+   private TraceResult traceState(String currentNodeName, String vrfName,
+         PathList<Edge> visitedEdges, Flow originalFlow, Flow transformedFlow) {
+      Ip dstIp = transformedFlow.getDstIp();
+      Set<String> dstIpOwners = _dp._ipOwners.get(dstIp);
+      if (dstIpOwners != null && dstIpOwners.contains(currentNodeName)) {
+         TraceResult result = new TraceResult();
+         result.add(FlowDisposition.ACCEPTED, null,
+               FlowDisposition.ACCEPTED.toString());
+         return result;
+      }
+      TraceState state = new TraceState(currentNodeName, vrfName,
+            transformedFlow, originalFlow != transformedFlow);
+      TraceResult result = _traceResults.get(state);
+      if (result != null
+            && !visitedEdges.intersects(result._loopCheckedEdges)) {
+         return result;
+      }
+      result = new TraceResult();
+      collectFlowTraces(currentNodeName, vrfName, visitedEdges, result,
+            originalFlow, transformedFlow);
+      if (!visitedEdges.intersects(result._loopCheckedEdges)) {
+         /*
+          * No edge on the path so far influenced the result, so it holds for
+          * any other path reaching this state that avoids its loop-checked
+          * edges
+          */
+         _traceResults.put(state, result);
+      }
+      return result;
+   }
+
+}
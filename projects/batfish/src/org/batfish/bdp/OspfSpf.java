@@ -0,0 +1,266 @@
+package org.batfish.bdp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OspfArea;
+import org.batfish.datamodel.OspfIntraAreaRoute;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.collections.EdgeSet;
+
+/**
+ * Computes OSPF intra-area routes centrally, by running Dijkstra over the
+ * link-state graph of OSPF adjacencies from every router instead of
+ * propagating routes hop by hop.
+ * <p>
+ * The graph has one vertex per virtual router with an OSPF process and one
+ * edge per adjacency between interfaces in the same area, weighted by the cost
+ * of the local interface. As with {@link VirtualRouter#propagateOspfInternalRoutes},
+ * routes learned over an edge take the area of that edge. The routes produced
+ * for each router are exactly the equal-cost candidates that hop-by-hop
+ * propagation converges to, so the resulting intra-area ribs are identical.
+ * Inter-area routes are not computed here; when any area advertises summaries,
+ * the caller must still iterate propagation starting from these ribs.
+ */
+final class OspfSpf {
+
+   private static final class Adjacency {
+
+      private final long _area;
+
+      private final int _cost;
+
+      private final int _neighbor;
+
+      private final Ip _nextHopIp;
+
+      private Adjacency(int neighbor, int cost, Ip nextHopIp, long area) {
+         _neighbor = neighbor;
+         _cost = cost;
+         _nextHopIp = nextHopIp;
+         _area = area;
+      }
+
+   }
+
+   private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+   private final List<List<Adjacency>> _adjacencies;
+
+   /**
+    * Distance from each router to each prefix, indexed by router then prefix
+    */
+   private final int[][] _distances;
+
+   private boolean _hasAdvertisedSummaries;
+
+   private final Map<VirtualRouter, Integer> _indices;
+
+   /**
+    * Cost of each prefix at each of the routers originating it, indexed by
+    * prefix then origin
+    */
+   private final int[][] _originCosts;
+
+   /**
+    * Routers originating each prefix, indexed by prefix then origin
+    */
+   private final int[][] _originRouters;
+
+   private final Prefix[] _prefixes;
+
+   private final List<VirtualRouter> _routers;
+
+   /**
+    * Builds the link-state graph. The intra-area ribs of all virtual routers
+    * must hold exactly their base OSPF routes.
+    */
+   OspfSpf(Map<String, Node> nodes, Topology topology) {
+      _routers = new ArrayList<>();
+      _indices = new IdentityHashMap<>();
+      for (Node node : nodes.values()) {
+         for (VirtualRouter vr : node._virtualRouters.values()) {
+            if (vr._vrf.getOspfProcess() != null) {
+               _indices.put(vr, _routers.size());
+               _routers.add(vr);
+            }
+         }
+      }
+      _adjacencies = new ArrayList<>(_routers.size());
+      Map<Prefix, Map<Integer, Integer>> origins = new HashMap<>();
+      for (int i = 0; i < _routers.size(); i++) {
+         VirtualRouter vr = _routers.get(i);
+         _adjacencies.add(initAdjacencies(vr, nodes, topology));
+         for (OspfIntraAreaRoute route : vr._ospfIntraAreaRib.getRoutes()) {
+            origins.computeIfAbsent(route.getNetwork(), p -> new HashMap<>())
+                  .merge(i, route.getMetric(), Math::min);
+         }
+         for (OspfArea area : vr._vrf.getOspfProcess().getAreas().values()) {
+            if (area.getSummaries().containsValue(true)) {
+               _hasAdvertisedSummaries = true;
+            }
+         }
+      }
+      int numPrefixes = origins.size();
+      _prefixes = new Prefix[numPrefixes];
+      _originRouters = new int[numPrefixes][];
+      _originCosts = new int[numPrefixes][];
+      int prefixIndex = 0;
+      for (Map.Entry<Prefix, Map<Integer, Integer>> e : origins.entrySet()) {
+         Map<Integer, Integer> prefixOrigins = e.getValue();
+         int[] originRouters = new int[prefixOrigins.size()];
+         int[] originCosts = new int[prefixOrigins.size()];
+         int originIndex = 0;
+         for (Map.Entry<Integer, Integer> e2 : prefixOrigins.entrySet()) {
+            originRouters[originIndex] = e2.getKey();
+            originCosts[originIndex] = e2.getValue();
+            originIndex++;
+         }
+         _prefixes[prefixIndex] = e.getKey();
+         _originRouters[prefixIndex] = originRouters;
+         _originCosts[prefixIndex] = originCosts;
+         prefixIndex++;
+      }
+      _distances = new int[_routers.size()][];
+   }
+
+   /**
+    * Runs Dijkstra from the supplied router and records its distance to every
+    * prefix. May be called concurrently for different routers.
+    */
+   public void computeDistances(VirtualRouter vr) {
+      Integer source = _indices.get(vr);
+      if (source == null) {
+         return;
+      }
+      int[] routerDistances = new int[_routers.size()];
+      Arrays.fill(routerDistances, UNREACHABLE);
+      routerDistances[source] = 0;
+      // entries encode (distance << 32 | router) so that they order by distance
+      PriorityQueue<Long> queue = new PriorityQueue<>();
+      queue.add((long) source);
+      while (!queue.isEmpty()) {
+         long entry = queue.poll();
+         int router = (int) entry;
+         long distance = entry >>> 32;
+         if (distance > routerDistances[router]) {
+            continue;
+         }
+         for (Adjacency adjacency : _adjacencies.get(router)) {
+            long newDistance = distance + adjacency._cost;
+            int neighbor = adjacency._neighbor;
+            if (newDistance < routerDistances[neighbor]) {
+               routerDistances[neighbor] = (int) newDistance;
+               queue.add(newDistance << 32 | neighbor);
+            }
+         }
+      }
+      int[] prefixDistances = new int[_prefixes.length];
+      for (int p = 0; p < _prefixes.length; p++) {
+         int[] originRouters = _originRouters[p];
+         int[] originCosts = _originCosts[p];
+         int best = UNREACHABLE;
+         for (int o = 0; o < originRouters.length; o++) {
+            int originDistance = routerDistances[originRouters[o]];
+            if (originDistance != UNREACHABLE) {
+               best = Math.min(best, originDistance + originCosts[o]);
+            }
+         }
+         prefixDistances[p] = best;
+      }
+      _distances[source] = prefixDistances;
+   }
+
+   /**
+    * Merges into the intra-area rib of the supplied router a route over every
+    * adjacency lying on a shortest path to each prefix. Requires
+    * {@link #computeDistances} to have completed for all routers. May be
+    * called concurrently for different routers.
+    */
+   public void computeIntraAreaRoutes(VirtualRouter vr) {
+      Integer source = _indices.get(vr);
+      if (source == null) {
+         return;
+      }
+      int admin = RoutingProtocol.OSPF
+            .getDefaultAdministrativeCost(vr._c.getConfigurationFormat());
+      int[] distances = _distances[source];
+      List<Adjacency> adjacencies = _adjacencies.get(source);
+      for (int p = 0; p < _prefixes.length; p++) {
+         int distance = distances[p];
+         if (distance == UNREACHABLE) {
+            continue;
+         }
+         for (Adjacency adjacency : adjacencies) {
+            int neighborDistance = _distances[adjacency._neighbor][p];
+            if (neighborDistance != UNREACHABLE
+                  && neighborDistance + adjacency._cost == distance) {
+               vr._ospfIntraAreaRib.mergeRoute(
+                     new OspfIntraAreaRoute(_prefixes[p], adjacency._nextHopIp,
+                           admin, distance, adjacency._area));
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns true if some area advertises summaries, in which case inter-area
+    * routes exist and hop-by-hop propagation is still needed after the
+    * intra-area routes computed here
+    */
+   public boolean hasAdvertisedSummaries() {
+      return _hasAdvertisedSummaries;
+   }
+
+   private List<Adjacency> initAdjacencies(VirtualRouter vr,
+         Map<String, Node> nodes, Topology topology) {
+      List<Adjacency> adjacencies = new ArrayList<>();
+      String node = vr._c.getHostname();
+      EdgeSet edges = topology.getNodeEdges().get(node);
+      if (edges == null) {
+         return adjacencies;
+      }
+      for (Edge edge : edges) {
+         if (!edge.getNode1().equals(node)) {
+            continue;
+         }
+         Interface connectingInterface = vr._vrf.getInterfaces()
+               .get(edge.getInt1());
+         if (connectingInterface == null) {
+            // wrong vrf, so skip
+            continue;
+         }
+         Configuration nc = nodes.get(edge.getNode2())._c;
+         Interface neighborInterface = nc.getInterfaces().get(edge.getInt2());
+         VirtualRouter neighborVirtualRouter = nodes
+               .get(edge.getNode2())._virtualRouters
+                     .get(neighborInterface.getVrfName());
+         Integer neighbor = _indices.get(neighborVirtualRouter);
+         OspfArea area = connectingInterface.getOspfArea();
+         OspfArea neighborArea = neighborInterface.getOspfArea();
+         if (neighbor != null && connectingInterface.getOspfEnabled()
+               && !connectingInterface.getOspfPassive()
+               && neighborInterface.getOspfEnabled()
+               && !neighborInterface.getOspfPassive() && area != null
+               && neighborArea != null
+               && area.getName().equals(neighborArea.getName())) {
+            adjacencies.add(new Adjacency(neighbor,
+                  connectingInterface.getOspfCost(),
+                  neighborInterface.getPrefix().getAddress(), area.getName()));
+         }
+      }
+      return adjacencies;
+   }
+
+}
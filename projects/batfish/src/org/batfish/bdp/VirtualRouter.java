@@ -1,5 +1,6 @@
 package org.batfish.bdp;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -281,7 +282,11 @@ public class VirtualRouter extends ComparableStructure<String> {
       }
    }
 
-   public void initBaseBgpRibs(AdvertisementSet externalAdverts,
+   /**
+    * Initializes the bgp ribs, merging in the supplied external advertisements
+    * destined for this node
+    */
+   public void initBaseBgpRibs(Collection<BgpAdvertisement> externalAdverts,
          Map<Ip, Set<String>> ipOwners) {
       _bgpMultipathRib = new BgpMultipathRib(this);
       _baseEbgpRib = new BgpMultipathRib(this);
@@ -1,68 +1,170 @@
 package org.batfish.bgp;
 
 import java.io.IOException;
-import java.util.Iterator;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.batfish.common.BatfishException;
 import org.batfish.common.BfConsts;
 import org.batfish.common.plugin.ExternalBgpAdvertisementPlugin;
+import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpAdvertisement;
-import org.batfish.datamodel.collections.AdvertisementSet;
-import org.codehaus.jettison.json.JSONArray;
-import org.codehaus.jettison.json.JSONException;
-import org.codehaus.jettison.json.JSONObject;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
 
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.CollectionType;
 
 public class JsonExternalBgpAdvertisementPlugin
       extends ExternalBgpAdvertisementPlugin {
 
+   /**
+    * Canonicalizes the attributes shared among announcements, such as node
+    * names, addresses, as-paths, and community sets, as they are deserialized,
+    * so that a large feed holds one copy of each distinct value
+    */
+   private static final class Interner extends BeanDeserializerModifier {
+
+      private final class InterningDeserializer
+            extends DelegatingDeserializer {
+
+         /**
+          *
+          */
+         private static final long serialVersionUID = 1L;
+
+         private InterningDeserializer(JsonDeserializer<?> delegatee) {
+            super(delegatee);
+         }
+
+         @Override
+         public Object deserialize(JsonParser p, DeserializationContext ctxt)
+               throws IOException {
+            return intern(super.deserialize(p, ctxt));
+         }
+
+         @Override
+         protected JsonDeserializer<?> newDelegatingInstance(
+               JsonDeserializer<?> newDelegatee) {
+            return new InterningDeserializer(newDelegatee);
+         }
+
+      }
+
+      private static final Set<Class<?>> INTERNED_CLASSES = new HashSet<>(
+            Arrays.asList(AsPath.class, Ip.class, Prefix.class, String.class));
+
+      private final Map<Object, Object> _values = new HashMap<>();
+
+      private Object intern(Object value) {
+         if (value == null) {
+            return null;
+         }
+         Object canonical = _values.putIfAbsent(value, value);
+         return canonical != null ? canonical : value;
+      }
+
+      @Override
+      public JsonDeserializer<?> modifyCollectionDeserializer(
+            DeserializationConfig config, CollectionType type,
+            BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+         // community sets and cluster lists
+         if (type.getContentType().getRawClass() == Long.class) {
+            return new InterningDeserializer(deserializer);
+         }
+         return deserializer;
+      }
+
+      @Override
+      public JsonDeserializer<?> modifyDeserializer(
+            DeserializationConfig config, BeanDescription beanDesc,
+            JsonDeserializer<?> deserializer) {
+         if (INTERNED_CLASSES.contains(beanDesc.getBeanClass())) {
+            return new InterningDeserializer(deserializer);
+         }
+         return deserializer;
+      }
+
+   }
+
+   /**
+    * Announcements in the file are independent of one another, so they are
+    * bound without the object ids that {@link BgpAdvertisement} otherwise
+    * requires
+    */
+   @JsonIdentityInfo(generator = ObjectIdGenerators.None.class)
+   @JsonIgnoreProperties({ "@id" })
+   private abstract static class WithoutObjectId {
+   }
+
    @Override
    protected void externalBgpAdvertisementPluginInitialize() {
    }
 
+   /**
+    * Parses the announcements array one announcement at a time, without
+    * materializing the file contents or a tree of the whole file, and delivers
+    * each announcement to the supplied consumer as soon as it is read
+    */
    @Override
-   public AdvertisementSet loadExternalBgpAdvertisements() {
-      AdvertisementSet advertSet = new AdvertisementSet();
-      String externalBgpAnnouncementsFileContents = _batfish
-            .readExternalBgpAnnouncementsFile();
-      if (externalBgpAnnouncementsFileContents != null) {
-         // Populate advertSet with BgpAdvertisements that
-         // gets passed to populatePrecomputedBgpAdvertisements.
-         // See populatePrecomputedBgpAdvertisements for the things that get
-         // extracted from these advertisements.
-
-         try {
-            JSONObject jsonObj = new JSONObject(
-                  externalBgpAnnouncementsFileContents);
-
-            JSONArray announcements = jsonObj
-                  .getJSONArray(BfConsts.KEY_BGP_ANNOUNCEMENTS);
-
-            ObjectMapper mapper = new ObjectMapper();
-
-            for (int index = 0; index < announcements.length(); index++) {
-               JSONObject announcement = new JSONObject();
-               announcement.put("@id", index);
-               JSONObject announcementSrc = announcements.getJSONObject(index);
-               for (Iterator<?> i = announcementSrc.keys(); i.hasNext();) {
-                  String key = (String) i.next();
-                  if (!key.equals("@id")) {
-                     announcement.put(key, announcementSrc.get(key));
-                  }
-               }
-               BgpAdvertisement bgpAdvertisement = mapper.readValue(
-                     announcement.toString(), BgpAdvertisement.class);
-               advertSet.add(bgpAdvertisement);
-            }
-
+   public void loadExternalBgpAdvertisements(
+         Consumer<BgpAdvertisement> consumer) {
+      try (Reader reader = _batfish.openExternalBgpAnnouncementsFile()) {
+         if (reader == null) {
+            return;
          }
-         catch (JSONException | IOException e) {
+         ObjectMapper mapper = new ObjectMapper();
+         mapper.addMixIn(BgpAdvertisement.class, WithoutObjectId.class);
+         mapper.registerModule(
+               new SimpleModule().setDeserializerModifier(new Interner()));
+         boolean foundAnnouncements = false;
+         JsonParser parser = mapper.getFactory().createParser(reader);
+         if (parser.nextToken() != JsonToken.START_OBJECT) {
             throw new BatfishException(
-                  "Error processing external BGP advertisements file", e);
+                  "External BGP advertisements file must contain an object");
+         }
+         while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if (!key.equals(BfConsts.KEY_BGP_ANNOUNCEMENTS)) {
+               parser.skipChildren();
+               continue;
+            }
+            if (valueToken != JsonToken.START_ARRAY) {
+               throw new BatfishException("Value of \""
+                     + BfConsts.KEY_BGP_ANNOUNCEMENTS + "\" must be an array");
+            }
+            foundAnnouncements = true;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+               consumer.accept(parser.readValueAs(BgpAdvertisement.class));
+            }
          }
+         if (!foundAnnouncements) {
+            throw new BatfishException("Missing \""
+                  + BfConsts.KEY_BGP_ANNOUNCEMENTS + "\" array");
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Error processing external BGP advertisements file", e);
       }
-      return advertSet;
    }
 
 }
@@ -52,6 +52,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
       private Path _precomputedRoutesPath;
 
+      private Path _routeSnapshotDir;
+
       private Path _serializedTopologyPath;
 
       private Path _serializeEnvironmentBgpTablesPath;
@@ -126,6 +128,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
          return _precomputedRoutesPath;
       }
 
+      public Path getRouteSnapshotDir() {
+         return _routeSnapshotDir;
+      }
+
       public Path getSerializedTopologyPath() {
          return _serializedTopologyPath;
       }
@@ -212,6 +218,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
          _precomputedRoutesPath = writeRoutesPath;
       }
 
+      public void setRouteSnapshotDir(Path routeSnapshotDir) {
+         _routeSnapshotDir = routeSnapshotDir;
+      }
+
       public void setSerializedTopologyPath(Path serializedTopologyPath) {
          _serializedTopologyPath = serializedTopologyPath;
       }
@@ -412,6 +422,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private static final String ARG_NO_SHUFFLE = "noshuffle";
 
+   private static final String ARG_PHASE_METRICS = "phasemetrics";
+
    private static final String ARG_PRECOMPUTED_ADVERTISEMENTS_PATH = "precomputedadvertisementspath";
 
    private static final String ARG_PRECOMPUTED_FACTS_PATH = "precomputedfactspath";
@@ -426,6 +438,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private static final String ARG_PRINT_SYMMETRIC_EDGES = "printsymmetricedges";
 
+   private static final String ARG_ROUTE_SNAPSHOTS = "routesnapshots";
+
    private static final String ARG_SEQUENTIAL = "sequential";
 
    private static final String ARG_SERIALIZE_TO_TEXT = "stext";
@@ -572,6 +586,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private boolean _pedanticRecord;
 
+   private boolean _phaseMetrics;
+
    private List<Path> _pluginDirs;
 
    private Path _precomputedBgpAdvertisementsPath;
@@ -602,6 +618,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private boolean _report;
 
+   private boolean _routeSnapshots;
+
    private boolean _runInServiceMode;
 
    private boolean _sequential;
@@ -883,6 +901,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _pedanticRecord;
    }
 
+   public boolean getPhaseMetrics() {
+      return _phaseMetrics;
+   }
+
    public List<Path> getPluginDirs() {
       return _pluginDirs;
    }
@@ -935,6 +957,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _report;
    }
 
+   public boolean getRouteSnapshots() {
+      return _routeSnapshots;
+   }
+
    public boolean getSequential() {
       return _sequential;
    }
@@ -1124,6 +1150,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       setDefaultProperty(BfConsts.ARG_OUTPUT_ENV, null);
       setDefaultProperty(BfConsts.ARG_PEDANTIC_AS_ERROR, false);
       setDefaultProperty(BfConsts.ARG_PEDANTIC_SUPPRESS, false);
+      setDefaultProperty(ARG_PHASE_METRICS, false);
       setDefaultProperty(BfConsts.ARG_PLUGIN_DIRS,
             Collections.<String> emptyList());
       setDefaultProperty(ARG_PRECOMPUTED_ADVERTISEMENTS_PATH, null);
@@ -1137,6 +1164,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
       setDefaultProperty(BfConsts.ARG_RED_FLAG_AS_ERROR, false);
       setDefaultProperty(BfConsts.ARG_RED_FLAG_SUPPRESS, false);
+      setDefaultProperty(ARG_ROUTE_SNAPSHOTS, false);
       setDefaultProperty(ARG_SEQUENTIAL, false);
       setDefaultProperty(ARG_SERIALIZE_TO_TEXT, false);
       setDefaultProperty(ARG_SERVICE_BIND_HOST, "0.0.0.0");
@@ -1309,6 +1337,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       addBooleanOption(BfConsts.ARG_PEDANTIC_SUPPRESS,
             "suppresses pedantic warnings");
 
+      addBooleanOption(ARG_PHASE_METRICS,
+            "attach per-phase metrics of the running task to the answer");
+
       addListOption(BfConsts.ARG_PLUGIN_DIRS, "paths to plugin directories",
             ARGNAME_PATHS);
 
@@ -1343,6 +1374,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       addBooleanOption(BfConsts.ARG_RED_FLAG_SUPPRESS,
             "suppresses red-flag warnings");
 
+      addBooleanOption(ARG_ROUTE_SNAPSHOTS,
+            "write a sorted route snapshot per node with each data plane, used to diff routes");
+
       addBooleanOption(ARG_SEQUENTIAL, "force sequential operation");
 
       addBooleanOption(ARG_SERIALIZE_TO_TEXT, "serialize to text");
@@ -1502,6 +1536,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       _outputEnvironmentName = getStringOptionValue(BfConsts.ARG_OUTPUT_ENV);
       _pedanticAsError = getBooleanOptionValue(BfConsts.ARG_PEDANTIC_AS_ERROR);
       _pedanticRecord = !getBooleanOptionValue(BfConsts.ARG_PEDANTIC_SUPPRESS);
+      _phaseMetrics = getBooleanOptionValue(ARG_PHASE_METRICS);
       _precomputedBgpAdvertisementsPath = getPathOptionValue(
             ARG_PRECOMPUTED_ADVERTISEMENTS_PATH);
       _precomputedFactsPath = getPathOptionValue(ARG_PRECOMPUTED_FACTS_PATH);
@@ -1518,6 +1553,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       _redFlagAsError = getBooleanOptionValue(BfConsts.ARG_RED_FLAG_AS_ERROR);
       _redFlagRecord = !getBooleanOptionValue(BfConsts.ARG_RED_FLAG_SUPPRESS);
       _report = getBooleanOptionValue(BfConsts.COMMAND_REPORT);
+      _routeSnapshots = getBooleanOptionValue(ARG_ROUTE_SNAPSHOTS);
       _runInServiceMode = getBooleanOptionValue(ARG_SERVICE_MODE);
       _sequential = getBooleanOptionValue(ARG_SEQUENTIAL);
       _serializeIndependent = getBooleanOptionValue(
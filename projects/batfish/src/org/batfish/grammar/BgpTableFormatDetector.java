@@ -1,10 +1,61 @@
 package org.batfish.grammar;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.batfish.common.BatfishException;
+import org.batfish.common.util.CommonUtil;
+
 public final class BgpTableFormatDetector {
 
+   private static final String EOS_DETAIL_MARKER = "BGP routing table entry for";
+
+   private static final String EOS_MARKER = "BGP routing table information for VRF";
+
+   /**
+    * Identifies the format of the supplied file as
+    * {@link #identifyBgpTableFormat(String)} would from its text, scanning it
+    * line by line rather than reading it into memory
+    */
+   public static BgpTableFormat identifyBgpTableFormat(Path file) {
+      boolean empty = true;
+      boolean eos = false;
+      boolean eosDetail = false;
+      try (BufferedReader reader = CommonUtil.newLenientReader(file)) {
+         for (String line = reader.readLine(); line != null
+               && !(eos && eosDetail); line = reader.readLine()) {
+            if (line.contains(EOS_MARKER)) {
+               eos = true;
+            }
+            if (line.contains(EOS_DETAIL_MARKER)) {
+               eosDetail = true;
+            }
+            if (empty && line.trim().length() != 0) {
+               empty = false;
+            }
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException("Failed to read file: " + file.toString(),
+               e);
+      }
+      if (empty) {
+         return BgpTableFormat.EMPTY;
+      }
+      else if (eos && eosDetail) {
+         return BgpTableFormat.EOS_DETAIL;
+      }
+      else if (eos) {
+         return BgpTableFormat.EOS;
+      }
+      else {
+         return BgpTableFormat.UNKNOWN;
+      }
+   }
+
    public static BgpTableFormat identifyBgpTableFormat(String fileText) {
       return new BgpTableFormatDetector(fileText).identifyBgpTableFormat();
    }
@@ -29,9 +80,9 @@ public final class BgpTableFormatDetector {
 
    private BgpTableFormat checkEos() {
       Matcher eosMatcher = Pattern
-            .compile("(?m)BGP routing table information for VRF")
+            .compile("(?m)" + EOS_MARKER)
             .matcher(_fileText);
-      Matcher detailMatcher = Pattern.compile("(?m)BGP routing table entry for")
+      Matcher detailMatcher = Pattern.compile("(?m)" + EOS_DETAIL_MARKER)
             .matcher(_fileText);
       if (eosMatcher.find()) {
          if (detailMatcher.find()) {
@@ -1,10 +1,55 @@
 package org.batfish.grammar;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.batfish.common.BatfishException;
+import org.batfish.common.util.CommonUtil;
+
 public final class RoutingTableFormatDetector {
 
+   private static final String EOS_MARKER = "Codes: C - connected, S - static, K - kernel,";
+
+   private static final String NXOS_MARKER = "IP Route Table for VRF \"";
+
+   /**
+    * Identifies the format of the supplied file as
+    * {@link #identifyRoutingTableFormat(String)} would from its text, scanning
+    * it line by line rather than reading it into memory. Scanning stops at the
+    * first format marker, which decides the format, so a recognized table is
+    * only read in full by its parser.
+    */
+   public static RoutingTableFormat identifyRoutingTableFormat(Path file) {
+      boolean empty = true;
+      try (BufferedReader reader = CommonUtil.newLenientReader(file)) {
+         for (String line = reader.readLine(); line != null; line = reader
+               .readLine()) {
+            if (line.contains(EOS_MARKER)) {
+               return RoutingTableFormat.EOS;
+            }
+            if (line.contains(NXOS_MARKER)) {
+               return RoutingTableFormat.NXOS;
+            }
+            if (empty && line.trim().length() != 0) {
+               empty = false;
+            }
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException("Failed to read file: " + file.toString(),
+               e);
+      }
+      if (empty) {
+         return RoutingTableFormat.EMPTY;
+      }
+      else {
+         return RoutingTableFormat.UNKNOWN;
+      }
+   }
+
    public static RoutingTableFormat identifyRoutingTableFormat(
          String fileText) {
       return new RoutingTableFormatDetector(fileText)
@@ -31,7 +76,7 @@ public final class RoutingTableFormatDetector {
 
    private RoutingTableFormat checkEos() {
       Matcher eosMatcher = Pattern
-            .compile("(?m)Codes: C - connected, S - static, K - kernel,")
+            .compile("(?m)" + EOS_MARKER)
             .matcher(_fileText);
       if (eosMatcher.find()) {
          return RoutingTableFormat.EOS;
@@ -40,7 +85,7 @@ public final class RoutingTableFormatDetector {
    }
 
    private RoutingTableFormat checkNxos() {
-      Matcher nxosMatcher = Pattern.compile("(?m)IP Route Table for VRF \"")
+      Matcher nxosMatcher = Pattern.compile("(?m)" + NXOS_MARKER)
             .matcher(_fileText);
       if (nxosMatcher.find()) {
          return RoutingTableFormat.NXOS;
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.*;
@@ -15,21 +16,21 @@ import org.batfish.common.Warnings;
 
 public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
 
-   private boolean _changed;
-
    private Flat_juniper_configurationContext _configurationContext;
 
    private HierarchyPath _currentPath;
 
    private Set_lineContext _currentSetLine;
 
+   private LineEdits _edits;
+
    private boolean _enablePathRecording;
 
    private final Hierarchy _hierarchy;
 
    private boolean _inGroup;
 
-   private List<ParseTree> _newConfigurationLines;
+   private List<ParseTree> _insertedLines;
 
    private boolean _reenablePathRecording;
 
@@ -50,8 +51,8 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       try {
          List<ParseTree> applyGroupsLines = _hierarchy.getApplyGroupsLines(
                groupName, _currentPath, _configurationContext);
-         int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
-         _newConfigurationLines.addAll(insertionIndex, applyGroupsLines);
+         _edits.insertBefore(_currentSetLine, applyGroupsLines);
+         _insertedLines.addAll(applyGroupsLines);
       }
       catch (PartialGroupMatchException e) {
          String message = "Exception processing apply-groups statement at path: \""
@@ -73,8 +74,7 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
                + ExceptionUtils.getFullStackTrace(e);
          _w.redFlag(message);
       }
-      _newConfigurationLines.remove(_currentSetLine);
-      _changed = true;
+      _edits.remove(_currentSetLine);
    }
 
    @Override
@@ -83,15 +83,15 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
          _w.redFlag(
                "Do not know how to handle apply-groups-except occcurring within group statement");
       }
-      _newConfigurationLines.remove(_currentSetLine);
+      _edits.remove(_currentSetLine);
    }
 
    @Override
    public void enterFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
       _configurationContext = ctx;
-      _newConfigurationLines = new ArrayList<>();
-      _newConfigurationLines.addAll(ctx.children);
+      _edits = new LineEdits();
+      _insertedLines = new ArrayList<>();
    }
 
    @Override
@@ -121,10 +121,26 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       _currentPath = new HierarchyPath();
    }
 
+   /**
+    * Applies the edits of the walk, and then repeatedly walks just the lines
+    * inserted by the previous round, since lines from a group may themselves
+    * apply groups, until no more lines are inserted
+    */
    @Override
    public void exitFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
-      _configurationContext.children = _newConfigurationLines;
+      List<ParseTree> lines = _edits.apply(ctx.children);
+      ParseTreeWalker walker = new ParseTreeWalker();
+      while (!_insertedLines.isEmpty()) {
+         List<ParseTree> linesToWalk = _insertedLines;
+         _edits = new LineEdits();
+         _insertedLines = new ArrayList<>();
+         for (ParseTree line : linesToWalk) {
+            walker.walk(this, line);
+         }
+         lines = _edits.apply(lines);
+      }
+      _configurationContext.children = lines;
    }
 
    @Override
@@ -151,10 +167,6 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       _enablePathRecording = false;
    }
 
-   public boolean getChanged() {
-      return _changed;
-   }
-
    @Override
    public void visitTerminal(TerminalNode node) {
       if (_enablePathRecording) {
@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.antlr.v4.runtime.tree.ParseTree;
@@ -18,12 +17,12 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
 
    private Set_lineContext _currentSetLine;
 
+   private LineEdits _edits;
+
    private boolean _enablePathRecording;
 
    private Hierarchy _hierarchy;
 
-   private List<ParseTree> _newConfigurationLines;
-
    private boolean _reenablePathRecording;
 
    private final Warnings _w;
@@ -37,8 +36,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
    public void enterFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
       _configurationContext = ctx;
-      _newConfigurationLines = new ArrayList<>();
-      _newConfigurationLines.addAll(ctx.children);
+      _edits = new LineEdits();
    }
 
    @Override
@@ -68,7 +66,6 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
             applyPathPath.addNode(pathComponent);
          }
       }
-      int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
       List<ParseTree> newLines = null;
       try {
          newLines = _hierarchy.getApplyPathLines(_currentPath, applyPathPath,
@@ -78,9 +75,9 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
          _w.redFlag("Could not apply path: " + pathQuoted
                + ": make sure path is terminated by wildcard (e.g. <*>) representing ip(v6) addresses or prefixes");
       }
-      // _newConfigurationLines.remove(_currentSetLine);
+      // _edits.remove(_currentSetLine);
       if (newLines != null) {
-         _newConfigurationLines.addAll(insertionIndex + 1, newLines);
+         _edits.insertAfter(_currentSetLine, newLines);
       }
    }
 
@@ -98,7 +95,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
    @Override
    public void exitFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
-      _configurationContext.children = _newConfigurationLines;
+      _configurationContext.children = _edits.apply(ctx.children);
    }
 
    @Override
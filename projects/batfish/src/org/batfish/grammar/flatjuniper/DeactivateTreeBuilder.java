@@ -10,6 +10,8 @@ public class DeactivateTreeBuilder extends FlatJuniperParserBaseListener {
 
    private HierarchyPath _currentPath;
 
+   private LineEdits _edits;
+
    private boolean _enablePathRecording;
 
    private Hierarchy _hierarchy;
@@ -31,6 +33,12 @@ public class DeactivateTreeBuilder extends FlatJuniperParserBaseListener {
       _currentPath = new HierarchyPath();
    }
 
+   @Override
+   public void enterFlat_juniper_configuration(
+         Flat_juniper_configurationContext ctx) {
+      _edits = new LineEdits();
+   }
+
    @Override
    public void enterInterface_id(Interface_idContext ctx) {
       if (_enablePathRecording
@@ -48,6 +56,7 @@ public class DeactivateTreeBuilder extends FlatJuniperParserBaseListener {
          _hierarchy.addDeactivatePath(_currentPath, ctx);
          _currentPath = null;
       }
+      _edits.remove(ctx);
    }
 
    @Override
@@ -55,6 +64,12 @@ public class DeactivateTreeBuilder extends FlatJuniperParserBaseListener {
       _enablePathRecording = false;
    }
 
+   @Override
+   public void exitFlat_juniper_configuration(
+         Flat_juniper_configurationContext ctx) {
+      ctx.children = _edits.apply(ctx.children);
+   }
+
    @Override
    public void exitInterface_id(Interface_idContext ctx) {
       if (_reenablePathRecording) {
@@ -1,9 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.*;
 import org.batfish.grammar.flatjuniper.Hierarchy.HierarchyTree.HierarchyPath;
@@ -12,16 +8,14 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
 
    private boolean _checkLine;
 
-   private Flat_juniper_configurationContext _configurationContext;
-
    private HierarchyPath _currentPath;
 
+   private LineEdits _edits;
+
    private boolean _enablePathRecording;
 
    private Hierarchy _hierarchy;
 
-   private List<ParseTree> _newConfigurationLines;
-
    private boolean _reenablePathRecording;
 
    public DeactivatedLinePruner(Hierarchy hierarchy) {
@@ -31,9 +25,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
    @Override
    public void enterFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
-      _configurationContext = ctx;
-      _newConfigurationLines = new ArrayList<>();
-      _newConfigurationLines.addAll(ctx.children);
+      _edits = new LineEdits();
    }
 
    @Override
@@ -61,7 +53,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
    @Override
    public void exitFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
-      _configurationContext.children = _newConfigurationLines;
+      ctx.children = _edits.apply(ctx.children);
    }
 
    @Override
@@ -76,7 +68,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
    public void exitSet_line(Set_lineContext ctx) {
       if (_checkLine) {
          if (_hierarchy.isDeactivated(_currentPath)) {
-            _newConfigurationLines.remove(ctx);
+            _edits.remove(ctx);
          }
          _currentPath = null;
       }
@@ -46,25 +46,17 @@ public class FlatJuniperControlPlaneExtractor implements ControlPlaneExtractor {
       ParseTreeWalker walker = new ParseTreeWalker();
       DeactivateTreeBuilder dtb = new DeactivateTreeBuilder(hierarchy);
       walker.walk(dtb, tree);
-      DeactivateLinePruner dp = new DeactivateLinePruner();
-      walker.walk(dp, tree);
       DeactivatedLinePruner dlp = new DeactivatedLinePruner(hierarchy);
       walker.walk(dlp, tree);
       InitialTreeBuilder tb = new InitialTreeBuilder(hierarchy);
       walker.walk(tb, tree);
       GroupTreeBuilder gb = new GroupTreeBuilder(_parser, hierarchy);
       walker.walk(gb, tree);
-      ApplyGroupsApplicator hb;
-      do {
-         hb = new ApplyGroupsApplicator(_parser, hierarchy, _w);
-         walker.walk(hb, tree);
-      } while (hb.getChanged());
-      GroupPruner gp = new GroupPruner();
-      walker.walk(gp, tree);
+      ApplyGroupsApplicator hb = new ApplyGroupsApplicator(_parser, hierarchy,
+            _w);
+      walker.walk(hb, tree);
       WildcardApplicator wa = new WildcardApplicator(hierarchy);
       walker.walk(wa, tree);
-      WildcardPruner wp = new WildcardPruner();
-      walker.walk(wp, tree);
       walker.walk(dlp, tree);
       ApplyPathApplicator ap = new ApplyPathApplicator(hierarchy, _w);
       walker.walk(ap, tree);
@@ -8,6 +8,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.tree.ParseTree;
@@ -78,8 +79,7 @@ public class Hierarchy {
 
          @Override
          public boolean isMatchedBy(HierarchyWildcardNode node) {
-            String regex = node._wildcard.replaceAll("\\*", ".*");
-            return _text.matches(regex);
+            return node.getPattern().matcher(_text).matches();
          }
 
          @Override
@@ -107,6 +107,7 @@ public class Hierarchy {
 
          protected Set<String> _blacklistedGroups;
          private Map<String, HierarchyChildNode> _children;
+         private int _numWildcardChildren;
 
          public HierarchyNode() {
             _children = new LinkedHashMap<>();
@@ -118,7 +119,18 @@ public class Hierarchy {
          }
 
          public void addChildNode(HierarchyChildNode node) {
-            _children.put(node._text, node);
+            HierarchyChildNode oldNode = _children.put(node._text, node);
+            if (oldNode != null && oldNode.isWildcard()) {
+               _numWildcardChildren--;
+            }
+            if (node.isWildcard()) {
+               _numWildcardChildren++;
+            }
+         }
+
+         public void clearChildren() {
+            _children.clear();
+            _numWildcardChildren = 0;
          }
 
          public HierarchyChildNode getChildNode(String text) {
@@ -129,8 +141,17 @@ public class Hierarchy {
             return _children;
          }
 
+         /**
+          * Only a child with the same text can match a wildcard, and only a
+          * child with the same text or a wildcard child can match a literal, so
+          * children are only scanned when some wildcard child must be tried
+          */
          public HierarchyChildNode getFirstMatchingChildNode(
                HierarchyChildNode node) {
+            if (node.isWildcard() || _numWildcardChildren == 0) {
+               HierarchyChildNode child = _children.get(node._text);
+               return child != null && child.matches(node) ? child : null;
+            }
             for (HierarchyChildNode child : _children.values()) {
                if (child.matches(node)) {
                   return child;
@@ -196,6 +217,8 @@ public class Hierarchy {
       private static final class HierarchyWildcardNode
             extends HierarchyChildNode {
 
+         private Pattern _pattern;
+
          private String _wildcard;
 
          private HierarchyWildcardNode(String text) {
@@ -210,7 +233,20 @@ public class Hierarchy {
 
          @Override
          public HierarchyChildNode copy() {
-            return new HierarchyWildcardNode(_text);
+            HierarchyWildcardNode copy = new HierarchyWildcardNode(_text);
+            copy._pattern = _pattern;
+            return copy;
+         }
+
+         /**
+          * Compiled on first use, since most wildcards are never matched
+          * against a literal
+          */
+         private Pattern getPattern() {
+            if (_pattern == null) {
+               _pattern = Pattern.compile(_wildcard.replaceAll("\\*", ".*"));
+            }
+            return _pattern;
          }
 
          @Override
@@ -260,6 +296,7 @@ public class Hierarchy {
       private void addGroupPaths(Set_lineContext groupLine,
             Collection<HierarchyChildNode> currentGroupChildren,
             HierarchyTree masterTree, HierarchyPath path, List<ParseTree> lines,
+            List<String> statements,
             Flat_juniper_configurationContext configurationContext) {
          if (groupLine != null) {
             Set_lineContext setLine = new Set_lineContext(configurationContext,
@@ -268,45 +305,14 @@ public class Hierarchy {
                   _groupName) == AddPathResult.BLACKLISTED) {
                return;
             }
-            StringBuilder sb = new StringBuilder();
-            for (HierarchyChildNode pathNode : path._nodes) {
-               sb.append(pathNode._text + " ");
-            }
-            String newStatementText = sb.toString();
-            // get rid of last " ", which matters for tokens where whitespace is
-            // not ignored
-            newStatementText = "set "
-                  + newStatementText.substring(0, newStatementText.length() - 1)
-                  + "\n";
-            TerminalNode set = new TerminalNodeImpl(
-                  new CommonToken(FlatJuniperLexer.SET, "set"));
-            Set_line_tailContext setLineTail = new Set_line_tailContext(setLine,
-                  -1);
-            TerminalNode newline = new TerminalNodeImpl(
-                  new CommonToken(FlatJuniperLexer.NEWLINE, "\n"));
-            setLine.children = new ArrayList<ParseTree>();
-            setLine.children.add(set);
-            setLine.children.add(setLineTail);
-            setLine.children.add(newline);
-            Settings settings = parserSettings();
-            FlatJuniperCombinedParser parser = new FlatJuniperCombinedParser(
-                  newStatementText, settings);
-            Flat_juniper_configurationContext newConfiguration = parser
-                  .getParser().flat_juniper_configuration();
-            // StatementContext newStatement = parser.getParser().statement();
-            StatementContext newStatement = newConfiguration.set_line(0)
-                  .set_line_tail().statement();
-            newStatement.parent = setLineTail;
-
-            setLineTail.children = new ArrayList<ParseTree>();
-            setLineTail.children.add(newStatement);
+            initSetLine(setLine, path, statements);
             lines.add(setLine);
          }
          for (HierarchyChildNode childNode : currentGroupChildren) {
             HierarchyChildNode newPathNode = childNode.copy();
             path._nodes.add(newPathNode);
             addGroupPaths(childNode._line, childNode.getChildren().values(),
-                  masterTree, path, lines, configurationContext);
+                  masterTree, path, lines, statements, configurationContext);
             path._nodes.remove(path._nodes.size() - 1);
          }
       }
@@ -346,8 +352,11 @@ public class Hierarchy {
          List<String> appliedWildcards = new ArrayList<>();
          HierarchyPath newPath = new HierarchyPath();
          List<ParseTree> lines = new ArrayList<>();
+         List<String> statements = new ArrayList<>();
          applyWildcardPath(path, configurationContext, sourceGroup, _root, 0,
-               remainingWildcards, appliedWildcards, newPath, lines);
+               remainingWildcards, appliedWildcards, newPath, lines,
+               statements);
+         parseStatements(lines, statements);
          return lines;
       }
 
@@ -356,7 +365,7 @@ public class Hierarchy {
             String sourceGroup, HierarchyNode destinationTreeRoot,
             int startingIndex, int remainingWildcards,
             List<String> appliedWildcards, HierarchyPath newPath,
-            List<ParseTree> lines) {
+            List<ParseTree> lines, List<String> statements) {
          if (destinationTreeRoot._blacklistedGroups.contains(sourceGroup)) {
             return;
          }
@@ -373,21 +382,21 @@ public class Hierarchy {
                   return;
                }
                newDestinationTreeRoot = currentPathNode.copy();
-               destinationTreeRoot._children.put(newDestinationTreeRoot._text,
-                     newDestinationTreeRoot);
+               destinationTreeRoot.addChildNode(newDestinationTreeRoot);
             }
             newPath._nodes.add(newDestinationTreeRoot);
             if (startingIndex == path._nodes.size() - 1) {
                newDestinationTreeRoot._sourceWildcards = new ArrayList<>();
                newDestinationTreeRoot._sourceWildcards.addAll(appliedWildcards);
                newDestinationTreeRoot._line = generateSetLine(newPath,
-                     configurationContext);
+                     statements, configurationContext);
                lines.add(newDestinationTreeRoot._line);
             }
             else {
                applyWildcardPath(path, configurationContext, sourceGroup,
                      newDestinationTreeRoot, startingIndex + 1,
-                     remainingWildcards, appliedWildcards, newPath, lines);
+                     remainingWildcards, appliedWildcards, newPath, lines,
+                     statements);
             }
             newPath._nodes.remove(newPath._nodes.size() - 1);
          }
@@ -404,7 +413,7 @@ public class Hierarchy {
                      applyWildcardPath(path, configurationContext, sourceGroup,
                            destinationTreeNode, startingIndex + 1,
                            remainingWildcards - 1, appliedWildcards, newPath,
-                           lines);
+                           lines, statements);
                      newPath._nodes.remove(newPath._nodes.size() - 1);
                   }
                }
@@ -445,39 +454,11 @@ public class Hierarchy {
       }
 
       private Set_lineContext generateSetLine(HierarchyPath path,
+            List<String> statements,
             Flat_juniper_configurationContext configurationContext) {
          Set_lineContext setLine = new Set_lineContext(configurationContext,
                -1);
-         StringBuilder sb = new StringBuilder();
-         for (HierarchyChildNode pathNode : path._nodes) {
-            sb.append(pathNode._text + " ");
-         }
-         String newStatementText = sb.toString();
-         newStatementText = "set "
-               + newStatementText.substring(0, newStatementText.length() - 1)
-               + "\n";
-         TerminalNode set = new TerminalNodeImpl(
-               new CommonToken(FlatJuniperLexer.SET, "set"));
-         Set_line_tailContext setLineTail = new Set_line_tailContext(setLine,
-               -1);
-         TerminalNode newline = new TerminalNodeImpl(
-               new CommonToken(FlatJuniperLexer.NEWLINE, "\n"));
-         setLine.children = new ArrayList<ParseTree>();
-         setLine.children.add(set);
-         setLine.children.add(setLineTail);
-         setLine.children.add(newline);
-         Settings settings = parserSettings();
-         FlatJuniperCombinedParser parser = new FlatJuniperCombinedParser(
-               newStatementText, settings);
-         Flat_juniper_configurationContext newConfiguration = parser.getParser()
-               .flat_juniper_configuration();
-         StatementContext newStatement = newConfiguration.set_line(0)
-               .set_line_tail().statement();
-         newStatement.parent = setLineTail;
-
-         setLineTail.children = new ArrayList<ParseTree>();
-         setLineTail.children.add(newStatement);
-
+         initSetLine(setLine, path, statements);
          return setLine;
       }
 
@@ -485,12 +466,13 @@ public class Hierarchy {
             Flat_juniper_configurationContext configurationContext,
             HierarchyTree masterTree) {
          List<ParseTree> lines = new ArrayList<>();
+         List<String> statements = new ArrayList<>();
          HierarchyNode currentGroupNode = _root;
          HierarchyChildNode matchNode = null;
          HierarchyPath partialMatch = new HierarchyPath();
          if (path._nodes.size() == 0) {
             addGroupPaths(null, _root.getChildren().values(), masterTree, path,
-                  lines, configurationContext);
+                  lines, statements, configurationContext);
          }
          else {
             for (HierarchyChildNode currentPathNode : path._nodes) {
@@ -513,8 +495,9 @@ public class Hierarchy {
             // applied
             // according to the supplied path
             addGroupPaths(matchNode._line, matchNode.getChildren().values(),
-                  masterTree, path, lines, configurationContext);
+                  masterTree, path, lines, statements, configurationContext);
          }
+         parseStatements(lines, statements);
          return lines;
       }
 
@@ -522,6 +505,7 @@ public class Hierarchy {
             HierarchyPath applyPathPath,
             Flat_juniper_configurationContext configurationContext) {
          List<ParseTree> lines = new ArrayList<>();
+         List<String> statements = new ArrayList<>();
          List<String> candidatePrefixes = getApplyPathPrefixes(applyPathPath);
          for (String candidatePrefix : candidatePrefixes) {
             String finalPrefixStr;
@@ -554,11 +538,12 @@ public class Hierarchy {
                      + candidatePrefix + "\"", e);
             }
             basePath.addNode(finalPrefixStr);
-            Set_lineContext setLine = generateSetLine(basePath,
+            Set_lineContext setLine = generateSetLine(basePath, statements,
                   configurationContext);
             lines.add(setLine);
             basePath._nodes.remove(basePath._nodes.size() - 1);
          }
+         parseStatements(lines, statements);
          return lines;
       }
 
@@ -595,9 +580,89 @@ public class Hierarchy {
          return _groupName;
       }
 
+      /**
+       * Gives the supplied generated line its 'set' and newline tokens, and
+       * appends the text of its statement to the supplied statements, which are
+       * parsed together by {@link #parseStatements}
+       */
+      private void initSetLine(Set_lineContext setLine, HierarchyPath path,
+            List<String> statements) {
+         StringBuilder sb = new StringBuilder();
+         for (HierarchyChildNode pathNode : path._nodes) {
+            sb.append(pathNode._text + " ");
+         }
+         String newStatementText = sb.toString();
+         // get rid of last " ", which matters for tokens where whitespace is
+         // not ignored
+         newStatementText = "set "
+               + newStatementText.substring(0, newStatementText.length() - 1)
+               + "\n";
+         statements.add(newStatementText);
+         TerminalNode set = new TerminalNodeImpl(
+               new CommonToken(FlatJuniperLexer.SET, "set"));
+         Set_line_tailContext setLineTail = new Set_line_tailContext(setLine,
+               -1);
+         TerminalNode newline = new TerminalNodeImpl(
+               new CommonToken(FlatJuniperLexer.NEWLINE, "\n"));
+         setLine.children = new ArrayList<ParseTree>();
+         setLine.children.add(set);
+         setLine.children.add(setLineTail);
+         setLine.children.add(newline);
+      }
+
+      private StatementContext parseStatement(String statement) {
+         Settings settings = parserSettings();
+         FlatJuniperCombinedParser parser = new FlatJuniperCombinedParser(
+               statement, settings);
+         Flat_juniper_configurationContext newConfiguration = parser.getParser()
+               .flat_juniper_configuration();
+         return newConfiguration.set_line(0).set_line_tail().statement();
+      }
+
+      /**
+       * Parses the statements of all the supplied generated lines with a single
+       * parser, and attaches each statement to its line. If that fails, the
+       * statements are parsed one at a time, so that an error is reported for
+       * the line that caused it as before.
+       */
+      private void parseStatements(List<ParseTree> lines,
+            List<String> statements) {
+         if (lines.isEmpty()) {
+            return;
+         }
+         List<StatementContext> newStatements = null;
+         try {
+            Settings settings = parserSettings();
+            FlatJuniperCombinedParser parser = new FlatJuniperCombinedParser(
+                  String.join("", statements), settings);
+            Flat_juniper_configurationContext newConfiguration = parser
+                  .getParser().flat_juniper_configuration();
+            List<Set_lineContext> newSetLines = newConfiguration.set_line();
+            if (newSetLines.size() == lines.size()) {
+               newStatements = new ArrayList<>();
+               for (Set_lineContext newSetLine : newSetLines) {
+                  newStatements.add(newSetLine.set_line_tail().statement());
+               }
+            }
+         }
+         catch (BatfishException e) {
+            newStatements = null;
+         }
+         for (int i = 0; i < lines.size(); i++) {
+            Set_lineContext setLine = (Set_lineContext) lines.get(i);
+            Set_line_tailContext setLineTail = (Set_line_tailContext) setLine.children
+                  .get(1);
+            StatementContext newStatement = newStatements != null
+                  ? newStatements.get(i) : parseStatement(statements.get(i));
+            newStatement.parent = setLineTail;
+            setLineTail.children = new ArrayList<ParseTree>();
+            setLineTail.children.add(newStatement);
+         }
+      }
+
       public void pruneAfterPath(HierarchyPath path) {
          HierarchyChildNode pathEnd = findExactPathMatchNode(path);
-         pathEnd.getChildren().clear();
+         pathEnd.clearChildren();
       }
 
       public void setApplyGroupsExcept(HierarchyPath path, String groupName) {
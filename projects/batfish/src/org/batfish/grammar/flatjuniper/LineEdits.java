@@ -0,0 +1,73 @@
+package org.batfish.grammar.flatjuniper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Insertions and removals of top-level configuration lines, recorded while
+ * walking a configuration and applied together in a single pass over its lines
+ * once the walk is complete, rather than by searching the list of lines for
+ * every edit
+ */
+public class LineEdits {
+
+   private final Map<ParseTree, List<ParseTree>> _after;
+
+   private final Map<ParseTree, List<ParseTree>> _before;
+
+   private final Set<ParseTree> _removed;
+
+   public LineEdits() {
+      _after = new IdentityHashMap<>();
+      _before = new IdentityHashMap<>();
+      _removed = Collections.newSetFromMap(new IdentityHashMap<>());
+   }
+
+   /**
+    * Returns the supplied lines with the recorded edits applied
+    */
+   public List<ParseTree> apply(List<ParseTree> lines) {
+      List<ParseTree> newLines = new ArrayList<>(lines.size());
+      for (ParseTree line : lines) {
+         List<ParseTree> before = _before.get(line);
+         if (before != null) {
+            newLines.addAll(before);
+         }
+         if (!_removed.contains(line)) {
+            newLines.add(line);
+         }
+         List<ParseTree> after = _after.get(line);
+         if (after != null) {
+            newLines.addAll(after);
+         }
+      }
+      return newLines;
+   }
+
+   /**
+    * Inserts the supplied new lines immediately after the supplied line, ahead
+    * of any lines previously inserted after it
+    */
+   public void insertAfter(ParseTree line, List<ParseTree> newLines) {
+      _after.computeIfAbsent(line, l -> new ArrayList<>()).addAll(0, newLines);
+   }
+
+   /**
+    * Inserts the supplied new lines immediately before the supplied line,
+    * following any lines previously inserted before it
+    */
+   public void insertBefore(ParseTree line, List<ParseTree> newLines) {
+      _before.computeIfAbsent(line, l -> new ArrayList<>()).addAll(newLines);
+   }
+
+   public void remove(ParseTree line) {
+      _removed.add(line);
+   }
+
+}
@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.antlr.v4.runtime.tree.ParseTree;
@@ -8,17 +7,28 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.*;
 import org.batfish.grammar.flatjuniper.Hierarchy.HierarchyTree.HierarchyPath;
 
+/**
+ * Expands each line containing wildcards into a line for each matching path in
+ * the master tree, and removes the wildcard lines themselves along with the
+ * (already applied) group lines
+ */
 public class WildcardApplicator extends FlatJuniperParserBaseListener {
 
    private Flat_juniper_configurationContext _configurationContext;
 
    private HierarchyPath _currentPath;
 
+   private LineEdits _edits;
+
    private boolean _enablePathRecording;
 
    private Hierarchy _hierarchy;
 
-   private List<ParseTree> _newConfigurationLines;
+   private boolean _inSetLineTail;
+
+   private boolean _isGroupsLine;
+
+   private boolean _lineContainsWildcard;
 
    private boolean _reenablePathRecording;
 
@@ -30,8 +40,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
    public void enterFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
       _configurationContext = ctx;
-      _newConfigurationLines = new ArrayList<>();
-      _newConfigurationLines.addAll(ctx.children);
+      _edits = new LineEdits();
    }
 
    @Override
@@ -48,13 +57,15 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
    @Override
    public void enterSet_line_tail(Set_line_tailContext ctx) {
       _enablePathRecording = true;
+      _inSetLineTail = true;
+      _lineContainsWildcard = false;
       _currentPath = new HierarchyPath();
    }
 
    @Override
    public void exitFlat_juniper_configuration(
          Flat_juniper_configurationContext ctx) {
-      _configurationContext.children = _newConfigurationLines;
+      _configurationContext.children = _edits.apply(ctx.children);
    }
 
    @Override
@@ -65,27 +76,48 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
       }
    }
 
+   @Override
+   public void exitS_groups(S_groupsContext ctx) {
+      _isGroupsLine = true;
+   }
+
    @Override
    public void exitSet_line(Set_lineContext ctx) {
-      if (_currentPath.containsWildcard()) {
-         List<ParseTree> lines = _hierarchy.getMasterTree()
-               .applyWildcardPath(_currentPath, _configurationContext);
-         int insertionIndex = _newConfigurationLines.indexOf(ctx);
-         _newConfigurationLines.addAll(insertionIndex, lines);
+      if (_isGroupsLine) {
+         _edits.remove(ctx);
       }
+      else {
+         if (_currentPath.containsWildcard()) {
+            List<ParseTree> lines = _hierarchy.getMasterTree()
+                  .applyWildcardPath(_currentPath, _configurationContext);
+            _edits.insertBefore(ctx, lines);
+         }
+         // a wildcard within an interface name is not expanded, but the line
+         // is still dropped
+         if (_lineContainsWildcard) {
+            _edits.remove(ctx);
+         }
+      }
+      _isGroupsLine = false;
       _currentPath = null;
    }
 
    @Override
    public void exitSet_line_tail(Set_line_tailContext ctx) {
       _enablePathRecording = false;
+      _inSetLineTail = false;
    }
 
    @Override
    public void visitTerminal(TerminalNode node) {
+      boolean wildcard = node.getSymbol()
+            .getType() == FlatJuniperLexer.WILDCARD;
+      if (_inSetLineTail && wildcard) {
+         _lineContainsWildcard = true;
+      }
       if (_enablePathRecording) {
          String text = node.getText();
-         if (node.getSymbol().getType() == FlatJuniperLexer.WILDCARD) {
+         if (wildcard) {
             _currentPath.addWildcardNode(text);
          }
          else {
@@ -24,6 +24,52 @@ public class EosRoutingTableExtractor extends EosRoutingTableParserBaseListener
       return Integer.parseInt(t.getText());
    }
 
+   /**
+    * Returns the protocol denoted by the supplied route code, with any
+    * whitespace removed, or null if the code is not recognized
+    */
+   static RoutingProtocol toProtocol(String code) {
+      switch (code) {
+
+      case "BE":
+         return RoutingProtocol.BGP;
+
+      case "BI":
+         return RoutingProtocol.IBGP;
+
+      case "C":
+         return RoutingProtocol.CONNECTED;
+
+      case "S":
+         return RoutingProtocol.STATIC;
+
+      case "O":
+         return RoutingProtocol.OSPF;
+
+      case "IA":
+         return RoutingProtocol.OSPF_IA;
+
+      case "OE1":
+         return RoutingProtocol.OSPF_E1;
+
+      case "OE2":
+         return RoutingProtocol.OSPF_E2;
+
+      case "IL1":
+         return RoutingProtocol.ISIS_L1;
+
+      case "IL2":
+         return RoutingProtocol.ISIS_L2;
+
+      case "AB":
+      case "AO":
+         return RoutingProtocol.AGGREGATE;
+
+      default:
+         return null;
+      }
+   }
+
    private String _currentVrfName;
 
    private SortedSet<Route> _currentVrfRoutes;
@@ -126,46 +172,11 @@ public class EosRoutingTableExtractor extends EosRoutingTableParserBaseListener
    }
 
    private RoutingProtocol toProtocol(ProtocolContext ctx) {
-      String protocolStr = ctx.getText();
-      switch (protocolStr) {
-
-      case "BE":
-         return RoutingProtocol.BGP;
-
-      case "BI":
-         return RoutingProtocol.IBGP;
-
-      case "C":
-         return RoutingProtocol.CONNECTED;
-
-      case "S":
-         return RoutingProtocol.STATIC;
-
-      case "O":
-         return RoutingProtocol.OSPF;
-
-      case "IA":
-         return RoutingProtocol.OSPF_IA;
-
-      case "OE1":
-         return RoutingProtocol.OSPF_E1;
-
-      case "OE2":
-         return RoutingProtocol.OSPF_E2;
-
-      case "IL1":
-         return RoutingProtocol.ISIS_L1;
-
-      case "IL2":
-         return RoutingProtocol.ISIS_L2;
-
-      case "AB":
-      case "AO":
-         return RoutingProtocol.AGGREGATE;
-
-      default:
+      RoutingProtocol protocol = toProtocol(ctx.getText());
+      if (protocol == null) {
          throw convError(RoutingProtocol.class, ctx);
       }
+      return protocol;
    }
 
 }
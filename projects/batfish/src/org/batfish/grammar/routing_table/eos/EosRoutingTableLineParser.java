@@ -0,0 +1,200 @@
+package org.batfish.grammar.routing_table.eos;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.collections.RoutesByVrf;
+import org.batfish.grammar.RoutingTableLineParser;
+
+/**
+ * Line-oriented parser for EOS routing tables producing the same routes as
+ * {@link EosRoutingTableExtractor}, for use on large tables before falling back
+ * to the grammar
+ */
+public class EosRoutingTableLineParser implements RoutingTableLineParser {
+
+   private static final String IP_ADDRESS = "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}";
+
+   private static final Pattern CODES = Pattern.compile("\\s*Codes\\s*:.*");
+
+   private static final Pattern DIRECTLY_CONNECTED = Pattern
+         .compile("is directly connected\\s*,(.*)");
+
+   private static final Pattern GATEWAY = Pattern.compile("\\s*Gateway\\s.*");
+
+   private static final Pattern NEXT_HOP = Pattern
+         .compile("\\[\\s*(\\d{1,9})\\s*/\\s*(\\d{1,9})\\s*\\]\\s*via\\s+("
+               + IP_ADDRESS + ")\\s*,(.*)");
+
+   private static final Pattern ROUTE = Pattern
+         .compile("\\s*((?:[A-Za-z0-9]*[A-Za-z][A-Za-z0-9]*\\s+)+)("
+               + IP_ADDRESS + "/\\d{1,3})\\s*(.*)");
+
+   private static final Pattern VIA = Pattern
+         .compile("\\s*via\\s+(" + IP_ADDRESS + ")\\s*,(.*)");
+
+   private static final Pattern VRF = Pattern
+         .compile("\\s*VRF\\s+name\\s*:(.*)");
+
+   private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+   private static String stripWhitespace(String text) {
+      return WHITESPACE.matcher(text).replaceAll("");
+   }
+
+   private int _currentAdmin;
+
+   private int _currentCost;
+
+   private Prefix _currentPrefix;
+
+   private RoutingProtocol _currentProtocol;
+
+   private String _currentVrfName;
+
+   private SortedSet<Route> _currentVrfRoutes;
+
+   private final String _hostname;
+
+   private RoutesByVrf _routesByVrf;
+
+   public EosRoutingTableLineParser(String hostname) {
+      _hostname = hostname;
+   }
+
+   private boolean addRoute(Ip nextHopIp, String nextHopInterface) {
+      if (nextHopInterface.isEmpty()) {
+         return false;
+      }
+      if (_currentVrfName == null) {
+         _currentVrfName = Configuration.DEFAULT_VRF_NAME;
+         initVrf(_currentVrfName);
+      }
+      // EOS tables carry no route tags, and name next hops only by ip, so as
+      // in the extractor both are left unset
+      _currentVrfRoutes.add(new Route(_hostname, _currentVrfName,
+            _currentPrefix, nextHopIp, Route.UNSET_NEXT_HOP, nextHopInterface,
+            _currentAdmin, _currentCost, _currentProtocol,
+            Route.UNSET_ROUTE_TAG));
+      return true;
+   }
+
+   private void initVrf(String vrfName) {
+      _currentVrfRoutes = _routesByVrf.get(vrfName);
+      if (_currentVrfRoutes == null) {
+         _currentVrfRoutes = new TreeSet<>();
+         _routesByVrf.put(vrfName, _currentVrfRoutes);
+      }
+   }
+
+   @Override
+   public RoutesByVrf parse(BufferedReader reader) throws IOException {
+      _routesByVrf = new RoutesByVrf();
+      // each table is an optional vrf declaration, a possibly multi-line codes
+      // declaration, an optional gateway header, and then routes
+      boolean expectCodes = true;
+      boolean vrfDeclared = false;
+      boolean inCodes = false;
+      boolean gatewayAllowed = false;
+      // whether further next hops may follow the current route
+      boolean viaAllowed = false;
+      int tables = 0;
+      for (String line = reader.readLine(); line != null; line = reader
+            .readLine()) {
+         String trimmed = line.trim();
+         if (trimmed.isEmpty() || trimmed.startsWith("!")) {
+            continue;
+         }
+         if (inCodes) {
+            inCodes = trimmed.endsWith(",");
+            continue;
+         }
+         Matcher matcher;
+         if ((matcher = VRF.matcher(line)).matches()) {
+            if (vrfDeclared) {
+               return null;
+            }
+            _currentVrfName = stripWhitespace(matcher.group(1));
+            if (_currentVrfName.isEmpty()) {
+               return null;
+            }
+            initVrf(_currentVrfName);
+            expectCodes = true;
+            vrfDeclared = true;
+         }
+         else if (CODES.matcher(line).matches()) {
+            inCodes = trimmed.endsWith(",");
+            expectCodes = false;
+            vrfDeclared = false;
+            gatewayAllowed = true;
+            viaAllowed = false;
+            tables++;
+         }
+         else if (expectCodes) {
+            return null;
+         }
+         else if (GATEWAY.matcher(line).matches()) {
+            if (!gatewayAllowed) {
+               return null;
+            }
+            gatewayAllowed = false;
+         }
+         else if ((matcher = VIA.matcher(line)).matches()) {
+            if (!viaAllowed || !addRoute(new Ip(matcher.group(1)),
+                  stripWhitespace(matcher.group(2)))) {
+               return null;
+            }
+         }
+         else if ((matcher = ROUTE.matcher(line)).matches()) {
+            gatewayAllowed = false;
+            _currentProtocol = EosRoutingTableExtractor
+                  .toProtocol(stripWhitespace(matcher.group(1)));
+            if (_currentProtocol == null) {
+               return null;
+            }
+            _currentPrefix = new Prefix(matcher.group(2));
+            String rest = matcher.group(3);
+            Matcher nextHopMatcher = NEXT_HOP.matcher(rest);
+            Matcher connectedMatcher = DIRECTLY_CONNECTED.matcher(rest);
+            if (nextHopMatcher.matches()) {
+               _currentAdmin = Integer.parseInt(nextHopMatcher.group(1));
+               _currentCost = Integer.parseInt(nextHopMatcher.group(2));
+               viaAllowed = addRoute(new Ip(nextHopMatcher.group(3)),
+                     stripWhitespace(nextHopMatcher.group(4)));
+               if (!viaAllowed) {
+                  return null;
+               }
+            }
+            else if (connectedMatcher.matches()) {
+               _currentAdmin = 0;
+               _currentCost = 0;
+               viaAllowed = false;
+               if (!addRoute(Route.UNSET_ROUTE_NEXT_HOP_IP,
+                     stripWhitespace(connectedMatcher.group(1)))) {
+                  return null;
+               }
+            }
+            else {
+               return null;
+            }
+         }
+         else {
+            return null;
+         }
+      }
+      if (tables == 0 || expectCodes || inCodes) {
+         return null;
+      }
+      return _routesByVrf;
+   }
+
+}
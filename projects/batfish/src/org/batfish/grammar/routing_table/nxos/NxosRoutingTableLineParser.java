@@ -0,0 +1,236 @@
+package org.batfish.grammar.routing_table.nxos;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.collections.RoutesByVrf;
+import org.batfish.grammar.RoutingTableLineParser;
+
+/**
+ * Line-oriented parser for NX-OS routing tables producing the same routes as
+ * {@link NxosRoutingTableExtractor}, for use on large tables before falling
+ * back to the grammar
+ */
+public class NxosRoutingTableLineParser implements RoutingTableLineParser {
+
+   private static final Pattern ADMIN_COST = Pattern
+         .compile("\\[\\s*(\\d{1,9})\\s*/\\s*(\\d{1,9})\\s*\\]");
+
+   private static final Pattern ELAPSED_TIME = Pattern
+         .compile("\\d+w\\dd|\\dd\\d\\d?h|\\d\\d:\\d\\d:\\d\\d");
+
+   private static final String IP_ADDRESS = "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}";
+
+   private static final Pattern NETWORK = Pattern.compile("\\s*(" + IP_ADDRESS
+         + "/\\d{1,3})\\s*,\\s*ubest/mbest: \\d+/\\d+\\s*(,\\s*attached\\s*)?");
+
+   private static final Pattern NEXT_HOP_IP = Pattern.compile(IP_ADDRESS);
+
+   private static final Pattern PROCESS = Pattern
+         .compile("(bgp|ospf)\\s*-\\s*\\d+");
+
+   private static final Pattern ROUTE = Pattern
+         .compile("\\s*\\*\\s*via\\s*(.*)");
+
+   private static final Pattern TAG = Pattern.compile("tag\\s+\\d+");
+
+   private static final Pattern VRF = Pattern
+         .compile("\\s*IP Route Table for VRF\\s*\"([^\"]+)\"\\s*");
+
+   private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+   private static String stripWhitespace(String text) {
+      return WHITESPACE.matcher(text).replaceAll("");
+   }
+
+   private static RoutingProtocol toProtocol(String process, String type) {
+      if (process.equals("bgp")) {
+         switch (type) {
+
+         case "external":
+            return RoutingProtocol.BGP;
+
+         case "internal":
+            return RoutingProtocol.IBGP;
+
+         default:
+            return null;
+
+         }
+      }
+      else {
+         switch (type) {
+
+         case "intra":
+            return RoutingProtocol.OSPF;
+
+         case "inter":
+            return RoutingProtocol.OSPF_IA;
+
+         case "type-1":
+            return RoutingProtocol.OSPF_E1;
+
+         case "type-2":
+            return RoutingProtocol.OSPF_E2;
+
+         default:
+            return null;
+
+         }
+      }
+   }
+
+   private Prefix _currentPrefix;
+
+   private String _currentVrfName;
+
+   private SortedSet<Route> _currentVrfRoutes;
+
+   private final String _hostname;
+
+   private RoutesByVrf _routesByVrf;
+
+   public NxosRoutingTableLineParser(String hostname) {
+      _hostname = hostname;
+   }
+
+   private void initVrf(String name) {
+      _currentVrfName = name;
+      _currentVrfRoutes = new TreeSet<>();
+      _routesByVrf.put(name, _currentVrfRoutes);
+   }
+
+   @Override
+   public RoutesByVrf parse(BufferedReader reader) throws IOException {
+      _routesByVrf = new RoutesByVrf();
+      _currentPrefix = null;
+      // whether the current network has no routes yet
+      boolean networkPending = false;
+      for (String line = reader.readLine(); line != null; line = reader
+            .readLine()) {
+         String trimmed = line.trim();
+         if (trimmed.isEmpty() || trimmed.startsWith("'")) {
+            continue;
+         }
+         Matcher matcher;
+         if ((matcher = VRF.matcher(line)).matches()) {
+            if (networkPending) {
+               return null;
+            }
+            initVrf(matcher.group(1));
+            _currentPrefix = null;
+         }
+         else if ((matcher = NETWORK.matcher(line)).matches()) {
+            if (networkPending || _currentVrfName == null) {
+               return null;
+            }
+            _currentPrefix = new Prefix(matcher.group(1));
+            networkPending = true;
+         }
+         else if ((matcher = ROUTE.matcher(line)).matches()) {
+            if (_currentPrefix == null || !parseRoute(matcher.group(1))) {
+               return null;
+            }
+            networkPending = false;
+         }
+         else {
+            return null;
+         }
+      }
+      if (networkPending || _currentVrfName == null) {
+         return null;
+      }
+      return _routesByVrf;
+   }
+
+   /**
+    * Parses the comma-separated fields following 'via' in a route line, and
+    * adds the route unless it is local. Returns false if the fields are
+    * malformed.
+    */
+   private boolean parseRoute(String text) {
+      String[] fields = text.split(",", -1);
+      for (int i = 0; i < fields.length; i++) {
+         fields[i] = fields[i].trim();
+      }
+      int i = 0;
+      Ip nextHopIp = null;
+      String nextHopInterface = Route.UNSET_NEXT_HOP_INTERFACE;
+      if (NEXT_HOP_IP.matcher(fields[i]).matches()) {
+         nextHopIp = new Ip(fields[i]);
+      }
+      else {
+         nextHopInterface = stripWhitespace(fields[i]);
+      }
+      i++;
+      if (i < fields.length && !fields[i].startsWith("[")) {
+         nextHopInterface = stripWhitespace(fields[i]);
+         i++;
+      }
+      if (nextHopInterface.isEmpty() || fields.length < i + 3) {
+         return false;
+      }
+      Matcher adminCostMatcher = ADMIN_COST.matcher(fields[i++]);
+      if (!adminCostMatcher.matches()
+            || !ELAPSED_TIME.matcher(fields[i++]).matches()) {
+         return false;
+      }
+      int admin = Integer.parseInt(adminCostMatcher.group(1));
+      int cost = Integer.parseInt(adminCostMatcher.group(2));
+      RoutingProtocol protocol;
+      String protocolText = fields[i++];
+      Matcher processMatcher = PROCESS.matcher(protocolText);
+      if (processMatcher.matches()) {
+         if (i == fields.length) {
+            return false;
+         }
+         protocol = toProtocol(processMatcher.group(1), fields[i++]);
+      }
+      else {
+         switch (protocolText) {
+
+         case "direct":
+         case "local":
+            protocol = RoutingProtocol.CONNECTED;
+            break;
+
+         case "static":
+            protocol = RoutingProtocol.STATIC;
+            break;
+
+         default:
+            protocol = null;
+            break;
+
+         }
+      }
+      if (protocol == null) {
+         return false;
+      }
+      if (i < fields.length && TAG.matcher(fields[i]).matches()) {
+         i++;
+      }
+      if (i != fields.length) {
+         return false;
+      }
+      if (protocolText.equals("local")) {
+         return true;
+      }
+      if (protocol == RoutingProtocol.CONNECTED || nextHopIp == null) {
+         nextHopIp = Route.UNSET_ROUTE_NEXT_HOP_IP;
+      }
+      _currentVrfRoutes.add(new Route(_hostname, _currentVrfName,
+            _currentPrefix, nextHopIp, Route.UNSET_NEXT_HOP, nextHopInterface,
+            admin, cost, protocol, Route.UNSET_ROUTE_TAG));
+      return true;
+   }
+
+}
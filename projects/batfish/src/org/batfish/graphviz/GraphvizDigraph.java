@@ -1,5 +1,7 @@
 package org.batfish.graphviz;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -30,17 +32,15 @@ public class GraphvizDigraph extends GraphvizInput {
    }
 
    @Override
-   public String toString() {
-      StringBuilder sb = new StringBuilder();
-      sb.append("digraph " + _name + " {\n");
+   public void write(Writer writer) throws IOException {
+      writer.write("digraph " + _name + " {\n");
       for (GraphvizNode node : _nodes) {
-         sb.append("\t" + node.toString() + "\n");
+         writer.write("\t" + node.toString() + "\n");
       }
       for (GraphvizEdge edge : _edges) {
-         sb.append("\t" + edge.toString() + "\n");
+         writer.write("\t" + edge.toString() + "\n");
       }
-      sb.append("}\n");
-      return sb.toString();
+      writer.write("}\n");
    }
 
 }
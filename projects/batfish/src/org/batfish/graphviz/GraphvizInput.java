@@ -1,5 +1,11 @@
 package org.batfish.graphviz;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.batfish.common.BatfishException;
+
 public abstract class GraphvizInput {
 
    protected final String _name;
@@ -9,6 +15,21 @@ public abstract class GraphvizInput {
    }
 
    @Override
-   public abstract String toString();
+   public String toString() {
+      StringWriter writer = new StringWriter();
+      try {
+         write(writer);
+      }
+      catch (IOException e) {
+         throw new BatfishException("Failed to write graphviz input", e);
+      }
+      return writer.toString();
+   }
+
+   /**
+    * Writes this input in the dot language to the supplied writer
+    * incrementally, without building the whole text in memory
+    */
+   public abstract void write(Writer writer) throws IOException;
 
 }
@@ -1,10 +1,16 @@
 package org.batfish.graphviz;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
@@ -15,10 +21,27 @@ import org.batfish.config.Settings;
 import org.batfish.datamodel.Prefix;
 import org.batfish.job.BatfishJob;
 
+/**
+ * Renders the graph of a prefix to svg and to an html page holding its image
+ * map. The dot text is streamed to the graph file as it is generated, and
+ * from there to the stdin of a single graphviz process, which lays out the
+ * graph once and writes the svg to disk and the image map straight into the
+ * html page. No output is held in memory, and at most
+ * {@link #MAX_CONCURRENT_RENDERS} graphviz processes run at once.
+ */
 public class GraphvizJob extends BatfishJob<GraphvizResult> {
 
    private static final String GRAPHVIZ_COMMAND = "sfdp";
 
+   /**
+    * Each graphviz process holds the layout of a whole graph in memory, so
+    * fewer of them may run at once than jobs
+    */
+   private static final int MAX_CONCURRENT_RENDERS = 2;
+
+   private static final Semaphore RENDER_PERMITS = new Semaphore(
+         MAX_CONCURRENT_RENDERS, true);
+
    private final Path _graphFile;
 
    private final Path _htmlFile;
@@ -44,14 +67,23 @@ public class GraphvizJob extends BatfishJob<GraphvizResult> {
       long startTime = System.currentTimeMillis();
       long elapsedTime;
       Throwable failureCause = null;
-      byte[] graphBytes = null;
-      byte[] htmlBytes = null;
-      byte[] svgBytes = null;
       try {
-         graphBytes = computeGraph();
-         byte[] mapBytes = computeMap(graphBytes);
-         htmlBytes = computeHtml(mapBytes);
-         svgBytes = computeSvg(graphBytes);
+         writeGraph();
+         writeHtmlHeader();
+         try {
+            RENDER_PERMITS.acquire();
+         }
+         catch (InterruptedException e) {
+            throw new BatfishException("Interrupted waiting to run graphviz",
+                  e);
+         }
+         try {
+            render();
+         }
+         finally {
+            RENDER_PERMITS.release();
+         }
+         writeHtmlFooter();
       }
       catch (BatfishException e) {
          failureCause = e;
@@ -63,149 +95,103 @@ public class GraphvizJob extends BatfishJob<GraphvizResult> {
       }
       else {
          return new GraphvizResult(elapsedTime, _logger.getHistory(),
-               _graphFile, graphBytes, _svgFile, svgBytes, _htmlFile, htmlBytes,
-               _prefix);
+               _graphFile, _svgFile, _htmlFile, _prefix);
       }
    }
 
-   private byte[] computeGraph() {
-      byte[] graphBytes = null;
-      try {
-         graphBytes = _input.toString().getBytes("UTF-8");
-      }
-      catch (UnsupportedEncodingException e) {
-         throw new BatfishException("Failed to convert graphviz input to bytes",
-               e);
-      }
-      return graphBytes;
-   }
-
-   private byte[] computeHtml(byte[] mapBytes) {
-      String mapText = null;
-      try {
-         mapText = new String(mapBytes, "UTF-8");
-      }
-      catch (UnsupportedEncodingException e) {
-         throw new BatfishException("Could not convert map bytes to string", e);
-      }
-      String graphName = GraphvizDigraph.getGraphName(_prefix);
-      StringBuilder sb = new StringBuilder();
-      sb.append("<!DOCTYPE html>\n");
-      sb.append("<html>\n");
-      sb.append("<head>\n");
-      sb.append("<script>\n");
-      sb.append(
-            "window.onload = function() { window.scrollTo( (window.scrollMaxX)/2, (window.scrollMaxY)/2 ); }\n");
-      sb.append("</script>\n");
-      sb.append("</head>\n");
-      sb.append("<body>\n");
-      sb.append("<img src=\"../svg/" + graphName + ".svg\" usemap=\"#"
-            + graphName + "\" />\n");
-      sb.append(mapText);
-      sb.append("</body>\n");
-      sb.append("</html>\n");
-      byte[] htmlBytes = null;
-      try {
-         htmlBytes = sb.toString().getBytes("UTF-8");
-      }
-      catch (UnsupportedEncodingException e) {
-         throw new BatfishException("Could not convert map bytes to string", e);
-      }
-      return htmlBytes;
+   public GraphvizInput getInput() {
+      return _input;
    }
 
-   private byte[] computeMap(byte[] graphBytes) {
+   private void render() {
       DefaultExecutor executor = new DefaultExecutor();
-      ByteArrayOutputStream outStream = new ByteArrayOutputStream();
       ByteArrayOutputStream errStream = new ByteArrayOutputStream();
-      ByteArrayInputStream inStream = new ByteArrayInputStream(graphBytes);
-      executor.setStreamHandler(
-            new PumpStreamHandler(outStream, errStream, inStream));
-      executor.setExitValue(0);
       CommandLine cmdLine = new CommandLine(GRAPHVIZ_COMMAND);
+      cmdLine.addArgument("-Tsvg");
+      cmdLine.addArgument("-o" + _svgFile.toString(), false);
+      // the image map has no output file, so it is written to stdout
       cmdLine.addArgument("-Tcmapx");
       StringBuilder cmdLineSb = new StringBuilder();
       cmdLineSb.append(GRAPHVIZ_COMMAND + " ");
       cmdLineSb.append(String.join(" ", cmdLine.getArguments()));
       String cmdLineString = cmdLineSb.toString();
       boolean failure = false;
-      try {
-         executor.execute(cmdLine);
-      }
-      catch (ExecuteException e) {
-         failure = true;
+      try (InputStream inStream = Files.newInputStream(_graphFile);
+            OutputStream outStream = Files.newOutputStream(_htmlFile,
+                  StandardOpenOption.APPEND)) {
+         executor.setStreamHandler(
+               new PumpStreamHandler(outStream, errStream, inStream));
+         executor.setExitValue(0);
+         try {
+            executor.execute(cmdLine);
+         }
+         catch (ExecuteException e) {
+            failure = true;
+         }
       }
       catch (IOException e) {
          throw new BatfishException("Unknown error running graphviz", e);
       }
-      byte[] mapBytes = outStream.toByteArray();
-      byte[] errRaw = errStream.toByteArray();
-      String err = null;
-      try {
-         err = new String(errRaw, "UTF-8");
-      }
-      catch (IOException e) {
-         throw new BatfishException("Error reading nxnet output", e);
-      }
-      StringBuilder sb = new StringBuilder();
       if (failure) {
+         String err = null;
+         try {
+            err = errStream.toString("UTF-8");
+         }
+         catch (UnsupportedEncodingException e) {
+            throw new BatfishException("Error reading graphviz output", e);
+         }
+         StringBuilder sb = new StringBuilder();
          sb.append("graphviz terminated abnormally:\n");
          sb.append("graphviz command line: " + cmdLineString + "\n");
          sb.append(err);
          throw new BatfishException(sb.toString());
       }
-      else {
-         return mapBytes;
-      }
    }
 
-   private byte[] computeSvg(byte[] graphBytes) {
-      DefaultExecutor executor = new DefaultExecutor();
-      ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-      ByteArrayOutputStream errStream = new ByteArrayOutputStream();
-      ByteArrayInputStream inStream = new ByteArrayInputStream(graphBytes);
-      executor.setStreamHandler(
-            new PumpStreamHandler(outStream, errStream, inStream));
-      executor.setExitValue(0);
-      CommandLine cmdLine = new CommandLine(GRAPHVIZ_COMMAND);
-      cmdLine.addArgument("-Tsvg");
-      StringBuilder cmdLineSb = new StringBuilder();
-      cmdLineSb.append(GRAPHVIZ_COMMAND + " ");
-      cmdLineSb.append(String.join(" ", cmdLine.getArguments()));
-      String cmdLineString = cmdLineSb.toString();
-      boolean failure = false;
-      try {
-         executor.execute(cmdLine);
-      }
-      catch (ExecuteException e) {
-         failure = true;
+   private void writeGraph() {
+      try (Writer writer = Files.newBufferedWriter(_graphFile,
+            StandardCharsets.UTF_8)) {
+         _input.write(writer);
       }
       catch (IOException e) {
-         throw new BatfishException("Unknown error running graphviz", e);
+         throw new BatfishException(
+               "Failed to write graphviz input to: " + _graphFile, e);
       }
-      byte[] svgBytes = outStream.toByteArray();
-      byte[] errRaw = errStream.toByteArray();
-      String err = null;
-      try {
-         err = new String(errRaw, "UTF-8");
+   }
+
+   private void writeHtml(String text, StandardOpenOption... options) {
+      try (Writer writer = Files.newBufferedWriter(_htmlFile,
+            StandardCharsets.UTF_8, options)) {
+         writer.write(text);
       }
       catch (IOException e) {
-         throw new BatfishException("Error reading nxnet output", e);
+         throw new BatfishException("Failed to write html to: " + _htmlFile,
+               e);
       }
+   }
+
+   private void writeHtmlFooter() {
       StringBuilder sb = new StringBuilder();
-      if (failure) {
-         sb.append("graphviz terminated abnormally:\n");
-         sb.append("graphviz command line: " + cmdLineString + "\n");
-         sb.append(err);
-         throw new BatfishException(sb.toString());
-      }
-      else {
-         return svgBytes;
-      }
+      sb.append("</body>\n");
+      sb.append("</html>\n");
+      writeHtml(sb.toString(), StandardOpenOption.APPEND);
    }
 
-   public GraphvizInput getInput() {
-      return _input;
+   private void writeHtmlHeader() {
+      String graphName = GraphvizDigraph.getGraphName(_prefix);
+      StringBuilder sb = new StringBuilder();
+      sb.append("<!DOCTYPE html>\n");
+      sb.append("<html>\n");
+      sb.append("<head>\n");
+      sb.append("<script>\n");
+      sb.append(
+            "window.onload = function() { window.scrollTo( (window.scrollMaxX)/2, (window.scrollMaxY)/2 ); }\n");
+      sb.append("</script>\n");
+      sb.append("</head>\n");
+      sb.append("<body>\n");
+      sb.append("<img src=\"../svg/" + graphName + ".svg\" usemap=\"#"
+            + graphName + "\" />\n");
+      writeHtml(sb.toString());
    }
 
 }
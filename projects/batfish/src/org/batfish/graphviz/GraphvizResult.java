@@ -1,7 +1,7 @@
 package org.batfish.graphviz;
 
 import java.nio.file.Path;
-import java.util.Map;
+import java.util.Set;
 
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -9,45 +9,36 @@ import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.answers.GraphvizAnswerElement;
 import org.batfish.job.BatfishJobResult;
 
+/**
+ * The files rendered for the graph of a prefix, which are written to disk by
+ * the job itself
+ */
 public final class GraphvizResult
-      extends BatfishJobResult<Map<Path, byte[]>, GraphvizAnswerElement> {
-
-   private final byte[] _graphBytes;
+      extends BatfishJobResult<Set<Path>, GraphvizAnswerElement> {
 
    private final Path _graphFile;
 
-   private final byte[] _htmlBytes;
-
    private final Path _htmlFile;
 
    private final Prefix _prefix;
 
-   private final byte[] _svgBytes;
-
    private final Path _svgFile;
 
    public GraphvizResult(long elapsedTime, BatfishLoggerHistory history,
-         Path graphFile, byte[] graphBytes, Path svgFile, byte[] svgBytes,
-         Path htmlFile, byte[] htmlBytes, Prefix prefix) {
+         Path graphFile, Path svgFile, Path htmlFile, Prefix prefix) {
       super(elapsedTime, history);
-      _graphBytes = graphBytes;
       _graphFile = graphFile;
-      _htmlBytes = htmlBytes;
       _htmlFile = htmlFile;
       _prefix = prefix;
-      _svgBytes = svgBytes;
       _svgFile = svgFile;
    }
 
    public GraphvizResult(long elapsedTime, BatfishLoggerHistory history,
          Prefix prefix, Throwable failureCause) {
       super(elapsedTime, history, failureCause);
-      _graphBytes = null;
       _graphFile = null;
-      _htmlBytes = null;
       _htmlFile = null;
       _prefix = prefix;
-      _svgBytes = null;
       _svgFile = null;
    }
 
@@ -57,11 +48,13 @@ public final class GraphvizResult
    }
 
    @Override
-   public void applyTo(Map<Path, byte[]> output, BatfishLogger logger,
+   public void applyTo(Set<Path> output, BatfishLogger logger,
          GraphvizAnswerElement answerElement) {
-      output.put(_graphFile, _graphBytes);
-      output.put(_svgFile, _svgBytes);
-      output.put(_htmlFile, _htmlBytes);
+      if (_graphFile != null) {
+         output.add(_graphFile);
+         output.add(_svgFile);
+         output.add(_htmlFile);
+      }
    }
 
    @Override
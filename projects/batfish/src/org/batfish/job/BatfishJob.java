@@ -1,5 +1,6 @@
 package org.batfish.job;
 
+import java.io.File;
 import java.util.concurrent.Callable;
 
 import org.batfish.common.BatfishLogger;
@@ -14,9 +15,13 @@ public abstract class BatfishJob<R extends BatfishJobResult<?, ?>>
 
    public BatfishJob(Settings settings) {
       _settings = settings;
+      // spill long job histories next to the log of the task, if any
+      String logFile = _settings.getLogFile();
+      File historySpillDir = logFile != null
+            ? new File(logFile).getAbsoluteFile().getParentFile()
+            : null;
       _logger = new BatfishLogger(_settings.getLogLevel(),
-            _settings.getTimestamp());
-
+            _settings.getTimestamp(), historySpillDir);
    }
 
 }
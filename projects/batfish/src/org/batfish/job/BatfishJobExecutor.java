@@ -4,9 +4,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -39,17 +39,24 @@ public class BatfishJobExecutor<Job extends BatfishJob<JobResult>, AE extends An
    }
 
    public void executeJobs(List<Job> jobs, Output output, AE answerElement) {
-      ExecutorService pool;
+      /*
+       * Jobs run in a fork-join pool, so that parallel streams used within a
+       * job (e.g. to convert the many structures of a single large
+       * configuration) share its threads with the other jobs rather than
+       * oversubscribing the machine, and are confined to a single thread
+       * when running sequentially.
+       */
+      ForkJoinPool pool;
       boolean shuffle;
       if (!_settings.getSequential()) {
          int maxConcurrentThreads = Runtime.getRuntime().availableProcessors();
          int numConcurrentThreads = Math.min(maxConcurrentThreads,
                _settings.getJobs());
-         pool = Executors.newFixedThreadPool(numConcurrentThreads);
+         pool = new ForkJoinPool(numConcurrentThreads);
          shuffle = _settings.getShuffleJobs();
       }
       else {
-         pool = Executors.newSingleThreadExecutor();
+         pool = new ForkJoinPool(1);
          shuffle = false;
       }
       if (shuffle) {
@@ -67,70 +74,94 @@ public class BatfishJobExecutor<Job extends BatfishJob<JobResult>, AE extends An
             totalJobs);
       double finishedPercent;
       List<BatfishException> failureCauses = new ArrayList<>();
-      while (!futures.isEmpty()) {
-         List<Future<JobResult>> currentFutures = new ArrayList<>();
-         currentFutures.addAll(futures);
-         for (Future<JobResult> future : currentFutures) {
-            if (future.isDone()) {
-               futures.remove(future);
-               finishedJobs++;
-               completed.incrementAndGet();
-               finishedPercent = 100 * ((double) finishedJobs) / totalJobs;
-               JobResult result = null;
-               try {
-                  result = future.get();
-               }
-               catch (InterruptedException | ExecutionException e) {
-                  throw new BatfishException("Error executing job", e);
-               }
-               String time = CommonUtil.getTime(result.getElapsedTime());
-               Throwable failureCause = result.getFailureCause();
-               if (failureCause == null) {
-                  result.applyTo(output, _logger, answerElement);
-                  _logger.infof(
-                        "Job terminated successfully with result: %s after elapsed time: %s - %d/%d (%.1f%%) complete\n",
-                        result.toString(), time, finishedJobs, totalJobs,
-                        finishedPercent);
-               }
-               else {
-                  String failureMessage = "Failure running job after elapsed time: "
-                        + time + "\n-----BEGIN JOB LOG-----\n"
-                        + result.getHistory()
-                              .toString(BatfishLogger
-                                    .getLogLevel(_settings.getLogLevel()))
-                        + "\n-----END JOB LOG-----";
-                  BatfishException bfc = new BatfishException(failureMessage,
-                        failureCause);
-                  if (_settings.getExitOnFirstError()) {
-                     result.appendHistory(_logger);
-                     throw bfc;
+      try {
+         while (!futures.isEmpty()) {
+            List<Future<JobResult>> currentFutures = new ArrayList<>();
+            currentFutures.addAll(futures);
+            for (Future<JobResult> future : currentFutures) {
+               if (future.isDone()) {
+                  futures.remove(future);
+                  finishedJobs++;
+                  completed.incrementAndGet();
+                  finishedPercent = 100 * ((double) finishedJobs) / totalJobs;
+                  JobResult result = null;
+                  try {
+                     result = future.get();
+                  }
+                  catch (InterruptedException | ExecutionException e) {
+                     throw new BatfishException("Error executing job", e);
                   }
-                  else {
-                     processingError = true;
-                     result.appendHistory(_logger);
-                     _logger.error(failureMessage + ":\n\t"
-                           + ExceptionUtils.getStackTrace(failureCause));
-                     failureCauses.add(bfc);
-                     if (!_haltOnProcessingError) {
+                  try {
+                     String time = CommonUtil.getTime(result.getElapsedTime());
+                     Throwable failureCause = result.getFailureCause();
+                     if (failureCause == null) {
                         result.applyTo(output, _logger, answerElement);
+                        _logger.infof(
+                              "Job terminated successfully with result: %s after elapsed time: %s - %d/%d (%.1f%%) complete\n",
+                              result.toString(), time, finishedJobs, totalJobs,
+                              finishedPercent);
                      }
+                     else {
+                        String failureMessage = "Failure running job after elapsed time: "
+                              + time + "\n-----BEGIN JOB LOG-----\n"
+                              + result.getHistory()
+                                    .toString(BatfishLogger
+                                          .getLogLevel(_settings.getLogLevel()))
+                              + "\n-----END JOB LOG-----";
+                        BatfishException bfc = new BatfishException(
+                              failureMessage, failureCause);
+                        if (_settings.getExitOnFirstError()) {
+                           result.appendHistory(_logger);
+                           throw bfc;
+                        }
+                        else {
+                           processingError = true;
+                           result.appendHistory(_logger);
+                           _logger.error(failureMessage + ":\n\t"
+                                 + ExceptionUtils.getStackTrace(failureCause));
+                           failureCauses.add(bfc);
+                           if (!_haltOnProcessingError) {
+                              result.applyTo(output, _logger, answerElement);
+                           }
+                        }
+                     }
+                  }
+                  finally {
+                     // release the history, which may be spilled to disk
+                     result.getHistory().close();
                   }
                }
+               else {
+                  continue;
+               }
             }
-            else {
-               continue;
+            if (!futures.isEmpty()) {
+               try {
+                  Thread.sleep(JOB_POLLING_PERIOD_MS);
+               }
+               catch (InterruptedException e) {
+                  throw new BatfishException("interrupted while sleeping", e);
+               }
             }
          }
+      }
+      finally {
          if (!futures.isEmpty()) {
+            // an earlier job failed, so stop the outstanding jobs before
+            // releasing their histories, which may be spilled to disk
+            pool.shutdownNow();
             try {
-               Thread.sleep(JOB_POLLING_PERIOD_MS);
+               pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
             }
             catch (InterruptedException e) {
-               throw new BatfishException("interrupted while sleeping", e);
+               Thread.currentThread().interrupt();
+            }
+            for (Job job : jobs) {
+               job._logger.getHistory().close();
             }
          }
+         pool.shutdown();
       }
-      pool.shutdown();
       if (processingError) {
          int numJobs = jobs.size();
          int numFailed = numJobs - failureCauses.size();
@@ -86,7 +86,7 @@ public class FlattenVendorConfigurationJob
                      + _inputFile.toString() + "\""));
       }
       else {
-         _logger.debug("Skipping: \"" + _inputFile.toString() + "\"\n");
+         _logger.debugf("Skipping: \"%s\"\n", _inputFile);
          String flatConfigText = _fileText;
          elapsedTime = System.currentTimeMillis() - startTime;
          return new FlattenVendorConfigurationResult(elapsedTime,
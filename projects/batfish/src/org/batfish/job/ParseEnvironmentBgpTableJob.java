@@ -1,5 +1,7 @@
 package org.batfish.job;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.SortedMap;
 
@@ -8,6 +10,7 @@ import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BgpTableExtractor;
 import org.batfish.grammar.BgpTableFormat;
 import org.batfish.grammar.BgpTableFormatDetector;
+import org.batfish.grammar.BgpTableLineParser;
 import org.batfish.grammar.ParseTreePrettyPrinter;
 import org.batfish.main.Batfish;
 import org.batfish.common.BatfishException;
@@ -16,6 +19,7 @@ import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.main.ParserBatfishException;
 import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
 import org.batfish.common.plugin.BgpTablePlugin;
 import org.batfish.config.Settings;
 
@@ -26,20 +30,17 @@ public class ParseEnvironmentBgpTableJob
 
    private Path _file;
 
-   private String _fileText;
-
    private String _hostname;
 
    private ParseTreeSentences _ptSentences;
 
    private Warnings _warnings;
 
-   public ParseEnvironmentBgpTableJob(Settings settings, String fileText,
-         String hostname, Path file, Warnings warnings,
+   public ParseEnvironmentBgpTableJob(Settings settings, String hostname,
+         Path file, Warnings warnings,
          SortedMap<BgpTableFormat, BgpTablePlugin> bgpTablePlugins) {
       super(settings);
       _bgpTablePlugins = bgpTablePlugins;
-      _fileText = fileText;
       _file = file;
       _hostname = hostname;
       _ptSentences = new ParseTreeSentences();
@@ -52,13 +53,13 @@ public class ParseEnvironmentBgpTableJob
       long elapsedTime;
       String currentPath = _file.toAbsolutePath().toString();
       ParserRuleContext tree = null;
-      _logger.info("Processing: '" + currentPath + "'\n");
+      _logger.infof("Processing: '%s'\n", currentPath);
       // String relativePathStr =
       // _settings.getActiveTestrigSettings().getEnvironmentSettings().getEnvPath()
       // .relativize(_file).toString();
       BgpTablePlugin plugin = null;
       BgpTableFormat format = BgpTableFormatDetector
-            .identifyBgpTableFormat(_fileText);
+            .identifyBgpTableFormat(_file);
       switch (format) {
 
       case EMPTY:
@@ -107,12 +108,36 @@ public class ParseEnvironmentBgpTableJob
                   ParseStatus.UNSUPPORTED);
          }
       }
+      // the parse tree is only available from the grammar
+      BgpTableLineParser lineParser = plugin.lineParser(_hostname, _warnings);
+      if (lineParser != null && !_settings.printParseTree()) {
+         BgpAdvertisementsByVrf bgpAdvertisementsByVrf = null;
+         _logger.info("\tParsing lines...");
+         try (BufferedReader reader = CommonUtil.newLenientReader(_file)) {
+            bgpAdvertisementsByVrf = lineParser.parse(reader);
+         }
+         catch (IOException e) {
+            _logger.warnf("\tLine parser failed to read file: '%s': %s\n",
+                  currentPath, e.getMessage());
+         }
+         if (bgpAdvertisementsByVrf != null) {
+            _logger.info("OK\n");
+            elapsedTime = System.currentTimeMillis() - startTime;
+            return new ParseEnvironmentBgpTableResult(elapsedTime,
+                  _logger.getHistory(), _file, _hostname,
+                  bgpAdvertisementsByVrf, _warnings, _ptSentences);
+         }
+         _logger.info("unrecognized input, falling back to grammar\n");
+      }
       BgpTableExtractor extractor;
       try {
          _logger.info("\tParsing...");
-         BatfishCombinedParser<?, ?> combinedParser = plugin.parser(_fileText,
+         String fileTextRaw = CommonUtil.readFile(_file);
+         String fileText = fileTextRaw
+               + ((fileTextRaw.length() != 0) ? "\n" : "");
+         BatfishCombinedParser<?, ?> combinedParser = plugin.parser(fileText,
                _settings);
-         extractor = plugin.extractor(_hostname, _fileText, combinedParser,
+         extractor = plugin.extractor(_hostname, fileText, combinedParser,
                _warnings);
          tree = Batfish.parse(combinedParser, _logger, _settings);
          if (_settings.printParseTree()) {
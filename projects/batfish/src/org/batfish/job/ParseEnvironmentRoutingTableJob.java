@@ -1,5 +1,7 @@
 package org.batfish.job;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.nio.file.Path;
 
 import org.antlr.v4.runtime.ParserRuleContext;
@@ -8,10 +10,13 @@ import org.batfish.grammar.ParseTreePrettyPrinter;
 import org.batfish.grammar.RoutingTableExtractor;
 import org.batfish.grammar.RoutingTableFormat;
 import org.batfish.grammar.RoutingTableFormatDetector;
+import org.batfish.grammar.RoutingTableLineParser;
 import org.batfish.grammar.routing_table.eos.EosRoutingTableCombinedParser;
 import org.batfish.grammar.routing_table.eos.EosRoutingTableExtractor;
+import org.batfish.grammar.routing_table.eos.EosRoutingTableLineParser;
 import org.batfish.grammar.routing_table.nxos.NxosRoutingTableCombinedParser;
 import org.batfish.grammar.routing_table.nxos.NxosRoutingTableExtractor;
+import org.batfish.grammar.routing_table.nxos.NxosRoutingTableLineParser;
 import org.batfish.main.Batfish;
 import org.batfish.common.BatfishException;
 import org.batfish.common.ParseTreeSentences;
@@ -19,6 +24,7 @@ import org.batfish.datamodel.answers.ParseStatus;
 import org.batfish.datamodel.collections.RoutesByVrf;
 import org.batfish.main.ParserBatfishException;
 import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
 import org.batfish.config.Settings;
 
 public class ParseEnvironmentRoutingTableJob
@@ -26,18 +32,15 @@ public class ParseEnvironmentRoutingTableJob
 
    private Path _file;
 
-   private String _fileText;
-
    private String _hostname;
 
    private ParseTreeSentences _ptSentences;
 
    private Warnings _warnings;
 
-   public ParseEnvironmentRoutingTableJob(Settings settings, String fileText,
-         Path file, Warnings warnings) {
+   public ParseEnvironmentRoutingTableJob(Settings settings, Path file,
+         Warnings warnings) {
       super(settings);
-      _fileText = fileText;
       _file = file;
       _hostname = file.getFileName().toString();
       _ptSentences = new ParseTreeSentences();
@@ -52,12 +55,14 @@ public class ParseEnvironmentRoutingTableJob
       BatfishCombinedParser<?, ?> combinedParser = null;
       ParserRuleContext tree = null;
       RoutingTableExtractor extractor = null;
-      _logger.info("Processing: '" + currentPath + "'\n");
+      _logger.infof("Processing: '%s'\n", currentPath);
       // String relativePathStr =
       // _settings.getActiveTestrigSettings().getEnvironmentSettings().getEnvPath()
       // .relativize(_file).toString();
       RoutingTableFormat format = RoutingTableFormatDetector
-            .identifyRoutingTableFormat(_fileText);
+            .identifyRoutingTableFormat(_file);
+      RoutesByVrf lineRoutesByVrf = null;
+      String fileText;
       switch (format) {
 
       case EMPTY:
@@ -67,19 +72,28 @@ public class ParseEnvironmentRoutingTableJob
                _logger.getHistory(), _file, _warnings, ParseStatus.EMPTY);
 
       case NXOS:
-         NxosRoutingTableCombinedParser nxosRoutingTableParser = new NxosRoutingTableCombinedParser(
-               _fileText, _settings);
-         combinedParser = nxosRoutingTableParser;
-         extractor = new NxosRoutingTableExtractor(_hostname, _fileText,
-               nxosRoutingTableParser, _warnings);
+         lineRoutesByVrf = parseLines(
+               new NxosRoutingTableLineParser(_hostname));
+         if (lineRoutesByVrf == null) {
+            fileText = readFileText();
+            NxosRoutingTableCombinedParser nxosRoutingTableParser = new NxosRoutingTableCombinedParser(
+                  fileText, _settings);
+            combinedParser = nxosRoutingTableParser;
+            extractor = new NxosRoutingTableExtractor(_hostname, fileText,
+                  nxosRoutingTableParser, _warnings);
+         }
          break;
 
       case EOS:
-         EosRoutingTableCombinedParser eosRoutingTableParser = new EosRoutingTableCombinedParser(
-               _fileText, _settings);
-         combinedParser = eosRoutingTableParser;
-         extractor = new EosRoutingTableExtractor(_hostname, _fileText,
-               eosRoutingTableParser, _warnings);
+         lineRoutesByVrf = parseLines(new EosRoutingTableLineParser(_hostname));
+         if (lineRoutesByVrf == null) {
+            fileText = readFileText();
+            EosRoutingTableCombinedParser eosRoutingTableParser = new EosRoutingTableCombinedParser(
+                  fileText, _settings);
+            combinedParser = eosRoutingTableParser;
+            extractor = new EosRoutingTableExtractor(_hostname, fileText,
+                  eosRoutingTableParser, _warnings);
+         }
          break;
 
       /**
@@ -116,6 +130,13 @@ public class ParseEnvironmentRoutingTableJob
          }
       }
 
+      if (lineRoutesByVrf != null) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new ParseEnvironmentRoutingTableResult(elapsedTime,
+               _logger.getHistory(), _file, _hostname, lineRoutesByVrf,
+               _warnings, _ptSentences);
+      }
+
       try {
          _logger.info("\tParsing...");
          tree = Batfish.parse(combinedParser, _logger, _settings);
@@ -151,4 +172,36 @@ public class ParseEnvironmentRoutingTableJob
             _ptSentences);
    }
 
+   /**
+    * Parses the file with the supplied line parser, returning null if the
+    * parse tree was requested, since it is only available from the grammar, or
+    * if the line parser does not recognize or cannot read the file
+    */
+   private RoutesByVrf parseLines(RoutingTableLineParser lineParser) {
+      if (_settings.printParseTree()) {
+         return null;
+      }
+      RoutesByVrf routesByVrf = null;
+      _logger.info("\tParsing lines...");
+      try (BufferedReader reader = CommonUtil.newLenientReader(_file)) {
+         routesByVrf = lineParser.parse(reader);
+      }
+      catch (IOException e) {
+         _logger.warnf("\tLine parser failed to read file: '%s': %s\n",
+               _file.toAbsolutePath().toString(), e.getMessage());
+      }
+      if (routesByVrf != null) {
+         _logger.info("OK\n");
+      }
+      else {
+         _logger.info("unrecognized input, falling back to grammar\n");
+      }
+      return routesByVrf;
+   }
+
+   private String readFileText() {
+      String fileTextRaw = CommonUtil.readFile(_file);
+      return fileTextRaw + ((fileTextRaw.length() != 0) ? "\n" : "");
+   }
+
 }
@@ -24,6 +24,7 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ParseStatus;
+import org.batfish.datamodel.answers.ParseTimes;
 import org.batfish.main.ParserBatfishException;
 import org.batfish.common.Warnings;
 import org.batfish.config.Settings;
@@ -99,7 +100,7 @@ public class ParseVendorConfigurationJob
       ParserRuleContext tree = null;
       ControlPlaneExtractor extractor = null;
       ConfigurationFormat format = _format;
-      _logger.info("Processing: '" + currentPath + "'\n");
+      _logger.infof("Processing: '%s'\n", currentPath);
 
       for (String s : _settings.ignoreFilesWithStrings()) {
          if (_fileText.contains(s)) {
@@ -296,6 +297,7 @@ public class ParseVendorConfigurationJob
          }
       }
 
+      ParseTimes parseTimes;
       try {
          _logger.info("\tParsing...");
          tree = Batfish.parse(combinedParser, _logger, _settings);
@@ -304,7 +306,13 @@ public class ParseVendorConfigurationJob
                   combinedParser);
          }
          _logger.info("\tPost-processing...");
+         long extractionStartTime = System.currentTimeMillis();
          extractor.processParseTree(tree);
+         long extractionTime = System.currentTimeMillis()
+               - extractionStartTime;
+         parseTimes = new ParseTimes(combinedParser.getSllParseTime(),
+               combinedParser.getLlParseTime(),
+               combinedParser.getLlFallback(), extractionTime);
          _logger.info("OK\n");
       }
       catch (ParserBatfishException e) {
@@ -348,7 +356,8 @@ public class ParseVendorConfigurationJob
       }
       elapsedTime = System.currentTimeMillis() - startTime;
       return new ParseVendorConfigurationResult(elapsedTime,
-            _logger.getHistory(), _file, vc, _warnings, _ptSentences);
+            _logger.getHistory(), _file, vc, _warnings, _ptSentences,
+            parseTimes, _settings.getPhaseMetrics());
    }
 
 }
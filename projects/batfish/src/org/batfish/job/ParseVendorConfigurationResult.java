@@ -8,6 +8,7 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
 import org.batfish.common.ParseTreeSentences;
 import org.batfish.datamodel.answers.ParseStatus;
+import org.batfish.datamodel.answers.ParseTimes;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
 import org.batfish.common.Warnings;
 import org.batfish.vendor.VendorConfiguration;
@@ -17,8 +18,18 @@ public class ParseVendorConfigurationResult extends
 
    private final Path _file;
 
+   /**
+    * Time spent in each parsing stage, if parsed with a grammar
+    */
+   private ParseTimes _parseTimes;
+
    private ParseTreeSentences _parseTree;
 
+   /**
+    * Whether {@link #_parseTimes} should be recorded in the answer element
+    */
+   private boolean _recordParseTimes;
+
    private final ParseStatus _status;
 
    private VendorConfiguration _vc;
@@ -44,6 +55,15 @@ public class ParseVendorConfigurationResult extends
       _status = null;
    }
 
+   public ParseVendorConfigurationResult(long elapsedTime,
+         BatfishLoggerHistory history, Path file, VendorConfiguration vc,
+         Warnings warnings, ParseTreeSentences parseTree,
+         ParseTimes parseTimes, boolean recordParseTimes) {
+      this(elapsedTime, history, file, vc, warnings, parseTree);
+      _parseTimes = parseTimes;
+      _recordParseTimes = recordParseTimes;
+   }
+
    public ParseVendorConfigurationResult(long elapsedTime,
          BatfishLoggerHistory history, Path file, Warnings warnings,
          ParseStatus status) {
@@ -86,6 +106,9 @@ public class ParseVendorConfigurationResult extends
             if (!_parseTree.isEmpty()) {
                answerElement.getParseTrees().put(hostname, _parseTree);
             }
+            if (_recordParseTimes && _parseTimes != null) {
+               answerElement.getParseTimes().put(hostname, _parseTimes);
+            }
             if (_vc.getUnrecognized()) {
                answerElement.getParseStatus().put(hostname,
                      ParseStatus.PARTIALLY_UNRECOGNIZED);
@@ -112,6 +135,10 @@ public class ParseVendorConfigurationResult extends
       return _history;
    }
 
+   public ParseTimes getParseTimes() {
+      return _parseTimes;
+   }
+
    public VendorConfiguration getVendorConfiguration() {
       return _vc;
    }
@@ -125,9 +152,15 @@ public class ParseVendorConfigurationResult extends
          return "<File: \"" + _file.toString()
                + "\" has indeterminate hostname>";
       }
-      else {
+      else if (_parseTimes == null) {
          return "<" + _vc.getHostname() + ">";
       }
+      else {
+         return "<" + _vc.getHostname() + "> (sll: "
+               + _parseTimes.getSllParse() + " ms, ll: "
+               + _parseTimes.getLlParse() + " ms, extraction: "
+               + _parseTimes.getExtraction() + " ms)";
+      }
    }
 
 }
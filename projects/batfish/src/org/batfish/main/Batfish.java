@@ -2,18 +2,20 @@ package org.batfish.main;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -23,10 +25,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -58,6 +63,7 @@ import org.batfish.common.plugin.PluginClientType;
 import org.batfish.common.plugin.PluginConsumer;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.ValueInterner;
 import org.batfish.config.Settings;
 import org.batfish.config.Settings.EnvironmentSettings;
 import org.batfish.config.Settings.TestrigSettings;
@@ -77,18 +83,24 @@ import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Ip6;
 import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.IpOwnerIndex;
 import org.batfish.datamodel.IpsecVpn;
 import org.batfish.datamodel.OspfArea;
 import org.batfish.datamodel.OspfNeighbor;
 import org.batfish.datamodel.OspfProcess;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Prefix6;
+import org.batfish.datamodel.PrefixSpace;
 import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RouteQuery;
+import org.batfish.datamodel.RouteSnapshot;
+import org.batfish.datamodel.SessionIndex;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
-import org.batfish.datamodel.VrrpGroup;
 import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
 import org.batfish.datamodel.answers.AclLinesAnswerElement;
 import org.batfish.datamodel.answers.Answer;
@@ -100,7 +112,6 @@ import org.batfish.datamodel.answers.EnvironmentCreationAnswerElement;
 import org.batfish.datamodel.answers.FlattenVendorConfigurationAnswerElement;
 import org.batfish.datamodel.answers.InitInfoAnswerElement;
 import org.batfish.datamodel.answers.NodAnswerElement;
-import org.batfish.datamodel.answers.NodFirstUnsatAnswerElement;
 import org.batfish.datamodel.answers.NodSatAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentRoutingTablesAnswerElement;
@@ -148,6 +159,7 @@ import org.batfish.grammar.topology.RoleExtractor;
 import org.batfish.grammar.topology.TopologyExtractor;
 import org.batfish.grammar.vyos.VyosCombinedParser;
 import org.batfish.grammar.vyos.VyosFlattener;
+import org.batfish.job.BatfishJob;
 import org.batfish.job.BatfishJobExecutor;
 import org.batfish.job.ConvertConfigurationJob;
 import org.batfish.job.ConvertConfigurationResult;
@@ -164,16 +176,12 @@ import org.batfish.representation.host.HostConfiguration;
 import org.batfish.representation.iptables.IptablesVendorConfiguration;
 import org.batfish.vendor.VendorConfiguration;
 import org.batfish.z3.AclLine;
-import org.batfish.z3.AclReachabilityQuerySynthesizer;
+import org.batfish.z3.AclReachabilityJob;
 import org.batfish.z3.BlacklistDstIpQuerySynthesizer;
 import org.batfish.z3.CompositeNodJob;
-import org.batfish.z3.EarliestMoreGeneralReachableLineQuerySynthesizer;
 import org.batfish.z3.MultipathInconsistencyQuerySynthesizer;
-import org.batfish.z3.NodFirstUnsatJob;
-import org.batfish.z3.NodFirstUnsatResult;
 import org.batfish.z3.NodJob;
 import org.batfish.z3.NodJobResult;
-import org.batfish.z3.NodSatJob;
 import org.batfish.z3.NodSatResult;
 import org.batfish.z3.QuerySynthesizer;
 import org.batfish.z3.ReachEdgeQuerySynthesizer;
@@ -183,6 +191,8 @@ import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -194,6 +204,15 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private static final String BASE_TESTRIG_TAG = "BASE";
 
+   /**
+    * Shared by the configurations of all testrigs deserialized by this
+    * process, so that equal immutable values within and across testrigs are
+    * stored once
+    */
+   private static final ValueInterner CONFIGURATION_VALUE_INTERNER = new ValueInterner(
+         Ip.class, Ip6.class, Prefix.class, Prefix6.class, String.class,
+         SubRange.class);
+
    private static final String DELTA_TESTRIG_TAG = "DELTA";
 
    private static final String DIFFERENTIAL_FLOW_TAG = "DIFFERENTIAL";
@@ -231,6 +250,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                   envPath.resolve(BfConsts.RELPATH_DATA_PLANE));
             envSettings.setDataPlaneAnswerPath(
                   envPath.resolve(BfConsts.RELPATH_DATA_PLANE_ANSWER_PATH));
+            envSettings.setRouteSnapshotDir(
+                  envPath.resolve(BfConsts.RELPATH_ROUTE_SNAPSHOT_DIR));
             envSettings.setParseEnvironmentBgpTablesAnswerPath(envPath
                   .resolve(BfConsts.RELPATH_ENVIRONMENT_BGP_TABLES_ANSWER));
             envSettings.setParseEnvironmentRoutingTablesAnswerPath(envPath
@@ -367,7 +388,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          BatfishLogger logger, Settings settings) {
       ParserRuleContext tree;
       try {
-         tree = parser.parse();
+         tree = parser.parseTwoStage();
       }
       catch (BatfishException e) {
          throw new ParserBatfishException("Parser error", e);
@@ -408,6 +429,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private final Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> _cachedEnvironmentRoutingTables;
 
+   private final Map<TestrigSettings, IpOwnerIndex> _cachedIpOwnerIndices;
+
+   private final Map<TestrigSettings, SessionIndex> _cachedSessionIndices;
+
    private DataPlanePlugin _dataPlanePlugin;
 
    private TestrigSettings _deltaTestrigSettings;
@@ -434,7 +459,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          Map<TestrigSettings, SortedMap<String, Configuration>> cachedConfigurations,
          Map<TestrigSettings, DataPlane> cachedDataPlanes,
          Map<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
-         Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> cachedEnvironmentRoutingTables) {
+         Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> cachedEnvironmentRoutingTables,
+         Map<TestrigSettings, IpOwnerIndex> cachedIpOwnerIndices,
+         Map<TestrigSettings, SessionIndex> cachedSessionIndices) {
       super(settings.getSerializeToText(), settings.getPluginDirs());
       _settings = settings;
       _bgpTablePlugins = new TreeMap<>();
@@ -442,6 +469,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
       _cachedEnvironmentRoutingTables = cachedEnvironmentRoutingTables;
       _cachedDataPlanes = cachedDataPlanes;
+      _cachedIpOwnerIndices = cachedIpOwnerIndices;
+      _cachedSessionIndices = cachedSessionIndices;
       _externalBgpAdvertisementPlugins = new TreeSet<>();
       _testrigSettings = settings.getActiveTestrigSettings();
       _baseTestrigSettings = settings.getBaseTestrigSettings();
@@ -547,7 +576,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       checkConfigurations();
       Map<String, Configuration> configurations = loadConfigurations();
 
-      List<NodSatJob<AclLine>> jobs = new ArrayList<>();
+      List<AclReachabilityJob> jobs = new ArrayList<>();
 
       for (Entry<String, ?> e : aclEqSets.getSameNamedStructures().entrySet()) {
          String aclName = e.getKey();
@@ -574,12 +603,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      + "\" contains no lines\n");
                continue;
             }
-            AclReachabilityQuerySynthesizer query = new AclReachabilityQuerySynthesizer(
-                  hostname, aclName, numLines);
-            Synthesizer aclSynthesizer = synthesizeAcls(
-                  Collections.singletonMap(hostname, c));
-            NodSatJob<AclLine> job = new NodSatJob<>(_settings, aclSynthesizer,
-                  query);
+            // reachability and earliest more general reachable lines are all
+            // computed by a single incremental solver per acl
+            AclReachabilityJob job = new AclReachabilityJob(_settings,
+                  hostname, aclName, acl);
             jobs.add(job);
          }
       }
@@ -587,67 +614,6 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       Map<AclLine, Boolean> output = new TreeMap<>();
       computeNodSatOutput(jobs, output);
 
-      // rearrange output for next step
-      Map<String, Map<String, List<AclLine>>> arrangedAclLines = new TreeMap<>();
-      for (Entry<AclLine, Boolean> e : output.entrySet()) {
-         AclLine line = e.getKey();
-         String hostname = line.getHostname();
-         Map<String, List<AclLine>> byAclName = arrangedAclLines.get(hostname);
-         if (byAclName == null) {
-            byAclName = new TreeMap<>();
-            arrangedAclLines.put(hostname, byAclName);
-         }
-         String aclName = line.getAclName();
-         List<AclLine> aclLines = byAclName.get(aclName);
-         if (aclLines == null) {
-            aclLines = new ArrayList<>();
-            byAclName.put(aclName, aclLines);
-         }
-         aclLines.add(line);
-      }
-
-      // now get earliest more general lines
-      List<NodFirstUnsatJob<AclLine, Integer>> step2Jobs = new ArrayList<>();
-      for (Entry<String, Map<String, List<AclLine>>> e : arrangedAclLines
-            .entrySet()) {
-         String hostname = e.getKey();
-         Configuration c = configurations.get(hostname);
-         Synthesizer aclSynthesizer = synthesizeAcls(
-               Collections.singletonMap(hostname, c));
-         Map<String, List<AclLine>> byAclName = e.getValue();
-         for (Entry<String, List<AclLine>> e2 : byAclName.entrySet()) {
-            String aclName = e2.getKey();
-            IpAccessList ipAccessList = c.getIpAccessLists().get(aclName);
-            List<AclLine> lines = e2.getValue();
-            for (int i = 0; i < lines.size(); i++) {
-               AclLine line = lines.get(i);
-               boolean reachable = output.get(line);
-               if (!reachable) {
-                  List<AclLine> toCheck = new ArrayList<>();
-                  for (int j = 0; j < i; j++) {
-                     AclLine earlierLine = lines.get(j);
-                     boolean earlierIsReachable = output.get(earlierLine);
-                     if (earlierIsReachable) {
-                        toCheck.add(earlierLine);
-                     }
-                  }
-                  EarliestMoreGeneralReachableLineQuerySynthesizer query = new EarliestMoreGeneralReachableLineQuerySynthesizer(
-                        line, toCheck, ipAccessList);
-                  NodFirstUnsatJob<AclLine, Integer> job = new NodFirstUnsatJob<>(
-                        _settings, aclSynthesizer, query);
-                  step2Jobs.add(job);
-               }
-            }
-         }
-      }
-      Map<AclLine, Integer> step2Output = new TreeMap<>();
-      computeNodFirstUnsatOutput(step2Jobs, step2Output);
-      for (AclLine line : output.keySet()) {
-         Integer earliestMoreGeneralReachableLine = step2Output.get(line);
-         line.setEarliestMoreGeneralReachableLine(
-               earliestMoreGeneralReachableLine);
-      }
-
       Set<Pair<String, String>> aclsWithUnreachableLines = new TreeSet<>();
       Set<Pair<String, String>> allAcls = new TreeSet<>();
       int numUnreachableLines = 0;
@@ -906,11 +872,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          Map<String, Configuration> configurations, Topology topology) {
       // TODO: confirm VRFs are handled correctly
       InterfaceSet flowSinks = new InterfaceSet();
-      InterfaceSet topologyInterfaces = new InterfaceSet();
-      for (Edge edge : topology.getEdges()) {
-         topologyInterfaces.add(edge.getInterface1());
-         topologyInterfaces.add(edge.getInterface2());
-      }
+      Map<NodeInterfacePair, EdgeSet> topologyInterfaces = topology
+            .getInterfaceEdges();
       for (Configuration node : configurations.values()) {
          String hostname = node.getHostname();
          for (Interface iface : node.getInterfaces().values()) {
@@ -918,7 +881,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             NodeInterfacePair p = new NodeInterfacePair(hostname, ifaceName);
             if (iface.getActive()
                   && !iface.isLoopback(node.getConfigurationFormat())
-                  && !topologyInterfaces.contains(p)) {
+                  && !topologyInterfaces.containsKey(p)) {
                flowSinks.add(p);
             }
          }
@@ -929,78 +892,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    @Override
    public Map<Ip, Set<String>> computeIpOwners(
          Map<String, Configuration> configurations, boolean excludeInactive) {
-      // TODO: confirm VRFs are handled correctly
-      Map<Ip, Set<String>> ipOwners = new HashMap<>();
-      Map<Pair<Prefix, Integer>, Set<Interface>> vrrpGroups = new HashMap<>();
-      configurations.forEach((hostname, c) -> {
-         for (Interface i : c.getInterfaces().values()) {
-            if (i.getActive() || (!excludeInactive && i.getBlacklisted())) {
-               // collect vrrp info
-               i.getVrrpGroups().forEach((groupNum, vrrpGroup) -> {
-                  Prefix prefix = vrrpGroup.getVirtualAddress();
-                  Pair<Prefix, Integer> key = new Pair<>(prefix, groupNum);
-                  Set<Interface> candidates = vrrpGroups.get(key);
-                  if (candidates == null) {
-                     candidates = Collections.newSetFromMap(
-                           new IdentityHashMap<Interface, Boolean>());
-                     vrrpGroups.put(key, candidates);
-                  }
-                  candidates.add(i);
-               });
-               // collect prefixes
-               i.getAllPrefixes().stream().map(p -> p.getAddress())
-                     .forEach(ip -> {
-                        Set<String> owners = ipOwners.get(ip);
-                        if (owners == null) {
-                           owners = new HashSet<>();
-                           ipOwners.put(ip, owners);
-                        }
-                        owners.add(hostname);
-                     });
-            }
-         }
-      });
-      vrrpGroups.forEach((p, candidates) -> {
-         int groupNum = p.getSecond();
-         Prefix prefix = p.getFirst();
-         Ip ip = prefix.getAddress();
-         int lowestPriority = Integer.MAX_VALUE;
-         String bestCandidate = null;
-         Set<String> bestCandidates = new HashSet<>();
-         for (Interface candidate : candidates) {
-            VrrpGroup group = candidate.getVrrpGroups().get(groupNum);
-            int currentPriority = group.getPriority();
-            if (currentPriority < lowestPriority) {
-               lowestPriority = currentPriority;
-               bestCandidates.clear();
-               bestCandidate = candidate.getOwner().getHostname();
-            }
-            if (currentPriority == lowestPriority) {
-               bestCandidates.add(candidate.getOwner().getHostname());
-            }
-         }
-         if (bestCandidates.size() != 1) {
-            throw new BatfishException(
-                  "multiple best vrrp candidates:" + bestCandidates);
-         }
-         Set<String> owners = ipOwners.get(ip);
-         if (owners == null) {
-            owners = new HashSet<>();
-            ipOwners.put(ip, owners);
-         }
-         owners.add(bestCandidate);
-      });
-      return ipOwners;
-   }
-
-   public <Key, Result> void computeNodFirstUnsatOutput(
-         List<NodFirstUnsatJob<Key, Result>> jobs, Map<Key, Result> output) {
-      _logger.info("\n*** EXECUTING NOD UNSAT JOBS ***\n");
-      resetTimer();
-      BatfishJobExecutor<NodFirstUnsatJob<Key, Result>, NodFirstUnsatAnswerElement, NodFirstUnsatResult<Key, Result>, Map<Key, Result>> executor = new BatfishJobExecutor<>(
-            _settings, _logger, true, "NOD First-UNSAT");
-      executor.executeJobs(jobs, output, new NodFirstUnsatAnswerElement());
-      printElapsedTime();
+      return getIpOwnerIndex(configurations, excludeInactive).getIpOwners();
    }
 
    public Set<Flow> computeNodOutput(List<NodJob> jobs) {
@@ -1015,11 +907,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return flows;
    }
 
-   public <Key> void computeNodSatOutput(List<NodSatJob<Key>> jobs,
-         Map<Key, Boolean> output) {
+   public <Key, Job extends BatfishJob<NodSatResult<Key>>> void computeNodSatOutput(
+         List<Job> jobs, Map<Key, Boolean> output) {
       _logger.info("\n*** EXECUTING NOD SAT JOBS ***\n");
       resetTimer();
-      BatfishJobExecutor<NodSatJob<Key>, NodSatAnswerElement, NodSatResult<Key>, Map<Key, Boolean>> executor = new BatfishJobExecutor<>(
+      BatfishJobExecutor<Job, NodSatAnswerElement, NodSatResult<Key>, Map<Key, Boolean>> executor = new BatfishJobExecutor<>(
             _settings, _logger, true, "NOD SAT");
       executor.executeJobs(jobs, output, new NodSatAnswerElement());
       printElapsedTime();
@@ -1028,13 +920,13 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    @Override
    public Topology computeTopology(Map<String, Configuration> configurations) {
       resetTimer();
+      newBatch("Computing topology", 0);
       Topology topology = computeTopology(_testrigSettings.getTestRigPath(),
             configurations);
       EdgeSet blacklistEdges = getEdgeBlacklist();
       if (blacklistEdges != null) {
-         EdgeSet edges = topology.getEdges();
-         edges.removeAll(blacklistEdges);
-         if (blacklistEdges.size() > 0) {
+         for (Edge blacklistEdge : blacklistEdges) {
+            topology.removeEdge(blacklistEdge);
          }
       }
       NodeSet blacklistNodes = getNodeBlacklist();
@@ -1049,9 +941,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             topology.removeInterface(blacklistInterface);
          }
       }
-      Topology prunedTopology = new Topology(topology.getEdges());
       printElapsedTime();
-      return prunedTopology;
+      return topology;
    }
 
    private Topology computeTopology(Path testRigPath,
@@ -1216,8 +1107,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      + serializedConfigPath.toString() + "'",
                e);
       }
+      ValueInterner.Report report = new ValueInterner.Report();
       SortedMap<String, Configuration> configurations = deserializeObjects(
-            namesByPath, Configuration.class);
+            namesByPath, Configuration.class,
+            o -> CONFIGURATION_VALUE_INTERNER.intern(o, report));
+      _logger.info("Hash-consed configuration values: " + report + "\n");
       printElapsedTime();
       return configurations;
    }
@@ -1268,6 +1162,17 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    public <S extends Serializable> SortedMap<String, S> deserializeObjects(
          Map<Path, String> namesByPath, Class<S> outputClass) {
+      return deserializeObjects(namesByPath, outputClass, null);
+   }
+
+   /**
+    * Deserializes the objects at the supplied paths, replacing each object
+    * read by the result of applying the supplied resolver to it, if the
+    * resolver is not null
+    */
+   public <S extends Serializable> SortedMap<String, S> deserializeObjects(
+         Map<Path, String> namesByPath, Class<S> outputClass,
+         UnaryOperator<Object> resolver) {
       String outputClassName = outputClass.getName();
       BatfishLogger logger = getLogger();
       Map<String, byte[]> dataByName = new TreeMap<>();
@@ -1289,7 +1194,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             dataByName.size());
       dataByName.keySet().parallelStream().forEach(name -> {
          byte[] data = dataByName.get(name);
-         S object = deserializeObject(data, outputClass);
+         S object = deserializeObject(data, outputClass, resolver);
          unsortedOutput.put(name, object);
          deserializeCompleted.incrementAndGet();
       });
@@ -1462,8 +1367,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       for (Entry<Path, String> e : outputConfigurationData.entrySet()) {
          Path outputFile = e.getKey();
          String flatConfigText = e.getValue();
-         String outputFileAsString = outputFile.toString();
-         _logger.debug("Writing config to \"" + outputFileAsString + "\"...");
+         _logger.debugf("Writing config to \"%s\"...", outputFile);
          CommonUtil.writeFile(outputFile, flatConfigText);
          _logger.debug("OK\n");
       }
@@ -1739,6 +1643,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return _answererCreators;
    }
 
+   @Override
+   public SortedMap<NodeInterfacePair, SortedMap<Ip, SortedSet<NodeInterfacePair>>> getArpReplies() {
+      return _dataPlanePlugin.getArpReplies();
+   }
+
    public TestrigSettings getBaseTestrigSettings() {
       return _baseTestrigSettings;
    }
@@ -1814,10 +1723,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       if (Files.exists(inputPath.getParent()) && !Files.exists(inputPath)) {
          return new TreeMap<>();
       }
-      SortedMap<Path, String> inputData = readFiles(inputPath,
-            "Environment BGP Tables");
+      List<Path> inputFiles = listFiles(inputPath);
       SortedMap<String, BgpAdvertisementsByVrf> bgpTables = parseEnvironmentBgpTables(
-            inputData, answerElement);
+            inputFiles, answerElement);
       return bgpTables;
    }
 
@@ -1831,10 +1739,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       if (Files.exists(inputPath.getParent()) && !Files.exists(inputPath)) {
          return new TreeMap<>();
       }
-      SortedMap<Path, String> inputData = readFiles(inputPath,
-            "Environment Routing Tables");
+      List<Path> inputFiles = listFiles(inputPath);
       SortedMap<String, RoutesByVrf> routingTables = parseEnvironmentRoutingTables(
-            inputData, answerElement);
+            inputFiles, answerElement);
       return routingTables;
    }
 
@@ -1892,6 +1799,29 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return flowHistory;
    }
 
+   /**
+    * Returns the ip ownership index of the supplied configurations. When they
+    * are the cached configurations of the active testrig, the index is built
+    * on first use and cached alongside them. A cached index only serves the
+    * configuration set it was built from, so it is replaced once the
+    * configurations are deserialized again.
+    */
+   @Override
+   public IpOwnerIndex getIpOwnerIndex(
+         Map<String, Configuration> configurations, boolean excludeInactive) {
+      IpOwnerIndex ipOwnerIndex = _cachedIpOwnerIndices.get(_testrigSettings);
+      if (ipOwnerIndex != null
+            && ipOwnerIndex.getConfigurations() == configurations
+            && ipOwnerIndex.getExcludeInactive() == excludeInactive) {
+         return ipOwnerIndex;
+      }
+      ipOwnerIndex = new IpOwnerIndex(configurations, excludeInactive);
+      if (_cachedConfigurations.get(_testrigSettings) == configurations) {
+         _cachedIpOwnerIndices.put(_testrigSettings, ipOwnerIndex);
+      }
+      return ipOwnerIndex;
+   }
+
    private IbgpTopology getIbgpNeighbors() {
       return _dataPlanePlugin.getIbgpNeighbors();
    }
@@ -1926,6 +1856,26 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return blacklistNodes;
    }
 
+   /**
+    * Returns the session index of the supplied configurations. When they are
+    * the cached configurations of the active testrig, the index is built once
+    * and cached alongside them.
+    */
+   @Override
+   public SessionIndex getSessionIndex(
+         Map<String, Configuration> configurations) {
+      SessionIndex sessionIndex = _cachedSessionIndices.get(_testrigSettings);
+      if (sessionIndex != null
+            && sessionIndex.getConfigurations() == configurations) {
+         return sessionIndex;
+      }
+      sessionIndex = new SessionIndex(configurations);
+      if (_cachedConfigurations.get(_testrigSettings) == configurations) {
+         _cachedSessionIndices.put(_testrigSettings, sessionIndex);
+      }
+      return sessionIndex;
+   }
+
    public Settings getSettings() {
       return _settings;
    }
@@ -2250,8 +2200,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    public void initRemoteBgpNeighbors(Map<String, Configuration> configurations,
          Map<Ip, Set<String>> ipOwners) {
       // TODO: handle duplicate ips on different vrfs
-      Map<BgpNeighbor, Ip> remoteAddresses = new IdentityHashMap<>();
-      Map<Ip, Set<BgpNeighbor>> localAddresses = new HashMap<>();
+      SessionIndex sessionIndex = getSessionIndex(configurations);
+      List<BgpNeighbor> localBgpNeighbors = new ArrayList<>();
       for (Configuration node : configurations.values()) {
          String hostname = node.getHostname();
          for (Vrf vrf : node.getVrfs().values()) {
@@ -2276,85 +2226,67 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                         || !ipOwners.get(localAddress).contains(hostname)) {
                      continue;
                   }
-                  remoteAddresses.put(bgpNeighbor, remoteAddress);
-                  Set<BgpNeighbor> localAddressOwners = localAddresses
-                        .get(localAddress);
-                  if (localAddressOwners == null) {
-                     localAddressOwners = Collections.newSetFromMap(
-                           new IdentityHashMap<BgpNeighbor, Boolean>());
-                     localAddresses.put(localAddress, localAddressOwners);
-                  }
-                  localAddressOwners.add(bgpNeighbor);
+                  localBgpNeighbors.add(bgpNeighbor);
                }
             }
          }
       }
-      for (Entry<BgpNeighbor, Ip> e : remoteAddresses.entrySet()) {
-         BgpNeighbor bgpNeighbor = e.getKey();
-         Ip remoteAddress = e.getValue();
+      for (BgpNeighbor bgpNeighbor : localBgpNeighbors) {
+         Ip remoteAddress = bgpNeighbor.getAddress();
          Ip localAddress = bgpNeighbor.getLocalIp();
-         Set<BgpNeighbor> remoteBgpNeighborCandidates = localAddresses
-               .get(remoteAddress);
-         if (remoteBgpNeighborCandidates != null) {
-            for (BgpNeighbor remoteBgpNeighborCandidate : remoteBgpNeighborCandidates) {
-               Ip reciprocalRemoteIp = remoteBgpNeighborCandidate.getAddress();
-               if (localAddress.equals(reciprocalRemoteIp)) {
-                  bgpNeighbor.getCandidateRemoteBgpNeighbors()
-                        .add(remoteBgpNeighborCandidate);
-                  bgpNeighbor.setRemoteBgpNeighbor(remoteBgpNeighborCandidate);
-               }
-            }
+         Set<String> remoteAddressOwners = ipOwners.get(remoteAddress);
+         if (remoteAddressOwners == null) {
+            continue;
          }
+         // candidates must be declared by an owner of their local address
+         sessionIndex.getBgpNeighborsByLocalIp(remoteAddress)
+               .forEach((remoteHostname, remoteBgpNeighborCandidates) -> {
+                  if (!remoteAddressOwners.contains(remoteHostname)) {
+                     return;
+                  }
+                  for (BgpNeighbor remoteBgpNeighborCandidate : remoteBgpNeighborCandidates) {
+                     Ip reciprocalRemoteIp = remoteBgpNeighborCandidate
+                           .getAddress();
+                     if (localAddress.equals(reciprocalRemoteIp)) {
+                        bgpNeighbor.getCandidateRemoteBgpNeighbors()
+                              .add(remoteBgpNeighborCandidate);
+                        bgpNeighbor
+                              .setRemoteBgpNeighbor(remoteBgpNeighborCandidate);
+                     }
+                  }
+               });
       }
    }
 
    @Override
    public void initRemoteIpsecVpns(Map<String, Configuration> configurations) {
+      SessionIndex sessionIndex = getSessionIndex(configurations);
       Map<IpsecVpn, Ip> remoteAddresses = new HashMap<>();
-      Map<Ip, Set<IpsecVpn>> externalAddresses = new HashMap<>();
       for (Configuration c : configurations.values()) {
          for (IpsecVpn ipsecVpn : c.getIpsecVpns().values()) {
             Ip remoteAddress = ipsecVpn.getIkeGateway().getAddress();
             remoteAddresses.put(ipsecVpn, remoteAddress);
-            Set<Prefix> externalPrefixes = ipsecVpn.getIkeGateway()
-                  .getExternalInterface().getAllPrefixes();
-            for (Prefix externalPrefix : externalPrefixes) {
-               Ip externalAddress = externalPrefix.getAddress();
-               Set<IpsecVpn> vpnsUsingExternalAddress = externalAddresses
-                     .get(externalAddress);
-               if (vpnsUsingExternalAddress == null) {
-                  vpnsUsingExternalAddress = new HashSet<>();
-                  externalAddresses.put(externalAddress,
-                        vpnsUsingExternalAddress);
-               }
-               vpnsUsingExternalAddress.add(ipsecVpn);
-            }
          }
       }
       for (Entry<IpsecVpn, Ip> e : remoteAddresses.entrySet()) {
          IpsecVpn ipsecVpn = e.getKey();
          Ip remoteAddress = e.getValue();
          ipsecVpn.initCandidateRemoteVpns();
-         Set<IpsecVpn> remoteIpsecVpnCandidates = externalAddresses
-               .get(remoteAddress);
-         if (remoteIpsecVpnCandidates != null) {
-            for (IpsecVpn remoteIpsecVpnCandidate : remoteIpsecVpnCandidates) {
-               Ip remoteIpsecVpnLocalAddress = remoteIpsecVpnCandidate
-                     .getIkeGateway().getLocalAddress();
-               if (remoteIpsecVpnLocalAddress != null
-                     && !remoteIpsecVpnLocalAddress.equals(remoteAddress)) {
-                  continue;
-               }
-               Ip reciprocalRemoteAddress = remoteAddresses
-                     .get(remoteIpsecVpnCandidate);
-               Set<IpsecVpn> reciprocalVpns = externalAddresses
-                     .get(reciprocalRemoteAddress);
-               if (reciprocalVpns != null
-                     && reciprocalVpns.contains(ipsecVpn)) {
-                  ipsecVpn.setRemoteIpsecVpn(remoteIpsecVpnCandidate);
-                  ipsecVpn.getCandidateRemoteIpsecVpns()
-                        .add(remoteIpsecVpnCandidate);
-               }
+         for (IpsecVpn remoteIpsecVpnCandidate : sessionIndex
+               .getIpsecVpnsByExternalIp(remoteAddress)) {
+            Ip remoteIpsecVpnLocalAddress = remoteIpsecVpnCandidate
+                  .getIkeGateway().getLocalAddress();
+            if (remoteIpsecVpnLocalAddress != null
+                  && !remoteIpsecVpnLocalAddress.equals(remoteAddress)) {
+               continue;
+            }
+            Ip reciprocalRemoteAddress = remoteAddresses
+                  .get(remoteIpsecVpnCandidate);
+            if (sessionIndex.getIpsecVpnsByExternalIp(reciprocalRemoteAddress)
+                  .contains(ipsecVpn)) {
+               ipsecVpn.setRemoteIpsecVpn(remoteIpsecVpnCandidate);
+               ipsecVpn.getCandidateRemoteIpsecVpns()
+                     .add(remoteIpsecVpnCandidate);
             }
          }
       }
@@ -2364,6 +2296,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    public void initRemoteOspfNeighbors(
          Map<String, Configuration> configurations,
          Map<Ip, Set<String>> ipOwners, Topology topology) {
+      SessionIndex sessionIndex = getSessionIndex(configurations);
       for (Entry<String, Configuration> e : configurations.entrySet()) {
          String hostname = e.getKey();
          Configuration c = e.getValue();
@@ -2390,8 +2323,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                                  String remoteIfaceName = edge.getInt2();
                                  Configuration remoteNode = configurations
                                        .get(remoteHostname);
-                                 Interface remoteIface = remoteNode
-                                       .getInterfaces().get(remoteIfaceName);
+                                 Interface remoteIface = sessionIndex
+                                       .getInterface(edge.getInterface2());
                                  Vrf remoteVrf = remoteIface.getVrf();
                                  String remoteVrfName = remoteVrf.getName();
                                  OspfProcess remoteProc = remoteVrf
@@ -2467,11 +2400,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    @Override
    public void initRoutes(Map<String, Configuration> configurations) {
-      Set<Route> globalRoutes = _dataPlanePlugin.getRoutes();
       for (Configuration node : configurations.values()) {
          node.initRoutes();
       }
-      for (Route route : globalRoutes) {
+      _dataPlanePlugin.queryRoutes(new RouteQuery()).forEach(route -> {
          String nodeName = route.getNode();
          Configuration node = configurations.get(nodeName);
          String vrfName = route.getVrf();
@@ -2492,7 +2424,16 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                   "Precomputed route refers to missing node: '" + nodeName
                         + "'");
          }
-      }
+      });
+   }
+
+   /**
+    * Returns the non-hidden files in the supplied directory, sorted by path
+    */
+   private List<Path> listFiles(Path directory) {
+      return CommonUtil.list(directory)
+            .filter(path -> !path.getFileName().toString().startsWith("."))
+            .sorted().collect(Collectors.toList());
    }
 
    @Override
@@ -2507,13 +2448,18 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          }
          configurations = deserializeConfigurations(
                _testrigSettings.getSerializeIndependentPath());
+         processNodeBlacklist(configurations);
+         processInterfaceBlacklist(configurations);
+         processDeltaConfigurations(configurations);
+         disableUnusableVlanInterfaces(configurations);
+         disableUnusableVpnInterfaces(configurations);
+         // the indices record which interfaces are active, so they are built
+         // once the configurations have been processed, and kept until the
+         // configurations are deserialized again
          _cachedConfigurations.put(_testrigSettings, configurations);
+         _cachedSessionIndices.put(_testrigSettings,
+               new SessionIndex(configurations));
       }
-      processNodeBlacklist(configurations);
-      processInterfaceBlacklist(configurations);
-      processDeltaConfigurations(configurations);
-      disableUnusableVlanInterfaces(configurations);
-      disableUnusableVpnInterfaces(configurations);
       return configurations;
    }
 
@@ -2716,6 +2662,20 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
+   /**
+    * Returns the route snapshot written along with the data plane of the
+    * active environment, or null if there is none
+    */
+   @Override
+   public RouteSnapshot loadRouteSnapshot() {
+      Path routeSnapshotDir = _testrigSettings.getEnvironmentSettings()
+            .getRouteSnapshotDir();
+      if (!Files.exists(routeSnapshotDir)) {
+         return null;
+      }
+      return new RouteSnapshot(routeSnapshotDir);
+   }
+
    public Topology loadTopology() {
       Path topologyPath = _testrigSettings.getEnvironmentSettings()
             .getSerializedTopologyPath();
@@ -2762,99 +2722,31 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return Driver.newBatch(_settings, description, jobs);
    }
 
-   void outputAnswer(Answer answer) {
-      ObjectMapper mapper = new BatfishObjectMapper();
+   @Override
+   public Reader openExternalBgpAnnouncementsFile() {
+      Path externalBgpAnnouncementsPath = _testrigSettings
+            .getEnvironmentSettings().getExternalBgpAnnouncementsPath();
+      if (!Files.exists(externalBgpAnnouncementsPath)) {
+         return null;
+      }
       try {
-         Answer structuredAnswer = answer;
-         Answer prettyAnswer = structuredAnswer.prettyPrintAnswer();
-         StringBuilder structuredAnswerSb = new StringBuilder();
-         String structuredAnswerRawString = mapper
-               .writeValueAsString(structuredAnswer);
-         structuredAnswerSb.append(structuredAnswerRawString);
-         structuredAnswerSb.append("\n");
-         String structuredAnswerString = structuredAnswerSb.toString();
-         StringBuilder prettyAnswerSb = new StringBuilder();
-         String prettyAnswerRawString = mapper.writeValueAsString(prettyAnswer);
-         prettyAnswerSb.append(prettyAnswerRawString);
-         prettyAnswerSb.append("\n");
-         String answerString;
-         String prettyAnswerString = prettyAnswerSb.toString();
-         if (_settings.prettyPrintAnswer()) {
-            answerString = prettyAnswerString;
-         }
-         else {
-            answerString = structuredAnswerString;
-         }
-         _logger.debug(answerString);
-         writeJsonAnswer(structuredAnswerString, prettyAnswerString);
+         return CommonUtil.newLenientReader(externalBgpAnnouncementsPath);
       }
-      catch (Exception e) {
-         BatfishException be = new BatfishException("Error in sending answer",
+      catch (IOException e) {
+         throw new BatfishException(
+               "Could not open external bgp announcements file: \""
+                     + externalBgpAnnouncementsPath + "\"",
                e);
-         try {
-            Answer failureAnswer = Answer.failureAnswer(e.toString(),
-                  answer.getQuestion());
-            failureAnswer.addAnswerElement(be.getBatfishStackTrace());
-            Answer structuredAnswer = failureAnswer;
-            Answer prettyAnswer = structuredAnswer.prettyPrintAnswer();
-            StringBuilder structuredAnswerSb = new StringBuilder();
-            String structuredAnswerRawString = mapper
-                  .writeValueAsString(structuredAnswer);
-            structuredAnswerSb.append(structuredAnswerRawString);
-            structuredAnswerSb.append("\n");
-            String structuredAnswerString = structuredAnswerSb.toString();
-            StringBuilder prettyAnswerSb = new StringBuilder();
-            String prettyAnswerRawString = mapper
-                  .writeValueAsString(prettyAnswer);
-            prettyAnswerSb.append(prettyAnswerRawString);
-            prettyAnswerSb.append("\n");
-            String answerString;
-            String prettyAnswerString = prettyAnswerSb.toString();
-            if (_settings.prettyPrintAnswer()) {
-               answerString = prettyAnswerString;
-            }
-            else {
-               answerString = structuredAnswerString;
-            }
-            _logger.error(answerString);
-            writeJsonAnswer(structuredAnswerString, prettyAnswerString);
-         }
-         catch (Exception e1) {
-            String errorMessage = String.format(
-                  "Could not serialize failure answer.",
-                  ExceptionUtils.getStackTrace(e1));
-            _logger.error(errorMessage);
-         }
-         throw be;
       }
    }
 
-   void outputAnswerWithLog(Answer answer) {
-      ObjectMapper mapper = new BatfishObjectMapper();
+   void outputAnswer(Answer answer) {
+      outputAnswer(answer, false);
+   }
+
+   private void outputAnswer(Answer answer, boolean writeLog) {
       try {
-         Answer structuredAnswer = answer;
-         Answer prettyAnswer = structuredAnswer.prettyPrintAnswer();
-         StringBuilder structuredAnswerSb = new StringBuilder();
-         String structuredAnswerRawString = mapper
-               .writeValueAsString(structuredAnswer);
-         structuredAnswerSb.append(structuredAnswerRawString);
-         structuredAnswerSb.append("\n");
-         String structuredAnswerString = structuredAnswerSb.toString();
-         StringBuilder prettyAnswerSb = new StringBuilder();
-         String prettyAnswerRawString = mapper.writeValueAsString(prettyAnswer);
-         prettyAnswerSb.append(prettyAnswerRawString);
-         prettyAnswerSb.append("\n");
-         String answerString;
-         String prettyAnswerString = prettyAnswerSb.toString();
-         if (_settings.prettyPrintAnswer()) {
-            answerString = prettyAnswerString;
-         }
-         else {
-            answerString = structuredAnswerString;
-         }
-         _logger.debug(answerString);
-         writeJsonAnswerWithLog(answerString, structuredAnswerString,
-               prettyAnswerString);
+         writeJsonAnswer(answer, writeLog, false);
       }
       catch (Exception e) {
          BatfishException be = new BatfishException("Error in sending answer",
@@ -2863,30 +2755,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             Answer failureAnswer = Answer.failureAnswer(e.toString(),
                   answer.getQuestion());
             failureAnswer.addAnswerElement(be.getBatfishStackTrace());
-            Answer structuredAnswer = failureAnswer;
-            Answer prettyAnswer = structuredAnswer.prettyPrintAnswer();
-            StringBuilder structuredAnswerSb = new StringBuilder();
-            String structuredAnswerRawString = mapper
-                  .writeValueAsString(structuredAnswer);
-            structuredAnswerSb.append(structuredAnswerRawString);
-            structuredAnswerSb.append("\n");
-            String structuredAnswerString = structuredAnswerSb.toString();
-            StringBuilder prettyAnswerSb = new StringBuilder();
-            String prettyAnswerRawString = mapper
-                  .writeValueAsString(prettyAnswer);
-            prettyAnswerSb.append(prettyAnswerRawString);
-            prettyAnswerSb.append("\n");
-            String answerString;
-            String prettyAnswerString = prettyAnswerSb.toString();
-            if (_settings.prettyPrintAnswer()) {
-               answerString = prettyAnswerString;
-            }
-            else {
-               answerString = structuredAnswerString;
-            }
-            _logger.error(answerString);
-            writeJsonAnswerWithLog(answerString, structuredAnswerString,
-                  prettyAnswerString);
+            writeJsonAnswer(failureAnswer, writeLog, true);
          }
          catch (Exception e1) {
             String errorMessage = String.format(
@@ -2898,6 +2767,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
+   void outputAnswerWithLog(Answer answer) {
+      outputAnswer(answer, true);
+   }
+
    private ParserRuleContext parse(BatfishCombinedParser<?, ?> parser) {
       return parse(parser, _logger, _settings);
    }
@@ -2921,49 +2794,67 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return ast;
    }
 
-   private AwsVpcConfiguration parseAwsVpcConfigurations(
-         Map<Path, String> configurationData) {
-      AwsVpcConfiguration config = new AwsVpcConfiguration();
-      for (Path file : configurationData.keySet()) {
-
+   /**
+    * Streams each of the supplied AWS VPC files into its own configuration in
+    * parallel, and then combines them in file order
+    */
+   private AwsVpcConfiguration parseAwsVpcConfigurations(List<Path> files) {
+      _logger.info("\n*** PARSING AWS VPC CONFIGURATION FILES ***\n");
+      resetTimer();
+      Map<Path, AwsVpcConfiguration> configsByFile = new ConcurrentHashMap<>();
+      AtomicInteger completed = newBatch("Parsing AWS VPC configuration files",
+            files.size());
+      files.parallelStream().forEach(file -> {
          // we stop classic link processing here because it interferes with VPC
          // processing
          if (file.toString().contains("classic-link")) {
             _logger.errorf("%s has classic link configuration\n",
                   file.toString());
-            continue;
-         }
-
-         JSONObject jsonObj = null;
-         try {
-            jsonObj = new JSONObject(configurationData.get(file));
          }
-         catch (JSONException e) {
-            _logger.errorf("%s does not have valid json\n", file.toString());
-         }
-
-         if (jsonObj != null) {
-            try {
-               config.addConfigElement(jsonObj, _logger);
+         else {
+            AwsVpcConfiguration fileConfig = new AwsVpcConfiguration();
+            try (Reader reader = Files.newBufferedReader(file)) {
+               fileConfig.addConfigElement(reader, _logger);
+               configsByFile.put(file, fileConfig);
+            }
+            catch (JsonProcessingException e) {
+               _logger.errorf("%s does not have valid json\n", file.toString());
             }
             catch (JSONException e) {
                throw new BatfishException(
                      "Problems parsing JSON in " + file.toString(), e);
             }
+            catch (IOException e) {
+               throw new BatfishException(
+                     "Failed to read file: " + file.toString(), e);
+            }
+         }
+         completed.incrementAndGet();
+      });
+      AwsVpcConfiguration config = new AwsVpcConfiguration();
+      for (Path file : files) {
+         AwsVpcConfiguration fileConfig = configsByFile.get(file);
+         if (fileConfig != null) {
+            config.addConfigElements(fileConfig);
          }
       }
+      printElapsedTime();
       return config;
    }
 
+   /**
+    * Parses the supplied environment bgp table files, each read by its own job
+    * rather than loaded in advance
+    */
    private SortedMap<String, BgpAdvertisementsByVrf> parseEnvironmentBgpTables(
-         SortedMap<Path, String> inputData,
+         List<Path> inputFiles,
          ParseEnvironmentBgpTablesAnswerElement answerElement) {
       _logger.info("\n*** PARSING ENVIRONMENT BGP TABLES ***\n");
       resetTimer();
       SortedMap<String, BgpAdvertisementsByVrf> bgpTables = new TreeMap<>();
       List<ParseEnvironmentBgpTableJob> jobs = new ArrayList<>();
       SortedMap<String, Configuration> configurations = loadConfigurations();
-      for (Path currentFile : inputData.keySet()) {
+      for (Path currentFile : inputFiles) {
          String hostname = currentFile.getFileName().toString();
          String optionalSuffix = ".bgp";
          if (hostname.endsWith(optionalSuffix)) {
@@ -2983,10 +2874,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                _settings.getUnimplementedRecord()
                      && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
                _settings.printParseTree());
-         String fileText = inputData.get(currentFile);
          ParseEnvironmentBgpTableJob job = new ParseEnvironmentBgpTableJob(
-               _settings, fileText, hostname, currentFile, warnings,
-               _bgpTablePlugins);
+               _settings, hostname, currentFile, warnings, _bgpTablePlugins);
          jobs.add(job);
       }
       BatfishJobExecutor<ParseEnvironmentBgpTableJob, ParseEnvironmentBgpTablesAnswerElement, ParseEnvironmentBgpTableResult, SortedMap<String, BgpAdvertisementsByVrf>> executor = new BatfishJobExecutor<>(
@@ -2997,15 +2886,19 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return bgpTables;
    }
 
+   /**
+    * Parses the supplied environment routing table files, each read by its own
+    * job rather than loaded in advance
+    */
    private SortedMap<String, RoutesByVrf> parseEnvironmentRoutingTables(
-         SortedMap<Path, String> inputData,
+         List<Path> inputFiles,
          ParseEnvironmentRoutingTablesAnswerElement answerElement) {
       _logger.info("\n*** PARSING ENVIRONMENT ROUTING TABLES ***\n");
       resetTimer();
       SortedMap<String, RoutesByVrf> routingTables = new TreeMap<>();
       List<ParseEnvironmentRoutingTableJob> jobs = new ArrayList<>();
       SortedMap<String, Configuration> configurations = loadConfigurations();
-      for (Path currentFile : inputData.keySet()) {
+      for (Path currentFile : inputFiles) {
          String hostname = currentFile.getFileName().toString();
          if (!configurations.containsKey(hostname)) {
             continue;
@@ -3020,9 +2913,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                _settings.getUnimplementedRecord()
                      && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
                _settings.printParseTree());
-         String fileText = inputData.get(currentFile);
          ParseEnvironmentRoutingTableJob job = new ParseEnvironmentRoutingTableJob(
-               _settings, fileText, currentFile, warnings);
+               _settings, currentFile, warnings);
          jobs.add(job);
       }
       BatfishJobExecutor<ParseEnvironmentRoutingTableJob, ParseEnvironmentRoutingTablesAnswerElement, ParseEnvironmentRoutingTableResult, SortedMap<String, RoutesByVrf>> executor = new BatfishJobExecutor<>(
@@ -3441,6 +3333,15 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    }
 
+   @Override
+   public void processExternalBgpAnnouncements(
+         Map<String, Configuration> configurations,
+         Consumer<BgpAdvertisement> consumer) {
+      for (ExternalBgpAdvertisementPlugin plugin : _externalBgpAdvertisementPlugins) {
+         plugin.loadExternalBgpAdvertisements(consumer);
+      }
+   }
+
    /**
     * Reads the external bgp announcement specified in the environment, and
     * populates the vendor-independent configurations with data about those
@@ -3554,6 +3455,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _testrigSettings = _deltaTestrigSettings;
    }
 
+   @Override
+   public Stream<Route> queryRoutes(RouteQuery query) {
+      return _dataPlanePlugin.queryRoutes(query);
+   }
+
    private Map<Path, String> readConfigurationFiles(Path testRigPath,
          String configsType) {
       _logger.infof("\n*** READING %s FILES ***\n", configsType);
@@ -3567,7 +3473,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       AtomicInteger completed = newBatch("Reading network configuration files",
             configFilePaths.length);
       for (Path file : configFilePaths) {
-         _logger.debug("Reading: \"" + file.toString() + "\"\n");
+         _logger.debugf("Reading: \"%s\"\n", file);
          String fileTextRaw = CommonUtil.readFile(file.toAbsolutePath());
          String fileText = fileTextRaw
                + ((fileTextRaw.length() != 0) ? "\n" : "");
@@ -3578,43 +3484,6 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return configurationData;
    }
 
-   @Override
-   public String readExternalBgpAnnouncementsFile() {
-      Path externalBgpAnnouncementsPath = _testrigSettings
-            .getEnvironmentSettings().getExternalBgpAnnouncementsPath();
-      if (Files.exists(externalBgpAnnouncementsPath)) {
-         String externalBgpAnnouncementsFileContents = CommonUtil
-               .readFile(externalBgpAnnouncementsPath);
-         return externalBgpAnnouncementsFileContents;
-      }
-      else {
-         return null;
-      }
-   }
-
-   private SortedMap<Path, String> readFiles(Path directory,
-         String description) {
-      _logger.infof("\n*** READING FILES: %s ***\n", description);
-      resetTimer();
-      SortedMap<Path, String> fileData = new TreeMap<>();
-      Path[] filePaths = CommonUtil.list(directory)
-            .filter(path -> !path.getFileName().toString().startsWith("."))
-            .collect(Collectors.toList()).toArray(new Path[] {});
-      Arrays.sort(filePaths);
-      AtomicInteger completed = newBatch("Reading files: " + description,
-            filePaths.length);
-      for (Path file : filePaths) {
-         _logger.debug("Reading: \"" + file.toString() + "\"\n");
-         String fileTextRaw = CommonUtil.readFile(file.toAbsolutePath());
-         String fileText = fileTextRaw
-               + ((fileTextRaw.length() != 0) ? "\n" : "");
-         fileData.put(file, fileText);
-         completed.incrementAndGet();
-      }
-      printElapsedTime();
-      return fileData;
-   }
-
    @Override
    public AnswerElement reducedReachability(HeaderSpace headerSpace) {
       if (SystemUtils.IS_OS_MAC_OSX) {
@@ -3956,9 +3825,12 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private Answer serializeAwsVpcConfigs(Path testRigPath, Path outputPath) {
       Answer answer = new Answer();
-      Map<Path, String> configurationData = readConfigurationFiles(testRigPath,
-            BfConsts.RELPATH_AWS_VPC_CONFIGS_DIR);
-      AwsVpcConfiguration config = parseAwsVpcConfigurations(configurationData);
+      Path configsPath = testRigPath
+            .resolve(BfConsts.RELPATH_AWS_VPC_CONFIGS_DIR);
+      List<Path> configFiles = CommonUtil.list(configsPath)
+            .filter(path -> !path.getFileName().toString().startsWith("."))
+            .sorted().collect(Collectors.toList());
+      AwsVpcConfiguration config = parseAwsVpcConfigurations(configFiles);
 
       _logger.info("\n*** SERIALIZING AWS CONFIGURATION STRUCTURES ***\n");
       resetTimer();
@@ -4386,28 +4258,6 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    }
 
-   private Synthesizer synthesizeAcls(
-         Map<String, Configuration> configurations) {
-      _logger.info("\n*** GENERATING Z3 LOGIC ***\n");
-      resetTimer();
-
-      _logger.info("Synthesizing Z3 ACL logic...");
-      Synthesizer s = new Synthesizer(configurations, _settings.getSimplify());
-
-      List<String> warnings = s.getWarnings();
-      int numWarnings = warnings.size();
-      if (numWarnings == 0) {
-         _logger.info("OK\n");
-      }
-      else {
-         for (String warning : warnings) {
-            _logger.warn(warning);
-         }
-      }
-      printElapsedTime();
-      return s;
-   }
-
    public Synthesizer synthesizeDataPlane() {
 
       _logger.info("\n*** GENERATING Z3 LOGIC ***\n");
@@ -4415,6 +4265,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
       DataPlane dataPlane = loadDataPlane();
 
+      newBatch("Synthesizing Z3 data plane logic", 0);
       _logger.info("Synthesizing Z3 logic...");
       Map<String, Configuration> configurations = loadConfigurations();
       Synthesizer s = new Synthesizer(configurations, dataPlane,
@@ -4439,43 +4290,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _logger.info(
             "\n*** SYNTHESIZING TOPOLOGY FROM INTERFACE SUBNET INFORMATION ***\n");
       resetTimer();
-      EdgeSet edges = new EdgeSet();
-      Map<Prefix, Set<NodeInterfacePair>> prefixInterfaces = new HashMap<>();
-      configurations.forEach((nodeName, node) -> {
-         for (Entry<String, Interface> e : node.getInterfaces().entrySet()) {
-            String ifaceName = e.getKey();
-            Interface iface = e.getValue();
-            if (!iface.isLoopback(node.getConfigurationFormat())
-                  && iface.getActive()) {
-               for (Prefix prefix : iface.getAllPrefixes()) {
-                  if (prefix.getPrefixLength() < 32) {
-                     Prefix network = new Prefix(prefix.getNetworkAddress(),
-                           prefix.getPrefixLength());
-                     NodeInterfacePair pair = new NodeInterfacePair(nodeName,
-                           ifaceName);
-                     Set<NodeInterfacePair> interfaceBucket = prefixInterfaces
-                           .get(network);
-                     if (interfaceBucket == null) {
-                        interfaceBucket = new HashSet<>();
-                        prefixInterfaces.put(network, interfaceBucket);
-                     }
-                     interfaceBucket.add(pair);
-                  }
-               }
-            }
-         }
-      });
-      for (Set<NodeInterfacePair> bucket : prefixInterfaces.values()) {
-         for (NodeInterfacePair p1 : bucket) {
-            for (NodeInterfacePair p2 : bucket) {
-               if (!p1.equals(p2)) {
-                  Edge edge = new Edge(p1, p2);
-                  edges.add(edge);
-               }
-            }
-         }
-      }
-      return new Topology(edges);
+      // each subnet is a multi-access segment, whose edges are only
+      // materialized for the interfaces looked up in the topology
+      return new Topology(new EdgeSet(),
+            getSessionIndex(configurations).getSubnetInterfaces().values());
    }
 
    private void writeBgpAdvertisements(Path writeAdvertsPath) {
@@ -4494,6 +4312,13 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             _testrigSettings.getEnvironmentSettings().getDataPlanePath());
       serializeObject(ae,
             _testrigSettings.getEnvironmentSettings().getDataPlaneAnswerPath());
+      // a snapshot of the routes of a previous data plane is stale
+      Path routeSnapshotDir = _testrigSettings.getEnvironmentSettings()
+            .getRouteSnapshotDir();
+      CommonUtil.deleteDirectory(routeSnapshotDir);
+      if (_settings.getRouteSnapshots()) {
+         writeRouteSnapshot(routeSnapshotDir);
+      }
    }
 
    private void writeIbgpNeighbors(Path ibgpTopologyPath) {
@@ -4505,75 +4330,89 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _logger.info("OK\n");
    }
 
-   private void writeJsonAnswer(String structuredAnswerString,
-         String prettyAnswerString) {
-      Path questionPath = _settings.getQuestionPath();
-      if (questionPath != null) {
-         Path questionDir = questionPath.getParent();
-         if (!Files.exists(questionDir)) {
-            throw new BatfishException(
-                  "Could not write JSON answer to question dir '"
-                        + questionDir.toString()
-                        + "' because it does not exist");
+   /**
+    * Streams the structured and pretty-printed forms of an answer straight to
+    * their files under the question directory, and to the answer json path
+    * when writing the log. Neither form is materialized as a string unless it
+    * is also to be logged.
+    */
+   private void writeJsonAnswer(Answer structuredAnswer, boolean writeLog,
+         boolean failure) {
+      ObjectMapper mapper = new BatfishObjectMapper();
+      mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+      boolean pretty = _settings.prettyPrintAnswer();
+      Answer prettyAnswer;
+      Answer answer;
+      try {
+         prettyAnswer = structuredAnswer.prettyPrintAnswer();
+         answer = pretty ? prettyAnswer : structuredAnswer;
+         if (failure) {
+            _logger.error(mapper.writeValueAsString(answer) + "\n");
          }
-         boolean diff = _settings.getDiffQuestion();
-         String baseEnvName = _testrigSettings.getEnvironmentSettings()
-               .getName();
-         Path answerDir = questionDir.resolve(Paths
-               .get(BfConsts.RELPATH_ENVIRONMENTS_DIR, baseEnvName).toString());
-         if (diff) {
-            String deltaTestrigName = _deltaTestrigSettings.getName();
-            String deltaEnvName = _deltaTestrigSettings.getEnvironmentSettings()
-                  .getName();
-            answerDir = answerDir.resolve(Paths
-                  .get(BfConsts.RELPATH_DELTA, deltaTestrigName, deltaEnvName)
-                  .toString());
+         else if (_logger.isActive(BatfishLogger.LEVEL_DEBUG)) {
+            _logger.debug(mapper.writeValueAsString(answer) + "\n");
          }
-         Path structuredAnswerPath = answerDir
-               .resolve(BfConsts.RELPATH_ANSWER_JSON);
-         Path prettyAnswerPath = answerDir
-               .resolve(BfConsts.RELPATH_ANSWER_PRETTY_JSON);
-         answerDir.toFile().mkdirs();
-         CommonUtil.writeFile(structuredAnswerPath, structuredAnswerString);
-         CommonUtil.writeFile(prettyAnswerPath, prettyAnswerString);
       }
-   }
-
-   private void writeJsonAnswerWithLog(String answerString,
-         String structuredAnswerString, String prettyAnswerString) {
-      Path jsonPath = _settings.getAnswerJsonPath();
-      if (jsonPath != null) {
-         CommonUtil.writeFile(jsonPath, answerString);
+      catch (JsonProcessingException e) {
+         throw new BatfishException("Could not serialize answer", e);
       }
+      Path answerJsonPath = writeLog ? _settings.getAnswerJsonPath() : null;
       Path questionPath = _settings.getQuestionPath();
-      if (questionPath != null) {
-         Path questionDir = questionPath.getParent();
-         if (!Files.exists(questionDir)) {
-            throw new BatfishException(
-                  "Could not write JSON answer to question dir '"
-                        + questionDir.toString()
-                        + "' because it does not exist");
+      if (questionPath == null) {
+         if (answerJsonPath != null) {
+            writeJsonFile(mapper, answer, answerJsonPath);
+         }
+         return;
+      }
+      Path questionDir = questionPath.getParent();
+      if (!Files.exists(questionDir)) {
+         if (answerJsonPath != null) {
+            writeJsonFile(mapper, answer, answerJsonPath);
          }
-         boolean diff = _settings.getDiffQuestion();
-         String baseEnvName = _testrigSettings.getEnvironmentSettings()
+         throw new BatfishException(
+               "Could not write JSON answer to question dir '"
+                     + questionDir.toString() + "' because it does not exist");
+      }
+      boolean diff = _settings.getDiffQuestion();
+      String baseEnvName = _testrigSettings.getEnvironmentSettings().getName();
+      Path answerDir = questionDir.resolve(Paths
+            .get(BfConsts.RELPATH_ENVIRONMENTS_DIR, baseEnvName).toString());
+      if (diff) {
+         String deltaTestrigName = _deltaTestrigSettings.getName();
+         String deltaEnvName = _deltaTestrigSettings.getEnvironmentSettings()
                .getName();
-         Path answerDir = questionDir.resolve(Paths
-               .get(BfConsts.RELPATH_ENVIRONMENTS_DIR, baseEnvName).toString());
-         if (diff) {
-            String deltaTestrigName = _deltaTestrigSettings.getName();
-            String deltaEnvName = _deltaTestrigSettings.getEnvironmentSettings()
-                  .getName();
-            answerDir = answerDir.resolve(Paths
-                  .get(BfConsts.RELPATH_DELTA, deltaTestrigName, deltaEnvName)
-                  .toString());
+         answerDir = answerDir.resolve(Paths
+               .get(BfConsts.RELPATH_DELTA, deltaTestrigName, deltaEnvName)
+               .toString());
+      }
+      Path structuredAnswerPath = answerDir
+            .resolve(BfConsts.RELPATH_ANSWER_JSON);
+      Path prettyAnswerPath = answerDir
+            .resolve(BfConsts.RELPATH_ANSWER_PRETTY_JSON);
+      answerDir.toFile().mkdirs();
+      writeJsonFile(mapper, structuredAnswer, structuredAnswerPath);
+      writeJsonFile(mapper, prettyAnswer, prettyAnswerPath);
+      if (answerJsonPath != null) {
+         Path answerPath = pretty ? prettyAnswerPath : structuredAnswerPath;
+         try {
+            Files.copy(answerPath, answerJsonPath,
+                  StandardCopyOption.REPLACE_EXISTING);
+         }
+         catch (IOException e) {
+            throw new BatfishException("Failed to copy answer: '" + answerPath
+                  + "' to: '" + answerJsonPath + "'", e);
          }
-         Path structuredAnswerPath = answerDir
-               .resolve(BfConsts.RELPATH_ANSWER_JSON);
-         Path prettyAnswerPath = answerDir
-               .resolve(BfConsts.RELPATH_ANSWER_PRETTY_JSON);
-         answerDir.toFile().mkdirs();
-         CommonUtil.writeFile(structuredAnswerPath, structuredAnswerString);
-         CommonUtil.writeFile(prettyAnswerPath, prettyAnswerString);
+      }
+   }
+
+   private void writeJsonFile(ObjectMapper mapper, Object object,
+         Path outputPath) {
+      try (Writer writer = Files.newBufferedWriter(outputPath)) {
+         mapper.writeValue(writer, object);
+         writer.write("\n");
+      }
+      catch (IOException e) {
+         throw new BatfishException("Failed to write file: " + outputPath, e);
       }
    }
 
@@ -4606,6 +4445,39 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
+   /**
+    * Writes the routes of the data plane just computed to a snapshot, one
+    * node at a time and in parallel, so that they can later be diffed without
+    * materializing the routes of the whole network. The snapshot is written
+    * to a temporary directory first, so that it is complete if it exists.
+    */
+   private void writeRouteSnapshot(Path routeSnapshotDir) {
+      newBatch("Writing route snapshot to disk", 0);
+      Path tmpDir = routeSnapshotDir.resolveSibling(
+            routeSnapshotDir.getFileName().toString() + ".tmp");
+      CommonUtil.deleteDirectory(tmpDir);
+      CommonUtil.createDirectories(tmpDir);
+      RouteSnapshot snapshot = new RouteSnapshot(tmpDir);
+      Pattern matchAll = Pattern.compile(".*");
+      loadConfigurations().keySet().parallelStream().forEach(hostname -> {
+         RouteQuery query = new RouteQuery(
+               Pattern.compile(Pattern.quote(hostname)), matchAll,
+               Collections.emptySet(), new PrefixSpace());
+         SortedSet<Route> routes = new TreeSet<>();
+         _dataPlanePlugin.queryRoutes(query).forEach(routes::add);
+         snapshot.writeNode(hostname, routes);
+      });
+      try {
+         Files.move(tmpDir, routeSnapshotDir,
+               StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Could not move route snapshot into place: " + routeSnapshotDir,
+               e);
+      }
+   }
+
    public void writeRoutes(Path writeRoutesPath) {
       RouteSet routes = _dataPlanePlugin.getRoutes();
       CommonUtil.createDirectories(writeRoutesPath.getParent());
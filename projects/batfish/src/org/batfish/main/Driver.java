@@ -16,6 +16,7 @@ import java.util.logging.Logger;
 import javax.net.ssl.SSLHandshakeException;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -29,6 +30,7 @@ import org.batfish.common.BfConsts;
 import org.batfish.common.CleanBatfishException;
 import org.batfish.common.CompositeBatfishException;
 import org.batfish.common.CoordConsts;
+import org.batfish.common.PhaseMetrics;
 import org.batfish.common.QuestionException;
 import org.batfish.common.Task;
 import org.batfish.common.Task.Batch;
@@ -41,8 +43,11 @@ import org.batfish.config.Settings.TestrigSettings;
 import org.batfish.common.Version;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.IpOwnerIndex;
+import org.batfish.datamodel.SessionIndex;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.datamodel.answers.PhaseMetricsAnswerElement;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.datamodel.collections.RoutesByVrf;
 import org.codehaus.jettison.json.JSONArray;
@@ -68,6 +73,10 @@ public class Driver {
 
    private static final Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> CACHED_ENVIRONMENT_ROUTING_TABLES = buildEnvironmentRoutingTablesCache();
 
+   private static final Map<TestrigSettings, IpOwnerIndex> CACHED_IP_OWNER_INDICES = buildIpOwnerIndexCache();
+
+   private static final Map<TestrigSettings, SessionIndex> CACHED_SESSION_INDICES = buildSessionIndexCache();
+
    private static final Map<TestrigSettings, SortedMap<String, Configuration>> CACHED_TESTRIGS = buildTestrigCache();
 
    private static final int COORDINATOR_POLL_CHECK_INTERVAL_MS = 1 * 60 * 1000;
@@ -110,6 +119,16 @@ public class Driver {
                   MAX_CACHED_ENVIRONMENT_ROUTING_TABLES));
    }
 
+   private static synchronized Map<TestrigSettings, IpOwnerIndex> buildIpOwnerIndexCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<TestrigSettings, IpOwnerIndex>(MAX_CACHED_TESTRIGS));
+   }
+
+   private static synchronized Map<TestrigSettings, SessionIndex> buildSessionIndexCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<TestrigSettings, SessionIndex>(MAX_CACHED_TESTRIGS));
+   }
+
    private static synchronized Map<TestrigSettings, SortedMap<String, Configuration>> buildTestrigCache() {
       return Collections.synchronizedMap(
             new LRUMap<TestrigSettings, SortedMap<String, Configuration>>(
@@ -148,6 +167,18 @@ public class Driver {
       }
    }
 
+   /**
+    * Returns the per-phase totals of the finished batches of all tasks run by
+    * this worker
+    */
+   public static PhaseMetrics getPhaseMetrics() {
+      PhaseMetrics metrics = new PhaseMetrics();
+      for (Task task : _taskLog.values()) {
+         metrics.add(task);
+      }
+      return metrics;
+   }
+
    public synchronized static Task getTaskFromLog(String taskId) {
       if (_taskLog.containsKey(taskId)) {
          return _taskLog.get(taskId);
@@ -269,6 +300,62 @@ public class Driver {
       _idle = true;
    }
 
+   /**
+    * Pushes the final status of a task to the coordinator, so that it does not
+    * have to wait for its next poll to learn that the task is done. Failure
+    * here is harmless since the coordinator still polls as a fallback.
+    */
+   private static void notifyCoordinatorTaskDone(String taskId, Task task) {
+      String protocol = _mainSettings.getSslDisable() ? "http" : "https";
+      String taskDoneUrl = String.format("%s://%s:%s%s/%s", protocol,
+            _mainSettings.getCoordinatorHost(),
+            _mainSettings.getCoordinatorPoolPort(),
+            CoordConsts.SVC_CFG_POOL_MGR, CoordConsts.SVC_RSC_POOL_TASK_DONE);
+      Client client = null;
+      try {
+         client = CommonUtil
+               .createHttpClientBuilder(_mainSettings.getSslDisable(),
+                     _mainSettings.getSslTrustAllCerts(),
+                     _mainSettings.getSslKeystoreFile(),
+                     _mainSettings.getSslKeystorePassword(),
+                     _mainSettings.getSslTruststoreFile(),
+                     _mainSettings.getSslTruststorePassword())
+               .build();
+         WebTarget webTarget = client.target(taskDoneUrl)
+               .queryParam(CoordConsts.SVC_KEY_WORKER,
+                     _mainSettings.getServiceHost() + ":"
+                           + _mainSettings.getServicePort())
+               .queryParam(CoordConsts.SVC_KEY_WORKID, taskId);
+         // the task log can be long, so the task is sent as the request body
+         Response response = webTarget.request(MediaType.APPLICATION_JSON)
+               .post(Entity.entity(task.updateAndWrite(),
+                     MediaType.APPLICATION_JSON));
+
+         if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            _mainLogger.errorf(
+                  "BF: could not notify coordinator of task %s: %s\n", taskId,
+                  response.getStatusInfo());
+            return;
+         }
+
+         JSONArray array = new JSONArray(response.readEntity(String.class));
+         if (!array.get(0).equals(CoordConsts.SVC_KEY_SUCCESS)) {
+            _mainLogger.errorf(
+                  "BF: coordinator rejected completion of task %s: %s\n",
+                  taskId, array.get(1));
+         }
+      }
+      catch (Exception e) {
+         _mainLogger.errorf("BF: unable to notify coordinator at %s: %s\n",
+               taskDoneUrl, e.getMessage());
+      }
+      finally {
+         if (client != null) {
+            client.close();
+         }
+      }
+   }
+
    public static synchronized AtomicInteger newBatch(Settings settings,
          String description, int jobs) {
       Batch batch = null;
@@ -366,7 +453,8 @@ public class Driver {
       try {
          final Batfish batfish = new Batfish(settings, CACHED_TESTRIGS,
                CACHED_DATA_PLANES, CACHED_ENVIRONMENT_BGP_TABLES,
-               CACHED_ENVIRONMENT_ROUTING_TABLES);
+               CACHED_ENVIRONMENT_ROUTING_TABLES, CACHED_IP_OWNER_INDICES,
+               CACHED_SESSION_INDICES);
 
          Thread thread = new Thread() {
             @Override
@@ -412,6 +500,13 @@ public class Driver {
                }
                finally {
                   if (settings.getAnswerJsonPath() != null) {
+                     batfish.newBatch("Writing answer", 0);
+                     Task task = getTask(settings);
+                     if (settings.getPhaseMetrics() && task != null
+                           && answer != null) {
+                        answer.addAnswerElement(
+                              new PhaseMetricsAnswerElement(task));
+                     }
                      batfish.outputAnswerWithLog(answer);
                   }
                }
@@ -489,15 +584,21 @@ public class Driver {
                   @Override
                   public void run() {
                      task.setStatus(TaskStatus.InProgress);
-                     if (RunBatfish(settings)) {
+                     boolean success = RunBatfish(settings);
+                     // finish the last batch before the coordinator can see
+                     // that the task has terminated
+                     task.setTerminated();
+                     if (success) {
                         task.setStatus(TaskStatus.TerminatedNormally);
                      }
                      else {
                         task.setStatus(TaskStatus.TerminatedAbnormally);
                      }
-                     task.setTerminated();
                      jobLogger.close();
                      makeIdle();
+                     if (_mainSettings.getCoordinatorRegister()) {
+                        notifyCoordinatorTaskDone(taskId, task);
+                     }
                   }
                };
 
@@ -0,0 +1,216 @@
+package org.batfish.main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.batfish.common.BatfishException;
+import org.batfish.common.BfConsts;
+import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.config.Settings;
+import org.batfish.config.Settings.TestrigSettings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ParseTimes;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.job.ParseVendorConfigurationResult;
+
+/**
+ * Measures vendor configuration parsing throughput over the testrigs of the
+ * parsing tests. Files are parsed sequentially, first for a number of warm-up
+ * rounds that fill the shared ANTLR DFA caches and let the JIT settle, and
+ * then for a number of measured rounds.
+ * <p>
+ * Usage: {@code ParseThroughputBenchmark [-warmup N] [-rounds N]
+ * [testrig ...]}, run from the top-level source directory. Without testrigs,
+ * those initialized by {@value #PARSING_TESTS_COMMANDS} are used.
+ */
+public class ParseThroughputBenchmark {
+
+   private static class Totals {
+
+      private long _bytes;
+
+      private long _extraction;
+
+      private long _failed;
+
+      private long _files;
+
+      private long _llFallbacks;
+
+      private long _llParse;
+
+      private long _sllParse;
+
+      private long _wall;
+
+      private void add(Totals other) {
+         _bytes += other._bytes;
+         _extraction += other._extraction;
+         _failed += other._failed;
+         _files += other._files;
+         _llFallbacks += other._llFallbacks;
+         _llParse += other._llParse;
+         _sllParse += other._sllParse;
+         _wall += other._wall;
+      }
+
+      private String summary(String label) {
+         double seconds = Math.max(_wall, 1) / 1000.0;
+         return String.format(
+               "%s: %d files (%d failed), %.1f files/s, %.1f KB/s, "
+                     + "sll %d ms, ll %d ms (%d fallbacks), extraction %d ms",
+               label, _files, _failed, _files / seconds,
+               _bytes / 1024.0 / seconds, _sllParse, _llParse, _llFallbacks,
+               _extraction);
+      }
+
+   }
+
+   private static final int DEFAULT_ROUNDS = 5;
+
+   private static final int DEFAULT_WARMUP_ROUNDS = 3;
+
+   private static final String PARSING_TESTS_COMMANDS = "test_rigs/parsing-tests/commands";
+
+   private static final Pattern TESTRIG_PATTERN = Pattern
+         .compile("init-testrig\\s+(\\S+)");
+
+   private static List<Path> defaultTestrigs() {
+      Path commands = Paths.get(PARSING_TESTS_COMMANDS);
+      List<Path> testrigs = new ArrayList<>();
+      for (String line : CommonUtil.readFile(commands).split("\n")) {
+         if (line.trim().startsWith("#")) {
+            continue;
+         }
+         Matcher matcher = TESTRIG_PATTERN.matcher(line);
+         if (matcher.find()) {
+            testrigs.add(Paths.get(matcher.group(1)));
+         }
+      }
+      return testrigs;
+   }
+
+   public static void main(String[] args) {
+      int warmupRounds = DEFAULT_WARMUP_ROUNDS;
+      int rounds = DEFAULT_ROUNDS;
+      List<Path> testrigs = new ArrayList<>();
+      for (int i = 0; i < args.length; i++) {
+         switch (args[i]) {
+         case "-warmup":
+            warmupRounds = Integer.parseInt(args[++i]);
+            break;
+         case "-rounds":
+            rounds = Integer.parseInt(args[++i]);
+            break;
+         default:
+            testrigs.add(Paths.get(args[i]));
+            break;
+         }
+      }
+      if (testrigs.isEmpty()) {
+         testrigs = defaultTestrigs();
+      }
+      ParseThroughputBenchmark benchmark = new ParseThroughputBenchmark(
+            testrigs);
+      for (int i = 1; i <= warmupRounds; i++) {
+         System.out.println(benchmark.round().summary("warm-up " + i));
+      }
+      Totals measured = new Totals();
+      for (int i = 1; i <= rounds; i++) {
+         Totals round = benchmark.round();
+         System.out.println(round.summary("round " + i));
+         measured.add(round);
+      }
+      if (rounds > 0) {
+         System.out.println(measured.summary("total"));
+      }
+   }
+
+   private final Map<Path, Map<Path, String>> _configurationData;
+
+   private final Settings _settings;
+
+   public ParseThroughputBenchmark(List<Path> testrigs) {
+      _settings = new Settings();
+      _settings.setSequential(true);
+      _configurationData = new LinkedHashMap<>();
+      for (Path testrig : testrigs) {
+         Path configsPath = testrig
+               .resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR);
+         List<Path> files;
+         try {
+            files = Files.list(configsPath)
+                  .filter(path -> !path.getFileName().toString()
+                        .startsWith("."))
+                  .collect(Collectors.toList());
+         }
+         catch (IOException e) {
+            throw new BatfishException(
+                  "Could not list configurations in: " + configsPath, e);
+         }
+         Path[] sortedFiles = files.toArray(new Path[] {});
+         Arrays.sort(sortedFiles);
+         Map<Path, String> testrigData = new LinkedHashMap<>();
+         for (Path file : sortedFiles) {
+            String fileTextRaw = CommonUtil.readFile(file.toAbsolutePath());
+            String fileText = fileTextRaw
+                  + ((fileTextRaw.length() != 0) ? "\n" : "");
+            testrigData.put(file, fileText);
+         }
+         _configurationData.put(testrig, testrigData);
+      }
+   }
+
+   private Totals round() {
+      Totals totals = new Totals();
+      long startTime = System.currentTimeMillis();
+      for (Entry<Path, Map<Path, String>> e : _configurationData.entrySet()) {
+         TestrigSettings testrigSettings = _settings.getBaseTestrigSettings();
+         testrigSettings.setBasePath(e.getKey());
+         _settings.setActiveTestrigSettings(testrigSettings);
+         for (Entry<Path, String> fileEntry : e.getValue().entrySet()) {
+            String fileText = fileEntry.getValue();
+            ParseVendorConfigurationJob job = new ParseVendorConfigurationJob(
+                  _settings, fileText, fileEntry.getKey(), new Warnings(),
+                  ConfigurationFormat.UNKNOWN);
+            ParseVendorConfigurationResult result;
+            try {
+               result = job.call();
+            }
+            catch (Exception ex) {
+               throw new BatfishException(
+                     "Error parsing: " + fileEntry.getKey(), ex);
+            }
+            totals._files++;
+            totals._bytes += fileText.length();
+            if (result.getFailureCause() != null) {
+               totals._failed++;
+            }
+            ParseTimes parseTimes = result.getParseTimes();
+            if (parseTimes != null) {
+               totals._sllParse += parseTimes.getSllParse();
+               totals._llParse += parseTimes.getLlParse();
+               totals._extraction += parseTimes.getExtraction();
+               if (parseTimes.getLlFallback()) {
+                  totals._llFallbacks++;
+               }
+            }
+         }
+      }
+      totals._wall = System.currentTimeMillis() - startTime;
+      return totals;
+   }
+
+}
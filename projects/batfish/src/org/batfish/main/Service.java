@@ -15,8 +15,10 @@ import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.PhaseMetrics;
 import org.batfish.common.Task;
 import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.util.BatfishObjectMapper;
 
 @Path(BfConsts.SVC_BASE_RSC)
 public class Service {
@@ -30,6 +32,40 @@ public class Service {
             "Batfish service: enter ../application.wadl (relative to your URL) to see supported methods"));
    }
 
+   /**
+    * Returns the per-phase metrics of the supplied task, or of all tasks run by
+    * this worker if no task is supplied
+    */
+   @GET
+   @Path(BfConsts.SVC_GET_METRICS_RSC)
+   @Produces(MediaType.APPLICATION_JSON)
+   public JSONArray getMetrics(
+         @QueryParam(BfConsts.SVC_TASKID_KEY) String taskId) {
+      _logger.info("BFS:getMetrics " + taskId + "\n");
+      try {
+         PhaseMetrics metrics;
+         if (taskId == null || taskId.equals("")) {
+            metrics = Driver.getPhaseMetrics();
+         }
+         else {
+            Task task = Driver.getTaskFromLog(taskId);
+            if (task == null) {
+               return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY,
+                     "unknown task: " + taskId));
+            }
+            metrics = new PhaseMetrics();
+            metrics.add(task);
+         }
+         BatfishObjectMapper mapper = new BatfishObjectMapper();
+         return new JSONArray(Arrays.asList(BfConsts.SVC_SUCCESS_KEY,
+               mapper.writeValueAsString(metrics)));
+      }
+      catch (Exception e) {
+         return new JSONArray(
+               Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
+      }
+   }
+
    @GET
    @Path(BfConsts.SVC_GET_STATUS_RSC)
    @Produces(MediaType.APPLICATION_JSON)
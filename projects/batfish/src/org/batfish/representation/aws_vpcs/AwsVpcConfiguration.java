@@ -1,8 +1,13 @@
 package org.batfish.representation.aws_vpcs;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.batfish.common.BatfishLogger;
@@ -19,13 +24,81 @@ import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
 
+   /**
+    * The main route tables of a vpc, and its route tables and network acls
+    * indexed by the subnets they are associated with
+    */
+   private static class VpcIndex {
+
+      private final List<RouteTable> _mainRouteTables = new ArrayList<>();
+
+      private final Map<String, List<NetworkAcl>> _networkAcls = new HashMap<>();
+
+      private final Map<String, List<RouteTable>> _routeTables = new HashMap<>();
+
+   }
+
+   private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
    private static final long INITIAL_GENERATED_IP = new Ip("240.0.0.0")
          .asLong();
 
    private static final long serialVersionUID = 1L;
 
+   /**
+    * Reads the JSON value at the current token of the supplied parser into the
+    * form produced by parsing its text with {@link JSONObject}
+    */
+   private static Object readJsonValue(JsonParser parser)
+         throws IOException, JSONException {
+      JsonToken token = parser.getCurrentToken();
+      switch (token) {
+
+      case START_ARRAY:
+         JSONArray jsonArray = new JSONArray();
+         while (parser.nextToken() != JsonToken.END_ARRAY) {
+            jsonArray.put(readJsonValue(parser));
+         }
+         return jsonArray;
+
+      case START_OBJECT:
+         JSONObject jsonObject = new JSONObject();
+         while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            jsonObject.put(key, readJsonValue(parser));
+         }
+         return jsonObject;
+
+      case VALUE_FALSE:
+         return Boolean.FALSE;
+
+      case VALUE_NULL:
+         return JSONObject.NULL;
+
+      case VALUE_NUMBER_FLOAT:
+      case VALUE_NUMBER_INT:
+         return parser.getNumberValue();
+
+      case VALUE_STRING:
+         return parser.getText();
+
+      case VALUE_TRUE:
+         return Boolean.TRUE;
+
+      // $CASES-OMITTED$
+      default:
+         throw new JsonParseException(parser, "Unexpected token: " + token);
+      }
+   }
+
    private Map<String, Address> _addresses = new HashMap<>();
 
    private Map<String, Configuration> _configurationNodes = new HashMap<>();
@@ -54,6 +127,8 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
 
    private Map<String, VpnConnection> _vpnConnections = new HashMap<>();
 
+   private transient Map<String, VpcIndex> _vpcIndexes;
+
    private Map<String, VpnGateway> _vpnGateways = new HashMap<>();
 
    private transient Warnings _warnings;
@@ -84,6 +159,62 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
       }
    }
 
+   /**
+    * Adds the elements of the top-level arrays of the supplied JSON file one
+    * at a time as they are read, so that neither the text of the file nor a
+    * tree of the whole file is ever held in memory
+    */
+   public void addConfigElement(Reader reader, BatfishLogger logger)
+         throws IOException, JSONException {
+      JsonParser parser = JSON_FACTORY.createParser(reader);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+         throw new JsonParseException(parser,
+               "A JSONObject text must begin with '{'");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+         String key = parser.getCurrentName();
+         JsonToken valueToken = parser.nextToken();
+         if (ignoreElement(key)) {
+            parser.skipChildren();
+            continue;
+         }
+         if (valueToken != JsonToken.START_ARRAY) {
+            throw new JSONException("JSONObject[" + JSONObject.quote(key)
+                  + "] is not a JSONArray.");
+         }
+         int index = 0;
+         while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Object childObject = readJsonValue(parser);
+            if (!(childObject instanceof JSONObject)) {
+               throw new JSONException(
+                     "JSONArray[" + index + "] is not a JSONObject.");
+            }
+            addConfigElement(key, (JSONObject) childObject, logger);
+            index++;
+         }
+      }
+   }
+
+   /**
+    * Adds the elements of the supplied configuration, replacing any elements
+    * of this configuration with the same ids
+    */
+   public void addConfigElements(AwsVpcConfiguration config) {
+      _addresses.putAll(config._addresses);
+      _customerGateways.putAll(config._customerGateways);
+      _instances.putAll(config._instances);
+      _internetGateways.putAll(config._internetGateways);
+      _networkAcls.putAll(config._networkAcls);
+      _networkInterfaces.putAll(config._networkInterfaces);
+      _routeTables.putAll(config._routeTables);
+      _securityGroups.putAll(config._securityGroups);
+      _subnets.putAll(config._subnets);
+      _vpcPeerings.putAll(config._vpcPeerings);
+      _vpcs.putAll(config._vpcs);
+      _vpnConnections.putAll(config._vpnConnections);
+      _vpnGateways.putAll(config._vpnGateways);
+   }
+
    private void addConfigElement(String elementType, JSONObject jsonObject,
          BatfishLogger logger) throws JSONException {
       switch (elementType) {
@@ -161,6 +292,28 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
       return _addresses;
    }
 
+   /**
+    * Returns the network acls of the supplied vpc associated with the supplied
+    * subnet
+    */
+   public List<NetworkAcl> getAssociatedNetworkAcls(String vpcId,
+         String subnetId) {
+      VpcIndex vpcIndex = getVpcIndex(vpcId);
+      return vpcIndex._networkAcls.getOrDefault(subnetId,
+            Collections.emptyList());
+   }
+
+   /**
+    * Returns the route tables of the supplied vpc associated with the supplied
+    * subnet
+    */
+   public List<RouteTable> getAssociatedRouteTables(String vpcId,
+         String subnetId) {
+      VpcIndex vpcIndex = getVpcIndex(vpcId);
+      return vpcIndex._routeTables.getOrDefault(subnetId,
+            Collections.emptyList());
+   }
+
    public Map<String, Configuration> getConfigurationNodes() {
       return _configurationNodes;
    }
@@ -181,6 +334,13 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
       return _networkAcls;
    }
 
+   /**
+    * Returns the route tables of the supplied vpc with a main association
+    */
+   public List<RouteTable> getMainRouteTables(String vpcId) {
+      return getVpcIndex(vpcId)._mainRouteTables;
+   }
+
    public Map<String, NetworkInterface> getNetworkInterfaces() {
       return _networkInterfaces;
    }
@@ -208,6 +368,11 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
       return _vpcPeerings;
    }
 
+   private VpcIndex getVpcIndex(String vpcId) {
+      VpcIndex vpcIndex = _vpcIndexes.get(vpcId);
+      return vpcIndex != null ? vpcIndex : new VpcIndex();
+   }
+
    public Map<String, Vpc> getVpcs() {
       return _vpcs;
    }
@@ -238,8 +403,46 @@ public class AwsVpcConfiguration implements Serializable, GenericConfigObject {
       }
    }
 
+   /**
+    * Indexes the route tables and network acls of each vpc by their subnet
+    * associations, so that finding those of a subnet does not require
+    * searching all of them
+    */
+   private void indexVpcs() {
+      Map<String, VpcIndex> vpcIndexes = new HashMap<>();
+      for (RouteTable routeTable : _routeTables.values()) {
+         VpcIndex vpcIndex = vpcIndexes.computeIfAbsent(routeTable.getVpcId(),
+               v -> new VpcIndex());
+         for (RouteTableAssociation rtAssoc : routeTable.getAssociations()) {
+            String subnetId = rtAssoc.getSubnetId();
+            if (subnetId != null) {
+               vpcIndex._routeTables
+                     .computeIfAbsent(subnetId, s -> new ArrayList<>())
+                     .add(routeTable);
+            }
+            if (rtAssoc.isMain()) {
+               vpcIndex._mainRouteTables.add(routeTable);
+            }
+         }
+      }
+      for (NetworkAcl networkAcl : _networkAcls.values()) {
+         VpcIndex vpcIndex = vpcIndexes.computeIfAbsent(networkAcl.getVpcId(),
+               v -> new VpcIndex());
+         for (NetworkAclAssociation naAssoc : networkAcl.getAssociations()) {
+            String subnetId = naAssoc.getSubnetId();
+            if (subnetId != null) {
+               vpcIndex._networkAcls
+                     .computeIfAbsent(subnetId, s -> new ArrayList<>())
+                     .add(networkAcl);
+            }
+         }
+      }
+      _vpcIndexes = vpcIndexes;
+   }
+
    public Map<String, Configuration> toConfigurations(Warnings warnings) {
       _warnings = warnings;
+      indexVpcs();
 
       for (String vpcId : _vpcs.keySet()) {
          Configuration cfgNode = _vpcs.get(vpcId).toConfigurationNode(this);
@@ -2,7 +2,6 @@ package org.batfish.representation.aws_vpcs;
 
 import java.io.Serializable;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 
 import org.batfish.common.BatfishException;
@@ -36,84 +35,37 @@ public class Subnet implements AwsVpcEntity, Serializable {
       _vpcId = jObj.getString(JSON_KEY_VPC_ID);
    }
 
-   private NetworkAcl findMyNetworkAcl(Map<String, NetworkAcl> networkAcls) {
-
-      NetworkAcl myNetworkAcl = null;
-
-      for (String networkAclId : networkAcls.keySet()) {
-
-         NetworkAcl networkAcl = networkAcls.get(networkAclId);
-
-         // ignore if the route table is not for the same VPC
-         if (!networkAcl.getVpcId().equals(_vpcId)) {
-            continue;
-         }
-
-         List<NetworkAclAssociation> naAssocs = networkAcl.getAssociations();
-
-         for (NetworkAclAssociation naAssoc : naAssocs) {
-            if (_subnetId.equals(naAssoc.getSubnetId())) {
-               if (myNetworkAcl != null) {
-                  throw new BatfishException(
-                        "Found two associated network acls ("
-                              + networkAcl.getId() + ", " + myNetworkAcl.getId()
-                              + " for subnet " + _subnetId);
-               }
-
-               myNetworkAcl = networkAcl;
-            }
-         }
+   private NetworkAcl findMyNetworkAcl(
+         AwsVpcConfiguration awsVpcConfiguration) {
+      List<NetworkAcl> networkAcls = awsVpcConfiguration
+            .getAssociatedNetworkAcls(_vpcId, _subnetId);
+      if (networkAcls.size() > 1) {
+         throw new BatfishException("Found two associated network acls ("
+               + networkAcls.get(1).getId() + ", " + networkAcls.get(0).getId()
+               + " for subnet " + _subnetId);
       }
-
-      return myNetworkAcl;
+      return networkAcls.isEmpty() ? null : networkAcls.get(0);
    }
 
-   private RouteTable findMyRouteTable(Map<String, RouteTable> routeTables) {
-
-      RouteTable myRouteTable = null;
-      RouteTable mainRouteTable = null;
-
-      for (String routeTableId : routeTables.keySet()) {
-
-         RouteTable routeTable = routeTables.get(routeTableId);
-
-         // ignore if the route table is not for the same VPC
-         if (!routeTable.getVpcId().equals(_vpcId)) {
-            continue;
-         }
-
-         List<RouteTableAssociation> rtAssocs = routeTable.getAssociations();
-
-         for (RouteTableAssociation rtAssoc : rtAssocs) {
-            if (_subnetId.equals(rtAssoc.getSubnetId())) {
-               if (myRouteTable != null) {
-                  throw new BatfishException(
-                        "Found two associated route tables ("
-                              + routeTable.getId() + ", " + myRouteTable.getId()
-                              + " for subnet " + _subnetId);
-               }
-
-               myRouteTable = routeTable;
-            }
-
-            if (rtAssoc.isMain()) {
-               if (mainRouteTable != null) {
-                  throw new BatfishException("Found two main route tables ("
-                        + routeTable.getId() + ", " + mainRouteTable.getId()
-                        + " for subnet " + _subnetId);
-               }
-
-               mainRouteTable = routeTable;
-
-            }
-         }
+   private RouteTable findMyRouteTable(AwsVpcConfiguration awsVpcConfiguration) {
+      List<RouteTable> routeTables = awsVpcConfiguration
+            .getAssociatedRouteTables(_vpcId, _subnetId);
+      if (routeTables.size() > 1) {
+         throw new BatfishException("Found two associated route tables ("
+               + routeTables.get(1).getId() + ", " + routeTables.get(0).getId()
+               + " for subnet " + _subnetId);
       }
-
-      if (myRouteTable == null) {
-         myRouteTable = mainRouteTable;
+      List<RouteTable> mainRouteTables = awsVpcConfiguration
+            .getMainRouteTables(_vpcId);
+      if (mainRouteTables.size() > 1) {
+         throw new BatfishException("Found two main route tables ("
+               + mainRouteTables.get(1).getId() + ", "
+               + mainRouteTables.get(0).getId() + " for subnet " + _subnetId);
       }
-
-      return myRouteTable;
+      if (!routeTables.isEmpty()) {
+         return routeTables.get(0);
+      }
+      return mainRouteTables.isEmpty() ? null : mainRouteTables.get(0);
    }
 
    public Prefix getCidrBlock() {
@@ -255,8 +207,7 @@ public class Subnet implements AwsVpcEntity, Serializable {
       }
 
       // lets find the right route table for this subnet
-      RouteTable myRouteTable = findMyRouteTable(
-            awsVpcConfiguration.getRouteTables());
+      RouteTable myRouteTable = findMyRouteTable(awsVpcConfiguration);
 
       if (myRouteTable == null) {
          throw new BatfishException(
@@ -272,8 +223,7 @@ public class Subnet implements AwsVpcEntity, Serializable {
          }
       }
 
-      NetworkAcl myNetworkAcl = findMyNetworkAcl(
-            awsVpcConfiguration.getNetworkAcls());
+      NetworkAcl myNetworkAcl = findMyNetworkAcl(awsVpcConfiguration);
 
       if (myNetworkAcl == null) {
          throw new BatfishException(
@@ -16,9 +16,11 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
+import java.util.stream.Collectors;
 
 import org.batfish.common.BatfishException;
 import org.batfish.common.VendorConversionException;
+import org.batfish.common.Warnings;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.common.util.ReferenceCountedStructure;
 import org.batfish.datamodel.AsPathAccessList;
@@ -2816,7 +2818,8 @@ public final class CiscoConfiguration extends VendorConfiguration {
       return newRouteFilterList;
    }
 
-   private RoutingPolicy toRoutingPolicy(final Configuration c, RouteMap map) {
+   private RoutingPolicy toRoutingPolicy(final Configuration c, RouteMap map,
+         Warnings w) {
       RoutingPolicy output = new RoutingPolicy(map.getName(), c);
       List<Statement> statements = output.getStatements();
       Map<Integer, If> clauses = new HashMap<>();
@@ -2833,7 +2836,7 @@ public final class CiscoConfiguration extends VendorConfiguration {
          // match ipv4s must be disjoined with match ipv6
          Disjunction matchIpOrPrefix = new Disjunction();
          for (RouteMapMatchLine rmMatch : rmClause.getMatchList()) {
-            BooleanExpr matchExpr = rmMatch.toBooleanExpr(c, this, _w);
+            BooleanExpr matchExpr = rmMatch.toBooleanExpr(c, this, w);
             if (rmMatch instanceof RouteMapMatchIpAccessListLine
                   || rmMatch instanceof RouteMapMatchIpPrefixListLine
                   || rmMatch instanceof RouteMapMatchIpv6AccessListLine
@@ -2853,7 +2856,7 @@ public final class CiscoConfiguration extends VendorConfiguration {
          ifExpr.setGuard(conj);
          List<Statement> matchStatements = ifExpr.getTrueStatements();
          for (RouteMapSetLine rmSet : rmClause.getSetList()) {
-            rmSet.applyTo(matchStatements, this, c, _w);
+            rmSet.applyTo(matchStatements, this, c, w);
          }
          RouteMapContinue continueStatement = rmClause.getContinueLine();
          Integer continueTarget = null;
@@ -2916,13 +2919,13 @@ public final class CiscoConfiguration extends VendorConfiguration {
    }
 
    private RoutingPolicy toRoutingPolicy(Configuration c,
-         RoutePolicy routePolicy) {
+         RoutePolicy routePolicy, Warnings w) {
       String name = routePolicy.getName();
       RoutingPolicy rp = new RoutingPolicy(name, c);
       List<Statement> statements = rp.getStatements();
       for (RoutePolicyStatement routePolicyStatement : routePolicy
             .getStatements()) {
-         routePolicyStatement.applyTo(statements, this, c, _w);
+         routePolicyStatement.applyTo(statements, this, c, w);
       }
       If endPolicy = new If();
       If nonBoolean = new If();
@@ -3071,7 +3074,11 @@ public final class CiscoConfiguration extends VendorConfiguration {
          allACLs.add(eaList);
       }
       allACLs.addAll(_extendedAccessLists.values());
-      for (ExtendedAccessList eaList : allACLs) {
+      List<IpAccessList> ipaLists = allACLs.parallelStream()
+            .map(eaList -> toIpAccessList(eaList))
+            .collect(Collectors.toList());
+      for (int i = 0; i < allACLs.size(); i++) {
+         ExtendedAccessList eaList = allACLs.get(i);
          if (usedForRouting(eaList)) {
             String msg = "used for routing";
             StandardAccessList parent = eaList.getParent();
@@ -3084,7 +3091,7 @@ public final class CiscoConfiguration extends VendorConfiguration {
             RouteFilterList rfList = toRouteFilterList(eaList);
             c.getRouteFilterLists().put(rfList.getName(), rfList);
          }
-         IpAccessList ipaList = toIpAccessList(eaList);
+         IpAccessList ipaList = ipaLists.get(i);
          c.getIpAccessLists().put(ipaList.getName(), ipaList);
       }
 
@@ -3097,7 +3104,11 @@ public final class CiscoConfiguration extends VendorConfiguration {
          allIpv6ACLs.add(eaList);
       }
       allIpv6ACLs.addAll(_extendedIpv6AccessLists.values());
-      for (ExtendedIpv6AccessList eaList : allIpv6ACLs) {
+      List<Ip6AccessList> ip6aLists = allIpv6ACLs.parallelStream()
+            .map(eaList -> toIp6AccessList(eaList))
+            .collect(Collectors.toList());
+      for (int i = 0; i < allIpv6ACLs.size(); i++) {
+         ExtendedIpv6AccessList eaList = allIpv6ACLs.get(i);
          if (usedForRouting(eaList)) {
             String msg = "used for routing";
             StandardIpv6AccessList parent = eaList.getParent();
@@ -3110,22 +3121,27 @@ public final class CiscoConfiguration extends VendorConfiguration {
             Route6FilterList rfList = toRoute6FilterList(eaList);
             c.getRoute6FilterLists().put(rfList.getName(), rfList);
          }
-         Ip6AccessList ipaList = toIp6AccessList(eaList);
+         Ip6AccessList ipaList = ip6aLists.get(i);
          c.getIp6AccessLists().put(ipaList.getName(), ipaList);
       }
 
       // convert route maps to policy maps
       Set<RouteMap> routingRouteMaps = getRoutingRouteMaps();
-      for (RouteMap map : _routeMaps.values()) {
-         convertForPurpose(routingRouteMaps, map);
-         // convert route maps to RoutingPolicy objects
-         RoutingPolicy newPolicy = toRoutingPolicy(c, map);
+      List<RoutingPolicy> newPolicies = convertConcurrently(
+            _routeMaps.values(), (map, w) -> {
+               convertForPurpose(routingRouteMaps, map);
+               // convert route maps to RoutingPolicy objects
+               return toRoutingPolicy(c, map, w);
+            });
+      for (RoutingPolicy newPolicy : newPolicies) {
          c.getRoutingPolicies().put(newPolicy.getName(), newPolicy);
       }
 
       // convert RoutePolicy to RoutingPolicy
-      for (RoutePolicy routePolicy : _routePolicies.values()) {
-         RoutingPolicy routingPolicy = toRoutingPolicy(c, routePolicy);
+      List<RoutingPolicy> routingPolicies = convertConcurrently(
+            _routePolicies.values(),
+            (routePolicy, w) -> toRoutingPolicy(c, routePolicy, w));
+      for (RoutingPolicy routingPolicy : routingPolicies) {
          c.getRoutingPolicies().put(routingPolicy.getName(), routingPolicy);
       }
 
@@ -13,9 +13,11 @@ import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.batfish.common.BatfishException;
 import org.batfish.common.VendorConversionException;
+import org.batfish.common.Warnings;
 import org.batfish.datamodel.BgpNeighbor;
 import org.batfish.datamodel.BgpProcess;
 import org.batfish.datamodel.Configuration;
@@ -1166,7 +1168,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
       return newIface;
    }
 
-   private IpAccessList toIpAccessList(FirewallFilter filter)
+   private IpAccessList toIpAccessList(FirewallFilter filter, Warnings w)
          throws VendorConversionException {
       String name = filter.getName();
       List<IpAccessListLine> lines = new ArrayList<>();
@@ -1188,7 +1190,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
             action = LineAction.ACCEPT;
          }
          else {
-            _w.redFlag("missing action in firewall filter: '" + name
+            w.redFlag("missing action in firewall filter: '" + name
                   + "', term: '" + term.getName() + "'");
             action = LineAction.REJECT;
          }
@@ -1196,19 +1198,19 @@ public final class JuniperConfiguration extends VendorConfiguration {
          line.setName(term.getName());
          line.setAction(action);
          for (FwFrom from : term.getFroms()) {
-            from.applyTo(line, this, _w, _c);
+            from.applyTo(line, this, w, _c);
          }
          boolean addLine = term.getFromApplications().isEmpty()
                && term.getFromHostProtocols().isEmpty()
                && term.getFromHostServices().isEmpty();
          for (FwFromHostProtocol from : term.getFromHostProtocols()) {
-            from.applyTo(lines, _w);
+            from.applyTo(lines, w);
          }
          for (FwFromHostService from : term.getFromHostServices()) {
-            from.applyTo(lines, _w);
+            from.applyTo(lines, w);
          }
          for (FwFromApplication fromApplication : term.getFromApplications()) {
-            fromApplication.applyTo(line, lines, _w);
+            fromApplication.applyTo(line, lines, w);
          }
          if (addLine) {
             lines.add(line);
@@ -1417,7 +1419,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
       return routingPolicy;
    }
 
-   private RoutingPolicy toRoutingPolicy(PolicyStatement ps) {
+   private RoutingPolicy toRoutingPolicy(PolicyStatement ps, Warnings w) {
       String name = ps.getName();
       RoutingPolicy routingPolicy = new RoutingPolicy(name, _c);
       List<Statement> statements = routingPolicy.getStatements();
@@ -1429,7 +1431,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
          terms.add(ps.getDefaultTerm());
       }
       for (PsTerm term : terms) {
-         List<Statement> thens = toStatements(term.getThens());
+         List<Statement> thens = toStatements(term.getThens(), w);
          if (!term.getFroms().isEmpty()) {
             If ifStatement = new If();
             ifStatement.setComment(term.getName());
@@ -1449,8 +1451,11 @@ public final class JuniperConfiguration extends VendorConfiguration {
                               lineListName);
                         line.applyTo(lineSpecificList);
                         actionLineCounter++;
-                        _c.getRouteFilterLists().put(lineListName,
-                              lineSpecificList);
+                        // policy statements are converted concurrently
+                        synchronized (_c.getRouteFilterLists()) {
+                           _c.getRouteFilterLists().put(lineListName,
+                                 lineSpecificList);
+                        }
                         If lineSpecificIfStatement = new If();
                         String lineSpecificClauseName = routeFilterName
                               + "_ACTION_LINE_" + actionLineCounter;
@@ -1461,12 +1466,12 @@ public final class JuniperConfiguration extends VendorConfiguration {
                               new NamedPrefixSet(lineListName));
                         lineSpecificIfStatement.setGuard(mrf);
                         lineSpecificIfStatement.getTrueStatements()
-                              .addAll(toStatements(line.getThens()));
+                              .addAll(toStatements(line.getThens(), w));
                         statements.add(lineSpecificIfStatement);
                      }
                   }
                }
-               BooleanExpr booleanExpr = from.toBooleanExpr(this, _c, _w);
+               BooleanExpr booleanExpr = from.toBooleanExpr(this, _c, w);
                if (from instanceof PsFromPolicyStatement
                      || from instanceof PsFromPolicyStatementConjunction) {
                   subroutines.add(booleanExpr);
@@ -1496,7 +1501,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
       return routingPolicy;
    }
 
-   private List<Statement> toStatements(Set<PsThen> thens) {
+   private List<Statement> toStatements(Set<PsThen> thens, Warnings w) {
       List<Statement> thenStatements = new ArrayList<>();
       List<PsThen> reorderedThens = new LinkedList<>();
       for (PsThen then : thens) {
@@ -1511,7 +1516,7 @@ public final class JuniperConfiguration extends VendorConfiguration {
          }
       }
       for (PsThen then : reorderedThens) {
-         then.applyTo(thenStatements, this, _c, _w);
+         then.applyTo(thenStatements, this, _c, w);
       }
       return thenStatements;
    }
@@ -1594,6 +1599,8 @@ public final class JuniperConfiguration extends VendorConfiguration {
       }
 
       // convert firewall filters to ipaccesslists
+      List<String> inetFilterNames = new ArrayList<>();
+      List<FirewallFilter> inetFilters = new ArrayList<>();
       for (Entry<String, FirewallFilter> e : _filters.entrySet()) {
          String name = e.getKey();
          FirewallFilter filter = e.getValue();
@@ -1601,8 +1608,13 @@ public final class JuniperConfiguration extends VendorConfiguration {
          if (filter.getFamily() != Family.INET) {
             continue;
          }
-         IpAccessList list = toIpAccessList(filter);
-         _c.getIpAccessLists().put(name, list);
+         inetFilterNames.add(name);
+         inetFilters.add(filter);
+      }
+      List<IpAccessList> lists = convertConcurrently(inetFilters,
+            this::toIpAccessList);
+      for (int i = 0; i < lists.size(); i++) {
+         _c.getIpAccessLists().put(inetFilterNames.get(i), lists.get(i));
       }
 
       // convert firewall filters implementing routing policy to RoutingPolicy
@@ -1652,12 +1664,26 @@ public final class JuniperConfiguration extends VendorConfiguration {
          _c.getCommunityLists().put(name, newCl);
       }
 
+      // create the route filter lists shared among policy-statements in
+      // order, so that they do not depend on conversion scheduling
+      for (PolicyStatement ps : _policyStatements.values()) {
+         List<PsTerm> terms = new ArrayList<>(ps.getTerms().values());
+         terms.add(ps.getDefaultTerm());
+         for (PsTerm term : terms) {
+            for (PsFrom from : term.getFroms()) {
+               from.createDerivedRouteFilterLists(this, _c, _w);
+            }
+         }
+      }
+
       // convert policy-statements to RoutingPolicy objects
-      for (Entry<String, PolicyStatement> e : _policyStatements.entrySet()) {
-         String name = e.getKey();
-         PolicyStatement ps = e.getValue();
-         RoutingPolicy routingPolicy = toRoutingPolicy(ps);
-         _c.getRoutingPolicies().put(name, routingPolicy);
+      List<String> policyStatementNames = new ArrayList<>(
+            _policyStatements.keySet());
+      List<RoutingPolicy> routingPolicies = convertConcurrently(
+            _policyStatements.values(), this::toRoutingPolicy);
+      for (int i = 0; i < routingPolicies.size(); i++) {
+         _c.getRoutingPolicies().put(policyStatementNames.get(i),
+               routingPolicies.get(i));
       }
 
       // convert interfaces
@@ -1743,9 +1769,16 @@ public final class JuniperConfiguration extends VendorConfiguration {
       }
 
       // zones
-      for (Zone zone : _zones.values()) {
-         org.batfish.datamodel.Zone newZone = toZone(zone);
+      List<Zone> zones = new ArrayList<>(_zones.values());
+      List<org.batfish.datamodel.Zone> newZones = zones.parallelStream()
+            .map(this::toZone).collect(Collectors.toList());
+      for (int i = 0; i < zones.size(); i++) {
+         Zone zone = zones.get(i);
+         org.batfish.datamodel.Zone newZone = newZones.get(i);
          _c.getZones().put(zone.getName(), newZone);
+         for (Interface iface : zone.getInterfaces()) {
+            _c.getInterfaces().get(iface.getName()).setZone(newZone);
+         }
       }
 
       // default zone behavior
@@ -1937,7 +1970,6 @@ public final class JuniperConfiguration extends VendorConfiguration {
          String ifaceName = iface.getName();
          org.batfish.datamodel.Interface newIface = _c.getInterfaces()
                .get(ifaceName);
-         newIface.setZone(newZone);
          FirewallFilter inboundInterfaceFilter = zone
                .getInboundInterfaceFilters().get(iface);
          IpAccessList inboundInterfaceFilterList;
@@ -13,6 +13,16 @@ public abstract class PsFrom implements Serializable {
     */
    private static final long serialVersionUID = 1L;
 
+   /**
+    * Adds any route filter lists derived from the structures this condition
+    * refers to. Called for each policy statement in order before the policy
+    * statements are converted concurrently, so that the derived lists and
+    * their warnings do not depend on the order in which conversions finish.
+    */
+   public void createDerivedRouteFilterLists(JuniperConfiguration jc,
+         Configuration c, Warnings warnings) {
+   }
+
    public abstract BooleanExpr toBooleanExpr(JuniperConfiguration jc,
          Configuration c, Warnings warnings);
 
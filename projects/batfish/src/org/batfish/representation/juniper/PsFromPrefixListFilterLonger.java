@@ -26,6 +26,41 @@ public final class PsFromPrefixListFilterLonger extends PsFrom {
       _prefixList = prefixList;
    }
 
+   @Override
+   public void createDerivedRouteFilterLists(JuniperConfiguration jc,
+         Configuration c, Warnings warnings) {
+      PrefixList pl = jc.getPrefixLists().get(_prefixList);
+      if (pl == null || pl.getIpv6()) {
+         return;
+      }
+      String longerListName = longerListName();
+      RouteFilterList rf = c.getRouteFilterLists().get(_prefixList);
+      RouteFilterList longerList = c.getRouteFilterLists().get(longerListName);
+      if (longerList == null) {
+         longerList = new RouteFilterList(longerListName);
+         for (RouteFilterLine line : rf.getLines()) {
+            Prefix prefix = line.getPrefix();
+            LineAction action = line.getAction();
+            SubRange longerLineRange = new SubRange(
+                  line.getLengthRange().getStart() + 1, 32);
+            if (longerLineRange.getStart() > 32) {
+               warnings.redFlag("'prefix-list-filter " + _prefixList
+                     + " longer' cannot match more specific prefix than "
+                     + prefix.toString());
+               continue;
+            }
+            RouteFilterLine orLongerLine = new RouteFilterLine(action,
+                  prefix, longerLineRange);
+            longerList.addLine(orLongerLine);
+            c.getRouteFilterLists().put(longerListName, longerList);
+         }
+      }
+   }
+
+   private String longerListName() {
+      return "~" + _prefixList + "~LONGER~";
+   }
+
    @Override
    public BooleanExpr toBooleanExpr(JuniperConfiguration jc, Configuration c,
          Warnings warnings) {
@@ -35,31 +70,9 @@ public final class PsFromPrefixListFilterLonger extends PsFrom {
          if (pl.getIpv6()) {
             return BooleanExprs.False.toStaticBooleanExpr();
          }
-         RouteFilterList rf = c.getRouteFilterLists().get(_prefixList);
-         String longerListName = "~" + _prefixList + "~LONGER~";
-         RouteFilterList longerList = c.getRouteFilterLists()
-               .get(longerListName);
-         if (longerList == null) {
-            longerList = new RouteFilterList(longerListName);
-            for (RouteFilterLine line : rf.getLines()) {
-               Prefix prefix = line.getPrefix();
-               LineAction action = line.getAction();
-               SubRange longerLineRange = new SubRange(
-                     line.getLengthRange().getStart() + 1, 32);
-               if (longerLineRange.getStart() > 32) {
-                  warnings.redFlag("'prefix-list-filter " + _prefixList
-                        + " longer' cannot match more specific prefix than "
-                        + prefix.toString());
-                  continue;
-               }
-               RouteFilterLine orLongerLine = new RouteFilterLine(action,
-                     prefix, longerLineRange);
-               longerList.addLine(orLongerLine);
-               c.getRouteFilterLists().put(longerListName, longerList);
-            }
-         }
+         // the list itself is created by createDerivedRouteFilterLists
          return new MatchPrefixSet(new DestinationNetwork(),
-               new NamedPrefixSet(longerListName));
+               new NamedPrefixSet(longerListName()));
       }
       else {
          warnings.redFlag(
@@ -67,4 +80,5 @@ public final class PsFromPrefixListFilterLonger extends PsFrom {
          return BooleanExprs.False.toStaticBooleanExpr();
       }
    }
+
 }
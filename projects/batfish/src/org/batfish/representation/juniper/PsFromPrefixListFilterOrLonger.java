@@ -26,6 +26,36 @@ public final class PsFromPrefixListFilterOrLonger extends PsFrom {
       _prefixList = prefixList;
    }
 
+   @Override
+   public void createDerivedRouteFilterLists(JuniperConfiguration jc,
+         Configuration c, Warnings warnings) {
+      PrefixList pl = jc.getPrefixLists().get(_prefixList);
+      if (pl == null || pl.getIpv6()) {
+         return;
+      }
+      String orLongerListName = orLongerListName();
+      RouteFilterList rf = c.getRouteFilterLists().get(_prefixList);
+      RouteFilterList orLongerList = c.getRouteFilterLists()
+            .get(orLongerListName);
+      if (orLongerList == null) {
+         orLongerList = new RouteFilterList(orLongerListName);
+         for (RouteFilterLine line : rf.getLines()) {
+            Prefix prefix = line.getPrefix();
+            LineAction action = line.getAction();
+            SubRange orLongerLineRange = new SubRange(
+                  line.getLengthRange().getStart(), 32);
+            RouteFilterLine orLongerLine = new RouteFilterLine(action,
+                  prefix, orLongerLineRange);
+            orLongerList.addLine(orLongerLine);
+            c.getRouteFilterLists().put(orLongerListName, orLongerList);
+         }
+      }
+   }
+
+   private String orLongerListName() {
+      return "~" + _prefixList + "~ORLONGER~";
+   }
+
    @Override
    public BooleanExpr toBooleanExpr(JuniperConfiguration jc, Configuration c,
          Warnings warnings) {
@@ -35,25 +65,9 @@ public final class PsFromPrefixListFilterOrLonger extends PsFrom {
          if (pl.getIpv6()) {
             return BooleanExprs.False.toStaticBooleanExpr();
          }
-         RouteFilterList rf = c.getRouteFilterLists().get(_prefixList);
-         String orLongerListName = "~" + _prefixList + "~ORLONGER~";
-         RouteFilterList orLongerList = c.getRouteFilterLists()
-               .get(orLongerListName);
-         if (orLongerList == null) {
-            orLongerList = new RouteFilterList(orLongerListName);
-            for (RouteFilterLine line : rf.getLines()) {
-               Prefix prefix = line.getPrefix();
-               LineAction action = line.getAction();
-               SubRange orLongerLineRange = new SubRange(
-                     line.getLengthRange().getStart(), 32);
-               RouteFilterLine orLongerLine = new RouteFilterLine(action,
-                     prefix, orLongerLineRange);
-               orLongerList.addLine(orLongerLine);
-               c.getRouteFilterLists().put(orLongerListName, orLongerList);
-            }
-         }
+         // the list itself is created by createDerivedRouteFilterLists
          return new MatchPrefixSet(new DestinationNetwork(),
-               new NamedPrefixSet(orLongerListName));
+               new NamedPrefixSet(orLongerListName()));
       }
       else {
          warnings.redFlag(
@@ -61,4 +75,5 @@ public final class PsFromPrefixListFilterOrLonger extends PsFrom {
          return BooleanExprs.False.toStaticBooleanExpr();
       }
    }
+
 }
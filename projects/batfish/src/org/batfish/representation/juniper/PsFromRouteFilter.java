@@ -34,7 +34,11 @@ public final class PsFromRouteFilter extends PsFrom {
    @Override
    public BooleanExpr toBooleanExpr(JuniperConfiguration jc, Configuration c,
          Warnings warnings) {
-      RouteFilterList rfl = c.getRouteFilterLists().get(_routeFilterName);
+      RouteFilterList rfl;
+      // policy statements are converted concurrently
+      synchronized (c.getRouteFilterLists()) {
+         rfl = c.getRouteFilterLists().get(_routeFilterName);
+      }
       Route6FilterList rfl6 = c.getRoute6FilterLists().get(_routeFilterName);
       BooleanExpr match4 = null;
       BooleanExpr match6 = null;
@@ -0,0 +1,133 @@
+package org.batfish.z3;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.batfish.common.BatfishException;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.job.BatfishJob;
+import org.batfish.z3.node.BooleanExpr;
+
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Solver;
+import com.microsoft.z3.Status;
+import com.microsoft.z3.Z3Exception;
+
+/**
+ * Determines which lines of an acl are reachable, and for each unreachable
+ * line the earliest reachable line whose header space contains that of the
+ * unreachable line, using a single incremental solver. The header space of
+ * each line is asserted once, guarded by assumption literals, so that every
+ * query is answered from the same solver state as lines are added.
+ */
+public class AclReachabilityJob extends BatfishJob<NodSatResult<AclLine>> {
+
+   private final IpAccessList _acl;
+
+   private final String _aclName;
+
+   private final String _hostname;
+
+   private final boolean _simplify;
+
+   public AclReachabilityJob(Settings settings, String hostname,
+         String aclName, IpAccessList acl) {
+      super(settings);
+      _hostname = hostname;
+      _aclName = aclName;
+      _acl = acl;
+      _simplify = settings.getSimplify();
+   }
+
+   @Override
+   public NodSatResult<AclLine> call() throws Exception {
+      Map<AclLine, Boolean> results = new LinkedHashMap<>();
+      long startTime = System.currentTimeMillis();
+      long elapsedTime;
+      try (Context ctx = new Context()) {
+         NodProgram program = Synthesizer.synthesizeNodSolverProgram(ctx);
+         Solver solver = ctx.mkSolver();
+         solver.add(toBoolExpr(Synthesizer.getSaneExpr(), program));
+         List<IpAccessListLine> lines = _acl.getLines();
+         int numLines = lines.size();
+         // packet matches line i
+         BoolExpr[] match = new BoolExpr[numLines];
+         // packet does not match line i
+         BoolExpr[] noMatch = new BoolExpr[numLines];
+         // packet matches none of the lines before line i
+         BoolExpr[] noPriorMatch = new BoolExpr[numLines];
+         List<Integer> reachableLines = new ArrayList<>();
+         for (int i = 0; i < numLines; i++) {
+            BoolExpr matchHeaderSpace = toBoolExpr(
+                  Synthesizer.matchHeaderSpace(lines.get(i)), program);
+            match[i] = ctx.mkBoolConst("match_" + i);
+            noMatch[i] = ctx.mkBoolConst("no_match_" + i);
+            noPriorMatch[i] = ctx.mkBoolConst("no_prior_match_" + i);
+            solver.add(ctx.mkImplies(match[i], matchHeaderSpace));
+            solver.add(ctx.mkImplies(noMatch[i], ctx.mkNot(matchHeaderSpace)));
+            if (i > 0) {
+               solver.add(ctx.mkImplies(noPriorMatch[i],
+                     ctx.mkAnd(noPriorMatch[i - 1], noMatch[i - 1])));
+            }
+            AclLine aclLine = new AclLine(_hostname, _aclName, i);
+            boolean reachable = isSat(solver, noPriorMatch[i], match[i]);
+            if (reachable) {
+               reachableLines.add(i);
+            }
+            else {
+               for (int earlierLine : reachableLines) {
+                  if (!isSat(solver, match[i], noMatch[earlierLine])) {
+                     aclLine.setEarliestMoreGeneralReachableLine(earlierLine);
+                     break;
+                  }
+               }
+            }
+            results.put(aclLine, reachable);
+         }
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodSatResult<>(results, _logger.getHistory(), elapsedTime);
+      }
+      catch (BatfishException e) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodSatResult<>(elapsedTime, _logger.getHistory(), e);
+      }
+      catch (Z3Exception e) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodSatResult<>(elapsedTime, _logger.getHistory(),
+               new BatfishException("Error running acl reachability query",
+                     e));
+      }
+   }
+
+   private boolean isSat(Solver solver, BoolExpr... assumptions) {
+      Status status = solver.check(assumptions);
+      switch (status) {
+      case SATISFIABLE:
+         return true;
+
+      case UNSATISFIABLE:
+         return false;
+
+      case UNKNOWN:
+         throw new BatfishException("Query satisfiability unknown");
+
+      default:
+         throw new BatfishException("invalid status");
+      }
+   }
+
+   private BoolExpr toBoolExpr(BooleanExpr expr, NodProgram program) {
+      if (_simplify) {
+         return expr.simplify().toBoolExpr(program);
+      }
+      else {
+         return expr.toBoolExpr(program);
+      }
+   }
+
+}
@@ -2327,6 +2327,15 @@ public class Synthesizer {
    private List<Statement> getSane() {
       List<Statement> statements = new ArrayList<>();
       statements.add(new Comment("Make sure packet fields make sense"));
+      RuleExpr rule = new RuleExpr(getSaneExpr(), SaneExpr.INSTANCE);
+      statements.add(rule);
+      return statements;
+   }
+
+   /**
+    * Returns the condition under which the fields of a packet make sense
+    */
+   public static BooleanExpr getSaneExpr() {
       AndExpr noPortNumbers = new AndExpr();
       EqExpr noDstPort = new EqExpr(new VarIntExpr(DST_PORT_VAR),
             new LitIntExpr(0, PORT_BITS));
@@ -2385,9 +2394,7 @@ public class Synthesizer {
       isSane.addDisjunct(tcp);
       isSane.addDisjunct(udp);
       isSane.addDisjunct(otherIp);
-      RuleExpr rule = new RuleExpr(isSane, SaneExpr.INSTANCE);
-      statements.add(rule);
-      return statements;
+      return isSane;
    }
 
    private List<Statement> getToNeighborsRules() {
@@ -2449,18 +2456,6 @@ public class Synthesizer {
       }
    }
 
-   public NodProgram synthesizeNodAclProgram(String hostname, String aclName,
-         Context ctx) throws Z3Exception {
-
-      List<Statement> ruleStatements = new ArrayList<>();
-      List<Statement> sane = getSane();
-      List<Statement> matchAclRules = getMatchAclRules(hostname, aclName);
-
-      ruleStatements.addAll(sane);
-      ruleStatements.addAll(matchAclRules);
-      return synthesizeNodProgram(ctx, ruleStatements);
-   }
-
    public NodProgram synthesizeNodDataPlaneProgram(Context ctx)
          throws Z3Exception {
       List<Statement> ruleStatements = new ArrayList<>();
@@ -2558,4 +2553,22 @@ public class Synthesizer {
       return nodProgram;
    }
 
+   /**
+    * Returns an empty program whose packet variables are constants rather than
+    * bound variables, so that expressions over them may be asserted directly
+    * in a solver instead of in the rules of a fixedpoint
+    */
+   public static NodProgram synthesizeNodSolverProgram(Context ctx) {
+      NodProgram nodProgram = new NodProgram(ctx);
+      for (Entry<String, Integer> e : PACKET_VAR_SIZES.entrySet()) {
+         String var = e.getKey();
+         int size = e.getValue();
+         BitVecExpr varAsConstExpr = (BitVecExpr) ctx.mkConst(var,
+               ctx.mkBitVecSort(size));
+         nodProgram.getVariables().put(var, varAsConstExpr);
+         nodProgram.getVariablesAsConsts().put(var, varAsConstExpr);
+      }
+      return nodProgram;
+   }
+
 }
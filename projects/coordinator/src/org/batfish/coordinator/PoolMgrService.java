@@ -2,19 +2,24 @@ package org.batfish.coordinator;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.common.*;
+import org.batfish.common.util.BatfishObjectMapper;
 
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.UUID;
 
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
@@ -52,6 +57,41 @@ public class PoolMgrService {
       }
    }
 
+   /**
+    * Called by a worker when it finishes a task, so that the coordinator need
+    * not wait for its next poll of the worker to learn about it
+    */
+   @POST
+   @Path(CoordConsts.SVC_RSC_POOL_TASK_DONE)
+   @Consumes(MediaType.APPLICATION_JSON)
+   @Produces(MediaType.APPLICATION_JSON)
+   public JSONArray taskDone(
+         @QueryParam(CoordConsts.SVC_KEY_WORKER) String worker,
+         @QueryParam(CoordConsts.SVC_KEY_WORKID) String workId,
+         String taskStr) {
+      try {
+         _logger.info("PMS:taskDone " + workId + " on " + worker + "\n");
+
+         if (worker == null || workId == null || taskStr == null) {
+            return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE,
+                  "worker, work id, and task must all be supplied"));
+         }
+
+         BatfishObjectMapper mapper = new BatfishObjectMapper();
+         Task task = mapper.readValue(taskStr, Task.class);
+         Main.getWorkMgr().processTaskDone(worker, UUID.fromString(workId),
+               task);
+      }
+      catch (Exception e) {
+         String stackTrace = ExceptionUtils.getFullStackTrace(e);
+         _logger.error("PMS:taskDone exception: " + stackTrace);
+         return new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+      }
+
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, "done"));
+   }
+
    // functions for pool management
    @GET
    @Path(CoordConsts.SVC_RSC_POOL_UPDATE)
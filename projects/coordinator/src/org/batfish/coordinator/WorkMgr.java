@@ -21,8 +21,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
@@ -37,6 +39,7 @@ import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.PhaseMetrics;
 import org.batfish.common.Task;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
@@ -92,11 +95,17 @@ public class WorkMgr {
 
    private final Settings _settings;
 
+   /**
+    * Runs the follow-up of tasks pushed as done by workers, one at a time
+    */
+   private final ExecutorService _taskDoneExecutor;
+
    private WorkQueueMgr _workQueueMgr;
 
    public WorkMgr(Settings settings, BatfishLogger logger) {
       _settings = settings;
       _logger = logger;
+      _taskDoneExecutor = Executors.newSingleThreadExecutor();
       _workQueueMgr = new WorkQueueMgr();
    }
 
@@ -535,7 +544,11 @@ public class WorkMgr {
       return CommonUtil.readFile(qFile);
    }
 
-   public String getAnswer(String containerName, String baseTestrig,
+   /**
+    * Returns the file holding the stored answer to a question. The file may
+    * be missing or stale; see {@link #getAnswerStatus}.
+    */
+   public File getAnswerFile(String containerName, String baseTestrig,
          String baseEnv, String deltaTestrig, String deltaEnv,
          String questionName, boolean pretty) throws FileNotFoundException {
 
@@ -560,23 +573,28 @@ public class WorkMgr {
       String answerFilename = pretty ? BfConsts.RELPATH_ANSWER_PRETTY_JSON
             : BfConsts.RELPATH_ANSWER_JSON;
 
-      File answerFile = answerDir.resolve(answerFilename).toFile();
-
-      String answer = "unknown";
+      return answerDir.resolve(answerFilename).toFile();
+   }
 
+   /**
+    * Returns a message explaining why the supplied answer file cannot be
+    * served, or null if it holds a fresh answer to the question
+    */
+   public String getAnswerStatus(String containerName, String baseTestrig,
+         String questionName, File answerFile) throws FileNotFoundException {
+      File questionFile = Paths
+            .get(getdirTestrigQuestion(containerName, baseTestrig, questionName)
+                  .getAbsolutePath(), BfConsts.RELPATH_QUESTION_FILE)
+            .toFile();
       if (!answerFile.exists()) {
-         answer = "Not answered";
+         return "Not answered";
+      }
+      else if (questionFile.lastModified() > answerFile.lastModified()) {
+         return "Not fresh";
       }
       else {
-         if (questionFile.lastModified() > answerFile.lastModified()) {
-            answer = "Not fresh";
-         }
-         else {
-            answer = CommonUtil.readFile(answerFile.toPath());
-         }
+         return null;
       }
-
-      return answer;
    }
 
    private File getdirAnalysisQuestion(String containerName,
@@ -664,6 +682,10 @@ public class WorkMgr {
       return qDir;
    }
 
+   public PhaseMetrics getPhaseMetrics() {
+      return _workQueueMgr.getPhaseMetrics();
+   }
+
    public JSONObject getStatusJson() throws JSONException {
       return _workQueueMgr.getStatusJson();
    }
@@ -924,6 +946,41 @@ public class WorkMgr {
       }
    }
 
+   /**
+    * Records the final status of a task pushed by the worker that ran it, so
+    * that clients waiting on the work are released without waiting for the
+    * next periodic check.
+    */
+   public void processTaskDone(String worker, UUID workId, Task task) {
+      QueuedWork work = _workQueueMgr.getWork(workId);
+      if (work == null) {
+         _logger.errorf("WM:processTaskDone: unknown work %s from %s\n",
+               workId, worker);
+         return;
+      }
+      if (!worker.equals(work.getAssignedWorker())) {
+         _logger.errorf(
+               "WM:processTaskDone: work %s is not assigned to %s; ignoring\n",
+               workId, worker);
+         return;
+      }
+      if (task.getStatus() != TaskStatus.TerminatedAbnormally
+            && task.getStatus() != TaskStatus.TerminatedNormally) {
+         _logger.errorf("WM:processTaskDone: unexpected status %s for %s\n",
+               task.getStatus(), workId);
+         return;
+      }
+
+      _workQueueMgr.processTaskCheckResult(work, task);
+
+      // the worker is idle again; pick up its status and hand it the next
+      // piece of work without waiting for the periodic tasks
+      _taskDoneExecutor.execute(() -> {
+         Main.getPoolMgr().refreshWorkerStatus(worker);
+         assignWork();
+      });
+   }
+
    public void putObject(String containerName, String testrigName,
          String objectName, InputStream fileStream) throws Exception {
 
@@ -1006,6 +1063,18 @@ public class WorkMgr {
 
    }
 
+   /**
+    * Calls the supplied listener with the given work once it terminates, or
+    * after the smaller of waitMs and the configured maximum wait. Returns
+    * immediately; the listener is called on a coordinator thread.
+    */
+   public void waitForWork(UUID workItemId, long waitMs,
+         Consumer<QueuedWork> listener) {
+      long boundedWaitMs = Math.min(Math.max(waitMs, 0),
+            _settings.getMaxWorkWaitMs());
+      _workQueueMgr.onTermination(workItemId, boundedWaitMs, listener);
+   }
+
    public void uploadEnvironment(String containerName, String testrigName,
          String envName, InputStream fileStream) throws Exception {
 
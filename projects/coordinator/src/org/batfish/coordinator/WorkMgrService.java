@@ -6,23 +6,34 @@ import org.batfish.common.*;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.coordinator.config.Settings;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.AccessControlException;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.UUID;
 import java.util.zip.ZipException;
 
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
 import org.glassfish.jersey.media.multipart.FormDataParam;
@@ -497,7 +508,7 @@ public class WorkMgrService {
    @POST
    @Path(CoordConsts.SVC_RSC_GET_ANSWER)
    @Produces(MediaType.APPLICATION_JSON)
-   public JSONArray getAnswer(
+   public Response getAnswer(
          @FormDataParam(CoordConsts.SVC_KEY_API_KEY) String apiKey,
          @FormDataParam(CoordConsts.SVC_KEY_VERSION) String clientVersion,
          @FormDataParam(CoordConsts.SVC_KEY_CONTAINER_NAME) String containerName,
@@ -524,23 +535,34 @@ public class WorkMgrService {
          checkClientVersion(clientVersion);
          checkContainerAccessibility(apiKey, containerName);
 
-         String answer = Main.getWorkMgr().getAnswer(containerName, testrigName,
-               baseEnv, deltaTestrig, deltaEnv, questionName, pretty);
+         File answerFile = Main.getWorkMgr().getAnswerFile(containerName,
+               testrigName, baseEnv, deltaTestrig, deltaEnv, questionName,
+               pretty);
+         String answerStatus = Main.getWorkMgr().getAnswerStatus(
+               containerName, testrigName, questionName, answerFile);
+         if (answerStatus != null) {
+            return Response.ok(new JSONArray(Arrays.asList(
+                  CoordConsts.SVC_KEY_SUCCESS,
+                  new JSONObject().put(CoordConsts.SVC_KEY_ANSWER,
+                        answerStatus))))
+                  .build();
+         }
 
-         return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS,
-               new JSONObject().put(CoordConsts.SVC_KEY_ANSWER, answer)));
+         return Response.ok(streamAnswer(answerFile)).build();
       }
       catch (FileExistsException | FileNotFoundException
             | IllegalArgumentException | AccessControlException e) {
          _logger.error("WMS:getAnswer exception: " + e.getMessage() + "\n");
-         return new JSONArray(
-               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+         return Response.ok(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())))
+               .build();
       }
       catch (Exception e) {
          String stackTrace = ExceptionUtils.getFullStackTrace(e);
          _logger.error("WMS:getAnswer exception: " + stackTrace);
-         return new JSONArray(
-               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+         return Response.ok(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())))
+               .build();
       }
    }
 
@@ -623,6 +645,31 @@ public class WorkMgrService {
       }
    }
 
+   /**
+    * Returns the per-phase metrics of all work completed by the workers
+    *
+    * @return
+    */
+   @GET
+   @Path(CoordConsts.SVC_RSC_GET_METRICS)
+   @Produces(MediaType.APPLICATION_JSON)
+   public JSONArray getMetrics() {
+      try {
+         _logger.info("WMS:getMetrics\n");
+         BatfishObjectMapper mapper = new BatfishObjectMapper();
+         String metricsStr = mapper
+               .writeValueAsString(Main.getWorkMgr().getPhaseMetrics());
+         return new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, metricsStr));
+      }
+      catch (Exception e) {
+         String stackTrace = ExceptionUtils.getFullStackTrace(e);
+         _logger.error("WMS:getMetrics exception: " + stackTrace);
+         return new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+      }
+   }
+
    @GET
    @Path(CoordConsts.SVC_RSC_GETSTATUS)
    @Produces(MediaType.APPLICATION_JSON)
@@ -676,15 +723,7 @@ public class WorkMgrService {
          checkContainerAccessibility(apiKey,
                work.getWorkItem().getContainerName());
 
-         BatfishObjectMapper mapper = new BatfishObjectMapper();
-         String taskStr = mapper
-               .writeValueAsString(work.getLastTaskCheckResult());
-
-         return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS,
-               (new JSONObject()
-                     .put(CoordConsts.SVC_KEY_WORKSTATUS,
-                           work.getStatus().toString())
-                     .put(CoordConsts.SVC_KEY_TASKSTATUS, taskStr))));
+         return getWorkStatusJson(work);
       }
       catch (FileExistsException | FileNotFoundException
             | IllegalArgumentException | AccessControlException e) {
@@ -700,6 +739,17 @@ public class WorkMgrService {
       }
    }
 
+   private JSONArray getWorkStatusJson(QueuedWork work) throws Exception {
+      BatfishObjectMapper mapper = new BatfishObjectMapper();
+      String taskStr = mapper.writeValueAsString(work.getLastTaskCheckResult());
+
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS,
+            (new JSONObject()
+                  .put(CoordConsts.SVC_KEY_WORKSTATUS,
+                        work.getStatus().toString())
+                  .put(CoordConsts.SVC_KEY_TASKSTATUS, taskStr))));
+   }
+
    /**
     * Initializes a new container
     *
@@ -1126,6 +1176,31 @@ public class WorkMgrService {
       }
    }
 
+   /**
+    * Streams the answer file as the string payload of a success response,
+    * escaping it chunk by chunk so the answer is never held in memory whole
+    */
+   private StreamingOutput streamAnswer(File answerFile) {
+      return output -> {
+         JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+         Writer writer = new BufferedWriter(
+               new OutputStreamWriter(output, StandardCharsets.UTF_8));
+         writer.write("[\"" + CoordConsts.SVC_KEY_SUCCESS + "\",{\""
+               + CoordConsts.SVC_KEY_ANSWER + "\":\"");
+         try (Reader reader = Files.newBufferedReader(answerFile.toPath(),
+               StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+               writer.write(encoder
+                     .quoteAsString(new String(buffer, 0, read)));
+            }
+         }
+         writer.write("\"}]");
+         writer.flush();
+      };
+   }
+
    @GET
    @Path("test")
    @Produces(MediaType.TEXT_PLAIN)
@@ -1325,4 +1400,76 @@ public class WorkMgrService {
                Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
       }
    }
+
+   /**
+    * Long-poll variant of getWorkStatus. Responds when the work item
+    * terminates or waitMs elapses (capped by the coordinator), with the same
+    * response as getWorkStatus. The request is suspended while waiting, so it
+    * does not hold a server thread.
+    *
+    * @param apiKey
+    * @param clientVersion
+    * @param workId
+    * @param waitMs
+    * @param asyncResponse
+    */
+   @POST
+   @Path(CoordConsts.SVC_RSC_WAIT_FOR_WORK)
+   @Produces(MediaType.APPLICATION_JSON)
+   public void waitForWork(
+         @FormDataParam(CoordConsts.SVC_KEY_API_KEY) String apiKey,
+         @FormDataParam(CoordConsts.SVC_KEY_VERSION) String clientVersion,
+         @FormDataParam(CoordConsts.SVC_KEY_WORKID) String workId,
+         @FormDataParam(CoordConsts.SVC_KEY_WAIT_MS) String waitMs,
+         @Suspended AsyncResponse asyncResponse) {
+      try {
+         _logger.info("WMS:waitForWork " + workId + "\n");
+
+         checkStringParam(apiKey, "API key");
+         checkStringParam(clientVersion, "Client version");
+         checkStringParam(workId, "work id");
+         checkStringParam(waitMs, "wait time");
+
+         checkApiKeyValidity(apiKey);
+         checkClientVersion(clientVersion);
+
+         UUID workUuid = UUID.fromString(workId);
+         QueuedWork work = Main.getWorkMgr().getWork(workUuid);
+
+         if (work == null) {
+            asyncResponse.resume(new JSONArray(Arrays.asList(
+                  CoordConsts.SVC_KEY_FAILURE,
+                  "work with the specified id does not exist or is not inaccessible")));
+            return;
+         }
+
+         checkContainerAccessibility(apiKey,
+               work.getWorkItem().getContainerName());
+
+         Main.getWorkMgr().waitForWork(workUuid, Long.parseLong(waitMs),
+               waitedWork -> {
+                  try {
+                     asyncResponse.resume(getWorkStatusJson(waitedWork));
+                  }
+                  catch (Exception e) {
+                     String stackTrace = ExceptionUtils.getFullStackTrace(e);
+                     _logger.error("WMS:waitForWork exception: " + stackTrace);
+                     asyncResponse.resume(new JSONArray(Arrays
+                           .asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())));
+                  }
+               });
+      }
+      catch (FileExistsException | FileNotFoundException
+            | IllegalArgumentException | AccessControlException e) {
+         _logger.error("WMS:waitForWork exception: " + e.getMessage() + "\n");
+         asyncResponse.resume(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())));
+      }
+      catch (Exception e) {
+         String stackTrace = ExceptionUtils.getFullStackTrace(e);
+         _logger.error("WMS:waitForWork exception: " + stackTrace);
+         asyncResponse.resume(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())));
+      }
+   }
 }
@@ -1,11 +1,21 @@
 package org.batfish.coordinator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.PhaseMetrics;
 import org.batfish.common.Task;
 import org.batfish.coordinator.queues.AzureQueue;
 import org.batfish.coordinator.queues.MemoryQueue;
@@ -24,10 +34,22 @@ public class WorkQueueMgr {
    }
 
    BatfishLogger _logger = Main.getLogger();
+
+   private final PhaseMetrics _phaseMetrics = new PhaseMetrics();
+
    private WorkQueue _queueCompletedWork;
 
    private WorkQueue _queueIncompleteWork;
 
+   /**
+    * Runs termination listeners, and times out those whose work has not
+    * terminated in time
+    */
+   private final ScheduledExecutorService _terminationExecutor = Executors
+         .newScheduledThreadPool(1);
+
+   private final Map<UUID, List<Consumer<QueuedWork>>> _terminationListeners = new HashMap<>();
+
    public WorkQueueMgr() {
       if (Main.getSettings().getQueueType() == WorkQueue.Type.azure) {
          String storageConnectionString = String.format(
@@ -54,6 +76,20 @@ public class WorkQueueMgr {
       }
    }
 
+   /**
+    * Hands the supplied terminated work to the listeners waiting on it. Must be
+    * called with the lock of this manager held.
+    */
+   private void fireTermination(QueuedWork work) {
+      List<Consumer<QueuedWork>> listeners = _terminationListeners
+            .remove(work.getId());
+      if (listeners != null) {
+         for (Consumer<QueuedWork> listener : listeners) {
+            _terminationExecutor.execute(() -> listener.accept(work));
+         }
+      }
+   }
+
    public synchronized long getLength(QueueType qType) {
       switch (qType) {
       case COMPLETED:
@@ -64,6 +100,14 @@ public class WorkQueueMgr {
       return -1;
    }
 
+   /**
+    * Returns the per-phase totals of the batches of all work that has
+    * terminated since the coordinator started
+    */
+   public PhaseMetrics getPhaseMetrics() {
+      return _phaseMetrics;
+   }
+
    public synchronized JSONObject getStatusJson() throws JSONException {
 
       JSONObject jObject = new JSONObject();
@@ -127,6 +171,13 @@ public class WorkQueueMgr {
       work.setStatus(WorkStatusCode.UNASSIGNED);
    }
 
+   private static boolean isTerminated(QueuedWork work) {
+      WorkStatusCode status = work.getStatus();
+      return status == WorkStatusCode.ASSIGNMENTERROR
+            || status == WorkStatusCode.TERMINATEDABNORMALLY
+            || status == WorkStatusCode.TERMINATEDNORMALLY;
+   }
+
    // when assignment attempt ends in error, we do not try to reassign
    public synchronized void markAssignmentError(QueuedWork work) {
       // move the work to completed queue
@@ -140,6 +191,7 @@ public class WorkQueueMgr {
                + "\nException = " + stackTrace);
       }
       work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+      fireTermination(work);
    }
 
    public synchronized void markAssignmentFailure(QueuedWork work) {
@@ -151,11 +203,44 @@ public class WorkQueueMgr {
       work.setAssignment(assignedWorker);
    }
 
+   /**
+    * Calls the supplied listener once, with the work having the given id, when
+    * that work terminates or timeoutMs elapses, whichever happens first. The
+    * listener is called with null if no such work exists. It is always called
+    * on a thread of this manager, so callers are never blocked.
+    */
+   public synchronized void onTermination(UUID workId, long timeoutMs,
+         Consumer<QueuedWork> listener) {
+      QueuedWork work = getWork(workId);
+      if (work == null || isTerminated(work) || timeoutMs <= 0) {
+         _terminationExecutor.execute(() -> listener.accept(work));
+         return;
+      }
+      AtomicBoolean called = new AtomicBoolean();
+      Consumer<QueuedWork> onceListener = w -> {
+         if (called.compareAndSet(false, true)) {
+            listener.accept(w);
+         }
+      };
+      _terminationListeners.computeIfAbsent(workId, id -> new ArrayList<>())
+            .add(onceListener);
+      _terminationExecutor.schedule(() -> {
+         removeTerminationListener(workId, onceListener);
+         onceListener.accept(getWork(workId));
+      }, timeoutMs, TimeUnit.MILLISECONDS);
+   }
+
    public synchronized void processTaskCheckResult(QueuedWork work, Task task) {
 
       // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally,
       // Unknown, UnreachableOrBadResponse}
 
+      // the worker may have pushed the final status while a periodic check
+      // was in flight; the stale check result must not resurrect the work
+      if (isTerminated(work)) {
+         return;
+      }
+
       switch (task.getStatus()) {
       case Unscheduled:
       case InProgress:
@@ -178,6 +263,8 @@ public class WorkQueueMgr {
                ? WorkStatusCode.TERMINATEDNORMALLY
                : WorkStatusCode.TERMINATEDABNORMALLY);
          work.recordTaskCheckResult(task);
+         _phaseMetrics.add(task);
+         fireTermination(work);
          break;
       case Unknown:
          // we mark this unassigned, so we try to schedule it again
@@ -200,6 +287,17 @@ public class WorkQueueMgr {
       }
    }
 
+   private synchronized void removeTerminationListener(UUID workId,
+         Consumer<QueuedWork> listener) {
+      List<Consumer<QueuedWork>> listeners = _terminationListeners.get(workId);
+      if (listeners != null) {
+         listeners.remove(listener);
+         if (listeners.isEmpty()) {
+            _terminationListeners.remove(workId);
+         }
+      }
+   }
+
    public synchronized boolean queueUnassignedWork(QueuedWork work)
          throws Exception {
 
@@ -211,4 +309,5 @@ public class WorkQueueMgr {
 
       return _queueIncompleteWork.enque(work);
    }
+
 }
@@ -25,6 +25,7 @@ public class Settings extends BaseSettings {
    private static final String ARG_HELP = "help";
    private static final String ARG_LOG_FILE = "logfile";
    private static final String ARG_LOG_LEVEL = "loglevel";
+   private static final String ARG_MAX_WORK_WAIT_MS = "maxworkwaitms";
    private static final String ARG_PERIOD_ASSIGN_WORK_MS = "periodassignworkms";
    private static final String ARG_PERIOD_CHECK_WORK_MS = "periodcheckworkms";
    private static final String ARG_PERIOD_WORKER_STATUS_REFRESH_MS = "periodworkerrefreshms";
@@ -68,6 +69,7 @@ public class Settings extends BaseSettings {
    private String _driverClass;
    private String _logFile;
    private String _logLevel;
+   private long _maxWorkWaitMs;
    private long _periodAssignWorkMs;
    private long _periodCheckWorkMs;
    private long _periodWorkerStatusRefreshMs;
@@ -148,6 +150,10 @@ public class Settings extends BaseSettings {
       return _logLevel;
    }
 
+   public long getMaxWorkWaitMs() {
+      return _maxWorkWaitMs;
+   }
+
    public long getPeriodAssignWorkMs() {
       return _periodAssignWorkMs;
    }
@@ -259,6 +265,7 @@ public class Settings extends BaseSettings {
       setDefaultProperty(ARG_LOG_FILE, null);
       setDefaultProperty(ARG_LOG_LEVEL,
             BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_OUTPUT));
+      setDefaultProperty(ARG_MAX_WORK_WAIT_MS, 30 * 1000);
       setDefaultProperty(ARG_PERIOD_ASSIGN_WORK_MS, 1000);
       setDefaultProperty(ARG_PERIOD_CHECK_WORK_MS, 1000);
       setDefaultProperty(ARG_PERIOD_WORKER_STATUS_REFRESH_MS, 10000);
@@ -314,6 +321,10 @@ public class Settings extends BaseSettings {
 
       addOption(ARG_LOG_LEVEL, "log level", "loglevel");
 
+      addOption(ARG_MAX_WORK_WAIT_MS,
+            "longest time a client may block waiting for work to finish (ms)",
+            "max_work_wait_ms");
+
       addOption(ARG_PERIOD_WORKER_STATUS_REFRESH_MS,
             "period with which to check worker status (ms)",
             "period_worker_status_refresh_ms");
@@ -400,6 +411,7 @@ public class Settings extends BaseSettings {
       _containersLocation = getStringOptionValue(ARG_CONTAINERS_LOCATION);
       _periodWorkerStatusRefreshMs = getLongOptionValue(
             ARG_PERIOD_WORKER_STATUS_REFRESH_MS);
+      _maxWorkWaitMs = getLongOptionValue(ARG_MAX_WORK_WAIT_MS);
       _periodAssignWorkMs = getLongOptionValue(ARG_PERIOD_ASSIGN_WORK_MS);
       _periodCheckWorkMs = getLongOptionValue(ARG_PERIOD_CHECK_WORK_MS);
       _logFile = getStringOptionValue(ARG_LOG_FILE);
@@ -0,0 +1,162 @@
+package org.batfish.question;
+
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.batfish.common.Answerer;
+import org.batfish.common.BatfishException;
+import org.batfish.common.plugin.IBatfish;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.questions.Question;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ArpRepliesQuestionPlugin extends QuestionPlugin {
+
+   public static class ArpRepliesAnswerElement implements AnswerElement {
+
+      private SortedMap<String, SortedMap<String, SortedMap<Ip, SortedSet<NodeInterfacePair>>>> _arpReplies;
+
+      public ArpRepliesAnswerElement() {
+         _arpReplies = new TreeMap<>();
+      }
+
+      public void add(NodeInterfacePair egressInterface, Ip arpIp,
+            SortedSet<NodeInterfacePair> replyingInterfaces) {
+         _arpReplies
+               .computeIfAbsent(egressInterface.getHostname(),
+                     h -> new TreeMap<>())
+               .computeIfAbsent(egressInterface.getInterface(),
+                     i -> new TreeMap<>())
+               .put(arpIp, replyingInterfaces);
+      }
+
+      public SortedMap<String, SortedMap<String, SortedMap<Ip, SortedSet<NodeInterfacePair>>>> getArpReplies() {
+         return _arpReplies;
+      }
+
+      @Override
+      public String prettyPrint() {
+         StringBuilder sb = new StringBuilder();
+         _arpReplies.forEach((hostname, byInterface) -> {
+            byInterface.forEach((interfaceName, byIp) -> {
+               byIp.forEach((arpIp, replyingInterfaces) -> {
+                  sb.append(hostname + ":" + interfaceName + " arp " + arpIp
+                        + " -> " + replyingInterfaces + "\n");
+               });
+            });
+         });
+         return sb.toString();
+      }
+
+      public void setArpReplies(
+            SortedMap<String, SortedMap<String, SortedMap<Ip, SortedSet<NodeInterfacePair>>>> arpReplies) {
+         _arpReplies = arpReplies;
+      }
+
+   }
+
+   public static class ArpRepliesAnswerer extends Answerer {
+
+      public ArpRepliesAnswerer(Question question, IBatfish batfish) {
+         super(question, batfish);
+      }
+
+      @Override
+      public AnswerElement answer() {
+         ArpRepliesQuestion question = (ArpRepliesQuestion) _question;
+         Pattern nodeRegex;
+         try {
+            nodeRegex = Pattern.compile(question.getNodeRegex());
+         }
+         catch (PatternSyntaxException e) {
+            throw new BatfishException(
+                  "Supplied regex for nodes is not a valid java regex: \""
+                        + question.getNodeRegex() + "\"",
+                  e);
+         }
+         ArpRepliesAnswerElement answerElement = new ArpRepliesAnswerElement();
+         _batfish.getArpReplies().forEach((egressInterface, byIp) -> {
+            if (nodeRegex.matcher(egressInterface.getHostname()).matches()) {
+               byIp.forEach((arpIp, replyingInterfaces) -> answerElement
+                     .add(egressInterface, arpIp, replyingInterfaces));
+            }
+         });
+         return answerElement;
+      }
+
+   }
+
+   // <question_page_comment>
+   /**
+    * Outputs how arp is resolved for the next hops of the data plane.
+    * <p>
+    * For each interface out of which a node forwards to a next-hop ip, it
+    * lists the neighbor interfaces that would reply to an arp request for
+    * that ip. An empty set of neighbor interfaces means the next hop is
+    * unreachable. Next hops reached by interface-only routes depend on the
+    * destination of each packet and are not listed.
+    *
+    * @type ArpReplies dataplane
+    *
+    * @param nodeRegex
+    *           Regular expression for names of nodes to include. Default value
+    *           is '.*' (all nodes).
+    *
+    * @example bf_answer("ArpReplies", nodeRegex="as1.*") Outputs arp
+    *          resolution for the next hops of all nodes whose names begin with
+    *          "as1".
+    */
+   public static class ArpRepliesQuestion extends Question {
+
+      private static final String NODE_REGEX_VAR = "nodeRegex";
+
+      private String _nodeRegex;
+
+      public ArpRepliesQuestion() {
+         _nodeRegex = ".*";
+      }
+
+      @Override
+      public boolean getDataPlane() {
+         return true;
+      }
+
+      @Override
+      public String getName() {
+         return "arpreplies";
+      }
+
+      @JsonProperty(NODE_REGEX_VAR)
+      public String getNodeRegex() {
+         return _nodeRegex;
+      }
+
+      @Override
+      public boolean getTraffic() {
+         return false;
+      }
+
+      @JsonProperty(NODE_REGEX_VAR)
+      public void setNodeRegex(String nodeRegex) {
+         _nodeRegex = nodeRegex;
+      }
+
+   }
+
+   @Override
+   protected Answerer createAnswerer(Question question, IBatfish batfish) {
+      return new ArpRepliesAnswerer(question, batfish);
+   }
+
+   @Override
+   protected Question createQuestion() {
+      return new ArpRepliesQuestion();
+   }
+
+}
@@ -1,7 +1,5 @@
 package org.batfish.question;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -17,9 +15,9 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.BgpNeighbor;
 import org.batfish.datamodel.Configuration;
-import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SessionIndex;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.BgpNeighbor.BgpNeighborSummary;
 import org.batfish.datamodel.BgpProcess;
@@ -548,30 +546,10 @@ public class BgpSessionCheckQuestionPlugin extends QuestionPlugin {
                .loadConfigurations();
 
          BgpSessionCheckAnswerElement answerElement = new BgpSessionCheckAnswerElement();
-         Set<Ip> allInterfaceIps = new HashSet<>();
-         Set<Ip> loopbackIps = new HashSet<>();
-         Map<Ip, Set<String>> ipOwners = new HashMap<>();
-         for (Configuration c : configurations.values()) {
-            for (Interface i : c.getInterfaces().values()) {
-               if (i.getActive()) {
-                  if (i.getPrefix() != null) {
-                     for (Prefix prefix : i.getAllPrefixes()) {
-                        Ip address = prefix.getAddress();
-                        if (i.isLoopback(c.getConfigurationFormat())) {
-                           loopbackIps.add(address);
-                        }
-                        allInterfaceIps.add(address);
-                        Set<String> currentIpOwners = ipOwners.get(address);
-                        if (currentIpOwners == null) {
-                           currentIpOwners = new HashSet<>();
-                           ipOwners.put(address, currentIpOwners);
-                        }
-                        currentIpOwners.add(c.getHostname());
-                     }
-                  }
-               }
-            }
-         }
+         SessionIndex sessionIndex = _batfish.getSessionIndex(configurations);
+         Set<Ip> allInterfaceIps = sessionIndex.getInterfaceOwners().keySet();
+         Set<Ip> loopbackIps = sessionIndex.getLoopbackIps();
+         Map<Ip, Set<String>> ipOwners = sessionIndex.getInterfaceOwners();
          _batfish.initRemoteBgpNeighbors(configurations, ipOwners);
          for (Configuration co : configurations.values()) {
             String hostname = co.getHostname();
@@ -1,7 +1,5 @@
 package org.batfish.question;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -17,9 +15,9 @@ import org.batfish.common.BatfishException;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.OspfNeighbor;
 import org.batfish.datamodel.Configuration;
-import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SessionIndex;
 import org.batfish.datamodel.PrefixTrie;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
@@ -231,30 +229,10 @@ public class OspfSessionCheckQuestionPlugin extends QuestionPlugin {
          }
 
          OspfSessionCheckAnswerElement answerElement = new OspfSessionCheckAnswerElement();
-         Set<Ip> allInterfaceIps = new HashSet<>();
-         Set<Ip> loopbackIps = new HashSet<>();
-         Map<Ip, Set<String>> ipOwners = new HashMap<>();
-         for (Configuration c : configurations.values()) {
-            for (Interface i : c.getInterfaces().values()) {
-               if (i.getActive()) {
-                  if (i.getPrefix() != null) {
-                     for (Prefix prefix : i.getAllPrefixes()) {
-                        Ip address = prefix.getAddress();
-                        if (i.isLoopback(c.getConfigurationFormat())) {
-                           loopbackIps.add(address);
-                        }
-                        allInterfaceIps.add(address);
-                        Set<String> currentIpOwners = ipOwners.get(address);
-                        if (currentIpOwners == null) {
-                           currentIpOwners = new HashSet<>();
-                           ipOwners.put(address, currentIpOwners);
-                        }
-                        currentIpOwners.add(c.getHostname());
-                     }
-                  }
-               }
-            }
-         }
+         SessionIndex sessionIndex = _batfish.getSessionIndex(configurations);
+         Set<Ip> allInterfaceIps = sessionIndex.getInterfaceOwners().keySet();
+         Set<Ip> loopbackIps = sessionIndex.getLoopbackIps();
+         Map<Ip, Set<String>> ipOwners = sessionIndex.getInterfaceOwners();
          Topology topology = _batfish.computeTopology(configurations);
          _batfish.initRemoteOspfNeighbors(configurations, ipOwners, topology);
          for (Configuration co : configurations.values()) {
@@ -1,6 +1,8 @@
 package org.batfish.question;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -8,8 +10,10 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
 
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
@@ -17,8 +21,9 @@ import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.PrefixSpace;
 import org.batfish.datamodel.Route;
+import org.batfish.datamodel.RouteQuery;
+import org.batfish.datamodel.RouteSnapshot;
 import org.batfish.datamodel.RoutingProtocol;
-import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.collections.RoutesByVrf;
 import org.batfish.datamodel.questions.Question;
@@ -43,40 +48,31 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
       }
 
       public RoutesAnswerElement(Map<String, Configuration> configurations,
-            Pattern nodeRegex, Set<RoutingProtocol> protocols,
-            PrefixSpace prefixSpace) {
+            RouteQuery query, Stream<Route> routes) {
          this();
          for (Entry<String, Configuration> e : configurations.entrySet()) {
             String hostname = e.getKey();
-            if (!nodeRegex.matcher(hostname).matches()) {
+            if (!query.matchesNode(hostname)) {
                continue;
             }
             Configuration c = e.getValue();
             RoutesByVrf routesByVrf = new RoutesByVrf();
             _routesByHostname.put(hostname, routesByVrf);
-            for (Entry<String, Vrf> e2 : c.getVrfs().entrySet()) {
-               String vrfName = e2.getKey();
-               Vrf vrf = e2.getValue();
-               SortedSet<Route> routes = vrf.getRoutes();
-               SortedSet<Route> filteredRoutes;
-               if (protocols.isEmpty() && prefixSpace.isEmpty()) {
-                  filteredRoutes = routes;
-               }
-               else {
-                  filteredRoutes = new TreeSet<>();
-                  for (Route route : routes) {
-                     boolean matchProtocol = protocols.isEmpty()
-                           || protocols.contains(route.getProtocol());
-                     boolean matchPrefixSpace = prefixSpace.isEmpty()
-                           || prefixSpace.containsPrefix(route.getNetwork());
-                     if (matchProtocol && matchPrefixSpace) {
-                        filteredRoutes.add(route);
-                     }
-                  }
+            for (String vrfName : c.getVrfs().keySet()) {
+               if (query.matchesVrf(vrfName)) {
+                  routesByVrf.put(vrfName, new TreeSet<>());
                }
-               routesByVrf.put(vrfName, filteredRoutes);
             }
          }
+         routes.forEach(route -> {
+            RoutesByVrf routesByVrf = _routesByHostname.get(route.getNode());
+            if (routesByVrf != null) {
+               SortedSet<Route> vrfRoutes = routesByVrf.get(route.getVrf());
+               if (vrfRoutes != null) {
+                  vrfRoutes.add(route);
+               }
+            }
+         });
       }
 
       public RoutesAnswerElement(RoutesAnswerElement base,
@@ -186,6 +182,26 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
          }
       }
 
+      /**
+       * Adds a route to the diff, as added if the supplied flag is set and as
+       * removed otherwise, if its node and vrf are in this answer element
+       */
+      private void addRoute(Route route, boolean added) {
+         RoutesByVrf routesByVrf = _routesByHostname.get(route.getNode());
+         if (routesByVrf != null) {
+            SortedSet<Route> vrfRoutes = routesByVrf.get(route.getVrf());
+            if (vrfRoutes != null) {
+               vrfRoutes.add(route);
+               if (added) {
+                  _added.add(route);
+               }
+               else {
+                  _removed.add(route);
+               }
+            }
+         }
+      }
+
       public SortedSet<Route> getAdded() {
          return _added;
       }
@@ -244,18 +260,9 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
       @Override
       public RoutesAnswerElement answer() {
          RoutesQuestion question = (RoutesQuestion) _question;
-         Pattern nodeRegex;
-         try {
-            nodeRegex = Pattern.compile(question.getNodeRegex());
-         }
-         catch (PatternSyntaxException e) {
-            throw new BatfishException(
-                  "Supplied regex for nodes is not a valid java regex: \""
-                        + question.getNodeRegex() + "\"",
-                  e);
-         }
          RoutesAnswerElement answerElement;
          if (question._fromEnvironment) {
+            Pattern nodeRegex = compileNodeRegex();
             SortedMap<String, RoutesByVrf> environmentRoutes = _batfish
                   .loadEnvironmentRoutingTables();
             answerElement = new RoutesAnswerElement(environmentRoutes,
@@ -265,15 +272,22 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
          else {
             Map<String, Configuration> configurations = _batfish
                   .loadConfigurations();
-            _batfish.initRoutes(configurations);
-            answerElement = new RoutesAnswerElement(configurations, nodeRegex,
-                  question._protocols, question._prefixSpace);
+            RouteQuery query = computeRouteQuery();
+            answerElement = new RoutesAnswerElement(configurations, query,
+                  _batfish.queryRoutes(query));
          }
          return answerElement;
       }
 
       @Override
       public AnswerElement answerDiff() {
+         RoutesQuestion question = (RoutesQuestion) _question;
+         if (!question._fromEnvironment) {
+            RoutesAnswerElement snapshotDiff = answerSnapshotDiff();
+            if (snapshotDiff != null) {
+               return snapshotDiff;
+            }
+         }
          _batfish.pushBaseEnvironment();
          RoutesAnswerElement base = answer();
          _batfish.popEnvironment();
@@ -283,6 +297,87 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
          return new RoutesAnswerElement(base, delta);
       }
 
+      /**
+       * Diffs the routes of the base and delta data planes by merging their
+       * route snapshots node by node, in parallel, so that only changed routes
+       * are materialized. Returns null if either data plane has no snapshot.
+       */
+      private RoutesAnswerElement answerSnapshotDiff() {
+         RouteQuery query = computeRouteQuery();
+         _batfish.pushBaseEnvironment();
+         RouteSnapshot baseSnapshot = _batfish.loadRouteSnapshot();
+         RoutesAnswerElement base = new RoutesAnswerElement(
+               _batfish.loadConfigurations(), query, Stream.empty());
+         _batfish.popEnvironment();
+         _batfish.pushDeltaEnvironment();
+         RouteSnapshot deltaSnapshot = _batfish.loadRouteSnapshot();
+         RoutesAnswerElement delta = new RoutesAnswerElement(
+               _batfish.loadConfigurations(), query, Stream.empty());
+         _batfish.popEnvironment();
+         if (baseSnapshot == null || deltaSnapshot == null) {
+            return null;
+         }
+         // vrfs of nodes in either environment, with no routes yet
+         RoutesAnswerElement answerElement = new RoutesAnswerElement(base,
+               delta);
+         SortedSet<String> nodes = new TreeSet<>();
+         nodes.addAll(baseSnapshot.getNodes());
+         nodes.addAll(deltaSnapshot.getNodes());
+         Map<String, List<Route>> removedByNode = new ConcurrentHashMap<>();
+         Map<String, List<Route>> addedByNode = new ConcurrentHashMap<>();
+         nodes.parallelStream().filter(query::matchesNode).forEach(node -> {
+            List<Route> removed = new ArrayList<>();
+            List<Route> added = new ArrayList<>();
+            RouteSnapshot.diff(baseSnapshot, deltaSnapshot, node,
+                  route -> {
+                     if (query.matches(route)) {
+                        removed.add(route);
+                     }
+                  }, route -> {
+                     if (query.matches(route)) {
+                        added.add(route);
+                     }
+                  });
+            removedByNode.put(node, removed);
+            addedByNode.put(node, added);
+         });
+         removedByNode.values().forEach(routes -> routes
+               .forEach(route -> answerElement.addRoute(route, false)));
+         addedByNode.values().forEach(routes -> routes
+               .forEach(route -> answerElement.addRoute(route, true)));
+         return answerElement;
+      }
+
+      private Pattern compileNodeRegex() {
+         RoutesQuestion question = (RoutesQuestion) _question;
+         try {
+            return Pattern.compile(question.getNodeRegex());
+         }
+         catch (PatternSyntaxException e) {
+            throw new BatfishException(
+                  "Supplied regex for nodes is not a valid java regex: \""
+                        + question.getNodeRegex() + "\"",
+                  e);
+         }
+      }
+
+      private RouteQuery computeRouteQuery() {
+         RoutesQuestion question = (RoutesQuestion) _question;
+         Pattern nodeRegex = compileNodeRegex();
+         Pattern vrfRegex;
+         try {
+            vrfRegex = Pattern.compile(question.getVrfRegex());
+         }
+         catch (PatternSyntaxException e) {
+            throw new BatfishException(
+                  "Supplied regex for vrfs is not a valid java regex: \""
+                        + question.getVrfRegex() + "\"",
+                  e);
+         }
+         return new RouteQuery(nodeRegex, vrfRegex, question._protocols,
+               question._prefixSpace);
+      }
+
    }
 
    // <question_page_comment>
@@ -297,6 +392,9 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
     * @param nodeRegex
     *           Regular expression for names of nodes to include. Default value
     *           is '.*' (all nodes).
+    * @param vrfRegex
+    *           Regular expression for names of vrfs to include. Default value
+    *           is '.*' (all vrfs).
     *
     * @example bf_answer("Nodes", nodeRegex="as1.*") Outputs the routes for all
     *          nodes whose names begin with "as1".
@@ -311,6 +409,8 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
 
       private static final String PROTOCOLS_VAR = "protocols";
 
+      private static final String VRF_REGEX_VAR = "vrfRegex";
+
       private boolean _fromEnvironment;
 
       private String _nodeRegex;
@@ -319,8 +419,11 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
 
       private SortedSet<RoutingProtocol> _protocols;
 
+      private String _vrfRegex;
+
       public RoutesQuestion() {
          _nodeRegex = ".*";
+         _vrfRegex = ".*";
          _prefixSpace = new PrefixSpace();
          _protocols = new TreeSet<>();
       }
@@ -360,6 +463,11 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
          return false;
       }
 
+      @JsonProperty(VRF_REGEX_VAR)
+      public String getVrfRegex() {
+         return _vrfRegex;
+      }
+
       @JsonProperty(FROM_ENVIRONMENT_VAR)
       public void setFromEnvironment(boolean fromEnvironment) {
          _fromEnvironment = fromEnvironment;
@@ -380,6 +488,11 @@ public class RoutesQuestionPlugin extends QuestionPlugin {
          _protocols = protocols;
       }
 
+      @JsonProperty(VRF_REGEX_VAR)
+      public void setVrfRegex(String vrfRegex) {
+         _vrfRegex = vrfRegex;
+      }
+
    }
 
    @Override
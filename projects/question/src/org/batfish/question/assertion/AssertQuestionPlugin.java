@@ -1,31 +1,27 @@
 package org.batfish.question.assertion;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import org.batfish.common.Answerer;
-import org.batfish.common.BatfishException;
 import org.batfish.common.plugin.IBatfish;
-import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.assertion.AssertionAst;
+import org.batfish.datamodel.assertion.NodesPathEvaluator;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.question.QuestionPlugin;
+import org.batfish.question.NodesQuestionPlugin.NodesAnswerElement;
 import org.batfish.question.NodesQuestionPlugin.NodesAnswerer;
 import org.batfish.question.NodesQuestionPlugin.NodesQuestion;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.Configuration.ConfigurationBuilder;
 import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
-import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 
 public class AssertQuestionPlugin extends QuestionPlugin {
@@ -91,17 +87,10 @@ public class AssertQuestionPlugin extends QuestionPlugin {
          nodesQuestion.setSummary(false);
          NodesAnswerer nodesAnswerer = new NodesAnswerer(nodesQuestion,
                _batfish);
-         AnswerElement nodesAnswer = nodesAnswerer.answer();
-         BatfishObjectMapper mapper = new BatfishObjectMapper();
-         String nodesAnswerStr = null;
-         try {
-            nodesAnswerStr = mapper.writeValueAsString(nodesAnswer);
-         }
-         catch (IOException e) {
-            throw new BatfishException(
-                  "Could not get JSON string from nodes answer", e);
-         }
-         Object jsonObject = JsonPath.parse(nodesAnswerStr, c).json();
+         NodesAnswerElement nodesAnswer = (NodesAnswerElement) nodesAnswerer
+               .answer();
+         NodesPathEvaluator pathEvaluator = new NodesPathEvaluator(
+               nodesAnswer.getAnswer(), c);
          Map<Integer, Assertion> failing = new ConcurrentHashMap<>();
          Map<Integer, Assertion> passing = new ConcurrentHashMap<>();
          List<Integer> indices = new ArrayList<>();
@@ -109,12 +98,11 @@ public class AssertQuestionPlugin extends QuestionPlugin {
             indices.add(i);
          }
          final boolean[] fail = new boolean[1];
-         ConcurrentMap<String, ArrayNode> pathCache = new ConcurrentHashMap<>();
          indices.parallelStream().forEach(i -> {
             Assertion assertion = assertions.get(i);
             String assertionText = assertion.getAssertion();
             AssertionAst ast = _batfish.parseAssertion(assertionText);
-            if (ast.execute(_batfish, jsonObject, pathCache, c)) {
+            if (ast.execute(_batfish, pathEvaluator)) {
                passing.put(i, assertion);
             }
             else {
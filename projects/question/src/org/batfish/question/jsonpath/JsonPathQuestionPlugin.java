@@ -1,9 +1,7 @@
 package org.batfish.question.jsonpath;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -26,17 +24,21 @@ import org.batfish.question.jsonpath.JsonPathResult.JsonPathResultEntry;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.Configuration.ConfigurationBuilder;
+import com.jayway.jsonpath.internal.EvaluationContext;
+import com.jayway.jsonpath.internal.Path;
+import com.jayway.jsonpath.internal.path.PathCompiler;
 import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
 
 public class JsonPathQuestionPlugin extends QuestionPlugin {
 
+   private static final Configuration JSON_PATH_CONFIGURATION = new ConfigurationBuilder()
+         .jsonProvider(new JacksonJsonNodeJsonProvider()).build();
+
    public static class JsonPathAnswerElement implements AnswerElement {
 
       private static final String RESULTS_VAR = "results";
@@ -95,11 +97,6 @@ public class JsonPathQuestionPlugin extends QuestionPlugin {
 
       @Override
       public JsonPathAnswerElement answer() {
-
-         ConfigurationBuilder b = new ConfigurationBuilder();
-         b.jsonProvider(new JacksonJsonNodeJsonProvider());
-         final Configuration c = b.build();
-
          JsonPathQuestion question = (JsonPathQuestion) _question;
          List<JsonPathQuery> paths = question.getPaths();
 
@@ -111,86 +108,8 @@ public class JsonPathQuestionPlugin extends QuestionPlugin {
                .get(innerQuestionName).apply(innerQuestion, _batfish);
          AnswerElement innerAnswer = innerAnswerer.answer();
 
-         BatfishObjectMapper mapper = new BatfishObjectMapper();
-         String nodesAnswerStr = null;
-         try {
-            nodesAnswerStr = mapper.writeValueAsString(innerAnswer);
-         }
-         catch (IOException e) {
-            throw new BatfishException(
-                  "Could not get JSON string from nodes answer", e);
-         }
-         Object jsonObject = JsonPath.parse(nodesAnswerStr, c).json();
-         Map<Integer, JsonPathResult> results = new ConcurrentHashMap<>();
-         List<Integer> indices = new ArrayList<>();
-         for (int i = 0; i < paths.size(); i++) {
-            indices.add(i);
-         }
-         AtomicInteger completed = _batfish.newBatch("NodesPath queries",
-               indices.size());
-         indices.parallelStream().forEach(i -> {
-            JsonPathQuery nodesPath = paths.get(i);
-            String path = nodesPath.getPath();
-
-            ConfigurationBuilder prefixCb = new ConfigurationBuilder();
-            prefixCb.mappingProvider(c.mappingProvider());
-            prefixCb.jsonProvider(c.jsonProvider());
-            prefixCb.evaluationListener(c.getEvaluationListeners());
-            prefixCb.options(c.getOptions());
-            prefixCb.options(Option.ALWAYS_RETURN_LIST);
-            prefixCb.options(Option.AS_PATH_LIST);
-            Configuration prefixC = prefixCb.build();
-
-            ConfigurationBuilder suffixCb = new ConfigurationBuilder();
-            suffixCb.mappingProvider(c.mappingProvider());
-            suffixCb.jsonProvider(c.jsonProvider());
-            suffixCb.evaluationListener(c.getEvaluationListeners());
-            suffixCb.options(c.getOptions());
-            suffixCb.options(Option.ALWAYS_RETURN_LIST);
-            Configuration suffixC = suffixCb.build();
-
-            ArrayNode prefixes = null;
-            ArrayNode suffixes = null;
-            JsonPath jsonPath = JsonPath.compile(path);
-
-            try {
-               prefixes = jsonPath.read(jsonObject, prefixC);
-               suffixes = jsonPath.read(jsonObject, suffixC);
-            }
-            catch (PathNotFoundException e) {
-               suffixes = JsonNodeFactory.instance.arrayNode();
-               prefixes = JsonNodeFactory.instance.arrayNode();
-            }
-            catch (Exception e) {
-               throw new BatfishException("Error reading JSON path: " + path,
-                     e);
-            }
-            int numResults = prefixes.size();
-            JsonPathResult nodePathResult = new JsonPathResult();
-            nodePathResult.setPath(nodesPath);
-            nodePathResult.setNumResults(numResults);
-            boolean includeSuffix = nodesPath.getSuffix();
-            if (!nodesPath.getSummary()) {
-               SortedMap<String, JsonPathResultEntry> result = new TreeMap<>();
-               Iterator<JsonNode> p = prefixes.iterator();
-               Iterator<JsonNode> s = suffixes.iterator();
-               while (p.hasNext()) {
-                  JsonNode prefix = p.next();
-                  JsonNode suffix = includeSuffix ? s.next() : null;
-                  String prefixStr = prefix.textValue();
-                  if (prefixStr == null) {
-                     throw new BatfishException("Did not expect null value");
-                  }
-                  ConcreteJsonPath concretePath = new ConcreteJsonPath(
-                        prefixStr);
-                  result.put(concretePath.toString(),
-                        new JsonPathResultEntry(concretePath, suffix));
-               }
-               nodePathResult.setResult(result);
-            }
-            results.put(i, nodePathResult);
-            completed.incrementAndGet();
-         });
+         Map<Integer, JsonPathResult> results = computeResults(_batfish,
+               paths, toJsonTree(innerAnswer));
          JsonPathAnswerElement answerElement = new JsonPathAnswerElement();
          answerElement.getResults().putAll(results);
 
@@ -384,6 +303,102 @@ public class JsonPathQuestionPlugin extends QuestionPlugin {
 
    }
 
+   /**
+    * Evaluates a single query against the JSON tree of an answer. Concrete
+    * paths and their suffixes come out of the same evaluation context, so the
+    * tree is traversed once per query.
+    */
+   static JsonPathResult computeResult(JsonPathQuery query, Object jsonObject) {
+      String path = query.getPath();
+      List<String> prefixes;
+      List<JsonNode> suffixes = new ArrayList<>();
+      try {
+         Path compiledPath = PathCompiler.compile(path);
+         if (compiledPath.isFunctionPath()) {
+            throw new BatfishException(
+                  "Path functions are not supported in queries");
+         }
+         EvaluationContext context = compiledPath.evaluate(jsonObject,
+               jsonObject, JSON_PATH_CONFIGURATION);
+         prefixes = context.getPathList();
+         if (query.getSuffix() && !prefixes.isEmpty()) {
+            if (compiledPath.isDefinite()) {
+               suffixes.add(toJsonNode(context.getValue(false)));
+            }
+            else {
+               ArrayNode values = context.getValue(false);
+               values.forEach(suffixes::add);
+            }
+         }
+      }
+      catch (PathNotFoundException e) {
+         prefixes = Collections.emptyList();
+      }
+      catch (Exception e) {
+         throw new BatfishException("Error reading JSON path: " + path, e);
+      }
+
+      JsonPathResult jsonPathResult = new JsonPathResult();
+      jsonPathResult.setPath(query);
+      jsonPathResult.setNumResults(prefixes.size());
+      if (!query.getSummary()) {
+         SortedMap<String, JsonPathResultEntry> result = new TreeMap<>();
+         for (int i = 0; i < prefixes.size(); i++) {
+            JsonNode suffix = query.getSuffix() ? suffixes.get(i) : null;
+            ConcreteJsonPath concretePath = new ConcreteJsonPath(
+                  prefixes.get(i));
+            result.put(concretePath.toString(),
+                  new JsonPathResultEntry(concretePath, suffix));
+         }
+         jsonPathResult.setResult(result);
+      }
+      return jsonPathResult;
+   }
+
+   /**
+    * Evaluates each query in parallel against the same JSON tree
+    */
+   static Map<Integer, JsonPathResult> computeResults(IBatfish batfish,
+         List<JsonPathQuery> paths, Object jsonObject) {
+      Map<Integer, JsonPathResult> results = new ConcurrentHashMap<>();
+      List<Integer> indices = new ArrayList<>();
+      for (int i = 0; i < paths.size(); i++) {
+         indices.add(i);
+      }
+      AtomicInteger completed = batfish.newBatch("NodesPath queries",
+            indices.size());
+      indices.parallelStream().forEach(i -> {
+         results.put(i, computeResult(paths.get(i), jsonObject));
+         completed.incrementAndGet();
+      });
+      return results;
+   }
+
+   /**
+    * The JSON provider stores matched leaf values unwrapped, so wrap them back
+    * up as nodes
+    */
+   private static JsonNode toJsonNode(Object result) {
+      if (result == null || result instanceof JsonNode) {
+         return (JsonNode) result;
+      }
+      return new ObjectMapper().valueToTree(result);
+   }
+
+   /**
+    * Builds the JSON tree of an answer element directly from the object, so
+    * that large answers are never rendered as a single JSON string
+    */
+   static JsonNode toJsonTree(AnswerElement answerElement) {
+      BatfishObjectMapper mapper = new BatfishObjectMapper(false);
+      try {
+         return mapper.valueToTree(answerElement);
+      }
+      catch (IllegalArgumentException e) {
+         throw new BatfishException("Could not get JSON tree from answer", e);
+      }
+   }
+
    @Override
    protected Answerer createAnswerer(Question question, IBatfish batfish) {
       return new JsonPathAnswerer(question, batfish);
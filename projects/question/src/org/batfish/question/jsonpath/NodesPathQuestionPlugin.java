@@ -1,37 +1,20 @@
 package org.batfish.question.jsonpath;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.batfish.common.Answerer;
-import org.batfish.common.BatfishException;
 import org.batfish.common.plugin.IBatfish;
-import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.question.QuestionPlugin;
-import org.batfish.question.jsonpath.JsonPathResult.JsonPathResultEntry;
 import org.batfish.question.NodesQuestionPlugin.NodesAnswerer;
 import org.batfish.question.NodesQuestionPlugin.NodesQuestion;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
-import com.jayway.jsonpath.PathNotFoundException;
-import com.jayway.jsonpath.Configuration.ConfigurationBuilder;
-import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
 
 public class NodesPathQuestionPlugin extends QuestionPlugin {
 
@@ -67,11 +50,6 @@ public class NodesPathQuestionPlugin extends QuestionPlugin {
 
       @Override
       public NodesPathAnswerElement answer() {
-
-         ConfigurationBuilder b = new ConfigurationBuilder();
-         b.jsonProvider(new JacksonJsonNodeJsonProvider());
-         final Configuration c = b.build();
-
          NodesPathQuestion question = (NodesPathQuestion) _question;
          List<JsonPathQuery> paths = question.getPaths();
 
@@ -82,86 +60,10 @@ public class NodesPathQuestionPlugin extends QuestionPlugin {
          NodesAnswerer nodesAnswerer = new NodesAnswerer(nodesQuestion,
                _batfish);
          AnswerElement nodesAnswer = nodesAnswerer.answer();
-         BatfishObjectMapper mapper = new BatfishObjectMapper();
-         String nodesAnswerStr = null;
-         try {
-            nodesAnswerStr = mapper.writeValueAsString(nodesAnswer);
-         }
-         catch (IOException e) {
-            throw new BatfishException(
-                  "Could not get JSON string from nodes answer", e);
-         }
-         Object jsonObject = JsonPath.parse(nodesAnswerStr, c).json();
-         Map<Integer, JsonPathResult> results = new ConcurrentHashMap<>();
-         List<Integer> indices = new ArrayList<>();
-         for (int i = 0; i < paths.size(); i++) {
-            indices.add(i);
-         }
-         AtomicInteger completed = _batfish.newBatch("NodesPath queries",
-               indices.size());
-         indices.parallelStream().forEach(i -> {
-            JsonPathQuery nodesPath = paths.get(i);
-            String path = nodesPath.getPath();
-
-            ConfigurationBuilder prefixCb = new ConfigurationBuilder();
-            prefixCb.mappingProvider(c.mappingProvider());
-            prefixCb.jsonProvider(c.jsonProvider());
-            prefixCb.evaluationListener(c.getEvaluationListeners());
-            prefixCb.options(c.getOptions());
-            prefixCb.options(Option.ALWAYS_RETURN_LIST);
-            prefixCb.options(Option.AS_PATH_LIST);
-            Configuration prefixC = prefixCb.build();
-
-            ConfigurationBuilder suffixCb = new ConfigurationBuilder();
-            suffixCb.mappingProvider(c.mappingProvider());
-            suffixCb.jsonProvider(c.jsonProvider());
-            suffixCb.evaluationListener(c.getEvaluationListeners());
-            suffixCb.options(c.getOptions());
-            suffixCb.options(Option.ALWAYS_RETURN_LIST);
-            Configuration suffixC = suffixCb.build();
-
-            ArrayNode prefixes = null;
-            ArrayNode suffixes = null;
-            JsonPath jsonPath = JsonPath.compile(path);
-
-            try {
-               prefixes = jsonPath.read(jsonObject, prefixC);
-               suffixes = jsonPath.read(jsonObject, suffixC);
-            }
-            catch (PathNotFoundException e) {
-               suffixes = JsonNodeFactory.instance.arrayNode();
-               prefixes = JsonNodeFactory.instance.arrayNode();
-            }
-            catch (Exception e) {
-               throw new BatfishException("Error reading JSON path: " + path,
-                     e);
-            }
-            int numResults = prefixes.size();
-            JsonPathResult nodePathResult = new JsonPathResult();
-            nodePathResult.setPath(nodesPath);
-            nodePathResult.setNumResults(numResults);
-            boolean includeSuffix = nodesPath.getSuffix();
-            if (!nodesPath.getSummary()) {
-               SortedMap<String, JsonPathResultEntry> result = new TreeMap<>();
-               Iterator<JsonNode> p = prefixes.iterator();
-               Iterator<JsonNode> s = suffixes.iterator();
-               while (p.hasNext()) {
-                  JsonNode prefix = p.next();
-                  JsonNode suffix = includeSuffix ? s.next() : null;
-                  String prefixStr = prefix.textValue();
-                  if (prefixStr == null) {
-                     throw new BatfishException("Did not expect null value");
-                  }
-                  ConcreteJsonPath concretePath = new ConcreteJsonPath(
-                        prefixStr);
-                  result.put(concretePath.toString(),
-                        new JsonPathResultEntry(concretePath, suffix));
-               }
-               nodePathResult.setResult(result);
-            }
-            results.put(i, nodePathResult);
-            completed.incrementAndGet();
-         });
+
+         Map<Integer, JsonPathResult> results = JsonPathQuestionPlugin
+               .computeResults(_batfish, paths,
+                     JsonPathQuestionPlugin.toJsonTree(nodesAnswer));
          NodesPathAnswerElement answerElement = new NodesPathAnswerElement();
          answerElement.getResults().putAll(results);
 